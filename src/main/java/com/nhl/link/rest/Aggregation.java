@@ -0,0 +1,106 @@
+package com.nhl.link.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.cayenne.map.ObjAttribute;
+
+/**
+ * Describes an aggregate request: a list of group-by paths and aggregate
+ * functions calculated per group. The response of such request is a list of
+ * rows, each containing the group-by values followed by the aggregate values.
+ *
+ * @since 1.1
+ */
+public class Aggregation {
+
+	public static final String COUNT = "count";
+	public static final String SUM = "sum";
+	public static final String AVG = "avg";
+	public static final String MIN = "min";
+	public static final String MAX = "max";
+
+	private List<Column> columns;
+	private int groupByCount;
+
+	public Aggregation() {
+		this.columns = new ArrayList<>();
+	}
+
+	/**
+	 * Adds a group-by column. Group-by columns always precede the aggregate
+	 * columns.
+	 */
+	public void addGroupBy(String path, ObjAttribute attribute) {
+		columns.add(groupByCount++, new Column(path, null, path, attribute));
+	}
+
+	/**
+	 * Adds an aggregate column. 'path' and 'attribute' are null for a count
+	 * of rows.
+	 */
+	public void addAggregate(String name, String function, String path, ObjAttribute attribute) {
+		columns.add(new Column(name, function, path, attribute));
+	}
+
+	/**
+	 * Returns all columns of the aggregate result, group-by columns first.
+	 */
+	public List<Column> getColumns() {
+		return Collections.unmodifiableList(columns);
+	}
+
+	public List<Column> getGroupBy() {
+		return Collections.unmodifiableList(columns.subList(0, groupByCount));
+	}
+
+	public List<Column> getAggregates() {
+		return Collections.unmodifiableList(columns.subList(groupByCount, columns.size()));
+	}
+
+	public static class Column {
+
+		private String name;
+		private String function;
+		private String path;
+		private ObjAttribute attribute;
+
+		Column(String name, String function, String path, ObjAttribute attribute) {
+			this.name = name;
+			this.function = function;
+			this.path = path;
+			this.attribute = attribute;
+		}
+
+		/**
+		 * Returns the name of the column in the response.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns an aggregate function, or null for a group-by column.
+		 */
+		public String getFunction() {
+			return function;
+		}
+
+		/**
+		 * Returns an attribute path relative to the root entity, or null for
+		 * a count of rows.
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		/**
+		 * Returns the attribute at the end of the path, or null for a count
+		 * of rows.
+		 */
+		public ObjAttribute getAttribute() {
+			return attribute;
+		}
+	}
+}
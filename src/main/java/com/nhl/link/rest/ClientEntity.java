@@ -3,7 +3,9 @@ package com.nhl.link.rest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.map.ObjEntity;
@@ -36,7 +38,9 @@ public class ClientEntity<T> {
 	private ObjRelationship incoming;
 	private Collection<Ordering> orderings;
 	private Expression qualifier;
+	private int limit;
 	private Map<String, ClientProperty> extraProperties;
+	private Set<String> relatedIds;
 
 	public ClientEntity(Class<T> type) {
 		this.idIncluded = false;
@@ -44,6 +48,7 @@ public class ClientEntity<T> {
 		this.relationships = new HashMap<>();
 		this.orderings = new ArrayList<>(2);
 		this.extraProperties = new HashMap<>();
+		this.relatedIds = new HashSet<>();
 		this.type = type;
 	}
 
@@ -77,6 +82,23 @@ public class ClientEntity<T> {
 		}
 	}
 
+	/**
+	 * Returns a max number of related objects per source object for the
+	 * entities included via to-many relationships. Zero means no limit.
+	 * 
+	 * @since 1.1
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
 	public Collection<Ordering> getOrderings() {
 		return orderings;
 	}
@@ -93,6 +115,16 @@ public class ClientEntity<T> {
 		return extraProperties;
 	}
 
+	/**
+	 * Returns names of to-one relationships, whose related object IDs should
+	 * be included without including the related objects.
+	 * 
+	 * @since 1.1
+	 */
+	public Set<String> getRelatedIds() {
+		return relatedIds;
+	}
+
 	public boolean isIdIncluded() {
 		return idIncluded;
 	}
@@ -3,12 +3,16 @@ package com.nhl.link.rest;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.cayenne.query.PrefetchTreeNode;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.nhl.link.rest.encoder.Encoder;
 import com.nhl.link.rest.encoder.GenericEncoder;
+import com.nhl.link.rest.runtime.cache.CachedResponse;
+import com.nhl.link.rest.runtime.cache.ResponseCacheKey;
+import com.nhl.link.rest.runtime.timing.RequestTimings;
 
 /**
  * {@link DataResponse} is populated with request parts as a request processing
@@ -22,8 +26,21 @@ public class DataResponse<T> extends SimpleResponse {
 	private int fetchOffset;
 	private int fetchLimit;
 	private int prefetchSemantics;
+	private boolean prefetchSemanticsSet;
 	private List<T> objects;
+	private PrefetchedRelationships prefetchedRelationships;
+	private boolean dataRows;
+	private boolean countOnly;
+	private boolean approximateCount;
+	private Aggregation aggregation;
+	private boolean sideloading;
+	private List<?> ids;
+	private List<?> missingIds;
 	private Encoder encoder;
+	private CachedResponse cachedResponse;
+	private ResponseCacheKey cacheKey;
+	private long cacheValidSince;
+	private RequestTimings timings;
 
 	/**
 	 * @since 6.9
@@ -66,6 +83,7 @@ public class DataResponse<T> extends SimpleResponse {
 		this.prefetchSemantics = PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS;
 		this.encoder = GenericEncoder.encoder();
 		this.objects = Collections.emptyList();
+		this.timings = new RequestTimings(this);
 	}
 
 	/**
@@ -113,8 +131,25 @@ public class DataResponse<T> extends SimpleResponse {
 		return prefetchSemantics;
 	}
 
+	/**
+	 * Returns true if prefetch semantics was set explicitly via
+	 * {@link #withPrefetchSemantics(int)}. Otherwise semantics of each
+	 * relationship is left to the prefetch planner.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean isPrefetchSemanticsSet() {
+		return prefetchSemanticsSet;
+	}
+
+	/**
+	 * Sets prefetch semantics for the whole relationship tree, overriding the
+	 * semantics chosen by the prefetch planner. Semantics is one of the
+	 * {@link PrefetchTreeNode} constants.
+	 */
 	public DataResponse<T> withPrefetchSemantics(int prefetchSemantics) {
 		this.prefetchSemantics = prefetchSemantics;
+		this.prefetchSemanticsSet = true;
 		return this;
 	}
 
@@ -151,6 +186,152 @@ public class DataResponse<T> extends SimpleResponse {
 		return objects;
 	}
 
+	/**
+	 * Returns whether the response objects are Cayenne DataRows instead of the
+	 * instances of the response type.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean isDataRows() {
+		return dataRows;
+	}
+
+	/**
+	 * Sets DataRows as the response objects. Note that {@link #getObjects()}
+	 * would then return DataRows regardless of the declared type of the
+	 * response.
+	 * 
+	 * @since 1.1
+	 */
+	@SuppressWarnings("unchecked")
+	public DataResponse<T> withDataRows(List<? extends Map<String, Object>> rows) {
+		this.objects = (List<T>) rows;
+		this.dataRows = true;
+		return this;
+	}
+
+	/**
+	 * Returns whether the client requested only the total count of objects
+	 * matching the request qualifier, without the objects themselves.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean isCountOnly() {
+		return countOnly;
+	}
+
+	/**
+	 * Returns whether a recently cached count is acceptable instead of the
+	 * exact one. Only makes sense in the {@link #isCountOnly()} mode.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean isApproximateCount() {
+		return approximateCount;
+	}
+
+	/**
+	 * Switches the response to the count-only mode.
+	 * 
+	 * @since 1.1
+	 */
+	public DataResponse<T> withCountOnly(boolean approximate) {
+		this.countOnly = true;
+		this.approximateCount = approximate;
+		return this;
+	}
+
+	/**
+	 * Returns aggregate functions and group-by paths requested by the client,
+	 * or null if this is not an aggregate request.
+	 * 
+	 * @since 1.1
+	 */
+	public Aggregation getAggregation() {
+		return aggregation;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withAggregation(Aggregation aggregation) {
+		this.aggregation = aggregation;
+		return this;
+	}
+
+	/**
+	 * Returns IDs of the objects requested by the client, or null if the
+	 * objects are not selected by IDs.
+	 * 
+	 * @since 1.1
+	 */
+	public List<?> getIds() {
+		return ids;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withIds(List<?> ids) {
+		this.ids = ids;
+		return this;
+	}
+
+	/**
+	 * Returns requested IDs that have no matching objects, or null if the
+	 * objects are not selected by IDs.
+	 * 
+	 * @since 1.1
+	 */
+	public List<?> getMissingIds() {
+		return missingIds;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withMissingIds(List<?> missingIds) {
+		this.missingIds = missingIds;
+		return this;
+	}
+
+	/**
+	 * Returns whether to-one related objects should be encoded once per
+	 * object in a separate "included" section, instead of inline with each
+	 * source object.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean isSideloading() {
+		return sideloading;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withSideloading(boolean sideloading) {
+		this.sideloading = sideloading;
+		return this;
+	}
+
+	/**
+	 * Returns related objects fetched separately from the main objects, or
+	 * null if all relationships were prefetched with the main query.
+	 * 
+	 * @since 1.1
+	 */
+	public PrefetchedRelationships getPrefetchedRelationships() {
+		return prefetchedRelationships;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withPrefetchedRelationships(PrefetchedRelationships prefetchedRelationships) {
+		this.prefetchedRelationships = prefetchedRelationships;
+		return this;
+	}
+
 	/**
 	 * @since 6.9
 	 */
@@ -168,4 +349,57 @@ public class DataResponse<T> extends SimpleResponse {
 	public void writeData(JsonGenerator out) throws IOException {
 		encoder.encode("data", getObjects(), out);
 	}
+
+	/**
+	 * Returns a previously cached encoded response that should be sent to the
+	 * client instead of encoding this response data.
+	 * 
+	 * @since 1.1
+	 */
+	public CachedResponse getCachedResponse() {
+		return cachedResponse;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withCachedResponse(CachedResponse cachedResponse) {
+		this.cachedResponse = cachedResponse;
+		return this;
+	}
+
+	/**
+	 * Returns a key to cache the encoded response under, or null if the
+	 * response should not be cached.
+	 * 
+	 * @since 1.1
+	 */
+	public ResponseCacheKey getCacheKey() {
+		return cacheKey;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public long getCacheValidSince() {
+		return cacheValidSince;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public DataResponse<T> withCacheKey(ResponseCacheKey cacheKey, long validSince) {
+		this.cacheKey = cacheKey;
+		this.cacheValidSince = validSince;
+		return this;
+	}
+
+	/**
+	 * Returns timings of the request processing stages.
+	 * 
+	 * @since 1.1
+	 */
+	public RequestTimings getTimings() {
+		return timings;
+	}
 }
@@ -0,0 +1,105 @@
+package com.nhl.link.rest;
+
+import java.util.Collection;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.cayenne.exp.Property;
+
+import com.nhl.link.rest.encoder.Encoder;
+
+/**
+ * A {@link SelectBuilder} with the optional select features. Builders created
+ * by LinkRest backends implement this interface and are returned as such by
+ * {@link com.nhl.link.rest.runtime.EntityDaoLinkRestService}, while the result
+ * of {@link com.nhl.link.rest.runtime.ILinkRestService#forSelect(Class)} can
+ * be cast to it. The methods of the superinterface are overridden to allow
+ * chaining.
+ * 
+ * @since 1.1
+ */
+public interface ExtendedSelectBuilder<T> extends SelectBuilder<T> {
+
+	@Override
+	ExtendedSelectBuilder<T> with(UriInfo uriInfo);
+
+	@Override
+	ExtendedSelectBuilder<T> withDataEncoder(Encoder encoder);
+
+	@Override
+	ExtendedSelectBuilder<T> withAutocompleteOn(Property<?> autocompleteProperty);
+
+	@Override
+	ExtendedSelectBuilder<T> byId(Object id);
+
+	@Override
+	ExtendedSelectBuilder<T> withProperty(String name, ClientProperty clientProperty);
+
+	@Override
+	ExtendedSelectBuilder<T> withProperty(String name);
+
+	/**
+	 * Switches the builder to the "explain" mode. In this mode
+	 * {@link #select()} does not run any queries, and instead returns a
+	 * response describing the requested entity tree, the query that would be
+	 * executed and how pagination would be applied.
+	 * 
+	 * @since 1.1
+	 */
+	ExtendedSelectBuilder<T> explain();
+
+	/**
+	 * Sets prefetch semantics for a relationship path, overriding the
+	 * semantics chosen by the prefetch planner. Semantics is one of the
+	 * {@link org.apache.cayenne.query.PrefetchTreeNode} constants. Ignored by
+	 * the backends that do not use Cayenne prefetching.
+	 * 
+	 * @since 1.1
+	 */
+	ExtendedSelectBuilder<T> withPrefetchSemantics(String path, int semantics);
+
+	/**
+	 * Enables read-only column projection. Same as {@link #withDataRows()},
+	 * except that only the PK, the included attribute columns and the
+	 * relationship join columns are fetched for each entity.
+	 * 
+	 * @since 1.1
+	 */
+	ExtendedSelectBuilder<T> withProjection();
+
+	/**
+	 * Enables the read-only DataRow read path. The requested entity and its
+	 * included relationships are fetched as DataRows, a query per
+	 * relationship, and are encoded directly, without creating any objects or
+	 * registering them in the ObjectContext. The option is ignored if the
+	 * entity tree has custom properties, mapBy or encoder filters, or can't
+	 * be mapped to rows (e.g. has flattened attributes or compound keys).
+	 * Ignored by the backends that do not use Cayenne.
+	 * 
+	 * @since 1.1
+	 */
+	ExtendedSelectBuilder<T> withDataRows();
+
+	/**
+	 * Allows clients to send aggregate requests, with 'aggregate' and
+	 * 'groupBy' URL parameters. Such requests are executed as a single GROUP
+	 * BY query with the request qualifier, and return a list of group-by and
+	 * aggregate values instead of objects. Aggregate requests are rejected
+	 * unless explicitly allowed, as they may expose data not otherwise
+	 * available via the resource.
+	 * 
+	 * @since 1.1
+	 */
+	ExtendedSelectBuilder<T> withAggregation();
+
+	/**
+	 * Restricts the builder to select objects with the specified IDs, in
+	 * addition to the query qualifier. The objects are returned in the order
+	 * of the IDs, and the IDs with no matching objects are reported in the
+	 * response instead of failing the request. Overrides the 'ids' URL
+	 * parameter.
+	 * 
+	 * @since 1.1
+	 */
+	ExtendedSelectBuilder<T> byIds(Collection<?> ids);
+}
@@ -0,0 +1,25 @@
+package com.nhl.link.rest;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation for the persistent classes that fixes prefetch semantics of
+ * the listed relationships, overriding semantics chosen by the prefetch
+ * planner. The values are names of the relationships of the annotated class.
+ * 
+ * @since 1.1
+ */
+@Target({ TYPE })
+@Retention(RUNTIME)
+public @interface PrefetchSemantics {
+
+	String[] joint() default {};
+
+	String[] disjoint() default {};
+
+	String[] disjointById() default {};
+}
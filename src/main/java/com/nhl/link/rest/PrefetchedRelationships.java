@@ -0,0 +1,110 @@
+package com.nhl.link.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.Persistent;
+
+import com.nhl.link.rest.property.PropertyReader;
+
+/**
+ * Related objects of the relationships that were fetched separately from the
+ * source objects, grouped by the source object ID. Such lists are encoded
+ * instead of the corresponding relationship properties, as the relationships
+ * themselves are not resolved. Sources that are not {@link Persistent}
+ * objects, such as Cayenne DataRows, are grouped by equality.
+ * 
+ * @since 1.1
+ */
+public class PrefetchedRelationships {
+
+	private Map<String, Map<Object, List<Object>>> relationships;
+
+	public PrefetchedRelationships() {
+		this.relationships = new HashMap<>();
+	}
+
+	/**
+	 * Registers a relationship path as fetched, even if no related objects
+	 * were found.
+	 */
+	public void fetched(String path) {
+		if (!relationships.containsKey(path)) {
+			relationships.put(path, new HashMap<Object, List<Object>>());
+		}
+	}
+
+	public void add(String path, Object source, Object target) {
+
+		fetched(path);
+
+		Object key = key(source);
+		Map<Object, List<Object>> lists = relationships.get(path);
+		List<Object> list = lists.get(key);
+		if (list == null) {
+			list = new ArrayList<>();
+			lists.put(key, list);
+		}
+
+		list.add(target);
+	}
+
+	public boolean isFetched(String path) {
+		return relationships.containsKey(path);
+	}
+
+	public boolean isEmpty() {
+		return relationships.isEmpty();
+	}
+
+	/**
+	 * Returns related objects of the source object, preserving the order they
+	 * were fetched in.
+	 */
+	public List<?> get(String path, Object source) {
+
+		Map<Object, List<Object>> lists = relationships.get(path);
+		if (lists == null) {
+			throw new IllegalArgumentException("Relationship was not fetched: " + path);
+		}
+
+		List<Object> list = lists.get(key(source));
+		return list != null ? list : Collections.emptyList();
+	}
+
+	/**
+	 * Returns a reader of the related object lists for a given relationship
+	 * path.
+	 */
+	public PropertyReader reader(final String path) {
+		return new PropertyReader() {
+
+			@Override
+			public Object value(Object root, String name) {
+				return get(path, root);
+			}
+		};
+	}
+
+	/**
+	 * Returns a reader of the related object for a given to-one relationship
+	 * path. The reader returns null if the source has no related object.
+	 */
+	public PropertyReader toOneReader(final String path) {
+		return new PropertyReader() {
+
+			@Override
+			public Object value(Object root, String name) {
+				List<?> list = get(path, root);
+				return list.isEmpty() ? null : list.get(0);
+			}
+		};
+	}
+
+	private static Object key(Object source) {
+		return source instanceof Persistent ? ((Persistent) source).getObjectId() : source;
+	}
+}
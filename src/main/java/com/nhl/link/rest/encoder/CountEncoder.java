@@ -0,0 +1,46 @@
+package com.nhl.link.rest.encoder;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A root encoder for the count-only responses that writes an empty data list
+ * followed by a total count known upfront, in the same format as
+ * {@link RootListEncoder}.
+ * 
+ * @since 1.1
+ */
+public class CountEncoder implements Encoder {
+
+	private String totalKey;
+	private long count;
+
+	public CountEncoder(String totalKey, long count) {
+		this.totalKey = totalKey;
+		this.count = count;
+	}
+
+	@Override
+	public boolean encode(String propertyName, Object object, JsonGenerator out) throws IOException {
+		if (propertyName != null) {
+			out.writeFieldName(propertyName);
+		}
+
+		out.writeStartArray();
+		out.writeEndArray();
+
+		// same as RootListEncoder, only encoding totals after the field name
+		if (propertyName != null && totalKey != null) {
+			out.writeFieldName(totalKey);
+			out.writeNumber(count);
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean willEncode(String propertyName, Object object) {
+		return true;
+	}
+}
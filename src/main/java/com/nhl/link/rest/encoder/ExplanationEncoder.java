@@ -0,0 +1,35 @@
+package com.nhl.link.rest.encoder;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * An encoder that ignores the fetched objects and writes a request
+ * explanation instead.
+ * 
+ * @since 1.1
+ */
+public class ExplanationEncoder implements Encoder {
+
+	private Object explanation;
+
+	public ExplanationEncoder(Object explanation) {
+		this.explanation = explanation;
+	}
+
+	@Override
+	public boolean encode(String propertyName, Object object, JsonGenerator out) throws IOException {
+		if (propertyName != null) {
+			out.writeFieldName(propertyName);
+		}
+
+		out.writeObject(explanation);
+		return true;
+	}
+
+	@Override
+	public boolean willEncode(String propertyName, Object object) {
+		return true;
+	}
+}
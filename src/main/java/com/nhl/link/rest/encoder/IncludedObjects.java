@@ -0,0 +1,146 @@
+package com.nhl.link.rest.encoder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.cayenne.Persistent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Collects related objects of a side-loading response, so that each object is
+ * encoded once in the "included" section, regardless of how many response
+ * objects point to it. Objects are grouped by entity and deduplicated by
+ * ObjectId. Objects that are not {@link Persistent}, such as Cayenne
+ * DataRows, are deduplicated by equality.
+ * <p>
+ * An instance is tied to a single response encoder and is not thread-safe.
+ *
+ * @since 1.1
+ */
+public class IncludedObjects {
+
+	private Map<String, Group> groups;
+
+	public IncludedObjects() {
+		this.groups = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Registers an entity group. Groups are encoded in the order of
+	 * registration, so a group must be registered before the groups of the
+	 * entities that its objects may point to.
+	 *
+	 * @return false if the entity was already registered.
+	 */
+	public boolean addEntity(String entityName) {
+
+		if (groups.containsKey(entityName)) {
+			return false;
+		}
+
+		groups.put(entityName, new Group());
+		return true;
+	}
+
+	/**
+	 * Sets an encoder of the objects of a previously registered entity.
+	 */
+	public void setEncoder(String entityName, Encoder encoder) {
+		group(entityName).encoder = encoder;
+	}
+
+	public void add(String entityName, Object object) {
+		Group group = group(entityName);
+		if (group.keys.add(key(object))) {
+			group.objects.add(object);
+		}
+	}
+
+	/**
+	 * Returns an encoder that adds objects to the entity group instead of
+	 * writing them. Intended as an object encoder of
+	 * {@link EntityToOneEncoder}, that would still write the related object
+	 * id.
+	 */
+	public Encoder collector(final String entityName) {
+		return new Encoder() {
+
+			@Override
+			public boolean encode(String propertyName, Object object, JsonGenerator out) throws IOException {
+
+				if (object != null) {
+					add(entityName, object);
+				}
+
+				return false;
+			}
+
+			@Override
+			public boolean willEncode(String propertyName, Object object) {
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Removes previously collected objects, keeping the entity groups.
+	 */
+	public void clear() {
+		for (Group group : groups.values()) {
+			group.keys.clear();
+			group.objects.clear();
+		}
+	}
+
+	/**
+	 * Writes collected objects as a JSON object keyed by entity name. Objects
+	 * added while encoding other objects are encoded as well.
+	 */
+	public void encode(String propertyName, JsonGenerator out) throws IOException {
+
+		out.writeFieldName(propertyName);
+		out.writeStartObject();
+
+		for (Map.Entry<String, Group> e : groups.entrySet()) {
+
+			Group group = e.getValue();
+			out.writeFieldName(e.getKey());
+			out.writeStartArray();
+
+			// iterating by index, as the list may grow during encoding
+			for (int i = 0; i < group.objects.size(); i++) {
+				group.encoder.encode(null, group.objects.get(i), out);
+			}
+
+			out.writeEndArray();
+		}
+
+		out.writeEndObject();
+	}
+
+	private Group group(String entityName) {
+		Group group = groups.get(entityName);
+		if (group == null) {
+			throw new IllegalArgumentException("Entity is not registered: " + entityName);
+		}
+
+		return group;
+	}
+
+	private static Object key(Object object) {
+		return object instanceof Persistent ? ((Persistent) object).getObjectId() : object;
+	}
+
+	private static final class Group {
+
+		Encoder encoder;
+		Set<Object> keys = new HashSet<>();
+		List<Object> objects = new ArrayList<>();
+	}
+}
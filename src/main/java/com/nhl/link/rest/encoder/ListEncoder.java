@@ -11,17 +11,31 @@ import org.apache.cayenne.query.Ordering;
 import org.apache.commons.collections.ComparatorUtils;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.nhl.link.rest.exp.ExpressionCompiler;
+import com.nhl.link.rest.exp.ObjectMatcher;
 
 public class ListEncoder extends AbstractEncoder {
 
 	private Encoder elementEncoder;
 	private Collection<Ordering> orderings;
-	private Expression filter;
+	private ObjectMatcher filter;
+	private int limit;
 
 	public ListEncoder(Encoder elementEncoder, Expression filter, Collection<Ordering> orderings) {
+		this(elementEncoder, filter, orderings, 0);
+	}
+
+	/**
+	 * @param limit
+	 *            max number of elements to encode after filtering and
+	 *            sorting. Zero means no limit.
+	 * @since 1.1
+	 */
+	public ListEncoder(Encoder elementEncoder, Expression filter, Collection<Ordering> orderings, int limit) {
 		this.elementEncoder = elementEncoder;
 		this.orderings = orderings;
-		this.filter = filter;
+		this.filter = filter != null ? ExpressionCompiler.compile(filter) : null;
+		this.limit = limit > 0 ? limit : Integer.MAX_VALUE;
 	}
 
 	@Override
@@ -42,15 +56,26 @@ public class ListEncoder extends AbstractEncoder {
 	}
 
 	private void encodeWithFilter(List<?> list, JsonGenerator out) throws IOException {
+		int encoded = 0;
 		for (Object o : list) {
+			if (encoded >= limit) {
+				break;
+			}
+
 			if (filter.match(o)) {
 				elementEncoder.encode(null, o, out);
+				encoded++;
 			}
 		}
 	}
 
 	private void encodeWithNoFilter(List<?> list, JsonGenerator out) throws IOException {
+		int encoded = 0;
 		for (Object o : list) {
+			if (encoded++ >= limit) {
+				break;
+			}
+
 			elementEncoder.encode(null, o, out);
 		}
 	}
@@ -18,6 +18,8 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.nhl.link.rest.ClientEntity;
 import com.nhl.link.rest.LinkRestException;
 import com.nhl.link.rest.converter.StringConverter;
+import com.nhl.link.rest.exp.ExpressionCompiler;
+import com.nhl.link.rest.exp.ObjectMatcher;
 import com.nhl.link.rest.runtime.encoder.IStringConverterFactory;
 
 public class MapByEncoder extends AbstractEncoder {
@@ -26,7 +28,7 @@ public class MapByEncoder extends AbstractEncoder {
 	private List<PropertyReader> mapByReaders;
 	private Encoder listEncoder;
 	private StringConverter fieldNameConverter;
-	private Expression filter;
+	private ObjectMatcher filter;
 
 	public MapByEncoder(String mapByPath, Expression filter, ClientEntity<?> mapBy, Encoder listEncoder,
 			IStringConverterFactory converterFactory) {
@@ -38,7 +40,7 @@ public class MapByEncoder extends AbstractEncoder {
 		this.mapByPath = mapByPath;
 		this.mapByReaders = new ArrayList<>();
 		this.listEncoder = listEncoder;
-		this.filter = filter;
+		this.filter = filter != null ? ExpressionCompiler.compile(filter) : null;
 
 		config(converterFactory, mapBy);
 	}
@@ -15,6 +15,10 @@ public class RootListEncoder implements Encoder {
 	private String totalKey;
 	private int offset;
 	private int limit;
+	private String includedKey;
+	private IncludedObjects included;
+	private String missingIdsKey;
+	private List<?> missingIds;
 
 	public RootListEncoder(Encoder elementEncoder) {
 		this.elementEncoder = elementEncoder;
@@ -35,6 +39,30 @@ public class RootListEncoder implements Encoder {
 		return this;
 	}
 
+	/**
+	 * Enables side-loading, writing related objects collected while encoding
+	 * the list under a given key after the totals.
+	 * 
+	 * @since 1.1
+	 */
+	public RootListEncoder withIncluded(String includedKey, IncludedObjects included) {
+		this.includedKey = includedKey;
+		this.included = included;
+		return this;
+	}
+
+	/**
+	 * Writes a list of requested IDs that have no matching objects under a
+	 * given key after the totals.
+	 * 
+	 * @since 1.1
+	 */
+	public RootListEncoder withMissingIds(String missingIdsKey, List<?> missingIds) {
+		this.missingIdsKey = missingIdsKey;
+		this.missingIds = missingIds;
+		return this;
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Override
 	public boolean encode(String propertyName, Object object, JsonGenerator out) throws IOException {
@@ -51,6 +79,10 @@ public class RootListEncoder implements Encoder {
 					+ object.getClass().getName());
 		}
 
+		if (included != null) {
+			included.clear();
+		}
+
 		out.writeStartArray();
 
 		List<?> objects = (List) object;
@@ -72,6 +104,19 @@ public class RootListEncoder implements Encoder {
 			out.writeNumber(counter.getTotal());
 		}
 
+		if (propertyName != null && missingIds != null) {
+			out.writeFieldName(missingIdsKey);
+			out.writeStartArray();
+			for (Object id : missingIds) {
+				GenericEncoder.encoder().encode(null, id, out);
+			}
+			out.writeEndArray();
+		}
+
+		if (propertyName != null && included != null) {
+			included.encode(includedKey, out);
+		}
+
 		// regardless of the list contents, our encoding has succeeded...
 		return true;
 	}
@@ -0,0 +1,503 @@
+package com.nhl.link.rest.exp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionParameter;
+import org.apache.cayenne.exp.parser.ASTObjPath;
+
+/**
+ * Compiles Cayenne expressions into {@link ObjectMatcher}s, that evaluate the
+ * same conditions as {@link Expression#match(Object)} without interpreting
+ * the expression tree and resolving properties by name for every object.
+ * Bean property getters are cached per path and object class, constants
+ * are converted at compile time, LIKE patterns are compiled to regular
+ * expressions, and IN lists are turned into hash sets.
+ * <p>
+ * Supported are comparisons, (NOT) LIKE, (NOT) LIKE IGNORE CASE, (NOT) IN,
+ * (NOT) BETWEEN, AND, OR and NOT with object paths through to-one
+ * relationships compared to constants. Anything else, e.g. DB paths,
+ * unresolved parameters or paths through to-many relationships, is evaluated
+ * with {@link Expression#match(Object)} of the corresponding subexpression.
+ * Numbers are compared by value regardless of their wrapper types.
+ *
+ * @since 1.1
+ */
+public class ExpressionCompiler {
+
+	private ExpressionCompiler() {
+	}
+
+	public static ObjectMatcher compile(Expression expression) {
+
+		if (expression == null) {
+			throw new NullPointerException("Null expression");
+		}
+
+		ObjectMatcher matcher = compileNode(expression);
+		return matcher != null ? matcher : new FallbackMatcher(expression);
+	}
+
+	private static ObjectMatcher compileNode(Expression e) {
+
+		switch (e.getType()) {
+		case Expression.AND:
+		case Expression.OR:
+			ObjectMatcher[] children = new ObjectMatcher[e.getOperandCount()];
+			for (int i = 0; i < children.length; i++) {
+				Object operand = e.getOperand(i);
+				if (!(operand instanceof Expression)) {
+					return null;
+				}
+
+				children[i] = compile((Expression) operand);
+			}
+
+			return e.getType() == Expression.AND ? new AndMatcher(children) : new OrMatcher(children);
+
+		case Expression.NOT:
+			Object negated = e.getOperand(0);
+			return negated instanceof Expression ? new NotMatcher(compile((Expression) negated)) : null;
+
+		case Expression.TRUE:
+			return new ConstantMatcher(true);
+		case Expression.FALSE:
+			return new ConstantMatcher(false);
+
+		case Expression.EQUAL_TO:
+		case Expression.NOT_EQUAL_TO:
+		case Expression.LESS_THAN:
+		case Expression.LESS_THAN_EQUAL_TO:
+		case Expression.GREATER_THAN:
+		case Expression.GREATER_THAN_EQUAL_TO:
+			return comparison(e);
+
+		case Expression.BETWEEN:
+		case Expression.NOT_BETWEEN:
+			return between(e);
+
+		case Expression.IN:
+		case Expression.NOT_IN:
+			return in(e);
+
+		case Expression.LIKE:
+		case Expression.NOT_LIKE:
+		case Expression.LIKE_IGNORE_CASE:
+		case Expression.NOT_LIKE_IGNORE_CASE:
+			return like(e);
+
+		default:
+			return null;
+		}
+	}
+
+	private static ObjectMatcher comparison(Expression e) {
+
+		PathReader path = path(e);
+		if (path == null || !isConstant(e.getOperand(1))) {
+			return null;
+		}
+
+		return new ComparisonMatcher(e, path, e.getType(), e.getOperand(1));
+	}
+
+	private static ObjectMatcher between(Expression e) {
+
+		PathReader path = path(e);
+		if (path == null || e.getOperandCount() != 3) {
+			return null;
+		}
+
+		if (!isConstant(e.getOperand(1)) || !isConstant(e.getOperand(2))) {
+			return null;
+		}
+
+		return new BetweenMatcher(e, path, e.getOperand(1), e.getOperand(2), e.getType() == Expression.NOT_BETWEEN);
+	}
+
+	private static ObjectMatcher in(Expression e) {
+
+		PathReader path = path(e);
+		if (path == null) {
+			return null;
+		}
+
+		Object list = e.getOperand(1);
+
+		// ASTList
+		if (list instanceof Expression && ((Expression) list).getOperandCount() == 1) {
+			list = ((Expression) list).getOperand(0);
+		}
+
+		Collection<?> values;
+		if (list instanceof Object[]) {
+			values = Arrays.asList((Object[]) list);
+		} else if (list instanceof Collection) {
+			values = (Collection<?>) list;
+		} else {
+			return null;
+		}
+
+		for (Object value : values) {
+			if (!isConstant(value)) {
+				return null;
+			}
+		}
+
+		return new InMatcher(e, path, values, e.getType() == Expression.NOT_IN);
+	}
+
+	private static ObjectMatcher like(Expression e) {
+
+		PathReader path = path(e);
+		if (path == null || !(e.getOperand(1) instanceof String)) {
+			return null;
+		}
+
+		int type = e.getType();
+		boolean ignoreCase = type == Expression.LIKE_IGNORE_CASE || type == Expression.NOT_LIKE_IGNORE_CASE;
+		boolean not = type == Expression.NOT_LIKE || type == Expression.NOT_LIKE_IGNORE_CASE;
+		return new LikeMatcher(e, path, likePattern((String) e.getOperand(1), ignoreCase), not);
+	}
+
+	/**
+	 * Converts a LIKE pattern to a regular expression. A backslash escapes
+	 * the following character, as in the patterns produced by LinkRest
+	 * filters.
+	 */
+	static Pattern likePattern(String pattern, boolean ignoreCase) {
+
+		StringBuilder regex = new StringBuilder(pattern.length() + 8);
+		StringBuilder literal = new StringBuilder();
+
+		int len = pattern.length();
+		for (int i = 0; i < len; i++) {
+			char c = pattern.charAt(i);
+
+			if (c == '\\' && i + 1 < len) {
+				literal.append(pattern.charAt(++i));
+			} else if (c == '%' || c == '_') {
+				if (literal.length() > 0) {
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+
+				regex.append(c == '%' ? ".*" : ".");
+			} else {
+				literal.append(c);
+			}
+		}
+
+		if (literal.length() > 0) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+
+		int flags = Pattern.DOTALL;
+		if (ignoreCase) {
+			flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+		}
+
+		return Pattern.compile(regex.toString(), flags);
+	}
+
+	private static PathReader path(Expression e) {
+
+		if (e.getOperandCount() < 2) {
+			return null;
+		}
+
+		Object path = e.getOperand(0);
+		return path instanceof ASTObjPath ? new PathReader(String.valueOf(((ASTObjPath) path).getOperand(0))) : null;
+	}
+
+	private static boolean isConstant(Object operand) {
+		// paths, subexpressions and unresolved parameters are not constants;
+		// comparisons with persistent objects follow Cayenne rules
+		return !(operand instanceof Expression) && !(operand instanceof ExpressionParameter)
+				&& !(operand instanceof Persistent);
+	}
+
+	private static final class FallbackMatcher implements ObjectMatcher {
+
+		private Expression expression;
+
+		FallbackMatcher(Expression expression) {
+			this.expression = expression;
+		}
+
+		@Override
+		public boolean match(Object object) {
+			return expression.match(object);
+		}
+	}
+
+	private static final class ConstantMatcher implements ObjectMatcher {
+
+		private boolean value;
+
+		ConstantMatcher(boolean value) {
+			this.value = value;
+		}
+
+		@Override
+		public boolean match(Object object) {
+			return value;
+		}
+	}
+
+	private static final class AndMatcher implements ObjectMatcher {
+
+		private ObjectMatcher[] children;
+
+		AndMatcher(ObjectMatcher[] children) {
+			this.children = children;
+		}
+
+		@Override
+		public boolean match(Object object) {
+			for (ObjectMatcher child : children) {
+				if (!child.match(object)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	private static final class OrMatcher implements ObjectMatcher {
+
+		private ObjectMatcher[] children;
+
+		OrMatcher(ObjectMatcher[] children) {
+			this.children = children;
+		}
+
+		@Override
+		public boolean match(Object object) {
+			for (ObjectMatcher child : children) {
+				if (child.match(object)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	private static final class NotMatcher implements ObjectMatcher {
+
+		private ObjectMatcher child;
+
+		NotMatcher(ObjectMatcher child) {
+			this.child = child;
+		}
+
+		@Override
+		public boolean match(Object object) {
+			return !child.match(object);
+		}
+	}
+
+	/**
+	 * A condition on a path value, that falls back to the original expression
+	 * for the values it can't evaluate.
+	 */
+	private static abstract class PathMatcher implements ObjectMatcher {
+
+		private Expression expression;
+		private PathReader path;
+
+		PathMatcher(Expression expression, PathReader path) {
+			this.expression = expression;
+			this.path = path;
+		}
+
+		@Override
+		public boolean match(Object object) {
+
+			Object value = path.read(object);
+			if (value == PathReader.UNSUPPORTED || value instanceof Persistent) {
+				return expression.match(object);
+			}
+
+			return matchValue(value);
+		}
+
+		abstract boolean matchValue(Object value);
+	}
+
+	private static final class ComparisonMatcher extends PathMatcher {
+
+		private int type;
+		private Object constant;
+
+		ComparisonMatcher(Expression expression, PathReader path, int type, Object constant) {
+			super(expression, path);
+			this.type = type;
+			this.constant = constant;
+		}
+
+		@Override
+		boolean matchValue(Object value) {
+
+			switch (type) {
+			case Expression.EQUAL_TO:
+				return Values.equal(value, constant);
+			case Expression.NOT_EQUAL_TO:
+				return !Values.equal(value, constant);
+			default:
+				break;
+			}
+
+			// comparisons with null are false
+			if (value == null || constant == null) {
+				return false;
+			}
+
+			Integer c = Values.compare(value, constant);
+			if (c == null) {
+				return false;
+			}
+
+			switch (type) {
+			case Expression.LESS_THAN:
+				return c < 0;
+			case Expression.LESS_THAN_EQUAL_TO:
+				return c <= 0;
+			case Expression.GREATER_THAN:
+				return c > 0;
+			case Expression.GREATER_THAN_EQUAL_TO:
+				return c >= 0;
+			default:
+				throw new IllegalStateException("Unexpected comparison: " + type);
+			}
+		}
+	}
+
+	private static final class BetweenMatcher extends PathMatcher {
+
+		private Object lower;
+		private Object upper;
+		private boolean not;
+
+		BetweenMatcher(Expression expression, PathReader path, Object lower, Object upper, boolean not) {
+			super(expression, path);
+			this.lower = lower;
+			this.upper = upper;
+			this.not = not;
+		}
+
+		@Override
+		boolean matchValue(Object value) {
+
+			if (value == null || lower == null || upper == null) {
+				return false;
+			}
+
+			Integer c1 = Values.compare(value, lower);
+			Integer c2 = Values.compare(value, upper);
+			if (c1 == null || c2 == null) {
+				return false;
+			}
+
+			boolean between = c1 >= 0 && c2 <= 0;
+			return between != not;
+		}
+	}
+
+	private static final class InMatcher extends PathMatcher {
+
+		// hashed values of the types with consistent equals/hashCode
+		private Set<Object> hashed;
+
+		// values that must be compared one by one, such as BigDecimals
+		private List<Object> other;
+		private boolean not;
+
+		InMatcher(Expression expression, PathReader path, Collection<?> values, boolean not) {
+			super(expression, path);
+			this.not = not;
+			this.hashed = new HashSet<>();
+			this.other = new ArrayList<>();
+
+			for (Object value : values) {
+				if (value == null) {
+					continue;
+				}
+
+				if (value instanceof String || Values.isIntegral(value)) {
+					hashed.add(Values.normalize(value));
+				} else {
+					other.add(value);
+				}
+			}
+		}
+
+		@Override
+		boolean matchValue(Object value) {
+
+			// same as in SQL, null is neither in nor not in any list
+			if (value == null) {
+				return false;
+			}
+
+			boolean in = contains(value);
+			return in != not;
+		}
+
+		private boolean contains(Object value) {
+
+			if (value instanceof String || Values.isIntegral(value)) {
+				if (hashed.contains(Values.normalize(value))) {
+					return true;
+				}
+			} else if (value instanceof Number) {
+				// e.g. a BigDecimal equal to one of the integers
+				for (Object h : hashed) {
+					if (Values.equal(value, h)) {
+						return true;
+					}
+				}
+			}
+
+			for (Object o : other) {
+				if (Values.equal(value, o)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+
+	private static final class LikeMatcher extends PathMatcher {
+
+		private Pattern pattern;
+		private boolean not;
+
+		LikeMatcher(Expression expression, PathReader path, Pattern pattern, boolean not) {
+			super(expression, path);
+			this.pattern = pattern;
+			this.not = not;
+		}
+
+		@Override
+		boolean matchValue(Object value) {
+
+			if (value == null) {
+				return false;
+			}
+
+			boolean like = pattern.matcher(value.toString()).matches();
+			return like != not;
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.nhl.link.rest.exp;
+
+/**
+ * A predicate evaluated against objects in memory, usually compiled from a
+ * Cayenne expression by {@link ExpressionCompiler}.
+ *
+ * @since 1.1
+ */
+public interface ObjectMatcher {
+
+	boolean match(Object object);
+}
@@ -0,0 +1,77 @@
+package com.nhl.link.rest.exp;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.cayenne.DataObject;
+
+import com.nhl.link.rest.property.BeanPropertyReader;
+import com.nhl.link.rest.property.PropertyReader;
+
+/**
+ * Reads a value of a dot-separated object path. DataObjects and Maps (such as
+ * DataRows) are read directly, while other objects are read with the cached
+ * bean getters.
+ *
+ * @since 1.1
+ */
+final class PathReader {
+
+	/**
+	 * Returned when the path crosses a to-many relationship, which has the
+	 * "any of" semantics not supported by the compiled expressions.
+	 */
+	static final Object UNSUPPORTED = new Object();
+
+	private Segment[] segments;
+
+	PathReader(String path) {
+		String[] names = path.split("\\.");
+		this.segments = new Segment[names.length];
+		for (int i = 0; i < names.length; i++) {
+			segments[i] = new Segment(names[i]);
+		}
+	}
+
+	Object read(Object root) {
+
+		Object value = root;
+		for (Segment segment : segments) {
+
+			if (value == null) {
+				return null;
+			}
+
+			value = segment.read(value);
+			if (value instanceof Collection) {
+				return UNSUPPORTED;
+			}
+		}
+
+		return value;
+	}
+
+	private static final class Segment {
+
+		private String name;
+		private PropertyReader beanReader;
+
+		Segment(String name) {
+			this.name = name;
+			this.beanReader = BeanPropertyReader.reader(name);
+		}
+
+		Object read(Object object) {
+
+			if (object instanceof DataObject) {
+				return ((DataObject) object).readProperty(name);
+			}
+
+			if (object instanceof Map) {
+				return ((Map<?, ?>) object).get(name);
+			}
+
+			return beanReader.value(object, name);
+		}
+	}
+}
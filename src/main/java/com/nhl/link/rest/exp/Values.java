@@ -0,0 +1,99 @@
+package com.nhl.link.rest.exp;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Comparison rules of the compiled expressions. Unlike
+ * {@link org.apache.cayenne.exp.Expression#match(Object)}, numbers are
+ * compared by value regardless of their wrapper types, so that e.g. an int
+ * property matches a long constant.
+ *
+ * @since 1.1
+ */
+final class Values {
+
+	private Values() {
+	}
+
+	static boolean equal(Object v1, Object v2) {
+
+		if (v1 == null || v2 == null) {
+			return v1 == v2;
+		}
+
+		if (v1 instanceof Number && v2 instanceof Number) {
+			Integer c = compare(v1, v2);
+			return c != null && c.intValue() == 0;
+		}
+
+		return v1.equals(v2);
+	}
+
+	/**
+	 * Returns the result of comparison of two non-null values, or null if the
+	 * values are not comparable with each other.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Integer compare(Object v1, Object v2) {
+
+		if (v1 instanceof Number && v2 instanceof Number) {
+			return compareNumbers((Number) v1, (Number) v2);
+		}
+
+		if (v1 instanceof Comparable && (v1.getClass().isInstance(v2) || v2.getClass().isInstance(v1))) {
+			try {
+				return ((Comparable) v1).compareTo(v2);
+			} catch (ClassCastException e) {
+				return null;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Converts integer numbers to Longs, so that they can be looked up in
+	 * hash-based collections regardless of their wrapper type.
+	 */
+	static Object normalize(Object value) {
+		return isIntegral(value) ? Long.valueOf(((Number) value).longValue()) : value;
+	}
+
+	static boolean isIntegral(Object value) {
+		return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+	}
+
+	private static int compareNumbers(Number n1, Number n2) {
+
+		if (isIntegral(n1) && isIntegral(n2)) {
+			long l1 = n1.longValue();
+			long l2 = n2.longValue();
+			return l1 < l2 ? -1 : (l1 == l2 ? 0 : 1);
+		}
+
+		if (n1 instanceof BigDecimal || n2 instanceof BigDecimal || n1 instanceof BigInteger
+				|| n2 instanceof BigInteger) {
+			try {
+				return toBigDecimal(n1).compareTo(toBigDecimal(n2));
+			} catch (NumberFormatException e) {
+				// NaN or infinity
+			}
+		}
+
+		return Double.compare(n1.doubleValue(), n2.doubleValue());
+	}
+
+	private static BigDecimal toBigDecimal(Number n) {
+
+		if (n instanceof BigDecimal) {
+			return (BigDecimal) n;
+		}
+
+		if (n instanceof BigInteger) {
+			return new BigDecimal((BigInteger) n);
+		}
+
+		return isIntegral(n) ? BigDecimal.valueOf(n.longValue()) : BigDecimal.valueOf(n.doubleValue());
+	}
+}
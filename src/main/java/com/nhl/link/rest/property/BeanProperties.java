@@ -0,0 +1,161 @@
+package com.nhl.link.rest.property;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.reflect.PropertyUtils;
+
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+
+/**
+ * Readable properties of a Java bean class. Introspection is done once per
+ * class and shared by the entity metadata builders, property readers and
+ * compiled expressions. The cache is a {@link ClassValue}, so it doesn't
+ * prevent the bean classes from being unloaded. It is exposed to the cache
+ * registry via {@link #managedCache()}.
+ *
+ * @since 1.1
+ */
+public class BeanProperties {
+
+	private static final ClassValue<BeanProperties> CACHE = new ClassValue<BeanProperties>() {
+
+		@Override
+		protected BeanProperties computeValue(Class<?> type) {
+			TYPES.add(type);
+			MISSES.incrementAndGet();
+			return new BeanProperties(type);
+		}
+	};
+
+	// ClassValue can't be iterated, so the cached types are tracked
+	// separately, without holding on to them
+	private static final Set<Class<?>> TYPES = Collections.synchronizedSet(Collections
+			.newSetFromMap(new WeakHashMap<Class<?>, Boolean>()));
+	private static final AtomicLong MISSES = new AtomicLong();
+	private static final AtomicLong EVICTIONS = new AtomicLong();
+
+	private static final ManagedCache MANAGED_CACHE = new ManagedCache() {
+
+		@Override
+		public String getName() {
+			return "linkrest.property.beans";
+		}
+
+		@Override
+		public int getSize() {
+			return TYPES.size();
+		}
+
+		// hits are not counted to keep the lookups cheap
+		@Override
+		public long getHits() {
+			return -1;
+		}
+
+		@Override
+		public long getMisses() {
+			return MISSES.get();
+		}
+
+		@Override
+		public long getEvictions() {
+			return EVICTIONS.get();
+		}
+
+		@Override
+		public long getEstimatedBytes() {
+			return -1;
+		}
+
+		@Override
+		public void clear() {
+
+			List<Class<?>> types;
+			synchronized (TYPES) {
+				types = new ArrayList<>(TYPES);
+				TYPES.clear();
+			}
+
+			for (Class<?> type : types) {
+				CACHE.remove(type);
+			}
+
+			EVICTIONS.addAndGet(types.size());
+		}
+	};
+
+	private Map<String, BeanProperty> properties;
+
+	public static BeanProperties forType(Class<?> type) {
+		return CACHE.get(type);
+	}
+
+	/**
+	 * Returns a view of the per-class cache of bean properties shared by all
+	 * LinkRest runtimes.
+	 */
+	public static ManagedCache managedCache() {
+		return MANAGED_CACHE;
+	}
+
+	private BeanProperties(Class<?> type) {
+
+		BeanInfo info;
+		try {
+			info = Introspector.getBeanInfo(type);
+		} catch (IntrospectionException e) {
+			throw new RuntimeException("Error getting bean properties from " + type.getName(), e);
+		}
+
+		Map<String, BeanProperty> properties = new LinkedHashMap<>();
+		for (PropertyDescriptor pd : info.getPropertyDescriptors()) {
+
+			Method getter = pd.getReadMethod();
+
+			// skipping write-only properties and 'getClass'
+			if (getter == null || getter.getDeclaringClass().equals(Object.class)) {
+				continue;
+			}
+
+			properties.put(pd.getName(),
+					new BeanProperty(pd.getName(), pd.getPropertyType(), getter, pd.getWriteMethod()));
+		}
+
+		this.properties = Collections.unmodifiableMap(properties);
+	}
+
+	public Collection<BeanProperty> getProperties() {
+		return properties.values();
+	}
+
+	/**
+	 * Returns a readable property for a given name or null if there's no
+	 * such property.
+	 */
+	public BeanProperty getProperty(String name) {
+		return properties.get(name);
+	}
+
+	/**
+	 * Reads a property of a bean of this class. Names of the properties
+	 * without getters are resolved by {@link PropertyUtils}, so nested paths
+	 * are supported too.
+	 */
+	public Object read(Object bean, String name) {
+		BeanProperty property = properties.get(name);
+		return property != null ? property.read(bean) : PropertyUtils.getProperty(bean, name);
+	}
+}
@@ -0,0 +1,115 @@
+package com.nhl.link.rest.property;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.core.Response.Status;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * A readable property of a Java bean class with its getter and its optional
+ * setter resolved upfront.
+ *
+ * @since 1.1
+ */
+public class BeanProperty {
+
+	private String name;
+	private Class<?> type;
+	private Class<?> elementType;
+	private Method getter;
+	private Method setter;
+
+	BeanProperty(String name, Class<?> type, Method getter, Method setter) {
+		this.name = name;
+		this.type = type;
+		this.getter = getter;
+		this.setter = setter;
+		this.elementType = elementType(getter.getGenericReturnType());
+
+		// bean classes are often package-private
+		try {
+			getter.setAccessible(true);
+
+			if (setter != null) {
+				setter.setAccessible(true);
+			}
+		} catch (SecurityException e) {
+			// will try to invoke as is
+		}
+	}
+
+	private static Class<?> elementType(Type genericType) {
+
+		if (genericType instanceof ParameterizedType) {
+			Type[] args = ((ParameterizedType) genericType).getActualTypeArguments();
+			if (args.length == 1 && args[0] instanceof Class) {
+				return (Class<?>) args[0];
+			}
+		}
+
+		return null;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns a type argument of a property declared as a parameterized type
+	 * with a single class argument, such as {@code List<Foo>}, or null for
+	 * other properties.
+	 */
+	public Class<?> getElementType() {
+		return elementType;
+	}
+
+	public Method getGetter() {
+		return getter;
+	}
+
+	/**
+	 * Returns a setter of the property or null for read-only properties.
+	 */
+	public Method getSetter() {
+		return setter;
+	}
+
+	public boolean isWritable() {
+		return setter != null;
+	}
+
+	public Object read(Object bean) {
+		try {
+			return getter.invoke(bean);
+		} catch (IllegalAccessException e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error reading property '" + name + "'", e);
+		} catch (InvocationTargetException e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error reading property '" + name + "'",
+					e.getCause());
+		}
+	}
+
+	public void write(Object bean, Object value) {
+
+		if (setter == null) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Property '" + name + "' is read-only");
+		}
+
+		try {
+			setter.invoke(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error writing property '" + name + "'", e);
+		} catch (InvocationTargetException e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error writing property '" + name + "'",
+					e.getCause());
+		}
+	}
+}
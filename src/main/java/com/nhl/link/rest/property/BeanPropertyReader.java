@@ -1,5 +1,7 @@
 package com.nhl.link.rest.property;
 
+import java.util.Map;
+
 import org.apache.cayenne.reflect.PropertyUtils;
 
 public class BeanPropertyReader implements PropertyReader {
@@ -13,15 +15,47 @@ public class BeanPropertyReader implements PropertyReader {
 	public static PropertyReader reader(final String fixedPropertyName) {
 		return new PropertyReader() {
 
+			// the objects read by a given reader are almost always of the same
+			// class, so remembering the last property saves a lookup
+			private volatile CachedProperty last;
+
 			@Override
 			public Object value(Object root, String name) {
-				return PropertyUtils.getProperty(root, fixedPropertyName);
+
+				if (root instanceof Map) {
+					return PropertyUtils.getProperty(root, fixedPropertyName);
+				}
+
+				CachedProperty last = this.last;
+				if (last == null || last.type != root.getClass()) {
+					last = new CachedProperty(root.getClass(), fixedPropertyName);
+					this.last = last;
+				}
+
+				return last.property != null ? last.property.read(root) : PropertyUtils.getProperty(root,
+						fixedPropertyName);
 			}
 		};
 	}
 
 	@Override
 	public Object value(Object root, String name) {
-		return PropertyUtils.getProperty(root, name);
+
+		if (root instanceof Map) {
+			return PropertyUtils.getProperty(root, name);
+		}
+
+		return BeanProperties.forType(root.getClass()).read(root, name);
+	}
+
+	private static final class CachedProperty {
+
+		final Class<?> type;
+		final BeanProperty property;
+
+		CachedProperty(Class<?> type, String name) {
+			this.type = type;
+			this.property = BeanProperties.forType(type).getProperty(name);
+		}
 	}
 }
@@ -0,0 +1,175 @@
+package com.nhl.link.rest.property;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.cayenne.ExtendedEnumeration;
+
+/**
+ * Reads values from Cayenne DataRows (or any other maps) by a fixed column
+ * name, regardless of the name of the property being encoded. Optionally
+ * converts the values to the Java type of the mapped attribute, the same way
+ * Cayenne would when reading the column into an object, as the DataRows of
+ * custom column queries contain values of the default JDBC types (e.g. a
+ * SMALLINT instead of a Boolean, or an ordinal instead of an enum).
+ *
+ * @since 1.1
+ */
+public class DataRowPropertyReader implements PropertyReader {
+
+	private String column;
+	private Class<?> type;
+
+	public static PropertyReader reader(String column) {
+		return new DataRowPropertyReader(column, null);
+	}
+
+	/**
+	 * Returns a reader that converts the column values to a given type. The
+	 * type must be one of the types for which {@link #canConvert(Class)}
+	 * returns true.
+	 */
+	public static PropertyReader reader(String column, Class<?> type) {
+		return new DataRowPropertyReader(column, wrapperType(type));
+	}
+
+	/**
+	 * Returns whether the values of the default JDBC types can be converted to
+	 * a given attribute type. Types handled by custom Cayenne ExtendedTypes
+	 * can't be converted outside of Cayenne.
+	 */
+	public static boolean canConvert(Class<?> type) {
+
+		type = wrapperType(type);
+
+		return type.isEnum() || type == String.class || type == Boolean.class || type == Integer.class
+				|| type == Long.class || type == Short.class || type == Byte.class || type == Double.class
+				|| type == Float.class || type == BigDecimal.class || type == BigInteger.class
+				|| Date.class.isAssignableFrom(type) || type == byte[].class;
+	}
+
+	private DataRowPropertyReader(String column, Class<?> type) {
+		this.column = column;
+		this.type = type;
+	}
+
+	@Override
+	public Object value(Object root, String name) {
+		Object value = ((Map<?, ?>) root).get(column);
+		return type != null ? convert(value, type) : value;
+	}
+
+	static Object convert(Object value, Class<?> type) {
+
+		if (value == null || type.isInstance(value)) {
+			return value;
+		}
+
+		if (type.isEnum()) {
+			return toEnum(value, type);
+		}
+
+		if (type == Boolean.class) {
+			if (value instanceof Number) {
+				return ((Number) value).intValue() != 0;
+			}
+
+			return "1".equals(value) || Boolean.valueOf(value.toString());
+		}
+
+		if (value instanceof Number) {
+			return toNumber((Number) value, type);
+		}
+
+		return value;
+	}
+
+	private static Object toEnum(Object value, Class<?> type) {
+
+		Object[] constants = type.getEnumConstants();
+
+		// same rules as Cayenne EnumType: custom DB values, ordinals for
+		// numeric columns and names for character columns
+		if (ExtendedEnumeration.class.isAssignableFrom(type)) {
+			for (Object constant : constants) {
+				Object dbValue = ((ExtendedEnumeration) constant).getDatabaseValue();
+				if (value.equals(dbValue) || sameNumber(value, dbValue)) {
+					return constant;
+				}
+			}
+
+			throw new IllegalArgumentException("Invalid value of " + type.getName() + ": " + value);
+		}
+
+		if (value instanceof Number) {
+			return constants[((Number) value).intValue()];
+		}
+
+		for (Object constant : constants) {
+			if (((Enum<?>) constant).name().equals(value.toString())) {
+				return constant;
+			}
+		}
+
+		throw new IllegalArgumentException("Invalid value of " + type.getName() + ": " + value);
+	}
+
+	// DB values of the same number may be read as different wrapper types
+	private static boolean sameNumber(Object v1, Object v2) {
+		return v1 instanceof Number && v2 instanceof Number && ((Number) v1).longValue() == ((Number) v2).longValue();
+	}
+
+	private static Object toNumber(Number value, Class<?> type) {
+
+		if (type == Integer.class) {
+			return value.intValue();
+		} else if (type == Long.class) {
+			return value.longValue();
+		} else if (type == Short.class) {
+			return value.shortValue();
+		} else if (type == Byte.class) {
+			return value.byteValue();
+		} else if (type == Double.class) {
+			return value.doubleValue();
+		} else if (type == Float.class) {
+			return value.floatValue();
+		} else if (type == BigDecimal.class) {
+			return value instanceof BigInteger ? new BigDecimal((BigInteger) value) : new BigDecimal(
+					value.toString());
+		} else if (type == BigInteger.class) {
+			return value instanceof BigDecimal ? ((BigDecimal) value).toBigInteger() : BigInteger.valueOf(value
+					.longValue());
+		}
+
+		return value;
+	}
+
+	private static Class<?> wrapperType(Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			return type;
+		}
+
+		if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == char.class) {
+			return Character.class;
+		}
+
+		return type;
+	}
+}
@@ -0,0 +1,88 @@
+package com.nhl.link.rest.property;
+
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.Fault;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.map.DbRelationship;
+import org.apache.cayenne.map.ObjRelationship;
+
+/**
+ * Reads an ObjectId of the object related to a DataObject via a to-one
+ * relationship without faulting the related object. If the relationship is
+ * resolved, the id is taken from the related object, that may still be
+ * hollow. Otherwise it is built from the FK values in the snapshot of the
+ * source object. Only if neither is possible, e.g. the source object is new
+ * or the FK is on the target side, the relationship is resolved.
+ *
+ * @since 1.1
+ */
+public class RelatedObjectIdPropertyReader implements PropertyReader {
+
+	private String relationshipName;
+	private String targetEntityName;
+	private DbRelationship fkRelationship;
+
+	public static PropertyReader reader(ObjRelationship relationship) {
+		return new RelatedObjectIdPropertyReader(relationship);
+	}
+
+	private RelatedObjectIdPropertyReader(ObjRelationship relationship) {
+
+		if (relationship.isToMany()) {
+			throw new IllegalArgumentException("Not a to-one relationship: " + relationship.getName());
+		}
+
+		this.relationshipName = relationship.getName();
+		this.targetEntityName = relationship.getTargetEntityName();
+
+		// a snapshot only contains FKs of the source entity, and the target id
+		// can only be built from them if they point to the target PK
+		if (!relationship.isFlattened()) {
+			DbRelationship dbRelationship = relationship.getDbRelationships().get(0);
+			if (dbRelationship.isToPK() && !dbRelationship.isToDependentPK()) {
+				this.fkRelationship = dbRelationship;
+			}
+		}
+	}
+
+	@Override
+	public Object value(Object root, String name) {
+
+		DataObject source = (DataObject) root;
+
+		Object target = source.readPropertyDirectly(relationshipName);
+		if (target instanceof Persistent) {
+			return ((Persistent) target).getObjectId();
+		}
+
+		if (!(target instanceof Fault)) {
+			// resolved to null
+			return null;
+		}
+
+		DataRow snapshot = snapshot(source);
+		if (snapshot != null) {
+			return snapshot.createTargetObjectId(targetEntityName, fkRelationship);
+		}
+
+		Object resolved = source.readProperty(relationshipName);
+		return resolved != null ? ((Persistent) resolved).getObjectId() : null;
+	}
+
+	private DataRow snapshot(Persistent source) {
+
+		if (fkRelationship == null) {
+			return null;
+		}
+
+		ObjectContext context = source.getObjectContext();
+		if (!(context instanceof DataContext) || source.getObjectId().isTemporary()) {
+			return null;
+		}
+
+		return ((DataContext) context).getObjectStore().getSnapshot(source.getObjectId());
+	}
+}
@@ -56,12 +56,21 @@ public abstract class BaseResponseWriter<T extends SimpleResponse> implements Me
 
 	private IJacksonService getJacksonService() {
 		if (jacksonService == null) {
-			jacksonService = LinkRestRuntime.service(IJacksonService.class, configuration);
+			jacksonService = service(IJacksonService.class);
 		}
 
 		return jacksonService;
 	}
 
+	/**
+	 * Returns a LinkRest service of a given type.
+	 * 
+	 * @since 1.1
+	 */
+	protected <S> S service(Class<S> type) {
+		return LinkRestRuntime.service(type, configuration);
+	}
+
 	/**
 	 * Provides a placehodler to override in subclasses if they need to
 	 * serialize the "data" section of the response. This implementation does
@@ -0,0 +1,35 @@
+package com.nhl.link.rest.provider;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An OutputStream wrapper that counts written bytes.
+ * 
+ * @since 1.1
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+	private long count;
+
+	CountingOutputStream(OutputStream out) {
+		super(out);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		count += len;
+	}
+
+	long getCount() {
+		return count;
+	}
+}
@@ -1,26 +1,182 @@
 package com.nhl.link.rest.provider;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.List;
 
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.Provider;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.runtime.cache.CachedResponse;
+import com.nhl.link.rest.runtime.cache.IResponseCache;
+import com.nhl.link.rest.runtime.timing.ITimingService;
+import com.nhl.link.rest.runtime.timing.RequestTimings;
 
 @Provider
 public class DataResponseWriter extends BaseResponseWriter<DataResponse<?>> {
 
+	private static final String GZIP = "gzip";
+	private static final String X_GZIP = "x-gzip";
+	private static final String SERVER_TIMING = "Server-Timing";
+
+	private IResponseCache responseCache;
+	private ITimingService timingService;
+
+	@Context
+	private HttpHeaders requestHeaders;
+
 	@Override
 	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
 		return DataResponse.class.isAssignableFrom(type);
 	}
 
+	@Override
+	public void writeTo(DataResponse<?> t, Class<?> type, Type genericType, Annotation[] annotations,
+			MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+			throws IOException {
+
+		ITimingService timingService = getTimingService();
+		if (!timingService.isEnabled()) {
+			doWrite(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
+			return;
+		}
+
+		RequestTimings timings = t.getTimings();
+		if (timingService.isServerTimingHeader()) {
+			httpHeaders.add(SERVER_TIMING, timings.toServerTiming());
+		}
+
+		CountingOutputStream countingStream = new CountingOutputStream(entityStream);
+		long t0 = System.nanoTime();
+
+		doWrite(t, type, genericType, annotations, mediaType, httpHeaders, countingStream);
+
+		timings.setWriteNanos(System.nanoTime() - t0);
+		timings.setBytesWritten(countingStream.getCount());
+		timingService.requestCompleted(timings);
+	}
+
+	private void doWrite(DataResponse<?> t, Class<?> type, Type genericType, Annotation[] annotations,
+			MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+			throws IOException {
+
+		if (t.getCachedResponse() != null) {
+			writeCached(t.getCachedResponse(), httpHeaders, entityStream);
+		} else if (t.getCacheKey() != null) {
+
+			// encode to a buffer, so that the bytes can be cached
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+			try {
+				super.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, buffer);
+			} catch (IOException | RuntimeException e) {
+				getResponseCache().revalidationFailed(t.getCacheKey());
+				throw e;
+			}
+
+			byte[] body = buffer.toByteArray();
+
+			getResponseCache().put(t.getCacheKey(), t.getEntity(), body, t.getCacheValidSince());
+			entityStream.write(body);
+		} else {
+			super.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
+		}
+	}
+
 	@Override
 	protected void writeData(DataResponse<?> t, JsonGenerator out) throws IOException {
 		t.writeData(out);
 	}
 
+	private void writeCached(CachedResponse cached, MultivaluedMap<String, Object> httpHeaders,
+			OutputStream entityStream) throws IOException {
+
+		// do not compress responses if some other component is already doing
+		// that
+		if (cached.getGzippedBody() != null && acceptsGzip()
+				&& !httpHeaders.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			httpHeaders.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+			httpHeaders.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			entityStream.write(cached.getGzippedBody());
+		} else {
+			entityStream.write(cached.getBody());
+		}
+	}
+
+	private boolean acceptsGzip() {
+		return requestHeaders != null && acceptsGzip(requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING));
+	}
+
+	/**
+	 * Checks whether "Accept-Encoding" header values allow gzip, as defined by
+	 * RFC 7231: "gzip" and "x-gzip" codings take precedence over "*", and a
+	 * coding with "q=0" is not acceptable.
+	 */
+	static boolean acceptsGzip(List<String> encodings) {
+
+		if (encodings == null) {
+			return false;
+		}
+
+		float gzipQ = -1;
+		float anyQ = -1;
+
+		for (String encoding : encodings) {
+			for (String token : encoding.split(",")) {
+
+				String[] parts = token.split(";");
+				String coding = parts[0].trim().toLowerCase();
+
+				if (GZIP.equals(coding) || X_GZIP.equals(coding)) {
+					gzipQ = Math.max(gzipQ, qValue(parts));
+				} else if ("*".equals(coding)) {
+					anyQ = Math.max(anyQ, qValue(parts));
+				}
+			}
+		}
+
+		return gzipQ >= 0 ? gzipQ > 0 : anyQ > 0;
+	}
+
+	private static float qValue(String[] parts) {
+
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+					&& parameter.substring(1).trim().startsWith("=")) {
+
+				try {
+					return Float.parseFloat(parameter.substring(parameter.indexOf('=') + 1).trim());
+				} catch (NumberFormatException e) {
+					// a malformed weight makes the coding unacceptable
+					return 0;
+				}
+			}
+		}
+
+		return 1;
+	}
+
+	private ITimingService getTimingService() {
+		if (timingService == null) {
+			timingService = service(ITimingService.class);
+		}
+
+		return timingService;
+	}
+
+	private IResponseCache getResponseCache() {
+		if (responseCache == null) {
+			responseCache = service(IResponseCache.class);
+		}
+
+		return responseCache;
+	}
 }
@@ -1,10 +1,15 @@
 package com.nhl.link.rest.runtime;
 
+import java.util.Collection;
+
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.cayenne.query.SelectQuery;
 
 import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.ExtendedSelectBuilder;
+import com.nhl.link.rest.LinkRestException;
 import com.nhl.link.rest.SelectBuilder;
 import com.nhl.link.rest.SimpleResponse;
 import com.nhl.link.rest.UpdateResponse;
@@ -35,6 +40,26 @@ public abstract class BaseLinkRestService implements ILinkRestService {
 		return forSelect(root).with(uriInfo).byId(id).select();
 	}
 
+	/**
+	 * Selects objects by a list of IDs with a single query, applying optional
+	 * include/exclude information from the UriInfo to the result. Objects are
+	 * returned in the order of the IDs, and the IDs with no matching objects
+	 * are reported in the response. Fails with 501 if the builders of this
+	 * service are not {@link ExtendedSelectBuilder}s.
+	 * 
+	 * @since 1.1
+	 */
+	public <T> DataResponse<T> selectByIds(Class<T> root, Collection<?> ids, UriInfo uriInfo) {
+
+		SelectBuilder<T> builder = forSelect(root);
+		if (!(builder instanceof ExtendedSelectBuilder)) {
+			throw new LinkRestException(Status.NOT_IMPLEMENTED, "Selecting by IDs is not supported for entity: "
+					+ root.getSimpleName());
+		}
+
+		return ((ExtendedSelectBuilder<T>) builder).with(uriInfo).byIds(ids).select();
+	}
+
 	@Override
 	public <T> DataResponse<T> select(SelectQuery<T> query, UriInfo uriInfo) {
 		return forSelect(query).with(uriInfo).select();
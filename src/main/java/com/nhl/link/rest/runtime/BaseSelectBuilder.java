@@ -2,9 +2,16 @@ package com.nhl.link.rest.runtime;
 
 import static com.nhl.link.rest.property.PropertyBuilder.property;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
@@ -16,33 +23,66 @@ import org.slf4j.LoggerFactory;
 import com.nhl.link.rest.ClientEntity;
 import com.nhl.link.rest.ClientProperty;
 import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.ExtendedSelectBuilder;
 import com.nhl.link.rest.LinkRestException;
-import com.nhl.link.rest.SelectBuilder;
+import com.nhl.link.rest.encoder.CountEncoder;
 import com.nhl.link.rest.encoder.Encoder;
+import com.nhl.link.rest.encoder.EncoderFilter;
+import com.nhl.link.rest.encoder.ExplanationEncoder;
+import com.nhl.link.rest.runtime.cache.CachedResponse;
+import com.nhl.link.rest.runtime.cache.IResponseCache;
+import com.nhl.link.rest.runtime.cache.NoResponseCache;
+import com.nhl.link.rest.runtime.cache.ResponseCacheKey;
+import com.nhl.link.rest.runtime.encoder.EncoderService;
 import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.explain.ExplainService;
+import com.nhl.link.rest.runtime.explain.IExplainService;
 import com.nhl.link.rest.runtime.parser.IRequestParser;
+import com.nhl.link.rest.runtime.timing.RequestTimings;
 
-public abstract class BaseSelectBuilder<T> implements SelectBuilder<T> {
+public abstract class BaseSelectBuilder<T> implements ExtendedSelectBuilder<T> {
 
 	private static final Logger logger = LoggerFactory.getLogger(BaseSelectBuilder.class);
 
 	protected Class<T> type;
 	private UriInfo uriInfo;
 	protected Object id;
+	private List<Object> ids;
 	private String autocompleteProperty;
 	private IEncoderService encoderService;
 	private IRequestParser requestParser;
 	private Map<String, ClientProperty> extraProperties;
 	private Encoder dataEncoder;
+	private IFetchCoalescer fetchCoalescer;
+	private IResponseCache responseCache;
+	private IExplainService explainService;
+	private boolean explain;
+	private Map<String, Integer> prefetchSemantics;
+	private boolean projection;
+	private boolean dataRows;
+	private boolean aggregation;
 
 	public BaseSelectBuilder(Class<T> type, IEncoderService encoderService, IRequestParser requestParser) {
+		this(type, encoderService, requestParser, new NoFetchCoalescer(), NoResponseCache.instance(),
+				new ExplainService(false, null));
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public BaseSelectBuilder(Class<T> type, IEncoderService encoderService, IRequestParser requestParser,
+			IFetchCoalescer fetchCoalescer, IResponseCache responseCache, IExplainService explainService) {
 		this.type = type;
 		this.encoderService = encoderService;
 		this.requestParser = requestParser;
+		this.fetchCoalescer = fetchCoalescer;
+		this.responseCache = responseCache;
+		this.explainService = explainService;
+		this.prefetchSemantics = new HashMap<>();
 	}
 
 	@Override
-	public SelectBuilder<T> with(UriInfo uriInfo) {
+	public ExtendedSelectBuilder<T> with(UriInfo uriInfo) {
 		this.uriInfo = uriInfo;
 		return this;
 	}
@@ -51,24 +91,24 @@ public abstract class BaseSelectBuilder<T> implements SelectBuilder<T> {
 	 * @since 6.5
 	 */
 	@Override
-	public SelectBuilder<T> withDataEncoder(Encoder dataEncoder) {
+	public ExtendedSelectBuilder<T> withDataEncoder(Encoder dataEncoder) {
 		this.dataEncoder = dataEncoder;
 		return this;
 	}
 
 	@Override
-	public SelectBuilder<T> withAutocompleteOn(Property<?> autocompleteProperty) {
+	public ExtendedSelectBuilder<T> withAutocompleteOn(Property<?> autocompleteProperty) {
 		this.autocompleteProperty = autocompleteProperty != null ? autocompleteProperty.getName() : null;
 		return this;
 	}
 
 	@Override
-	public SelectBuilder<T> withProperty(String name) {
+	public ExtendedSelectBuilder<T> withProperty(String name) {
 		return withProperty(name, property());
 	}
 
 	@Override
-	public SelectBuilder<T> withProperty(String name, ClientProperty clientProperty) {
+	public ExtendedSelectBuilder<T> withProperty(String name, ClientProperty clientProperty) {
 		if (extraProperties == null) {
 			extraProperties = new HashMap<>();
 		}
@@ -81,8 +121,67 @@ public abstract class BaseSelectBuilder<T> implements SelectBuilder<T> {
 		return this;
 	}
 
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public ExtendedSelectBuilder<T> explain() {
+		this.explain = true;
+		return this;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public ExtendedSelectBuilder<T> withProjection() {
+		this.projection = true;
+		return this;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public ExtendedSelectBuilder<T> withDataRows() {
+		this.dataRows = true;
+		return this;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public ExtendedSelectBuilder<T> withAggregation() {
+		this.aggregation = true;
+		return this;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public ExtendedSelectBuilder<T> withPrefetchSemantics(String path, int semantics) {
+		prefetchSemantics.put(path, semantics);
+		return this;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public ExtendedSelectBuilder<T> byIds(Collection<?> ids) {
+
+		if (ids == null) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Null 'ids'");
+		}
+
+		this.ids = new ArrayList<Object>(ids);
+		return this;
+	}
+
 	@Override
-	public SelectBuilder<T> byId(Object id) {
+	public ExtendedSelectBuilder<T> byId(Object id) {
 		// TODO: return a special builder that will preserve 'byId' strategy on
 		// select
 
@@ -97,19 +196,93 @@ public abstract class BaseSelectBuilder<T> implements SelectBuilder<T> {
 	@Override
 	public DataResponse<T> select() {
 
+		if (explain || explainService.isExplainRequested(uriInfo)) {
+			return explainSelect();
+		}
+
+		// custom data encoders are opaque, so can't cache their output
+		ResponseCacheKey cacheKey = dataEncoder == null ? responseCache.key(getType(), cacheKey()) : null;
+
+		if (cacheKey != null) {
+			CachedResponse cached = responseCache.get(cacheKey);
+			if (cached != null) {
+				DataResponse<T> response = DataResponse.forType(getType()).withCachedResponse(cached);
+				response.getTimings().setEntityName(cached.getRootEntityName());
+				return response;
+			}
+
+			// capture before fetching, so that the response made from the
+			// data that was modified in the meantime is not cached
+			long cacheValidSince = responseCache.getInvalidationCount();
+
+			try {
+				return fetchAndEncode(cacheKey, cacheValidSince);
+			} catch (RuntimeException e) {
+
+				// if this request was revalidating a stale response, let the
+				// next one try
+				responseCache.revalidationFailed(cacheKey);
+				throw e;
+			}
+		}
+
+		return fetchAndEncode(null, 0);
+	}
+
+	private DataResponse<T> fetchAndEncode(ResponseCacheKey cacheKey, long cacheValidSince) {
+
 		DataResponse<T> responseBuilder = DataResponse.forType(getType());
+		RequestTimings timings = responseBuilder.getTimings();
+		long t0 = System.nanoTime();
 
 		// parse request
 		requestParser.parseSelect(responseBuilder, uriInfo, autocompleteProperty);
+		timings.setEntityName(responseBuilder.getEntity().getEntity().getName());
 
 		if (extraProperties != null) {
 			responseBuilder.getEntity().getExtraProperties().putAll(extraProperties);
 		}
 
+		if (ids != null) {
+			responseBuilder.withIds(ids);
+		}
+
+		long t1 = System.nanoTime();
+		timings.setParseNanos(t1 - t0);
+
+		if (responseBuilder.isCountOnly() && canCount(responseBuilder)) {
+			long count = fetchCount(responseBuilder);
+			if (count >= 0) {
+				timings.setFetchNanos(System.nanoTime() - t1 - timings.getQueryBuildNanos());
+				responseBuilder.withEncoder(new CountEncoder("total", count));
+
+				if (cacheKey != null) {
+					responseBuilder.withCacheKey(cacheKey, cacheValidSince);
+				}
+
+				return responseBuilder;
+			}
+		}
+
 		// get data from DB
-		fetchObjects(responseBuilder);
+		if (responseBuilder.getAggregation() != null) {
+
+			if (!aggregation || isById() || responseBuilder.getIds() != null) {
+				throw new LinkRestException(Status.BAD_REQUEST, "Aggregate requests are not allowed for '"
+						+ responseBuilder.getEntity().getEntity().getName() + "'");
+			}
+
+			fetchAggregates(responseBuilder);
+		} else {
+			coalescedFetchObjects(responseBuilder);
+		}
 
 		List<T> objects = responseBuilder.getObjects();
+
+		// query build time is recorded by the subclass
+		long t2 = System.nanoTime();
+		timings.setFetchNanos(t2 - t1 - timings.getQueryBuildNanos());
+		timings.setRowCount(objects.size());
 		ClientEntity<T> rootEntity = responseBuilder.getEntity();
 
 		if (isById() && objects.size() != 1) {
@@ -133,9 +306,256 @@ public abstract class BaseSelectBuilder<T> implements SelectBuilder<T> {
 			encoderService.makeEncoder(responseBuilder);
 		}
 
+		timings.setEncoderBuildNanos(System.nanoTime() - t2);
+
+		if (cacheKey != null) {
+			responseBuilder.withCacheKey(cacheKey, cacheValidSince);
+		}
+
 		return responseBuilder;
 	}
 
+	private DataResponse<T> explainSelect() {
+
+		DataResponse<T> responseBuilder = DataResponse.forType(getType());
+		requestParser.parseSelect(responseBuilder, uriInfo, autocompleteProperty);
+
+		if (extraProperties != null) {
+			responseBuilder.getEntity().getExtraProperties().putAll(extraProperties);
+		}
+
+		Map<String, Object> explanation = new LinkedHashMap<>();
+		explanation.put("entity", explainService.explainEntity(responseBuilder.getEntity()));
+
+		// request pagination is applied by the encoder after EncoderFilters,
+		// so that the totals are correct
+		Map<String, Object> pagination = new LinkedHashMap<>();
+		if (responseBuilder.getFetchOffset() > 0 || responseBuilder.getFetchLimit() > 0) {
+			pagination.put("appliedIn", "memory");
+			pagination.put("start", Math.max(responseBuilder.getFetchOffset(), 0));
+			pagination.put("limit", Math.max(responseBuilder.getFetchLimit(), 0));
+		} else {
+			pagination.put("appliedIn", "none");
+		}
+		explanation.put("pagination", pagination);
+
+		explainFetch(responseBuilder, explanation);
+
+		return responseBuilder.withEncoder(new ExplanationEncoder(explanation));
+	}
+
+	/**
+	 * Appends a description of how the objects would be fetched to the
+	 * explanation, without running any queries. This implementation does
+	 * nothing.
+	 * 
+	 * @since 1.1
+	 */
+	protected void explainFetch(DataResponse<T> responseBuilder, Map<String, Object> explanation) {
+		// noop
+	}
+
+	private boolean canCount(DataResponse<T> responseBuilder) {
+
+		// a single object must still be checked for existence; custom encoders
+		// and encoder filters may encode fewer objects than the DB would count
+		return !isById() && responseBuilder.getIds() == null && dataEncoder == null
+				&& !isFiltered(responseBuilder.getEntity());
+	}
+
+	/**
+	 * Returns the number of objects matching the request qualifier, ignoring
+	 * pagination, without fetching the objects. Called in the count-only mode.
+	 * If the count can't be obtained this way, returns -1, and the objects are
+	 * fetched and counted as usual. This implementation returns -1.
+	 * 
+	 * @since 1.1
+	 */
+	protected long fetchCount(DataResponse<T> responseBuilder) {
+		return -1;
+	}
+
+	/**
+	 * Runs an aggregate query described by the response
+	 * {@link DataResponse#getAggregation()} and sets the resulting rows as the
+	 * response objects, one map per row keyed by the column names. This
+	 * implementation throws an exception, as aggregation is not supported.
+	 * 
+	 * @since 1.1
+	 */
+	protected void fetchAggregates(DataResponse<T> responseBuilder) {
+		throw new LinkRestException(Status.BAD_REQUEST, "Aggregate requests are not supported for '"
+				+ responseBuilder.getEntity().getEntity().getName() + "'");
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void coalescedFetchObjects(final DataResponse<T> responseBuilder) {
+
+		if (!canShareFetch(responseBuilder)) {
+			fetchObjects(responseBuilder);
+			return;
+		}
+
+		// sharing the entire response of the fetching request, as besides the
+		// objects it may contain separately fetched relationships
+		List<DataResponse<T>> fetched = fetchCoalescer.fetch(fetchKey(), new Callable<List<DataResponse<T>>>() {
+
+			@Override
+			public List<DataResponse<T>> call() throws Exception {
+				fetchObjects(responseBuilder);
+				return Collections.singletonList(responseBuilder);
+			}
+		});
+
+		DataResponse<T> fetchingResponse = fetched.get(0);
+		if (fetchingResponse.isDataRows()) {
+			responseBuilder.withDataRows((List) fetchingResponse.getObjects());
+		} else {
+			responseBuilder.withObjects(fetchingResponse.getObjects());
+		}
+
+		responseBuilder.withPrefetchedRelationships(fetchingResponse.getPrefetchedRelationships());
+		responseBuilder.withMissingIds(fetchingResponse.getMissingIds());
+
+		if (fetchingResponse != responseBuilder) {
+			RequestTimings timings = responseBuilder.getTimings();
+			RequestTimings fetchingTimings = fetchingResponse.getTimings();
+			timings.setQuery(fetchingTimings.getQuery());
+			timings.setQueryBuildNanos(fetchingTimings.getQueryBuildNanos());
+			timings.addStatements(fetchingTimings.getStatements());
+			timings.setCoalesced(true);
+		}
+	}
+
+	/**
+	 * Returns whether the objects fetched for a given request may be shared
+	 * with concurrent identical requests. The requests that join an in-flight
+	 * fetch encode the objects of the fetching request on their own threads.
+	 * This is only safe if encoding never goes back to the ObjectContext of
+	 * the fetching request, i.e. if the fetched object tree is fully resolved
+	 * and no user code that may navigate beyond it takes part in encoding. So
+	 * requests with custom encoders, custom properties, {@link EncoderFilter}s
+	 * or related ids are never coalesced. Subclasses whose fetch may leave
+	 * the included relationships unresolved must override this method.
+	 * 
+	 * @since 1.1
+	 */
+	protected boolean canShareFetch(DataResponse<T> responseBuilder) {
+		return dataEncoder == null && isSelfContained(responseBuilder.getEntity());
+	}
+
+	private boolean isSelfContained(ClientEntity<?> entity) {
+
+		// related ids may be read from the snapshots or by faulting the
+		// relationships, custom properties and filters may read anything
+		if (!entity.getRelatedIds().isEmpty() || !entity.getExtraProperties().isEmpty()
+				|| isFiltered(entity)) {
+			return false;
+		}
+
+		for (ClientEntity<?> child : entity.getRelationships().values()) {
+			if (!isSelfContained(child)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns a key that identifies the data fetched by this builder. Two
+	 * builders with equal keys are expected to fetch the same objects. The key
+	 * is made of the entity, canonicalized request parameters, id, the options
+	 * that change what may be fetched (such as whether aggregate requests are
+	 * allowed) and the server-side query template.
+	 * 
+	 * @since 1.1
+	 */
+	protected Object fetchKey() {
+
+		// canonicalize parameters, so that their order in URL doesn't matter
+		Map<String, List<String>> parameters = new TreeMap<>();
+		if (uriInfo != null) {
+			parameters.putAll(uriInfo.getQueryParameters());
+		}
+
+		// aggregation is a part of the key, so that a builder that doesn't
+		// allow aggregates never gets a cached aggregate response
+		return Arrays.asList(getType().getName(), parameters, id, ids, autocompleteProperty, isProjection(),
+				isDataRows(), aggregation, queryTemplateKey());
+	}
+
+	/**
+	 * Returns a key that identifies encoded response produced by this builder.
+	 * In addition to the {@link #fetchKey()}, it takes into account custom
+	 * properties.
+	 * 
+	 * @since 1.1
+	 */
+	protected Object cacheKey() {
+
+		Object properties = extraProperties != null ? new TreeMap<>(extraProperties).keySet() : null;
+		return Arrays.asList(fetchKey(), properties);
+	}
+
+	/**
+	 * Returns an object that identifies server-side query template used by
+	 * this builder, if any. Subclasses that allow query templates must
+	 * override this method to return a key that reflects template qualifier,
+	 * ordering, etc. This implementation returns null.
+	 * 
+	 * @since 1.1
+	 */
+	protected Object queryTemplateKey() {
+		return null;
+	}
+
+	/**
+	 * Returns prefetch semantics set per relationship path.
+	 * 
+	 * @since 1.1
+	 */
+	protected Map<String, Integer> getPrefetchSemantics() {
+		return prefetchSemantics;
+	}
+
+	/**
+	 * Returns whether column projection was requested and the response is
+	 * encoded by the framework, i.e. no custom data encoder is set.
+	 * 
+	 * @since 1.1
+	 */
+	protected boolean isProjection() {
+		return projection && dataEncoder == null;
+	}
+
+	/**
+	 * Returns whether the DataRow read path was requested and the response is
+	 * encoded by the framework, i.e. no custom data encoder is set.
+	 * 
+	 * @since 1.1
+	 */
+	protected boolean isDataRows() {
+		return dataRows && dataEncoder == null;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	protected IEncoderService getEncoderService() {
+		return encoderService;
+	}
+
+	/**
+	 * Returns whether encoding of the entity may skip some of the objects.
+	 * Custom encoder services are assumed to filter all entities.
+	 * 
+	 * @since 1.1
+	 */
+	protected boolean isFiltered(ClientEntity<?> entity) {
+		return !(encoderService instanceof EncoderService) || ((EncoderService) encoderService).isFiltered(entity);
+	}
+
 	protected boolean isById() {
 		return id != null;
 	}
@@ -1,20 +1,33 @@
 package com.nhl.link.rest.runtime;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import javax.ws.rs.core.Response.Status;
+
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.query.SelectQuery;
 import org.apache.cayenne.reflect.ClassDescriptor;
 
+import com.nhl.link.rest.ExtendedSelectBuilder;
+import com.nhl.link.rest.LinkRestException;
 import com.nhl.link.rest.SelectBuilder;
 import com.nhl.link.rest.UpdateResponse;
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+import com.nhl.link.rest.runtime.cache.ManagedCacheProvider;
+import com.nhl.link.rest.runtime.cache.MapCache;
 import com.nhl.link.rest.runtime.cayenne.CayenneDao;
 import com.nhl.link.rest.runtime.cayenne.ICayennePersister;
 import com.nhl.link.rest.runtime.dao.EntityDao;
+import com.nhl.link.rest.runtime.dao.EntityDaoContext;
 import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.memory.InMemoryDao;
+import com.nhl.link.rest.runtime.memory.InMemoryStore;
 import com.nhl.link.rest.runtime.meta.IMetadataService;
 import com.nhl.link.rest.runtime.parser.IRequestParser;
 
@@ -22,21 +35,36 @@ import com.nhl.link.rest.runtime.parser.IRequestParser;
  * An {@link ILinkRestService} that can work with per-entity pluggable backends.
  * Cayenne backend is automatically configured for all known Cayenne entities.
  * Other backends, e.g. for LDAP objects, etc. are contributed in an
- * {@link EntityDao} collection.
+ * {@link EntityDao} collection. POJO entities kept in memory are contributed
+ * as a collection of {@link InMemoryStore}s, each served by an
+ * {@link InMemoryDao}.
  * 
  * @since 6.9
  */
-public class EntityDaoLinkRestService extends BaseLinkRestService {
+public class EntityDaoLinkRestService extends BaseLinkRestService implements ManagedCacheProvider {
+
+	/**
+	 * @since 1.1
+	 */
+	public static final String IN_MEMORY_STORE_LIST = "linkrest.dao.inmemory.list";
 
 	private Map<String, EntityDao<?>> entityDaos;
+	private MapCache<EntityDao<?>> entityDaosByType;
 	private IMetadataService metadataService;
 
 	public EntityDaoLinkRestService(@Inject IRequestParser requestParser, @Inject IEncoderService encoderService,
-			@Inject IMetadataService metadataService, @Inject ICayennePersister cayenneService) {
+			@Inject IMetadataService metadataService, @Inject ICayennePersister cayenneService,
+			@Inject EntityDaoContext daoContext, @Inject(IN_MEMORY_STORE_LIST) List<InMemoryStore<?>> inMemoryStores) {
 		super(requestParser, encoderService);
 
 		this.metadataService = metadataService;
 		this.entityDaos = new HashMap<>();
+		this.entityDaosByType = new MapCache<>("linkrest.dao.types");
+
+		for (InMemoryStore<?> store : inMemoryStores) {
+			String entityName = metadataService.getObjEntity(store.getType()).getName();
+			entityDaos.put(entityName, inMemoryDao(store, entityName, requestParser, encoderService, daoContext));
+		}
 
 		EntityResolver resolver = cayenneService.entityResolver();
 		for (ObjEntity e : resolver.getObjEntities()) {
@@ -44,17 +72,46 @@ public class EntityDaoLinkRestService extends BaseLinkRestService {
 			if (!entityDaos.containsKey(e.getName())) {
 
 				ClassDescriptor cd = resolver.getClassDescriptor(e.getName());
-				EntityDao<?> dao = new CayenneDao<>(cd.getObjectClass(), requestParser, encoderService, cayenneService);
+				EntityDao<?> dao = new CayenneDao<>(cd.getObjectClass(), requestParser, encoderService, cayenneService,
+						daoContext);
 				entityDaos.put(e.getName(), dao);
 			}
 		}
-	} 
+	}
 
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Collections.singleton(entityDaosByType);
+	}
+
+	private static <T> EntityDao<T> inMemoryDao(InMemoryStore<T> store, String entityName,
+			IRequestParser requestParser, IEncoderService encoderService, EntityDaoContext daoContext) {
+		return new InMemoryDao<>(store, entityName, requestParser, encoderService, daoContext);
+	}
+
+	@SuppressWarnings("unchecked")
 	private <T> EntityDao<T> daoForType(Class<T> type) {
-		return dao(metadataService.getObjEntity(type).getName());
+
+		EntityDao<?> dao = entityDaosByType.get(type.getName());
+		if (dao == null) {
+			dao = dao(metadataService.getObjEntity(type).getName());
+			entityDaosByType.put(type.getName(), dao);
+		}
+
+		return (EntityDao<T>) dao;
 	}
 
+	@SuppressWarnings("unchecked")
 	private <T> EntityDao<T> daoForQuery(SelectQuery<T> query) {
+
+		Object root = query.getRoot();
+		if (root instanceof Class) {
+			return daoForType((Class<T>) root);
+		}
+
 		return dao(metadataService.getObjEntity(query).getName());
 	}
 
@@ -69,14 +126,34 @@ public class EntityDaoLinkRestService extends BaseLinkRestService {
 		return (EntityDao<T>) dao;
 	}
 
+	/**
+	 * Returns an {@link ExtendedSelectBuilder}, so that the optional select
+	 * features can be used without a cast.
+	 */
 	@Override
-	public <T> SelectBuilder<T> forSelect(Class<T> root) {
-		return daoForType(root).forSelect();
+	public <T> ExtendedSelectBuilder<T> forSelect(Class<T> root) {
+		return extended(daoForType(root).forSelect());
 	}
 
+	/**
+	 * Returns an {@link ExtendedSelectBuilder}, so that the optional select
+	 * features can be used without a cast.
+	 */
 	@Override
-	public <T> SelectBuilder<T> forSelect(SelectQuery<T> query) {
-		return daoForQuery(query).forSelect(query);
+	public <T> ExtendedSelectBuilder<T> forSelect(SelectQuery<T> query) {
+		return extended(daoForQuery(query).forSelect(query));
+	}
+
+	private static <T> ExtendedSelectBuilder<T> extended(SelectBuilder<T> builder) {
+
+		// all DAOs are created by this service, and their builders are
+		// extended, so this is not expected to fail
+		if (!(builder instanceof ExtendedSelectBuilder)) {
+			throw new LinkRestException(Status.NOT_IMPLEMENTED, "Unsupported select builder: "
+					+ builder.getClass().getName());
+		}
+
+		return (ExtendedSelectBuilder<T>) builder;
 	}
 
 	@Override
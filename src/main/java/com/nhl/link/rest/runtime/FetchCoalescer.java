@@ -0,0 +1,78 @@
+package com.nhl.link.rest.runtime;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.ws.rs.core.Response.Status;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * An {@link IFetchCoalescer} that implements "single-flight" semantics: the
+ * first request with a given key runs the fetch, while the requests with the
+ * same key that arrive before the fetch is finished wait for its result
+ * instead of running their own. Once the fetch is finished, the key is
+ * discarded, so no results are cached beyond the in-flight window.
+ * 
+ * @since 1.1
+ */
+public class FetchCoalescer implements IFetchCoalescer {
+
+	private ConcurrentMap<Object, FutureTask<?>> inFlight;
+
+	public FetchCoalescer() {
+		this.inFlight = new ConcurrentHashMap<>();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> List<T> fetch(Object key, Callable<List<T>> fetcher) {
+
+		FutureTask<List<T>> task = new FutureTask<>(fetcher);
+		FutureTask<?> existing = inFlight.putIfAbsent(key, task);
+
+		if (existing != null) {
+			return (List<T>) get(existing);
+		}
+
+		try {
+			task.run();
+		} finally {
+			inFlight.remove(key, task);
+		}
+
+		return get(task);
+	}
+
+	/**
+	 * Returns a number of fetches currently in progress.
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	private <V> V get(FutureTask<V> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Interrupted while waiting for fetch", e);
+		} catch (ExecutionException e) {
+
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error fetching objects", cause);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.nhl.link.rest.runtime;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A service that allows concurrent identical select requests to share a
+ * single in-flight fetch.
+ * 
+ * @since 1.1
+ */
+public interface IFetchCoalescer {
+
+	/**
+	 * Runs the fetcher, unless there's already a fetch with the same key in
+	 * progress, in which case waits for that fetch and returns its result.
+	 * Returned lists must be treated as read-only, as they may be shared
+	 * between requests.
+	 */
+	<T> List<T> fetch(Object key, Callable<List<T>> fetcher);
+}
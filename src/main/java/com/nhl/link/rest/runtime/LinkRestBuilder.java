@@ -1,8 +1,11 @@
 package com.nhl.link.rest.runtime;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Feature;
 
@@ -14,23 +17,53 @@ import org.apache.cayenne.di.Module;
 import org.apache.cayenne.map.DataMap;
 
 import com.nhl.link.rest.encoder.EncoderFilter;
+import com.nhl.link.rest.runtime.cache.CacheRegistry;
+import com.nhl.link.rest.runtime.cache.CountCache;
+import com.nhl.link.rest.runtime.cache.FileInvalidationBus;
+import com.nhl.link.rest.runtime.cache.ICacheRegistry;
+import com.nhl.link.rest.runtime.cache.ICountCache;
+import com.nhl.link.rest.runtime.cache.IInvalidationBus;
+import com.nhl.link.rest.runtime.cache.IResponseCache;
+import com.nhl.link.rest.runtime.cache.LocalInvalidationBus;
+import com.nhl.link.rest.runtime.cache.NoResponseCache;
+import com.nhl.link.rest.runtime.cache.ResponseCache;
+import com.nhl.link.rest.runtime.cache.ResponseCachePolicy;
+import com.nhl.link.rest.runtime.cache.ResponseVariantProvider;
+import com.nhl.link.rest.runtime.cayenne.AdaptivePrefetchPlanner;
+import com.nhl.link.rest.runtime.cayenne.BatchRelatedObjectResolver;
 import com.nhl.link.rest.runtime.cayenne.CayennePersister;
+import com.nhl.link.rest.runtime.cayenne.FixedPrefetchPlanner;
+import com.nhl.link.rest.runtime.cayenne.HollowRelatedObjectResolver;
 import com.nhl.link.rest.runtime.cayenne.ICayennePersister;
+import com.nhl.link.rest.runtime.cayenne.IPrefetchPlanner;
+import com.nhl.link.rest.runtime.cayenne.IRelatedObjectResolver;
 import com.nhl.link.rest.runtime.cayenne.NoCayennePersister;
+import com.nhl.link.rest.runtime.dao.EntityDaoContext;
 import com.nhl.link.rest.runtime.encoder.AttributeEncoderFactory;
 import com.nhl.link.rest.runtime.encoder.EncoderService;
 import com.nhl.link.rest.runtime.encoder.IAttributeEncoderFactory;
 import com.nhl.link.rest.runtime.encoder.IEncoderService;
 import com.nhl.link.rest.runtime.encoder.IStringConverterFactory;
 import com.nhl.link.rest.runtime.encoder.StringConverterFactory;
+import com.nhl.link.rest.runtime.explain.ExplainService;
+import com.nhl.link.rest.runtime.explain.IExplainService;
+import com.nhl.link.rest.runtime.explain.QueryPlanProvider;
+import com.nhl.link.rest.runtime.explain.SqlQueryPlanProvider;
 import com.nhl.link.rest.runtime.jackson.IJacksonService;
 import com.nhl.link.rest.runtime.jackson.JacksonService;
+import com.nhl.link.rest.runtime.memory.InMemoryStore;
 import com.nhl.link.rest.runtime.meta.IMetadataService;
 import com.nhl.link.rest.runtime.meta.MetadataService;
 import com.nhl.link.rest.runtime.parser.IRequestParser;
+import com.nhl.link.rest.runtime.parser.PrefixMatch;
 import com.nhl.link.rest.runtime.parser.RequestParser;
 import com.nhl.link.rest.runtime.semantics.IRelationshipMapper;
 import com.nhl.link.rest.runtime.semantics.RelationshipMapper;
+import com.nhl.link.rest.runtime.timing.ITimingService;
+import com.nhl.link.rest.runtime.timing.SlowRequestLogger;
+import com.nhl.link.rest.runtime.timing.TimingHistogramListener;
+import com.nhl.link.rest.runtime.timing.TimingListener;
+import com.nhl.link.rest.runtime.timing.TimingService;
 
 /**
  * A builder of LinkRest runtime that can be loaded into JAX-RS 2 container as a
@@ -38,7 +71,29 @@ import com.nhl.link.rest.runtime.semantics.RelationshipMapper;
  */
 public class LinkRestBuilder {
 
+	private static final ResponseVariantProvider NO_VARIANT = new ResponseVariantProvider() {
+
+		@Override
+		public Object variantKey(Class<?> type) {
+			return null;
+		}
+	};
+
 	private ICayennePersister cayenneService;
+	private Class<? extends IRelatedObjectResolver> relatedObjectResolverType;
+	private Class<? extends IPrefetchPlanner> prefetchPlannerType;
+	private boolean coalesceFetches;
+	private Map<String, ResponseCachePolicy> responseCachePolicies;
+	private ResponseVariantProvider responseVariantProvider;
+	private IInvalidationBus invalidationBus;
+	private List<TimingListener> timingListeners;
+	private boolean serverTimingHeader;
+	private String cacheMBeansDomain;
+	private boolean explainParameter;
+	private QueryPlanProvider queryPlanProvider;
+	private long approximateCountMaxAgeMs;
+	private Map<String, PrefixMatch> prefixMatches;
+	private List<InMemoryStore<?>> inMemoryStores;
 
 	private Class<? extends ILinkRestService> linkRestServiceType;
 	private ILinkRestService linkRestService;
@@ -51,6 +106,13 @@ public class LinkRestBuilder {
 		this.encoderFilters = new ArrayList<>();
 		this.linkRestServiceType = EntityDaoLinkRestService.class;
 		this.cayenneService = NoCayennePersister.instance();
+		this.relatedObjectResolverType = BatchRelatedObjectResolver.class;
+		this.prefetchPlannerType = FixedPrefetchPlanner.class;
+		this.responseCachePolicies = new HashMap<>();
+		this.timingListeners = new ArrayList<>();
+		this.approximateCountMaxAgeMs = CountCache.DEFAULT_MAX_AGE_MS;
+		this.prefixMatches = new HashMap<>();
+		this.inMemoryStores = new ArrayList<>();
 	}
 
 	public LinkRestBuilder linkRestService(ILinkRestService linkRestService) {
@@ -75,6 +137,197 @@ public class LinkRestBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets a strategy for resolving to-one related objects on insert and
+	 * update. The default is {@link BatchRelatedObjectResolver} that fetches
+	 * related objects with one query per related entity. Use
+	 * {@link HollowRelatedObjectResolver} to skip fetching altogether and defer
+	 * existence checks to the DB FK constraints.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder relatedObjectResolver(Class<? extends IRelatedObjectResolver> relatedObjectResolverType) {
+		this.relatedObjectResolverType = relatedObjectResolverType;
+		return this;
+	}
+
+	/**
+	 * Sets a strategy for choosing prefetch semantics of the relationships
+	 * included in select responses. The default is
+	 * {@link FixedPrefetchPlanner} that uses disjoint semantics for the entire
+	 * prefetch tree. Use {@link AdaptivePrefetchPlanner} to choose semantics
+	 * per relationship based on its cardinality and the statistics of the
+	 * previous fetches.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder prefetchPlanner(Class<? extends IPrefetchPlanner> prefetchPlannerType) {
+		this.prefetchPlannerType = prefetchPlannerType;
+		return this;
+	}
+
+	/**
+	 * Enables or disables "single-flight" coalescing of identical concurrent
+	 * selects. When enabled, requests for the same entity with the same
+	 * parameters and the same server-side query template that arrive while a
+	 * matching fetch is in progress, will reuse its result instead of running
+	 * their own query. The shared objects are encoded concurrently by each
+	 * request, so only the requests whose object trees are fully resolved by
+	 * the fetch are coalesced. Requests with custom encoders, custom
+	 * properties, {@link EncoderFilter}s or related ids always run their own
+	 * fetch. Disabled by default.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder coalesceFetches(boolean coalesceFetches) {
+		this.coalesceFetches = coalesceFetches;
+		return this;
+	}
+
+	/**
+	 * Enables caching of fully encoded select responses for a given entity
+	 * type. Cached responses are invalidated when the root entity or any of
+	 * the included entities are modified via LinkRest. Changes made to the DB
+	 * bypassing LinkRest are only picked up when a response expires.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder responseCache(Class<?> type, ResponseCachePolicy policy) {
+		this.responseCachePolicies.put(type.getName(), policy);
+		return this;
+	}
+
+	/**
+	 * Sets a provider of the application-specific part of the response cache
+	 * key. Must be set if encoding of the cached entities depends on the
+	 * request context, e.g. on the user roles checked by
+	 * {@link EncoderFilter}s.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder responseVariantProvider(ResponseVariantProvider provider) {
+		this.responseVariantProvider = provider;
+		return this;
+	}
+
+	/**
+	 * Sets a bus that distributes cache invalidation events caused by writes.
+	 * By default a {@link LocalInvalidationBus} is used, that only notifies
+	 * caches of this runtime. To keep the caches on multiple nodes in sync,
+	 * use a cross-node bus, such as {@link FileInvalidationBus}. A
+	 * {@link FileInvalidationBus} is started by {@link #build()} and stopped
+	 * by {@link LinkRestRuntime#shutdown()}.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder invalidationBus(IInvalidationBus invalidationBus) {
+		this.invalidationBus = invalidationBus;
+		return this;
+	}
+
+	/**
+	 * Registers a listener of per-stage timings of select requests, such as
+	 * {@link TimingHistogramListener}.
+	 * <p>
+	 * Registering a {@link SlowRequestLogger} has a side effect on the Cayenne
+	 * stack: if the persister is a {@link CayennePersister}, {@link #build()}
+	 * calls {@link CayennePersister#captureSql()} that wraps the
+	 * JdbcEventLogger of each DataNode of its runtimes, including the replicas.
+	 * The wrapped loggers stay installed after the LinkRest runtime is shut
+	 * down and are shared with any other code using the same ServerRuntime.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder timingListener(TimingListener listener) {
+		this.timingListeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Enables 'Server-Timing' header with the durations of request parsing,
+	 * query building, fetching and encoder building in select responses.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder serverTimingHeader(boolean serverTimingHeader) {
+		this.serverTimingHeader = serverTimingHeader;
+		return this;
+	}
+
+	/**
+	 * Registers MBeans for LinkRest internal caches under a given JMX domain
+	 * in the platform MBeanServer. The caches are also available via
+	 * {@link ICacheRegistry} service regardless of this setting.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder cacheMBeans(String jmxDomain) {
+		this.cacheMBeansDomain = jmxDomain;
+		return this;
+	}
+
+	/**
+	 * Allows clients to request an explanation of a select instead of data by
+	 * passing 'explain=true' URL parameter. Disabled by default, as
+	 * explanation exposes the model and the query details. Server code can
+	 * always call {@link com.nhl.link.rest.ExtendedSelectBuilder#explain()}.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder explainParameter(boolean explainParameter) {
+		this.explainParameter = explainParameter;
+		return this;
+	}
+
+	/**
+	 * Sets a DB-specific provider of query execution plans to include in
+	 * select explanations. E.g. {@link SqlQueryPlanProvider} works with the
+	 * databases that support an "EXPLAIN" SQL prefix. Without a provider,
+	 * explanations only describe the query built by LinkRest.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder queryPlanProvider(QueryPlanProvider queryPlanProvider) {
+		this.queryPlanProvider = queryPlanProvider;
+		return this;
+	}
+
+	/**
+	 * Sets how long the counts are cached for the approximate count-only
+	 * requests ('count=approximate' URL parameter). The default is one
+	 * minute.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder approximateCountMaxAge(long maxAgeMs) {
+		this.approximateCountMaxAgeMs = maxAgeMs;
+		return this;
+	}
+
+	/**
+	 * Sets how string values of 'filter' and 'query' parameters are matched
+	 * against a given attribute. By default a case-insensitive LIKE is used,
+	 * that can't take advantage of a regular index on the attribute column.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder prefixMatch(Class<?> type, String attribute, PrefixMatch match) {
+		this.prefixMatches.put(type.getName() + "." + attribute, match);
+		return this;
+	}
+
+	/**
+	 * Registers a store of POJOs that will be served from memory by the
+	 * default {@link EntityDaoLinkRestService}. The store type must also be
+	 * mapped as an entity via {@link #nonPersistentEntities(DataMap)}.
+	 * 
+	 * @since 1.1
+	 */
+	public LinkRestBuilder inMemoryStore(InMemoryStore<?> store) {
+		this.inMemoryStores.add(store);
+		return this;
+	}
+
 	public LinkRestBuilder encoderFilter(EncoderFilter filter) {
 		this.encoderFilters.add(filter);
 		return this;
@@ -92,8 +345,32 @@ public class LinkRestBuilder {
 
 	public LinkRestRuntime build() {
 		Injector i = createInjector();
+
+		if (cacheMBeansDomain != null) {
+			ICacheRegistry cacheRegistry = i.getInstance(ICacheRegistry.class);
+			if (cacheRegistry instanceof CacheRegistry) {
+				((CacheRegistry) cacheRegistry).exportMBeans(ManagementFactory.getPlatformMBeanServer(),
+						cacheMBeansDomain);
+			}
+		}
+
+		// changes the persister runtimes, as documented in 'timingListener'
+		if (cayenneService instanceof CayennePersister) {
+			for (TimingListener listener : timingListeners) {
+				if (listener instanceof SlowRequestLogger) {
+					((CayennePersister) cayenneService).captureSql();
+					break;
+				}
+			}
+		}
+
+		// the bus only receives events from the other nodes once started
+		if (invalidationBus instanceof FileInvalidationBus) {
+			((FileInvalidationBus) invalidationBus).start();
+		}
+
 		Feature f = new LinkRestFeature(i);
-		return new LinkRestRuntime(f, i);
+		return new LinkRestRuntime(f, i, cacheMBeansDomain);
 	}
 
 	private Injector createInjector() {
@@ -109,6 +386,8 @@ public class LinkRestBuilder {
 
 				binder.<EncoderFilter> bindList(EncoderService.ENCODER_FILTER_LIST).addAll(encoderFilters);
 				binder.<DataMap> bindList(MetadataService.NON_PERSISTENT_ENTITIES_LIST).addAll(nonPersistentEntities);
+				binder.<InMemoryStore<?>> bindList(EntityDaoLinkRestService.IN_MEMORY_STORE_LIST).addAll(
+						inMemoryStores);
 
 				if (linkRestServiceType != null) {
 					binder.bind(ILinkRestService.class).to(linkRestServiceType);
@@ -116,6 +395,7 @@ public class LinkRestBuilder {
 					binder.bind(ILinkRestService.class).toInstance(linkRestService);
 				}
 
+				binder.<PrefixMatch> bindMap(RequestParser.PREFIX_MATCH_MAP).putAll(prefixMatches);
 				binder.bind(IRequestParser.class).to(RequestParser.class);
 				binder.bind(IAttributeEncoderFactory.class).to(AttributeEncoderFactory.class);
 				binder.bind(IStringConverterFactory.class).to(StringConverterFactory.class);
@@ -125,6 +405,37 @@ public class LinkRestBuilder {
 
 				binder.bind(IJacksonService.class).to(JacksonService.class);
 				binder.bind(ICayennePersister.class).toInstance(cayenneService);
+				binder.bind(IRelatedObjectResolver.class).to(relatedObjectResolverType);
+				binder.bind(IPrefetchPlanner.class).to(prefetchPlannerType);
+				binder.bind(EntityDaoContext.class).to(EntityDaoContext.class);
+
+				if (coalesceFetches) {
+					binder.bind(IFetchCoalescer.class).to(FetchCoalescer.class);
+				} else {
+					binder.bind(IFetchCoalescer.class).to(NoFetchCoalescer.class);
+				}
+
+				binder.bind(ICacheRegistry.class).to(CacheRegistry.class);
+				binder.bind(ICountCache.class).toInstance(new CountCache(approximateCountMaxAgeMs));
+				binder.bind(IExplainService.class).toInstance(
+						new ExplainService(explainParameter, queryPlanProvider));
+				binder.bind(ITimingService.class).toInstance(
+						new TimingService(timingListeners, serverTimingHeader));
+
+				if (invalidationBus != null) {
+					binder.bind(IInvalidationBus.class).toInstance(invalidationBus);
+				} else {
+					binder.bind(IInvalidationBus.class).to(LocalInvalidationBus.class);
+				}
+
+				if (responseCachePolicies.isEmpty()) {
+					binder.bind(IResponseCache.class).toInstance(NoResponseCache.instance());
+				} else {
+					binder.<ResponseCachePolicy> bindMap(ResponseCache.POLICY_MAP).putAll(responseCachePolicies);
+					binder.bind(ResponseVariantProvider.class).toInstance(
+							responseVariantProvider != null ? responseVariantProvider : NO_VARIANT);
+					binder.bind(IResponseCache.class).to(ResponseCache.class);
+				}
 			}
 		};
 
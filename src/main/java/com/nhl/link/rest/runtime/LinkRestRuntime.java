@@ -1,16 +1,24 @@
 package com.nhl.link.rest.runtime;
 
+import java.lang.management.ManagementFactory;
+
 import javax.ws.rs.core.Configuration;
 import javax.ws.rs.core.Feature;
 
 import org.apache.cayenne.di.Injector;
 
+import com.nhl.link.rest.runtime.cache.CacheRegistry;
+import com.nhl.link.rest.runtime.cache.FileInvalidationBus;
+import com.nhl.link.rest.runtime.cache.ICacheRegistry;
+import com.nhl.link.rest.runtime.cache.IInvalidationBus;
+
 public class LinkRestRuntime {
 
 	static final String LINK_REST_CONTAINER_PROPERTY = "linkrest.container";
 
 	private Feature feature;
 	private Injector injector;
+	private String cacheMBeansDomain;
 
 	/**
 	 * Returns a LinkRest service of a specified type.
@@ -26,9 +34,10 @@ public class LinkRestRuntime {
 		return injector.getInstance(type);
 	}
 
-	LinkRestRuntime(Feature feature, Injector injector) {
+	LinkRestRuntime(Feature feature, Injector injector, String cacheMBeansDomain) {
 		this.feature = feature;
 		this.injector = injector;
+		this.cacheMBeansDomain = cacheMBeansDomain;
 	}
 
 	public Feature getFeature() {
@@ -39,4 +48,29 @@ public class LinkRestRuntime {
 		return injector.getInstance(type);
 	}
 
+	/**
+	 * Stops the background activities of the runtime, such as polling of a
+	 * {@link FileInvalidationBus}, unregisters the cache MBeans and shuts down
+	 * the DI container. Should be called when the application is stopped.
+	 * 
+	 * @since 1.1
+	 */
+	public void shutdown() {
+
+		IInvalidationBus invalidationBus = injector.getInstance(IInvalidationBus.class);
+		if (invalidationBus instanceof FileInvalidationBus) {
+			((FileInvalidationBus) invalidationBus).shutdown();
+		}
+
+		if (cacheMBeansDomain != null) {
+			ICacheRegistry cacheRegistry = injector.getInstance(ICacheRegistry.class);
+			if (cacheRegistry instanceof CacheRegistry) {
+				((CacheRegistry) cacheRegistry).unexportMBeans(ManagementFactory.getPlatformMBeanServer(),
+						cacheMBeansDomain);
+			}
+		}
+
+		injector.shutdown();
+	}
+
 }
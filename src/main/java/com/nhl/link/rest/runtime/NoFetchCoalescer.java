@@ -0,0 +1,27 @@
+package com.nhl.link.rest.runtime;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.ws.rs.core.Response.Status;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * A default {@link IFetchCoalescer} that runs every fetch on its own.
+ * 
+ * @since 1.1
+ */
+public class NoFetchCoalescer implements IFetchCoalescer {
+
+	@Override
+	public <T> List<T> fetch(Object key, Callable<List<T>> fetcher) {
+		try {
+			return fetcher.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error fetching objects", e);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.cayenne.di.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nhl.link.rest.property.BeanProperties;
+import com.nhl.link.rest.runtime.ILinkRestService;
+import com.nhl.link.rest.runtime.cayenne.ICayennePersister;
+import com.nhl.link.rest.runtime.encoder.IAttributeEncoderFactory;
+import com.nhl.link.rest.runtime.encoder.IStringConverterFactory;
+import com.nhl.link.rest.runtime.meta.IMetadataService;
+import com.nhl.link.rest.runtime.parser.IRequestParser;
+
+/**
+ * A default {@link ICacheRegistry} that collects caches from LinkRest services
+ * implementing {@link ManagedCacheProvider}, as well as the shared cache of
+ * {@link BeanProperties}.
+ * 
+ * @since 1.1
+ */
+public class CacheRegistry implements ICacheRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CacheRegistry.class);
+
+	private Map<String, ManagedCache> caches;
+
+	public CacheRegistry(@Inject IRequestParser requestParser,
+			@Inject IAttributeEncoderFactory attributeEncoderFactory,
+			@Inject IStringConverterFactory stringConverterFactory, @Inject ICayennePersister cayenneService,
+			@Inject IResponseCache responseCache, @Inject ICountCache countCache,
+			@Inject IMetadataService metadataService, @Inject ILinkRestService linkRestService) {
+
+		this.caches = new ConcurrentSkipListMap<>();
+
+		registerProvided(requestParser);
+		registerProvided(attributeEncoderFactory);
+		registerProvided(stringConverterFactory);
+		registerProvided(cayenneService);
+		registerProvided(responseCache);
+		registerProvided(countCache);
+		registerProvided(metadataService);
+		registerProvided(linkRestService);
+
+		register(BeanProperties.managedCache());
+	}
+
+	private void registerProvided(Object service) {
+		if (service instanceof ManagedCacheProvider) {
+			for (ManagedCache cache : ((ManagedCacheProvider) service).getManagedCaches()) {
+				register(cache);
+			}
+		}
+	}
+
+	@Override
+	public Collection<ManagedCache> getCaches() {
+		return new ArrayList<>(caches.values());
+	}
+
+	@Override
+	public ManagedCache getCache(String name) {
+		return caches.get(name);
+	}
+
+	@Override
+	public void register(ManagedCache cache) {
+		caches.put(cache.getName(), cache);
+	}
+
+	@Override
+	public void clearAll() {
+		for (ManagedCache cache : caches.values()) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Registers an MBean for each cache under a given JMX domain.
+	 */
+	public void exportMBeans(MBeanServer server, String domain) {
+		for (ManagedCache cache : caches.values()) {
+			try {
+				ObjectName name = objectName(domain, cache);
+				if (!server.isRegistered(name)) {
+					server.registerMBean(new ManagedCacheView(cache), name);
+				} else {
+					LOGGER.warn("MBean is already registered, skipping: " + name);
+				}
+			} catch (JMException e) {
+				LOGGER.warn("Error registering MBean for cache " + cache.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * Unregisters MBeans previously registered with
+	 * {@link #exportMBeans(MBeanServer, String)}.
+	 */
+	public void unexportMBeans(MBeanServer server, String domain) {
+		for (ManagedCache cache : caches.values()) {
+			try {
+				ObjectName name = objectName(domain, cache);
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+			} catch (JMException e) {
+				LOGGER.warn("Error unregistering MBean for cache " + cache.getName(), e);
+			}
+		}
+	}
+
+	private static ObjectName objectName(String domain, ManagedCache cache) throws JMException {
+		return new ObjectName(domain + ":type=Cache,name=" + ObjectName.quote(cache.getName()));
+	}
+}
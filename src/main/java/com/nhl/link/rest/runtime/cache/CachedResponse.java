@@ -0,0 +1,80 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fully encoded response body stored in {@link IResponseCache}.
+ * 
+ * @since 1.1
+ */
+public class CachedResponse {
+
+	private byte[] body;
+	private byte[] gzippedBody;
+	private String rootEntityName;
+	private Collection<String> entityNames;
+	private long createdAt;
+	private AtomicBoolean revalidating;
+	private volatile long lastAccessedAt;
+
+	CachedResponse(byte[] body, byte[] gzippedBody, String rootEntityName, Collection<String> entityNames) {
+		this.body = body;
+		this.gzippedBody = gzippedBody;
+		this.rootEntityName = rootEntityName;
+		this.entityNames = entityNames;
+		this.createdAt = System.currentTimeMillis();
+		this.revalidating = new AtomicBoolean();
+		this.lastAccessedAt = createdAt;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Returns gzipped response body or null if the response was cached
+	 * without compression.
+	 */
+	public byte[] getGzippedBody() {
+		return gzippedBody;
+	}
+
+	public String getRootEntityName() {
+		return rootEntityName;
+	}
+
+	/**
+	 * Returns the names of all entities included in the response.
+	 */
+	public Collection<String> getEntityNames() {
+		return entityNames;
+	}
+
+	long getCreatedAt() {
+		return createdAt;
+	}
+
+	long getLastAccessedAt() {
+		return lastAccessedAt;
+	}
+
+	void accessed(long now) {
+		this.lastAccessedAt = now;
+	}
+
+	/**
+	 * Marks the entry as being revalidated, returning true if the caller is
+	 * the first to do so.
+	 */
+	boolean startRevalidation() {
+		return revalidating.compareAndSet(false, true);
+	}
+
+	/**
+	 * Allows another caller to revalidate the entry.
+	 */
+	void endRevalidation() {
+		revalidating.set(false);
+	}
+}
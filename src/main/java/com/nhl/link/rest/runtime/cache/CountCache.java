@@ -0,0 +1,198 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A default in-memory {@link ICountCache} that keeps counts for a fixed
+ * period of time. Counts are not invalidated on writes, so an approximate
+ * count may be off by the changes made within that period. When the cache is
+ * full, expired and then the oldest counts are evicted to make room.
+ * 
+ * @since 1.1
+ */
+public class CountCache implements ICountCache, ManagedCacheProvider, ManagedCache {
+
+	public static final long DEFAULT_MAX_AGE_MS = 60000;
+
+	static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	// the share of entries evicted at once when the cache is full, so that
+	// the cache is not scanned on every put
+	static final int EVICTION_BATCH_PERCENT = 10;
+
+	// a rough size of an entry with its key, not counting the key chars
+	static final int ENTRY_OVERHEAD_BYTES = 96;
+
+	private long maxAgeMs;
+	private int maxEntries;
+	private ConcurrentMap<String, CachedCount> entries;
+	private AtomicLong hits;
+	private AtomicLong misses;
+	private AtomicLong evictions;
+	private Object evictionLock;
+
+	public CountCache(long maxAgeMs) {
+		this.maxAgeMs = maxAgeMs;
+		this.maxEntries = DEFAULT_MAX_ENTRIES;
+		this.entries = new ConcurrentHashMap<>();
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+		this.evictionLock = new Object();
+	}
+
+	@Override
+	public long get(String entityName, String qualifierKey) {
+
+		String key = key(entityName, qualifierKey);
+		CachedCount count = entries.get(key);
+
+		if (count != null && System.currentTimeMillis() - count.createdAt > maxAgeMs) {
+			remove(key, count);
+			count = null;
+		}
+
+		if (count != null) {
+			hits.incrementAndGet();
+			return count.count;
+		} else {
+			misses.incrementAndGet();
+			return -1;
+		}
+	}
+
+	@Override
+	public void put(String entityName, String qualifierKey, long count) {
+
+		String key = key(entityName, qualifierKey);
+		if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+			evict();
+		}
+
+		entries.put(key, new CachedCount(count, System.currentTimeMillis()));
+	}
+
+	private static String key(String entityName, String qualifierKey) {
+		return entityName + "|" + qualifierKey;
+	}
+
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Collections.singleton(this);
+	}
+
+	@Override
+	public String getName() {
+		return "linkrest.counts";
+	}
+
+	@Override
+	public int getSize() {
+		return entries.size();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	@Override
+	public long getEstimatedBytes() {
+		long bytes = 0;
+		for (String key : entries.keySet()) {
+			bytes += ENTRY_OVERHEAD_BYTES + 2 * key.length();
+		}
+
+		return bytes;
+	}
+
+	@Override
+	public void clear() {
+		evictions.addAndGet(entries.size());
+		entries.clear();
+	}
+
+	void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Removes expired entries and, if the cache is still full, a batch of the
+	 * oldest ones.
+	 */
+	private void evict() {
+		synchronized (evictionLock) {
+
+			// another thread may have already made room
+			if (entries.size() < maxEntries) {
+				return;
+			}
+
+			long now = System.currentTimeMillis();
+			List<Entry<String, CachedCount>> live = new ArrayList<>(entries.size());
+
+			for (Entry<String, CachedCount> e : entries.entrySet()) {
+				if (now - e.getValue().createdAt > maxAgeMs) {
+					remove(e.getKey(), e.getValue());
+				} else {
+					live.add(e);
+				}
+			}
+
+			int batch = Math.max(1, maxEntries * EVICTION_BATCH_PERCENT / 100);
+			int excess = live.size() - maxEntries + batch;
+			if (excess > 0) {
+				Collections.sort(live, CachedCount.AGE_ORDER);
+				for (int i = 0; i < excess && i < live.size(); i++) {
+					Entry<String, CachedCount> e = live.get(i);
+					remove(e.getKey(), e.getValue());
+				}
+			}
+		}
+	}
+
+	private void remove(String key, CachedCount count) {
+		if (entries.remove(key, count)) {
+			evictions.incrementAndGet();
+		}
+	}
+
+	static class CachedCount {
+
+		static final Comparator<Entry<String, CachedCount>> AGE_ORDER = new Comparator<Entry<String, CachedCount>>() {
+
+			@Override
+			public int compare(Entry<String, CachedCount> e1, Entry<String, CachedCount> e2) {
+				long t1 = e1.getValue().createdAt;
+				long t2 = e2.getValue().createdAt;
+				return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+			}
+		};
+
+		final long count;
+		final long createdAt;
+
+		CachedCount(long count, long createdAt) {
+			this.count = count;
+			this.createdAt = createdAt;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link IInvalidationBus} that exchanges events between the nodes via a
+ * shared directory. Each published event is written to a separate file that is
+ * picked up by the other nodes polling the directory. Files older than the
+ * retention period are removed by whichever node sees them first.
+ * <p>
+ * Events from the other nodes are only received after {@link #start()}. A bus
+ * set via {@code LinkRestBuilder.invalidationBus(..)} is started when the
+ * runtime is built and stopped by {@code LinkRestRuntime.shutdown()}. A bus
+ * used on its own must be started and shut down explicitly.
+ * 
+ * @since 1.1
+ */
+public class FileInvalidationBus extends LocalInvalidationBus {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileInvalidationBus.class);
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String EVENT_SUFFIX = ".inv";
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	private Path directory;
+	private String nodeId;
+	private long pollIntervalMs;
+	private long retentionMs;
+	private AtomicLong sequence;
+
+	// only accessed from the poller thread
+	private Set<String> seenFiles;
+	private ScheduledExecutorService poller;
+
+	public FileInvalidationBus(Path directory, long pollIntervalMs) {
+		this(directory, UUID.randomUUID().toString(), pollIntervalMs, 60000);
+	}
+
+	public FileInvalidationBus(Path directory, String nodeId, long pollIntervalMs, long retentionMs) {
+
+		if (nodeId.indexOf('_') >= 0) {
+			throw new IllegalArgumentException("Node ID must not contain '_': " + nodeId);
+		}
+
+		this.directory = directory;
+		this.nodeId = nodeId;
+		this.pollIntervalMs = pollIntervalMs;
+		this.retentionMs = retentionMs;
+		this.sequence = new AtomicLong();
+		this.seenFiles = new HashSet<>();
+	}
+
+	/**
+	 * Starts polling the shared directory for events from the other nodes.
+	 * The events published before the start are ignored.
+	 */
+	public synchronized FileInvalidationBus start() {
+
+		if (poller != null) {
+			return this;
+		}
+
+		try {
+			Files.createDirectories(directory);
+			seenFiles.addAll(listEventFiles());
+		} catch (IOException e) {
+			throw new RuntimeException("Error accessing invalidation directory " + directory, e);
+		}
+
+		poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "linkrest-invalidation-" + nodeId);
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		poller.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+
+				// an exception would cancel all the subsequent polls
+				try {
+					poll();
+				} catch (RuntimeException e) {
+					LOGGER.warn("Error polling invalidation directory " + directory, e);
+				}
+			}
+		}, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+
+		return this;
+	}
+
+	/**
+	 * Returns whether the bus is polling the shared directory.
+	 */
+	public synchronized boolean isStarted() {
+		return poller != null;
+	}
+
+	/**
+	 * Stops polling the shared directory. Events are still published to the
+	 * other nodes.
+	 */
+	public synchronized void shutdown() {
+		if (poller != null) {
+			poller.shutdownNow();
+			poller = null;
+		}
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	@Override
+	public void publish(InvalidationEvent event) {
+
+		// local listeners are notified right away
+		super.publish(event);
+
+		String name = System.currentTimeMillis() + "_" + nodeId + "_" + sequence.incrementAndGet();
+		Path temp = directory.resolve(name + TEMP_SUFFIX);
+
+		try {
+
+			try (BufferedWriter out = Files.newBufferedWriter(temp, UTF8)) {
+				out.write(event.getEntityName());
+				out.newLine();
+
+				for (Object id : event.getIds()) {
+					out.write(String.valueOf(id));
+					out.newLine();
+				}
+			}
+
+			// move atomically, so that the readers never see a partial file
+			Files.move(temp, directory.resolve(name + EVENT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the write has already been committed, so not rethrowing...
+			// other nodes will have stale caches until they expire
+			LOGGER.warn("Error publishing invalidation event " + event, e);
+		}
+	}
+
+	/**
+	 * Processes the events published by the other nodes since the last poll.
+	 */
+	void poll() {
+
+		List<String> files;
+		try {
+			files = listEventFiles();
+		} catch (IOException e) {
+			LOGGER.warn("Error reading invalidation directory " + directory, e);
+			return;
+		}
+
+		// file names start with the timestamp, so sorting preserves the order
+		// of events
+		Collections.sort(files);
+
+		long expiredBefore = System.currentTimeMillis() - retentionMs;
+
+		for (String file : files) {
+
+			String[] parts = file.substring(0, file.length() - EVENT_SUFFIX.length()).split("_");
+			if (parts.length != 3) {
+				continue;
+			}
+
+			// not a file written by this bus
+			long timestamp;
+			try {
+				timestamp = Long.parseLong(parts[0]);
+			} catch (NumberFormatException e) {
+				continue;
+			}
+
+			if (seenFiles.add(file) && !nodeId.equals(parts[1])) {
+				receive(directory.resolve(file));
+			}
+
+			if (timestamp < expiredBefore) {
+				delete(directory.resolve(file));
+			}
+		}
+
+		// forget deleted files
+		seenFiles.retainAll(new HashSet<>(files));
+	}
+
+	private void receive(Path file) {
+
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(file, UTF8);
+		} catch (NoSuchFileException e) {
+			// expired and deleted by another node
+			return;
+		} catch (IOException e) {
+			LOGGER.warn("Error reading invalidation event " + file, e);
+			return;
+		}
+
+		if (lines.isEmpty()) {
+			return;
+		}
+
+		Iterator<String> it = lines.iterator();
+		String entityName = it.next();
+		List<Object> ids = new ArrayList<>(lines.size() - 1);
+		while (it.hasNext()) {
+			ids.add(it.next());
+		}
+
+		notifyListeners(new InvalidationEvent(entityName, ids));
+	}
+
+	private void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			LOGGER.info("Error deleting expired invalidation event " + file, e);
+		}
+	}
+
+	private List<String> listEventFiles() throws IOException {
+		List<String> files = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EVENT_SUFFIX)) {
+			for (Path p : stream) {
+				files.add(p.getFileName().toString());
+			}
+		}
+
+		return files;
+	}
+}
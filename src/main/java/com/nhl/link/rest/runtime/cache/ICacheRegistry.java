@@ -0,0 +1,27 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.Collection;
+
+/**
+ * A registry of LinkRest internal caches that allows to monitor and clear
+ * them at runtime.
+ * 
+ * @since 1.1
+ */
+public interface ICacheRegistry {
+
+	Collection<ManagedCache> getCaches();
+
+	/**
+	 * Returns a cache for name or null if no such cache is registered.
+	 */
+	ManagedCache getCache(String name);
+
+	/**
+	 * Registers an application cache to be managed together with LinkRest
+	 * caches.
+	 */
+	void register(ManagedCache cache);
+
+	void clearAll();
+}
@@ -0,0 +1,18 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * A cache of object counts used to answer the approximate count-only select
+ * requests without querying the DB. Counts are keyed by the root entity and a
+ * qualifier of the request.
+ * 
+ * @since 1.1
+ */
+public interface ICountCache {
+
+	/**
+	 * Returns a cached count, or -1 if the count is missing or expired.
+	 */
+	long get(String entityName, String qualifierKey);
+
+	void put(String entityName, String qualifierKey, long count);
+}
@@ -0,0 +1,18 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * A service that distributes cache invalidation events fired on writes to all
+ * the LinkRest caches, including the caches on the other nodes of the cluster.
+ * 
+ * @since 1.1
+ */
+public interface IInvalidationBus {
+
+	/**
+	 * Sends invalidation event to all listeners. Local listeners are notified
+	 * before this method returns.
+	 */
+	void publish(InvalidationEvent event);
+
+	void addListener(InvalidationListener listener);
+}
@@ -0,0 +1,56 @@
+package com.nhl.link.rest.runtime.cache;
+
+import com.nhl.link.rest.ClientEntity;
+
+/**
+ * A cache of fully encoded select responses. Cached entries are invalidated
+ * when any of the entities included in the response is modified via LinkRest.
+ * 
+ * @since 1.1
+ */
+public interface IResponseCache {
+
+	/**
+	 * Returns a cache key for a select request, or null if the responses for
+	 * the type are not cached.
+	 * 
+	 * @param type
+	 *            root entity type of the request.
+	 * @param requestKey
+	 *            an object that uniquely identifies the request data, e.g.
+	 *            based on the request parameters.
+	 */
+	ResponseCacheKey key(Class<?> type, Object requestKey);
+
+	/**
+	 * Returns a cached response for the key, or null if the response is
+	 * missing, expired or needs to be revalidated by the caller.
+	 */
+	CachedResponse get(ResponseCacheKey key);
+
+	/**
+	 * Caches encoded response body. 'validSince' is a value of
+	 * {@link #getInvalidationCount()} taken before the response data was
+	 * fetched. It is used to avoid caching the responses that were invalidated
+	 * while being fetched and encoded.
+	 */
+	CachedResponse put(ResponseCacheKey key, ClientEntity<?> entity, byte[] body, long validSince);
+
+	/**
+	 * Notifies the cache that the response for a key missed by
+	 * {@link #get(ResponseCacheKey)} will not be put, e.g. because it failed
+	 * to fetch or encode. If the caller was revalidating a stale entry, the
+	 * entry can be revalidated by the next caller.
+	 */
+	void revalidationFailed(ResponseCacheKey key);
+
+	/**
+	 * Invalidates all cached responses that include a given entity.
+	 */
+	void invalidate(String entityName);
+
+	/**
+	 * Returns a counter of invalidation events.
+	 */
+	long getInvalidationCount();
+}
@@ -0,0 +1,37 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.Collection;
+
+/**
+ * An event notifying LinkRest caches that objects of a given entity were
+ * modified.
+ * 
+ * @since 1.1
+ */
+public class InvalidationEvent {
+
+	private String entityName;
+	private Collection<?> ids;
+
+	public InvalidationEvent(String entityName, Collection<?> ids) {
+		this.entityName = entityName;
+		this.ids = ids;
+	}
+
+	public String getEntityName() {
+		return entityName;
+	}
+
+	/**
+	 * Returns IDs of modified objects. Note that the events received from
+	 * other nodes may carry IDs converted to Strings.
+	 */
+	public Collection<?> getIds() {
+		return ids;
+	}
+
+	@Override
+	public String toString() {
+		return entityName + ids;
+	}
+}
@@ -0,0 +1,11 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * A listener of {@link IInvalidationBus} events.
+ * 
+ * @since 1.1
+ */
+public interface InvalidationListener {
+
+	void invalidated(InvalidationEvent event);
+}
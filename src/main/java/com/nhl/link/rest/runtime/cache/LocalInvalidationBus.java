@@ -0,0 +1,47 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link IInvalidationBus} that delivers events to the listeners within the
+ * same JVM. The same instance can be shared between several LinkRest runtimes.
+ * Also serves as a superclass of the cross-node buses.
+ * 
+ * @since 1.1
+ */
+public class LocalInvalidationBus implements IInvalidationBus {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocalInvalidationBus.class);
+
+	private List<InvalidationListener> listeners;
+
+	public LocalInvalidationBus() {
+		this.listeners = new CopyOnWriteArrayList<>();
+	}
+
+	@Override
+	public void publish(InvalidationEvent event) {
+		notifyListeners(event);
+	}
+
+	@Override
+	public void addListener(InvalidationListener listener) {
+		listeners.add(listener);
+	}
+
+	protected void notifyListeners(InvalidationEvent event) {
+		for (InvalidationListener listener : listeners) {
+			try {
+				listener.invalidated(event);
+			} catch (RuntimeException e) {
+				// one broken listener should not prevent others from
+				// invalidating their data
+				LOGGER.warn("Error processing invalidation event " + event, e);
+			}
+		}
+	}
+}
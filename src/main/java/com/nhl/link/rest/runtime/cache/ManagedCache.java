@@ -0,0 +1,33 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * A view of one of the LinkRest internal caches registered in
+ * {@link ICacheRegistry}. Statistics that a cache does not track are reported
+ * as -1.
+ * 
+ * @since 1.1
+ */
+public interface ManagedCache {
+
+	String getName();
+
+	int getSize();
+
+	long getHits();
+
+	long getMisses();
+
+	/**
+	 * Returns a number of entries removed from the cache, either by
+	 * invalidation or by explicit clearing.
+	 */
+	long getEvictions();
+
+	/**
+	 * Returns a rough estimate of memory retained by the cache entries, in
+	 * bytes.
+	 */
+	long getEstimatedBytes();
+
+	void clear();
+}
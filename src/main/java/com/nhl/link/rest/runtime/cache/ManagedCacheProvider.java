@@ -0,0 +1,14 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.Collection;
+
+/**
+ * Implemented by LinkRest services that maintain internal caches, so that
+ * these caches are picked up by {@link CacheRegistry}.
+ * 
+ * @since 1.1
+ */
+public interface ManagedCacheProvider {
+
+	Collection<? extends ManagedCache> getManagedCaches();
+}
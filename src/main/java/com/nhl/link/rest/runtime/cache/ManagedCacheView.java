@@ -0,0 +1,57 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * An MBean exposing {@link ManagedCache} via JMX.
+ * 
+ * @since 1.1
+ */
+public class ManagedCacheView implements ManagedCacheViewMBean {
+
+	private ManagedCache cache;
+
+	public ManagedCacheView(ManagedCache cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public String getName() {
+		return cache.getName();
+	}
+
+	@Override
+	public int getSize() {
+		return cache.getSize();
+	}
+
+	@Override
+	public long getHits() {
+		return cache.getHits();
+	}
+
+	@Override
+	public long getMisses() {
+		return cache.getMisses();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hits = cache.getHits();
+		long total = hits + cache.getMisses();
+		return hits >= 0 && total > 0 ? (double) hits / total : -1;
+	}
+
+	@Override
+	public long getEvictions() {
+		return cache.getEvictions();
+	}
+
+	@Override
+	public long getEstimatedBytes() {
+		return cache.getEstimatedBytes();
+	}
+
+	@Override
+	public void clear() {
+		cache.clear();
+	}
+}
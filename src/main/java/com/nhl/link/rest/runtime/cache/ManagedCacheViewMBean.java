@@ -0,0 +1,25 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * JMX interface of a {@link ManagedCache}.
+ * 
+ * @since 1.1
+ */
+public interface ManagedCacheViewMBean {
+
+	String getName();
+
+	int getSize();
+
+	long getHits();
+
+	long getMisses();
+
+	double getHitRatio();
+
+	long getEvictions();
+
+	long getEstimatedBytes();
+
+	void clear();
+}
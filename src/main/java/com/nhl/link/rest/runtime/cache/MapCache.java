@@ -0,0 +1,89 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A String-keyed concurrent map that tracks its own hits and misses. Used for
+ * the unbounded metadata caches.
+ * 
+ * @since 1.1
+ */
+public class MapCache<V> implements ManagedCache {
+
+	// a rough size of a map entry with its key, not counting the key chars,
+	// and a typical cached value
+	static final int ENTRY_OVERHEAD_BYTES = 128;
+
+	private String name;
+	private ConcurrentMap<String, V> entries;
+	private AtomicLong hits;
+	private AtomicLong misses;
+	private AtomicLong evictions;
+
+	public MapCache(String name) {
+		this.name = name;
+		this.entries = new ConcurrentHashMap<>();
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+	}
+
+	public V get(String key) {
+		V value = entries.get(key);
+
+		if (value != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+
+		return value;
+	}
+
+	public void put(String key, V value) {
+		entries.put(key, value);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int getSize() {
+		return entries.size();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	@Override
+	public long getEstimatedBytes() {
+		long bytes = 0;
+		for (String key : entries.keySet()) {
+			bytes += ENTRY_OVERHEAD_BYTES + 2 * key.length();
+		}
+
+		return bytes;
+	}
+
+	@Override
+	public void clear() {
+		evictions.addAndGet(entries.size());
+		entries.clear();
+	}
+}
@@ -0,0 +1,47 @@
+package com.nhl.link.rest.runtime.cache;
+
+import com.nhl.link.rest.ClientEntity;
+
+/**
+ * An {@link IResponseCache} that caches nothing.
+ * 
+ * @since 1.1
+ */
+public class NoResponseCache implements IResponseCache {
+
+	private static final IResponseCache instance = new NoResponseCache();
+
+	public static IResponseCache instance() {
+		return instance;
+	}
+
+	@Override
+	public ResponseCacheKey key(Class<?> type, Object requestKey) {
+		return null;
+	}
+
+	@Override
+	public CachedResponse get(ResponseCacheKey key) {
+		return null;
+	}
+
+	@Override
+	public CachedResponse put(ResponseCacheKey key, ClientEntity<?> entity, byte[] body, long validSince) {
+		return null;
+	}
+
+	@Override
+	public void revalidationFailed(ResponseCacheKey key) {
+		// noop
+	}
+
+	@Override
+	public void invalidate(String entityName) {
+		// noop
+	}
+
+	@Override
+	public long getInvalidationCount() {
+		return 0;
+	}
+}
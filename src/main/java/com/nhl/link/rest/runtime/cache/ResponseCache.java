@@ -0,0 +1,435 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.cayenne.di.Inject;
+
+import com.nhl.link.rest.ClientEntity;
+
+/**
+ * A default in-memory {@link IResponseCache} that caches responses for the
+ * entities with configured {@link ResponseCachePolicy}.
+ * 
+ * @since 1.1
+ */
+public class ResponseCache implements IResponseCache, ManagedCacheProvider, ManagedCache {
+
+	public static final String POLICY_MAP = "linkrest.cache.response.policy.map";
+
+	static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	// the share of entries evicted at once when the cache is full, so that
+	// the cache is not swept on every put
+	static final int EVICTION_BATCH_PERCENT = 10;
+
+	private static final int LOCK_STRIPES = 64;
+
+	private Map<String, ResponseCachePolicy> policies;
+	private ResponseVariantProvider variantProvider;
+	private ConcurrentMap<ResponseCacheKey, CachedResponse> entries;
+	private ConcurrentMap<String, Set<ResponseCacheKey>> keysByEntity;
+	private AtomicLong invalidationCount;
+	private int maxEntries;
+	private AtomicLong hits;
+	private AtomicLong misses;
+	private AtomicLong evictions;
+
+	// entries are stored and indexed under the lock of their key, so that an
+	// entry is in the cache if and only if its key is indexed
+	private Object[] locks;
+	private Object evictionLock;
+
+	public ResponseCache(@Inject(POLICY_MAP) Map<String, ResponseCachePolicy> policies,
+			@Inject ResponseVariantProvider variantProvider, @Inject IInvalidationBus invalidationBus) {
+
+		// copy to a HashMap keyed by class name for fast lookups
+		this.policies = new HashMap<>(policies);
+		this.variantProvider = variantProvider;
+		this.entries = new ConcurrentHashMap<>();
+		this.keysByEntity = new ConcurrentHashMap<>();
+		this.invalidationCount = new AtomicLong();
+		this.maxEntries = DEFAULT_MAX_ENTRIES;
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+		this.evictionLock = new Object();
+
+		this.locks = new Object[LOCK_STRIPES];
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+
+		invalidationBus.addListener(new InvalidationListener() {
+
+			@Override
+			public void invalidated(InvalidationEvent event) {
+				invalidate(event.getEntityName());
+			}
+		});
+	}
+
+	@Override
+	public ResponseCacheKey key(Class<?> type, Object requestKey) {
+
+		if (!policies.containsKey(type.getName())) {
+			return null;
+		}
+
+		return new ResponseCacheKey(type, Arrays.asList(requestKey, variantProvider.variantKey(type)));
+	}
+
+	@Override
+	public CachedResponse get(ResponseCacheKey key) {
+
+		CachedResponse response = doGet(key);
+
+		if (response != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+		}
+
+		return response;
+	}
+
+	private CachedResponse doGet(ResponseCacheKey key) {
+
+		CachedResponse response = entries.get(key);
+		if (response == null) {
+			return null;
+		}
+
+		ResponseCachePolicy policy = policies.get(key.getType().getName());
+		long now = System.currentTimeMillis();
+		long age = now - response.getCreatedAt();
+
+		if (age <= policy.getTtlMs()) {
+			response.accessed(now);
+			return response;
+		}
+
+		if (age <= policy.getTtlMs() + policy.getStaleWhileRevalidateMs()) {
+
+			// the first caller gets a miss and refreshes the entry, the rest
+			// are served a stale response in the meantime
+			if (response.startRevalidation()) {
+				return null;
+			}
+
+			response.accessed(now);
+			return response;
+		}
+
+		remove(key, response);
+		return null;
+	}
+
+	@Override
+	public CachedResponse put(ResponseCacheKey key, ClientEntity<?> entity, byte[] body, long validSince) {
+
+		ResponseCachePolicy policy = policies.get(key.getType().getName());
+		if (policy == null) {
+			return null;
+		}
+
+		CachedResponse response = new CachedResponse(body, policy.isGzip() ? gzip(body) : null, entity.getEntity()
+				.getName(), entityNames(entity));
+
+		// skip responses made from the data that may have been invalidated
+		// while we were fetching and encoding it...
+		if (validSince != invalidationCount.get()) {
+			return response;
+		}
+
+		if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+			evict();
+		}
+
+		synchronized (lockFor(key)) {
+
+			CachedResponse replaced = entries.put(key, response);
+			if (replaced != null) {
+				unindex(key, replaced);
+			}
+
+			index(key, response);
+
+			// recheck for concurrent invalidation, as it may have scanned the
+			// index before the key was added
+			if (validSince != invalidationCount.get()) {
+				entries.remove(key, response);
+				unindex(key, response);
+			}
+		}
+
+		return response;
+	}
+
+	/**
+	 * Allows the next caller to revalidate a stale entry, if the current
+	 * caller has failed to do so.
+	 */
+	@Override
+	public void revalidationFailed(ResponseCacheKey key) {
+		CachedResponse response = entries.get(key);
+		if (response != null) {
+			response.endRevalidation();
+		}
+	}
+
+	@Override
+	public void invalidate(String entityName) {
+		invalidationCount.incrementAndGet();
+
+		Set<ResponseCacheKey> keys = keysByEntity.get(entityName);
+		if (keys != null) {
+			for (ResponseCacheKey key : new ArrayList<>(keys)) {
+				synchronized (lockFor(key)) {
+					CachedResponse removed = entries.remove(key);
+					if (removed != null) {
+						unindex(key, removed);
+						evictions.incrementAndGet();
+					} else {
+						keys.remove(key);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public long getInvalidationCount() {
+		return invalidationCount.get();
+	}
+
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Collections.singleton(this);
+	}
+
+	@Override
+	public String getName() {
+		return "linkrest.responses";
+	}
+
+	/**
+	 * Returns a number of cached responses.
+	 */
+	@Override
+	public int getSize() {
+		return entries.size();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	@Override
+	public long getEstimatedBytes() {
+		long bytes = 0;
+		for (CachedResponse response : entries.values()) {
+			bytes += response.getBody().length;
+			if (response.getGzippedBody() != null) {
+				bytes += response.getGzippedBody().length;
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Removes all cached responses.
+	 */
+	@Override
+	public void clear() {
+		invalidationCount.incrementAndGet();
+		evictions.addAndGet(entries.size());
+		entries.clear();
+		keysByEntity.clear();
+	}
+
+	/**
+	 * Returns a number of keys in the index of the cached responses by
+	 * entity.
+	 */
+	int getIndexSize() {
+		int size = 0;
+		for (Set<ResponseCacheKey> keys : keysByEntity.values()) {
+			size += keys.size();
+		}
+
+		return size;
+	}
+
+	void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	private boolean remove(ResponseCacheKey key, CachedResponse response) {
+		synchronized (lockFor(key)) {
+			if (entries.remove(key, response)) {
+				unindex(key, response);
+				evictions.incrementAndGet();
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Removes expired entries and, if the cache is still full, a batch of the
+	 * least recently used ones.
+	 */
+	private void evict() {
+		synchronized (evictionLock) {
+
+			// another thread may have already made room
+			if (entries.size() < maxEntries) {
+				return;
+			}
+
+			long now = System.currentTimeMillis();
+			List<EvictionCandidate> live = new ArrayList<>(entries.size());
+
+			for (Map.Entry<ResponseCacheKey, CachedResponse> e : entries.entrySet()) {
+				ResponseCacheKey key = e.getKey();
+				CachedResponse response = e.getValue();
+
+				if (isExpired(key, response, now)) {
+					remove(key, response);
+				} else {
+					live.add(new EvictionCandidate(key, response));
+				}
+			}
+
+			int batch = Math.max(1, maxEntries * EVICTION_BATCH_PERCENT / 100);
+			int excess = live.size() - maxEntries + batch;
+			if (excess > 0) {
+				Collections.sort(live, EvictionCandidate.LRU_ORDER);
+				for (int i = 0; i < excess && i < live.size(); i++) {
+					EvictionCandidate c = live.get(i);
+					remove(c.key, c.response);
+				}
+			}
+		}
+	}
+
+	private boolean isExpired(ResponseCacheKey key, CachedResponse response, long now) {
+		ResponseCachePolicy policy = policies.get(key.getType().getName());
+		return now - response.getCreatedAt() > policy.getTtlMs() + policy.getStaleWhileRevalidateMs();
+	}
+
+	private void index(ResponseCacheKey key, CachedResponse response) {
+		for (String name : response.getEntityNames()) {
+			keysFor(name).add(key);
+		}
+	}
+
+	private void unindex(ResponseCacheKey key, CachedResponse response) {
+		for (String name : response.getEntityNames()) {
+			Set<ResponseCacheKey> keys = keysByEntity.get(name);
+			if (keys != null) {
+				keys.remove(key);
+			}
+		}
+	}
+
+	private Object lockFor(ResponseCacheKey key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return locks[h & (LOCK_STRIPES - 1)];
+	}
+
+	private Set<ResponseCacheKey> keysFor(String entityName) {
+		Set<ResponseCacheKey> keys = keysByEntity.get(entityName);
+		if (keys == null) {
+			keys = Collections.newSetFromMap(new ConcurrentHashMap<ResponseCacheKey, Boolean>());
+			Set<ResponseCacheKey> existing = keysByEntity.putIfAbsent(entityName, keys);
+			if (existing != null) {
+				keys = existing;
+			}
+		}
+
+		return keys;
+	}
+
+	private static Collection<String> entityNames(ClientEntity<?> entity) {
+		Set<String> names = new HashSet<>();
+		appendEntityNames(entity, names);
+		return names;
+	}
+
+	private static void appendEntityNames(ClientEntity<?> entity, Set<String> names) {
+		names.add(entity.getEntity().getName());
+
+		for (ClientEntity<?> child : entity.getRelationships().values()) {
+			appendEntityNames(child, names);
+		}
+
+		if (entity.getMapBy() != null) {
+			appendEntityNames(entity.getMapBy(), names);
+		}
+	}
+
+	private static byte[] gzip(byte[] body) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 16);
+		try (GZIPOutputStream gzOut = new GZIPOutputStream(out)) {
+			gzOut.write(body);
+		} catch (IOException e) {
+			// unexpected for in-memory streams
+			throw new RuntimeException("Error compressing response", e);
+		}
+
+		return out.toByteArray();
+	}
+
+	private static final class EvictionCandidate {
+
+		static final Comparator<EvictionCandidate> LRU_ORDER = new Comparator<EvictionCandidate>() {
+
+			@Override
+			public int compare(EvictionCandidate c1, EvictionCandidate c2) {
+				return c1.lastAccessedAt < c2.lastAccessedAt ? -1 : (c1.lastAccessedAt == c2.lastAccessedAt ? 0 : 1);
+			}
+		};
+
+		final ResponseCacheKey key;
+		final CachedResponse response;
+
+		// captured upfront, as the entries may be accessed while sorting
+		final long lastAccessedAt;
+
+		EvictionCandidate(ResponseCacheKey key, CachedResponse response) {
+			this.key = key;
+			this.response = response;
+			this.lastAccessedAt = response.getLastAccessedAt();
+		}
+	}
+}
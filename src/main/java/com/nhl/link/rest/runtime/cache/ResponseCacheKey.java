@@ -0,0 +1,49 @@
+package com.nhl.link.rest.runtime.cache;
+
+import java.util.List;
+
+/**
+ * An immutable key of a cached response.
+ * 
+ * @since 1.1
+ */
+public final class ResponseCacheKey {
+
+	private final Class<?> type;
+	private final List<?> parts;
+	private final int hashCode;
+
+	ResponseCacheKey(Class<?> type, List<?> parts) {
+		this.type = type;
+		this.parts = parts;
+		this.hashCode = 31 * type.hashCode() + parts.hashCode();
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+
+		if (!(obj instanceof ResponseCacheKey)) {
+			return false;
+		}
+
+		ResponseCacheKey key = (ResponseCacheKey) obj;
+		return type == key.type && parts.equals(key.parts);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return type.getSimpleName() + parts;
+	}
+}
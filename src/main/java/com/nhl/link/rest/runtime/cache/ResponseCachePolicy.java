@@ -0,0 +1,61 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * Defines how select responses for a given entity are cached by
+ * {@link IResponseCache}.
+ * 
+ * @since 1.1
+ */
+public class ResponseCachePolicy {
+
+	private long ttlMs;
+	private long staleWhileRevalidateMs;
+	private boolean gzip;
+
+	/**
+	 * Creates a policy with the specified time to live of the cached
+	 * responses.
+	 */
+	public static ResponseCachePolicy ttl(long ttlMs) {
+		return new ResponseCachePolicy(ttlMs);
+	}
+
+	private ResponseCachePolicy(long ttlMs) {
+
+		if (ttlMs <= 0) {
+			throw new IllegalArgumentException("TTL must be positive: " + ttlMs);
+		}
+
+		this.ttlMs = ttlMs;
+	}
+
+	/**
+	 * Allows a response to be served for the specified time after it expires,
+	 * while a single request refreshes the cache entry.
+	 */
+	public ResponseCachePolicy staleWhileRevalidate(long staleWhileRevalidateMs) {
+		this.staleWhileRevalidateMs = staleWhileRevalidateMs;
+		return this;
+	}
+
+	/**
+	 * Stores gzipped copy of each response, that is served to the clients that
+	 * accept gzip encoding.
+	 */
+	public ResponseCachePolicy gzip() {
+		this.gzip = true;
+		return this;
+	}
+
+	public long getTtlMs() {
+		return ttlMs;
+	}
+
+	public long getStaleWhileRevalidateMs() {
+		return staleWhileRevalidateMs;
+	}
+
+	public boolean isGzip() {
+		return gzip;
+	}
+}
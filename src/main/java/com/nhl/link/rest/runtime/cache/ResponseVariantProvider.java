@@ -0,0 +1,18 @@
+package com.nhl.link.rest.runtime.cache;
+
+/**
+ * An application-provided strategy that distinguishes between cached versions
+ * of the same response. E.g. if encoding depends on the user roles, the
+ * provider would return a role set of the current user, so that users with
+ * different roles do not share cached responses.
+ * 
+ * @since 1.1
+ */
+public interface ResponseVariantProvider {
+
+	/**
+	 * Returns a variant key of the current request for a given entity type.
+	 * The key must implement 'equals' and 'hashCode'. Null is a valid key.
+	 */
+	Object variantKey(Class<?> type);
+}
@@ -0,0 +1,242 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nhl.link.rest.runtime.explain.ExplainService;
+
+/**
+ * A prefetch planner that chooses semantics of each relationship based on its
+ * cardinality, the root query fetch limit and the statistics of the previously
+ * fetched objects:
+ * <ul>
+ * <li>to-one relationships are prefetched with joint semantics, as the join
+ * does not multiply the rows of the main query;
+ * <li>to-many relationships of a single object selected by ID are prefetched
+ * with joint semantics, unless on average the object has many related
+ * objects;
+ * <li>to-many relationships of a query with a fetch limit, or of a query that
+ * on average returns a moderate number of objects, are prefetched with
+ * "disjoint by id" semantics, so that the prefetch query does not repeat the
+ * main query qualifier and does not fetch the children of the objects outside
+ * of the limit;
+ * <li>all other relationships are prefetched with disjoint semantics.
+ * </ul>
+ * Whenever the choice for a relationship changes, it is logged at INFO level.
+ * The choices are tracked separately for selects by ID, selects with a fetch
+ * limit and unlimited selects, so that a mix of such requests does not
+ * produce a log record per request.
+ *
+ * @since 1.1
+ */
+public class AdaptivePrefetchPlanner extends BasePrefetchPlanner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdaptivePrefetchPlanner.class);
+
+	static final int DEFAULT_JOINT_MAX_CHILDREN = 50;
+	static final int DEFAULT_BY_ID_MAX_PARENTS = 500;
+
+	// statistics are collected from every Nth fetch to keep the overhead low
+	private static final int SAMPLE_EVERY = 8;
+
+	private int jointMaxChildren;
+	private int byIdMaxParents;
+
+	private ConcurrentMap<String, Average> rowsPerQuery;
+	private ConcurrentMap<String, Average> childrenPerParent;
+	private ConcurrentMap<String, Integer> lastChoices;
+	private AtomicLong fetchCount;
+
+	public AdaptivePrefetchPlanner() {
+		this(DEFAULT_JOINT_MAX_CHILDREN, DEFAULT_BY_ID_MAX_PARENTS);
+	}
+
+	/**
+	 * @param jointMaxChildren
+	 *            max average number of related objects per object when a
+	 *            to-many relationship of a single object is still prefetched
+	 *            with joint semantics.
+	 * @param byIdMaxParents
+	 *            max average number of objects returned by the main query when
+	 *            its to-many relationships are still prefetched with
+	 *            "disjoint by id" semantics.
+	 */
+	public AdaptivePrefetchPlanner(int jointMaxChildren, int byIdMaxParents) {
+		this.jointMaxChildren = jointMaxChildren;
+		this.byIdMaxParents = byIdMaxParents;
+		this.rowsPerQuery = new ConcurrentHashMap<>();
+		this.childrenPerParent = new ConcurrentHashMap<>();
+		this.lastChoices = new ConcurrentHashMap<>();
+		this.fetchCount = new AtomicLong();
+	}
+
+	@Override
+	protected int plannedSemantics(PrefetchTreeNode node, ObjRelationship relationship, PrefetchRequest request) {
+
+		int semantics;
+		String reason;
+
+		if (!relationship.isToMany()) {
+			semantics = PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS;
+			reason = "to-one";
+		} else if (request.isById()) {
+
+			double children = average(childrenPerParent, relationshipKey(relationship));
+			if (children <= jointMaxChildren) {
+				semantics = PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS;
+				reason = "to-many of a single object";
+			} else {
+				semantics = PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS;
+				reason = "to-many of a single object, ~" + (long) children + " related objects";
+			}
+		} else if (request.getFetchLimit() > 0) {
+			semantics = PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS;
+			reason = "to-many of a query with fetch limit";
+		} else {
+
+			// only estimating the number of parents of the first level
+			// relationships
+			double parents = node.getParent().getParent() == null ? average(rowsPerQuery, request.getRootEntity()
+					.getName()) : -1;
+
+			if (parents >= 0 && parents <= byIdMaxParents) {
+				semantics = PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS;
+				reason = "to-many of a query returning ~" + (long) parents + " objects";
+			} else {
+				semantics = PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS;
+				reason = "to-many";
+			}
+		}
+
+		logChoice(relationshipKey(relationship) + " (" + requestShape(request) + ")", semantics, reason);
+		return semantics;
+	}
+
+	@Override
+	public void fetched(PrefetchTreeNode root, PrefetchRequest request, List<?> objects) {
+
+		if (fetchCount.getAndIncrement() % SAMPLE_EVERY != 0) {
+			return;
+		}
+
+		// a single object or a limited list tell nothing about the size of the
+		// query result
+		if (!request.isById() && request.getFetchLimit() <= 0) {
+			record(rowsPerQuery, request.getRootEntity().getName(), objects.size(), 1);
+		}
+
+		recordChildren(root, request, objects);
+	}
+
+	private void recordChildren(PrefetchTreeNode root, PrefetchRequest request, List<?> objects) {
+
+		if (root == null || objects.isEmpty()) {
+			return;
+		}
+
+		// only counting the first level to-many relationships, as this is
+		// what the heuristics above rely upon
+		for (PrefetchTreeNode node : root.getChildren()) {
+
+			ObjRelationship relationship = (ObjRelationship) request.getRootEntity().getRelationship(node.getName());
+			if (relationship == null || !relationship.isToMany()) {
+				continue;
+			}
+
+			int count = RelatedObjectCounter.count(objects, node.getName());
+			if (count >= 0) {
+				record(childrenPerParent, relationshipKey(relationship), count, objects.size());
+			}
+		}
+	}
+
+	/**
+	 * Returns an average number of objects returned by the main query for a
+	 * given entity, or -1 if no statistics is available yet.
+	 */
+	double getRowsPerQuery(String entityName) {
+		return average(rowsPerQuery, entityName);
+	}
+
+	/**
+	 * Returns an average number of related objects per source object for a
+	 * given to-many relationship, or -1 if no statistics is available yet.
+	 */
+	double getChildrenPerParent(ObjRelationship relationship) {
+		return average(childrenPerParent, relationshipKey(relationship));
+	}
+
+	private void logChoice(String key, int semantics, String reason) {
+
+		Integer last = lastChoices.put(key, semantics);
+		if (last == null || last.intValue() != semantics) {
+			LOGGER.info("Prefetching " + key + " with " + ExplainService.semanticsName(semantics) + " semantics ("
+					+ reason + ")");
+		} else if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Prefetching " + key + " with " + ExplainService.semanticsName(semantics) + " semantics ("
+					+ reason + ")");
+		}
+	}
+
+	private static String requestShape(PrefetchRequest request) {
+		if (request.isById()) {
+			return "by id";
+		}
+
+		return request.getFetchLimit() > 0 ? "limited" : "unlimited";
+	}
+
+	private static String relationshipKey(ObjRelationship relationship) {
+		return relationship.getSourceEntity().getName() + "." + relationship.getName();
+	}
+
+	private static double average(ConcurrentMap<String, Average> averages, String key) {
+		Average average = averages.get(key);
+		return average != null ? average.get() : -1;
+	}
+
+	private static void record(ConcurrentMap<String, Average> averages, String key, long sum, long count) {
+
+		Average average = averages.get(key);
+		if (average == null) {
+			Average newAverage = new Average();
+			Average existing = averages.putIfAbsent(key, newAverage);
+			average = existing != null ? existing : newAverage;
+		}
+
+		average.add(sum, count);
+	}
+
+	/**
+	 * An approximate running average that gradually forgets older values.
+	 */
+	static class Average {
+
+		private static final long DECAY_COUNT = 1024;
+
+		private AtomicLong sum = new AtomicLong();
+		private AtomicLong count = new AtomicLong();
+
+		void add(long sum, long count) {
+			this.sum.addAndGet(sum);
+			if (this.count.addAndGet(count) > DECAY_COUNT) {
+
+				// not atomic, but good enough for the statistics purposes
+				this.sum.set(this.sum.get() / 2);
+				this.count.set(this.count.get() / 2);
+			}
+		}
+
+		double get() {
+			long count = this.count.get();
+			return count > 0 ? (double) this.sum.get() / count : -1;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.PrefetchTreeNode;
+
+import com.nhl.link.rest.PrefetchSemantics;
+
+/**
+ * A superclass of prefetch planners that applies explicit semantics overrides
+ * in the following order: per-path hints of the request, semantics set for the
+ * whole request, {@link PrefetchSemantics} annotation of the relationship
+ * source class. Relationships without overrides are planned by the subclass.
+ * 
+ * @since 1.1
+ */
+public abstract class BasePrefetchPlanner implements IPrefetchPlanner {
+
+	private ConcurrentMap<Class<?>, Map<String, Integer>> annotatedSemantics;
+
+	public BasePrefetchPlanner() {
+		this.annotatedSemantics = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public void plan(PrefetchTreeNode root, PrefetchRequest request) {
+		for (PrefetchTreeNode child : root.getChildren()) {
+			plan(child, request.getRootEntity(), request);
+		}
+	}
+
+	/**
+	 * Does nothing. Subclasses may override to collect statistics.
+	 */
+	@Override
+	public void fetched(PrefetchTreeNode root, PrefetchRequest request, List<?> objects) {
+		// noop
+	}
+
+	private void plan(PrefetchTreeNode node, ObjEntity source, PrefetchRequest request) {
+
+		ObjRelationship relationship = (ObjRelationship) source.getRelationship(node.getName());
+		if (relationship == null) {
+			throw new IllegalStateException("No relationship '" + node.getName() + "' in entity "
+					+ source.getName());
+		}
+
+		node.setSemantics(semantics(node, relationship, request));
+
+		for (PrefetchTreeNode child : node.getChildren()) {
+			plan(child, (ObjEntity) relationship.getTargetEntity(), request);
+		}
+	}
+
+	private int semantics(PrefetchTreeNode node, ObjRelationship relationship, PrefetchRequest request) {
+
+		Integer hint = request.getHints().get(node.getPath());
+		if (hint != null) {
+			return hint;
+		}
+
+		if (request.getDefaultSemantics() > 0) {
+			return request.getDefaultSemantics();
+		}
+
+		Integer annotated = annotatedSemantics((ObjEntity) relationship.getSourceEntity()).get(
+				relationship.getName());
+		if (annotated != null) {
+			return annotated;
+		}
+
+		return plannedSemantics(node, relationship, request);
+	}
+
+	/**
+	 * Chooses semantics for a prefetch node without explicit overrides.
+	 */
+	protected abstract int plannedSemantics(PrefetchTreeNode node, ObjRelationship relationship,
+			PrefetchRequest request);
+
+	private Map<String, Integer> annotatedSemantics(ObjEntity entity) {
+
+		Class<?> type = entity.getJavaClass();
+		Map<String, Integer> semantics = annotatedSemantics.get(type);
+		if (semantics == null) {
+			semantics = readAnnotation(type);
+			annotatedSemantics.putIfAbsent(type, semantics);
+		}
+
+		return semantics;
+	}
+
+	private static Map<String, Integer> readAnnotation(Class<?> type) {
+
+		PrefetchSemantics annotation = type.getAnnotation(PrefetchSemantics.class);
+		if (annotation == null) {
+			return Collections.emptyMap();
+		}
+
+		Map<String, Integer> semantics = new HashMap<>();
+		for (String name : annotation.joint()) {
+			semantics.put(name, PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS);
+		}
+
+		for (String name : annotation.disjoint()) {
+			semantics.put(name, PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS);
+		}
+
+		for (String name : annotation.disjointById()) {
+			semantics.put(name, PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS);
+		}
+
+		return semantics;
+	}
+}
@@ -0,0 +1,112 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * A superclass of {@link IRelatedObjectResolver} implementations that groups
+ * related IDs by target entity, so that each target entity is resolved in one
+ * step.
+ * 
+ * @since 1.1
+ */
+public abstract class BaseRelatedObjectResolver implements IRelatedObjectResolver {
+
+	@Override
+	public void connect(DataObject object, ObjEntity entity, Map<String, Object> relatedIds) {
+
+		if (relatedIds.isEmpty()) {
+			return;
+		}
+
+		ObjectContext context = object.getObjectContext();
+
+		// group IDs by target entity...
+		Map<String, Collection<Object>> idsByEntity = new HashMap<>();
+		for (Entry<String, Object> e : relatedIds.entrySet()) {
+
+			if (e.getValue() == null) {
+				object.setToOneTarget(e.getKey(), null, true);
+				continue;
+			}
+
+			ObjRelationship relationship = (ObjRelationship) entity.getRelationship(e.getKey());
+			Collection<Object> ids = idsByEntity.get(relationship.getTargetEntityName());
+			if (ids == null) {
+				ids = new ArrayList<>();
+				idsByEntity.put(relationship.getTargetEntityName(), ids);
+			}
+
+			ids.add(e.getValue());
+		}
+
+		if (idsByEntity.isEmpty()) {
+			return;
+		}
+
+		// resolve each target entity in one step...
+		Map<String, Map<Object, DataObject>> objectsByEntity = new HashMap<>();
+		for (Entry<String, Collection<Object>> e : idsByEntity.entrySet()) {
+			ObjEntity targetEntity = context.getEntityResolver().getObjEntity(e.getKey());
+			objectsByEntity.put(e.getKey(), resolve(context, targetEntity, e.getValue()));
+		}
+
+		for (Entry<String, Object> e : relatedIds.entrySet()) {
+
+			if (e.getValue() == null) {
+				continue;
+			}
+
+			ObjRelationship relationship = (ObjRelationship) entity.getRelationship(e.getKey());
+			DataObject related = objectsByEntity.get(relationship.getTargetEntityName()).get(
+					normalizeId(e.getValue()));
+
+			if (related == null) {
+				throw new LinkRestException(Status.NOT_FOUND, "Related object '" + relationship.getTargetEntityName()
+						+ "' with ID '" + e.getValue() + "' is not found");
+			}
+
+			object.setToOneTarget(e.getKey(), related, isSetReverse());
+		}
+	}
+
+	/**
+	 * Normalizes ID value to be used as a key in the resolved objects map, so
+	 * that e.g. Integer and Long IDs with the same value would match.
+	 */
+	protected Object normalizeId(Object id) {
+		if (id instanceof Number) {
+			Number n = (Number) id;
+			if (!(n instanceof Float || n instanceof Double)) {
+				return n.longValue();
+			}
+		}
+
+		return id;
+	}
+
+	/**
+	 * Returns whether the reverse relationship should be updated when
+	 * connecting the objects.
+	 */
+	protected abstract boolean isSetReverse();
+
+	/**
+	 * Returns a map of related objects keyed by normalized ID. The IDs that can
+	 * not be resolved should be omitted from the map.
+	 */
+	protected abstract Map<Object, DataObject> resolve(ObjectContext context, ObjEntity targetEntity,
+			Collection<Object> ids);
+}
@@ -0,0 +1,46 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.SelectQuery;
+
+/**
+ * A default {@link IRelatedObjectResolver} that fetches all related objects of
+ * a given entity with a single IN query, failing if any of the objects is
+ * missing.
+ * 
+ * @since 1.1
+ */
+public class BatchRelatedObjectResolver extends BaseRelatedObjectResolver {
+
+	@Override
+	protected boolean isSetReverse() {
+		return true;
+	}
+
+	@Override
+	protected Map<Object, DataObject> resolve(ObjectContext context, ObjEntity targetEntity, Collection<Object> ids) {
+
+		String idName = targetEntity.getPrimaryKeyNames().iterator().next();
+
+		SelectQuery<DataObject> query = new SelectQuery<DataObject>(targetEntity.getName());
+		query.setQualifier(ExpressionFactory.inDbExp(idName, ids));
+
+		List<DataObject> objects = context.select(query);
+
+		Map<Object, DataObject> byId = new HashMap<>((int) (objects.size() / 0.75) + 1);
+		for (DataObject o : objects) {
+			byId.put(normalizeId(Cayenne.pkForObject(o)), o);
+		}
+
+		return byId;
+	}
+}
@@ -0,0 +1,81 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the parameters bound to a PreparedStatement, so that a statement
+ * translated by Cayenne can be re-run as an SQLTemplate with the same
+ * bindings. Parameters are named "p1", "p2", etc. after their positions.
+ *
+ * @since 1.1
+ */
+class BindingRecorder {
+
+	private Map<String, Object> parameters;
+
+	BindingRecorder() {
+		this.parameters = new HashMap<>();
+	}
+
+	/**
+	 * Replaces positional "?" parameters of the SQL, except for those in the
+	 * string literals, with the SQLTemplate bindings of the named parameters.
+	 */
+	static String toTemplate(String sql) {
+
+		StringBuilder template = new StringBuilder(sql.length() + 16);
+		boolean inLiteral = false;
+		int position = 0;
+
+		for (int i = 0; i < sql.length(); i++) {
+			char c = sql.charAt(i);
+
+			if (c == '\'') {
+				inLiteral = !inLiteral;
+			}
+
+			if (c == '?' && !inLiteral) {
+				template.append("#bind($p").append(++position).append(")");
+			} else {
+				template.append(c);
+			}
+		}
+
+		return template.toString();
+	}
+
+	/**
+	 * Returns a statement that records the parameters bound to it. Any method
+	 * other than the parameter setters fails.
+	 */
+	PreparedStatement statement() {
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+						String name = method.getName();
+						if (!name.startsWith("set") || args == null || args.length < 2
+								|| !(args[0] instanceof Integer)) {
+							throw new UnsupportedOperationException(name);
+						}
+
+						// setNull(int, int) has the JDBC type as the second
+						// argument, all other setters have the value
+						Object value = "setNull".equals(name) ? null : args[1];
+						parameters.put("p" + args[0], value);
+						return null;
+					}
+				});
+	}
+
+	Map<String, Object> getParameters() {
+		return parameters;
+	}
+}
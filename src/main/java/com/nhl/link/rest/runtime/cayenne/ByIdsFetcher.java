@@ -0,0 +1,134 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * Fetches objects by a list of IDs with IN queries, chunked to keep the number
+ * of query parameters within the DB limits. The objects are returned in the
+ * order of the IDs, and the IDs with no matching objects are collected
+ * separately.
+ *
+ * @since 1.1
+ */
+class ByIdsFetcher {
+
+	private ObjEntity entity;
+	private DbAttribute pk;
+
+	ByIdsFetcher(ObjEntity entity) {
+
+		Collection<DbAttribute> pks = entity.getDbEntity().getPrimaryKeys();
+		if (pks.size() != 1) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Can't select by ids, entity '" + entity.getName()
+					+ "' has a compound PK");
+		}
+
+		this.entity = entity;
+		this.pk = pks.iterator().next();
+	}
+
+	/**
+	 * Runs the query once per chunk of IDs, and'ing the query qualifier with
+	 * the IN expression. The query qualifier is restored afterwards.
+	 */
+	<T> List<T> fetch(ObjectContext context, SelectQuery<T> query, List<?> ids, List<Object> missingIds) {
+
+		// dedupe, preserving the requested order
+		Map<Object, Object> idsByKey = new LinkedHashMap<>();
+		for (Object id : ids) {
+			Object value = convert(id);
+			Object key = normalize(value);
+			if (!idsByKey.containsKey(key)) {
+				idsByKey.put(key, value);
+			}
+		}
+
+		Expression qualifier = query.getQualifier();
+		List<Object> values = new ArrayList<>(idsByKey.values());
+		Map<Object, T> objectsByKey = new HashMap<>();
+
+		try {
+			for (int i = 0; i < values.size(); i += InQualifiers.MAX_IN_SIZE) {
+
+				List<Object> chunk = values.subList(i, Math.min(i + InQualifiers.MAX_IN_SIZE, values.size()));
+				Expression in = ExpressionFactory.inDbExp(pk.getName(), chunk);
+				query.setQualifier(qualifier != null ? qualifier.andExp(in) : in);
+
+				for (T object : context.select(query)) {
+					Object id = ((Persistent) object).getObjectId().getIdSnapshot().get(pk.getName());
+					objectsByKey.put(normalize(id), object);
+				}
+			}
+		} finally {
+			query.setQualifier(qualifier);
+		}
+
+		List<T> objects = new ArrayList<>(objectsByKey.size());
+		for (Map.Entry<Object, Object> e : idsByKey.entrySet()) {
+			T object = objectsByKey.get(e.getKey());
+			if (object != null) {
+				objects.add(object);
+			} else {
+				missingIds.add(e.getValue());
+			}
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Converts an ID, that may come from a URL as a String, to the type of the
+	 * PK column.
+	 */
+	private Object convert(Object id) {
+
+		if (id == null) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Null id");
+		}
+
+		try {
+			switch (pk.getType()) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				return id instanceof Number ? ((Number) id).intValue() : Integer.valueOf(id.toString());
+			case Types.BIGINT:
+				return id instanceof Number ? ((Number) id).longValue() : Long.valueOf(id.toString());
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+				return id.toString();
+			default:
+				return id;
+			}
+		} catch (NumberFormatException e) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Invalid id for entity '" + entity.getName() + "': '"
+					+ id + "'");
+		}
+	}
+
+	// PK values may be read as a different JDBC integer type than requested
+	private static Object normalize(Object key) {
+		return key instanceof Number && !(key instanceof BigDecimal) ? Long.valueOf(((Number) key).longValue())
+				: key;
+	}
+}
@@ -1,5 +1,6 @@
 package com.nhl.link.rest.runtime.cayenne;
 
+import java.util.Collections;
 import java.util.Map.Entry;
 
 import javax.ws.rs.core.Response.Status;
@@ -8,16 +9,17 @@ import org.apache.cayenne.Cayenne;
 import org.apache.cayenne.DataObject;
 import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
 import org.apache.cayenne.map.ObjEntity;
-import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.query.ObjectIdQuery;
 import org.apache.cayenne.query.SelectQuery;
-import org.apache.cayenne.reflect.ClassDescriptor;
 
+import com.nhl.link.rest.ExtendedSelectBuilder;
 import com.nhl.link.rest.LinkRestException;
-import com.nhl.link.rest.SelectBuilder;
 import com.nhl.link.rest.UpdateResponse;
+import com.nhl.link.rest.runtime.cache.InvalidationEvent;
 import com.nhl.link.rest.runtime.dao.EntityDao;
+import com.nhl.link.rest.runtime.dao.EntityDaoContext;
 import com.nhl.link.rest.runtime.encoder.IEncoderService;
 import com.nhl.link.rest.runtime.parser.IRequestParser;
 
@@ -27,13 +29,23 @@ public class CayenneDao<T> implements EntityDao<T> {
 	private ICayennePersister cayenneService;
 	private IEncoderService encoderService;
 	private IRequestParser requestParser;
+	private EntityDaoContext daoContext;
 
 	public CayenneDao(Class<T> type, IRequestParser requestParser, IEncoderService encoderService,
 			ICayennePersister cayenneService) {
+		this(type, requestParser, encoderService, cayenneService, EntityDaoContext.defaults());
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public CayenneDao(Class<T> type, IRequestParser requestParser, IEncoderService encoderService,
+			ICayennePersister cayenneService, EntityDaoContext daoContext) {
 		this.type = type;
 		this.requestParser = requestParser;
 		this.encoderService = encoderService;
 		this.cayenneService = cayenneService;
+		this.daoContext = daoContext;
 	}
 
 	@Override
@@ -42,13 +54,13 @@ public class CayenneDao<T> implements EntityDao<T> {
 	}
 
 	@Override
-	public SelectBuilder<T> forSelect() {
-		return new CayenneSelectBuilder<T>(type, cayenneService, encoderService, requestParser);
+	public ExtendedSelectBuilder<T> forSelect() {
+		return new CayenneSelectBuilder<T>(null, type, cayenneService, encoderService, requestParser, daoContext);
 	}
 
 	@Override
-	public SelectBuilder<T> forSelect(SelectQuery<T> query) {
-		return new CayenneSelectBuilder<T>(query, type, cayenneService, encoderService, requestParser);
+	public ExtendedSelectBuilder<T> forSelect(SelectQuery<T> query) {
+		return new CayenneSelectBuilder<T>(query, type, cayenneService, encoderService, requestParser, daoContext);
 	}
 
 	@Override
@@ -58,6 +70,7 @@ public class CayenneDao<T> implements EntityDao<T> {
 
 		mergeChanges(response, object);
 		context.commitChanges();
+		invalidate(response, Cayenne.pkForObject((Persistent) object));
 		return object;
 	}
 
@@ -68,6 +81,7 @@ public class CayenneDao<T> implements EntityDao<T> {
 
 		mergeChanges(response, object);
 		context.commitChanges();
+		invalidate(response, response.getId());
 		return object;
 	}
 
@@ -78,6 +92,20 @@ public class CayenneDao<T> implements EntityDao<T> {
 		T object = getExistingObject(type, context, id);
 		context.deleteObjects(object);
 		context.commitChanges();
+		invalidate(context.getEntityResolver().getObjEntity(type), id);
+	}
+
+	private void invalidate(UpdateResponse<T> response, Object id) {
+		invalidate(response.getEntity().getEntity(), id);
+	}
+
+	/**
+	 * Notifies local and remote caches about a modified object. Since a cached
+	 * response includes entities on both sides of a relationship, changes to
+	 * the relationships are covered as well.
+	 */
+	private void invalidate(ObjEntity entity, Object id) {
+		daoContext.getInvalidationBus().publish(new InvalidationEvent(entity.getName(), Collections.singleton(id)));
 	}
 
 	private void mergeChanges(UpdateResponse<T> response, T object) {
@@ -90,33 +118,8 @@ public class CayenneDao<T> implements EntityDao<T> {
 		}
 
 		// to-one relationships
-		if (!response.getRelatedIds().isEmpty()) {
-
-			ObjEntity rootEntity = response.getEntity().getEntity();
-			ObjectContext context = dataObject.getObjectContext();
-
-			for (Entry<String, Object> e : response.getRelatedIds().entrySet()) {
-
-				if (e.getValue() == null) {
-					dataObject.setToOneTarget(e.getKey(), null, true);
-					continue;
-				}
-
-				ObjRelationship relationship = (ObjRelationship) rootEntity.getRelationship(e.getKey());
-
-				ClassDescriptor relatedDescriptor = context.getEntityResolver().getClassDescriptor(
-						relationship.getTargetEntityName());
-				DataObject related = (DataObject) Cayenne.objectForPK(context, relatedDescriptor.getObjectClass(),
-						e.getValue());
-
-				if (related == null) {
-					throw new LinkRestException(Status.NOT_FOUND, "Related object '"
-							+ relationship.getTargetEntityName() + "' with ID '" + e.getValue() + "' is not found");
-				}
-
-				dataObject.setToOneTarget(e.getKey(), related, true);
-			}
-		}
+		daoContext.getRelatedObjectResolver().connect(dataObject, response.getEntity().getEntity(),
+				response.getRelatedIds());
 	}
 
 	private T getExistingObject(Class<T> type, ObjectContext context, Object id) {
@@ -1,29 +1,78 @@
 package com.nhl.link.rest.runtime.cayenne;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataRowStore;
 import org.apache.cayenne.configuration.server.ServerRuntime;
 import org.apache.cayenne.map.EntityResolver;
 
-public class CayennePersister implements ICayennePersister {
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+import com.nhl.link.rest.runtime.cache.ManagedCacheProvider;
+import com.nhl.link.rest.runtime.timing.RequestTimings;
+
+public class CayennePersister implements ICayennePersister, ManagedCacheProvider {
+
+	// very rough estimates of memory used by a registered object and a
+	// snapshot, as Cayenne doesn't track it
+	static final int OBJECT_BYTES = 400;
+	static final int SNAPSHOT_BYTES = 250;
 
 	private ServerRuntime runtime;
-	private ObjectContext sharedContext;
+	private volatile ObjectContext sharedContext;
+	private IReadContextStrategy readContextStrategy;
 
 	public CayennePersister(ServerRuntime runtime) {
+		this(runtime, new PerRequestReadContextStrategy(runtime));
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	public CayennePersister(ServerRuntime runtime, IReadContextStrategy readContextStrategy) {
 
 		if (runtime == null) {
 			throw new NullPointerException("Null runtime");
 		}
 
+		if (readContextStrategy == null) {
+			throw new NullPointerException("Null readContextStrategy");
+		}
+
 		this.runtime = runtime;
-		this.sharedContext = runtime.newContext();
+		this.readContextStrategy = readContextStrategy;
 	}
 
+	/**
+	 * Returns a context shared by all callers. Since 1.1 LinkRest selects
+	 * read data via {@link #readContext()} instead.
+	 */
 	@Override
 	public ObjectContext sharedContext() {
+
+		// created lazily, as LinkRest itself doesn't use it anymore
+		if (sharedContext == null) {
+			synchronized (this) {
+				if (sharedContext == null) {
+					sharedContext = runtime.newContext();
+				}
+			}
+		}
+
 		return sharedContext;
 	}
 
+	/**
+	 * Returns an ObjectContext for read-only select queries, as provided by
+	 * the {@link IReadContextStrategy}.
+	 * 
+	 * @since 1.1
+	 */
+	public ObjectContext readContext() {
+		return readContextStrategy.readContext();
+	}
+
 	@Override
 	public ObjectContext newContext() {
 		return runtime.newContext();
@@ -33,4 +82,127 @@ public class CayennePersister implements ICayennePersister {
 	public EntityResolver entityResolver() {
 		return runtime.getChannel().getEntityResolver();
 	}
+
+	/**
+	 * @since 1.1
+	 */
+	public IReadContextStrategy getReadContextStrategy() {
+		return readContextStrategy;
+	}
+
+	/**
+	 * Enables capturing of the SQL statements run by LinkRest selects. The
+	 * statements are reported to the timing listeners via
+	 * {@link RequestTimings#getStatements()}.
+	 * 
+	 * @since 1.1
+	 */
+	public void captureSql() {
+		SqlCapture.install(runtime);
+
+		if (readContextStrategy instanceof ReplicaReadContextStrategy) {
+			for (ServerRuntime replica : ((ReplicaReadContextStrategy) readContextStrategy).getReplicaRuntimes()) {
+				SqlCapture.install(replica);
+			}
+		}
+	}
+
+	/**
+	 * Returns a number of objects registered in the contexts retained by the
+	 * read context strategy.
+	 * 
+	 * @since 1.1
+	 */
+	public int getReadObjectStoreSize() {
+		return readContextStrategy.getRegisteredObjectsCount();
+	}
+
+	/**
+	 * Returns a number of snapshots in the runtime shared snapshot cache.
+	 * 
+	 * @since 1.1
+	 */
+	public int getSnapshotCacheSize() {
+		DataRowStore cache = snapshotCache();
+		return cache != null ? cache.size() : 0;
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Arrays.asList(new ReadContextCache(), new SnapshotCache());
+	}
+
+	private DataRowStore snapshotCache() {
+		return runtime.getDataDomain().getSharedSnapshotCache();
+	}
+
+	private abstract class CayenneCache implements ManagedCache {
+
+		@Override
+		public long getHits() {
+			return -1;
+		}
+
+		@Override
+		public long getMisses() {
+			return -1;
+		}
+
+		@Override
+		public long getEvictions() {
+			return -1;
+		}
+	}
+
+	private class ReadContextCache extends CayenneCache {
+
+		@Override
+		public String getName() {
+			return "cayenne.readContext";
+		}
+
+		@Override
+		public int getSize() {
+			return getReadObjectStoreSize();
+		}
+
+		@Override
+		public long getEstimatedBytes() {
+			return (long) OBJECT_BYTES * getSize();
+		}
+
+		@Override
+		public void clear() {
+			readContextStrategy.clear();
+		}
+	}
+
+	private class SnapshotCache extends CayenneCache {
+
+		@Override
+		public String getName() {
+			return "cayenne.snapshots";
+		}
+
+		@Override
+		public int getSize() {
+			return getSnapshotCacheSize();
+		}
+
+		@Override
+		public long getEstimatedBytes() {
+			return (long) SNAPSHOT_BYTES * getSize();
+		}
+
+		@Override
+		public void clear() {
+			DataRowStore cache = snapshotCache();
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
 }
@@ -1,45 +1,269 @@
 package com.nhl.link.rest.runtime.cayenne;
 
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Response.Status;
 
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionFactory;
 import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.EJBQLQuery;
 import org.apache.cayenne.query.Ordering;
 import org.apache.cayenne.query.PrefetchTreeNode;
 import org.apache.cayenne.query.SelectQuery;
 
-import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.Aggregation;
 import com.nhl.link.rest.DataResponse;
 import com.nhl.link.rest.LinkRestException;
 import com.nhl.link.rest.SelectBuilder;
 import com.nhl.link.rest.runtime.BaseSelectBuilder;
+import com.nhl.link.rest.runtime.cache.ICountCache;
+import com.nhl.link.rest.runtime.dao.EntityDaoContext;
+import com.nhl.link.rest.runtime.encoder.EncoderService;
 import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.explain.IExplainService;
 import com.nhl.link.rest.runtime.parser.IRequestParser;
 
 class CayenneSelectBuilder<T> extends BaseSelectBuilder<T> implements SelectBuilder<T> {
 
 	private SelectQuery<T> select;
 	private ICayennePersister cayenneService;
+	private IExplainService explainService;
+	private IPrefetchPlanner prefetchPlanner;
+	private ICountCache countCache;
 
 	CayenneSelectBuilder(SelectQuery<T> select, Class<T> type, ICayennePersister cayenneService,
 			IEncoderService encoderService, IRequestParser requestParser) {
-		this(type, cayenneService, encoderService, requestParser);
-		this.select = select;
+		this(select, type, cayenneService, encoderService, requestParser, EntityDaoContext.defaults());
 	}
 
 	CayenneSelectBuilder(Class<T> type, ICayennePersister cayenneService, IEncoderService encoderService,
 			IRequestParser requestParser) {
-		super(type, encoderService, requestParser);
+		this(null, type, cayenneService, encoderService, requestParser, EntityDaoContext.defaults());
+	}
+
+	CayenneSelectBuilder(SelectQuery<T> select, Class<T> type, ICayennePersister cayenneService,
+			IEncoderService encoderService, IRequestParser requestParser, EntityDaoContext context) {
+		super(type, encoderService, requestParser, context.getFetchCoalescer(), context.getResponseCache(), context
+				.getExplainService());
 		this.cayenneService = cayenneService;
+		this.select = select;
+		this.explainService = context.getExplainService();
+		this.prefetchPlanner = context.getPrefetchPlanner();
+		this.countCache = context.getCountCache();
 	}
 
 	@Override
 	protected void fetchObjects(DataResponse<T> responseBuilder) {
+		SqlCapture capture = SqlCapture.start();
+		try {
+			doFetchObjects(responseBuilder);
+		} finally {
+			responseBuilder.getTimings().addStatements(capture.stop());
+		}
+	}
+
+	@Override
+	protected long fetchCount(DataResponse<T> responseBuilder) {
+		SqlCapture capture = SqlCapture.start();
+		try {
+			return doFetchCount(responseBuilder);
+		} finally {
+			responseBuilder.getTimings().addStatements(capture.stop());
+		}
+	}
+
+	@Override
+	protected void fetchAggregates(DataResponse<T> responseBuilder) {
+		SqlCapture capture = SqlCapture.start();
+		try {
+			doFetchAggregates(responseBuilder);
+		} finally {
+			responseBuilder.getTimings().addStatements(capture.stop());
+		}
+	}
+
+	private void doFetchObjects(DataResponse<T> responseBuilder) {
+
+		long t0 = System.nanoTime();
+		SelectQuery<T> select = buildQuery(responseBuilder);
+		responseBuilder.getTimings().setQueryBuildNanos(System.nanoTime() - t0);
+		responseBuilder.getTimings().setQuery(select);
+
+		// separately fetched relationships must be resolved in the same
+		// context as the main objects
+		ObjectContext context = readContext();
+
+		DataRowFetcher rowFetcher = rowFetcher(responseBuilder);
+		if (rowFetcher != null) {
+			SelectQuery<DataRow> rowQuery = rowFetcher.rootQuery(responseBuilder.getEntity(), select);
+			responseBuilder.getTimings().setQuery(rowQuery);
+
+			List<DataRow> rows = context.select(rowQuery);
+			responseBuilder.withDataRows(rows).withPrefetchedRelationships(
+					rowFetcher.fetch(context, responseBuilder.getEntity(), rows));
+			return;
+		}
+
+		List<T> objects;
+		if (responseBuilder.getIds() != null) {
+			List<Object> missingIds = new ArrayList<>();
+			objects = new ByIdsFetcher(responseBuilder.getEntity().getEntity()).fetch(context, select,
+					responseBuilder.getIds(), missingIds);
+			responseBuilder.withMissingIds(missingIds);
+		} else {
+			objects = context.select(select);
+		}
+
+		if (select.getPrefetchTree() != null) {
+			prefetchPlanner.fetched(select.getPrefetchTree(), prefetchRequest(responseBuilder, select), objects);
+		}
+
+		responseBuilder.withObjects(objects).withPrefetchedRelationships(
+				relationshipFetcher().fetch(context, responseBuilder.getEntity(), objects));
+	}
+
+	private long doFetchCount(DataResponse<T> responseBuilder) {
+
+		long t0 = System.nanoTime();
+		Expression qualifier = buildQuery(responseBuilder).getQualifier();
+		responseBuilder.getTimings().setQueryBuildNanos(System.nanoTime() - t0);
+
+		String entityName = responseBuilder.getEntity().getEntity().getName();
+		String qualifierKey = String.valueOf(qualifier);
+
+		if (responseBuilder.isApproximateCount()) {
+			long cached = countCache.get(entityName, qualifierKey);
+			if (cached >= 0) {
+				return cached;
+			}
+		}
+
+		long count = new SelectCounter().count(readContext(), responseBuilder.getEntity().getEntity(),
+				qualifier);
+		countCache.put(entityName, qualifierKey, count);
+		return count;
+	}
+
+	private void doFetchAggregates(DataResponse<T> responseBuilder) {
+
+		long t0 = System.nanoTime();
+
+		ObjEntity entity = responseBuilder.getEntity().getEntity();
+		Expression qualifier = buildQuery(responseBuilder).getQualifier();
+		List<Aggregation.Column> columns = responseBuilder.getAggregation().getColumns();
+		List<Aggregation.Column> groupBy = responseBuilder.getAggregation().getGroupBy();
+
+		String root = EJBQLBuilder.ROOT_ALIAS;
+		EJBQLBuilder ejbql = new EJBQLBuilder().append("SELECT ");
+
+		for (int i = 0; i < columns.size(); i++) {
+			Aggregation.Column column = columns.get(i);
+
+			if (i > 0) {
+				ejbql.append(", ");
+			}
+
+			String path = column.getPath() != null ? root + "." + column.getPath() : root;
+			if (column.getFunction() != null) {
+				ejbql.append(column.getFunction().toUpperCase()).append("(").append(path).append(")");
+			} else {
+				ejbql.append(path);
+			}
+		}
+
+		ejbql.append(" FROM ").append(entity.getName()).append(" ").append(root);
+
+		if (!ejbql.appendWhere(entity, qualifier)) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Qualifier is not supported in aggregate requests: "
+					+ qualifier);
+		}
+
+		if (!groupBy.isEmpty()) {
+
+			StringBuilder paths = new StringBuilder();
+			for (Aggregation.Column column : groupBy) {
+				if (paths.length() > 0) {
+					paths.append(", ");
+				}
+
+				paths.append(root).append(".").append(column.getPath());
+			}
+
+			// sorting by the groups for a stable response order
+			ejbql.append(" GROUP BY ").append(paths.toString()).append(" ORDER BY ").append(paths.toString());
+		}
+
+		EJBQLQuery query = ejbql.build();
+		responseBuilder.getTimings().setQueryBuildNanos(System.nanoTime() - t0);
+		responseBuilder.getTimings().setQuery(query);
+
+		List<?> result = readContext().performQuery(query);
+		List<Map<String, Object>> rows = new ArrayList<>(result.size());
+
+		for (Object r : result) {
+
+			// single column results are returned as scalars
+			Object[] values = r instanceof Object[] ? (Object[]) r : new Object[] { r };
+
+			Map<String, Object> row = new HashMap<>();
+			for (int i = 0; i < values.length; i++) {
+				row.put(columns.get(i).getName(), values[i]);
+			}
 
+			rows.add(row);
+		}
+
+		responseBuilder.withDataRows(rows);
+	}
+
+	@Override
+	protected void explainFetch(DataResponse<T> responseBuilder, Map<String, Object> explanation) {
 		SelectQuery<T> select = buildQuery(responseBuilder);
-		responseBuilder.withObjects(cayenneService.sharedContext().select(select));
+
+		DataRowFetcher rowFetcher = rowFetcher(responseBuilder);
+		if (rowFetcher != null) {
+			explanation.put("dataRows", Boolean.TRUE);
+			explanation.put("projection", isProjection());
+			explanation.put("query", explainService.explainQuery(readContext(),
+					rowFetcher.rootQuery(responseBuilder.getEntity(), select)));
+		} else {
+			explanation.put("query", explainService.explainQuery(readContext(), select));
+		}
+	}
+
+	@Override
+	protected Object queryTemplateKey() {
+
+		// ignoring templates when selecting by id, as they are not used
+		if (select == null || isById()) {
+			return null;
+		}
+
+		StringBuilder key = new StringBuilder();
+		key.append(select.getRoot());
+
+		if (select.getQualifier() != null) {
+			key.append("|q:").append(select.getQualifier());
+		}
+
+		for (Ordering o : select.getOrderings()) {
+			key.append("|o:").append(o.getSortSpecString()).append(o.isAscending() ? ":a" : ":d");
+		}
+
+		if (select.getPrefetchTree() != null) {
+			for (PrefetchTreeNode node : select.getPrefetchTree().nonPhantomNodes()) {
+				key.append("|p:").append(node.getPath());
+			}
+		}
+
+		key.append("|l:").append(select.getFetchLimit()).append("|f:").append(select.getFetchOffset());
+		return key.toString();
 	}
 
 	protected SelectQuery<T> buildQuery(DataResponse<T> request) {
@@ -56,20 +280,60 @@ class CayenneSelectBuilder<T> extends BaseSelectBuilder<T> implements SelectBuil
 
 		if (request.getEntity() != null && !request.getEntity().getRelationships().isEmpty()) {
 			PrefetchTreeNode root = new PrefetchTreeNode();
+			relationshipFetcher().appendPrefetches(root, request.getEntity());
+			prefetchPlanner.plan(root, prefetchRequest(request, query));
+			query.setPrefetchTree(root);
+		}
+
+		return query;
+	}
+
+	private ObjectContext readContext() {
+
+		// custom persisters are not aware of the read context strategies
+		return cayenneService instanceof CayennePersister ? ((CayennePersister) cayenneService).readContext()
+				: cayenneService.sharedContext();
+	}
+
+	/**
+	 * Returns a fetcher for the DataRow read path, or null if it was not
+	 * requested or can't be used for the request.
+	 */
+	private DataRowFetcher rowFetcher(DataResponse<T> request) {
+
+		// objects selected by ids are matched to the ids by ObjectId
+		if ((!isDataRows() && !isProjection()) || request.getIds() != null) {
+			return null;
+		}
+
+		// rows can only be encoded by the default encoder service
+		if (!(getEncoderService() instanceof EncoderService)
+				|| !((EncoderService) getEncoderService()).canEncodeRows(request.getEntity())) {
+			return null;
+		}
 
-			int prefetchSemantics = request.getPrefetchSemantics();
-			if (prefetchSemantics <= 0) {
+		DataRowFetcher fetcher = new DataRowFetcher(isProjection());
+		return fetcher.canFetch(request.getEntity()) ? fetcher : null;
+	}
+
+	private FilteredRelationshipFetcher relationshipFetcher() {
+		return new FilteredRelationshipFetcher(prefetchPlanner, getPrefetchSemantics());
+	}
+
+	private PrefetchRequest prefetchRequest(DataResponse<T> request, SelectQuery<T> query) {
+		int semantics = 0;
+		if (request.isPrefetchSemanticsSet()) {
+			semantics = request.getPrefetchSemantics();
+			if (semantics <= 0) {
 				// it makes more sense to use joint prefetches for single object
 				// queries...
-				prefetchSemantics = isById() ? PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS
+				semantics = isById() ? PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS
 						: PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS;
 			}
-
-			appendPrefetches(root, request.getEntity(), prefetchSemantics);
-			query.setPrefetchTree(root);
 		}
 
-		return query;
+		return new PrefetchRequest(request.getEntity().getEntity(), query.getFetchLimit(), isById())
+				.withDefaultSemantics(semantics).withHints(getPrefetchSemantics());
 	}
 
 	protected SelectQuery<T> basicSelect(DataResponse<T> request) {
@@ -99,21 +363,4 @@ class CayenneSelectBuilder<T> extends BaseSelectBuilder<T> implements SelectBuil
 		return select;
 	}
 
-	private void appendPrefetches(PrefetchTreeNode root, ClientEntity<?> entity, int prefetchSemantics) {
-		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
-
-			PrefetchTreeNode child = root.addPath(e.getKey());
-
-			// always full prefetch related entities... we can't use phantom as
-			// this will hit object cache and hence won't be cache controlled
-			// via query cache anymore...
-			child.setPhantom(false);
-			child.setSemantics(prefetchSemantics);
-			appendPrefetches(child, e.getValue(), prefetchSemantics);
-		}
-
-		if (entity.getMapBy() != null) {
-			appendPrefetches(root, entity.getMapBy(), prefetchSemantics);
-		}
-	}
 }
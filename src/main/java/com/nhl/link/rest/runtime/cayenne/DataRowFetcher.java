@@ -0,0 +1,273 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbJoin;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.PrefetchedRelationships;
+import com.nhl.link.rest.property.DataRowPropertyReader;
+
+/**
+ * Fetches an entity tree as Cayenne DataRows. Each included relationship is
+ * resolved with a separate query per relationship, and the related rows are
+ * grouped by the source rows using the join column values. No objects are
+ * created and nothing is registered in the ObjectContext.
+ *
+ * @since 1.1
+ */
+class DataRowFetcher {
+
+	private boolean projection;
+
+	/**
+	 * @param projection
+	 *            if true, only the PK, the included attribute columns and the
+	 *            join columns are fetched. Otherwise full rows are fetched.
+	 */
+	DataRowFetcher(boolean projection) {
+		this.projection = projection;
+	}
+
+	/**
+	 * Returns whether the entity tree can be fetched as DataRows. This
+	 * requires a single column PK, no flattened attributes, only standard
+	 * attribute types for the projections and only relationships with a single
+	 * join on every level of the tree.
+	 */
+	boolean canFetch(ClientEntity<?> entity) {
+
+		ObjEntity objEntity = entity.getEntity();
+		if (objEntity.getDbEntity().getPrimaryKeys().size() != 1) {
+			return false;
+		}
+
+		// flattened attributes are read from the related entities, and there's
+		// no reliable way to address their columns in a DataRow
+		for (String attribute : entity.getAttributes()) {
+			ObjAttribute objAttribute = (ObjAttribute) objEntity.getAttribute(attribute);
+			if (objAttribute == null || objAttribute.isFlattened()) {
+				return false;
+			}
+
+			// projected columns are read as the default JDBC types, and only
+			// the standard types can be converted to the attribute types
+			if (projection && !DataRowPropertyReader.canConvert(objAttribute.getJavaClass())) {
+				return false;
+			}
+		}
+
+		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+
+			ObjRelationship relationship = (ObjRelationship) objEntity.getRelationship(e.getKey());
+			DbJoin join = relationship != null ? join(relationship) : null;
+			if (join == null) {
+				return false;
+			}
+
+			// full rows include FKs only for the mapped to-one relationships,
+			// so the target FK must have a reverse relationship
+			if (!projection && join.getTarget().isForeignKey() && relationship.getReverseRelationship() == null) {
+				return false;
+			}
+
+			if (!canFetch(e.getValue())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Builds a DataRow query for the root entity with the same qualifier,
+	 * ordering and limits as the object query.
+	 */
+	SelectQuery<DataRow> rootQuery(ClientEntity<?> entity, SelectQuery<?> select) {
+
+		SelectQuery<DataRow> query = new SelectQuery<>(entity.getEntity().getName(), select.getQualifier(),
+				select.getOrderings());
+		query.setFetchLimit(select.getFetchLimit());
+		query.setFetchOffset(select.getFetchOffset());
+		query.setFetchingDataRows(true);
+		appendColumns(query, entity, null);
+		return query;
+	}
+
+	/**
+	 * Fetches rows of all relationships of the entity tree, grouping them by
+	 * the rows of the relationship source entity.
+	 */
+	PrefetchedRelationships fetch(ObjectContext context, ClientEntity<?> entity, List<DataRow> rows) {
+		PrefetchedRelationships relationships = new PrefetchedRelationships();
+		fetch(context, entity, "", rows, relationships);
+		return relationships;
+	}
+
+	private void fetch(ObjectContext context, ClientEntity<?> entity, String path, List<DataRow> rows,
+			PrefetchedRelationships relationships) {
+
+		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+
+			String childPath = path.length() > 0 ? path + "." + e.getKey() : e.getKey();
+			ObjRelationship relationship = (ObjRelationship) entity.getEntity().getRelationship(e.getKey());
+
+			List<DataRow> related = fetchRelated(context, e.getValue(), relationship, childPath, rows,
+					relationships);
+			fetch(context, e.getValue(), childPath, related, relationships);
+		}
+	}
+
+	private List<DataRow> fetchRelated(ObjectContext context, ClientEntity<?> entity, ObjRelationship relationship,
+			String path, List<DataRow> sources, PrefetchedRelationships relationships) {
+
+		relationships.fetched(path);
+
+		DbJoin join = join(relationship);
+
+		Map<Object, List<DataRow>> sourcesByKey = new LinkedHashMap<>();
+		for (DataRow source : sources) {
+
+			Object key = source.get(join.getSourceName());
+			if (key == null) {
+				continue;
+			}
+
+			key = normalize(key);
+			List<DataRow> list = sourcesByKey.get(key);
+			if (list == null) {
+				list = new ArrayList<>(2);
+				sourcesByKey.put(key, list);
+			}
+
+			list.add(source);
+		}
+
+		if (sourcesByKey.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		// qualifier, ordering and limit apply to to-many relationships only,
+		// same as with the objects
+		int limit = relationship.isToMany() ? entity.getLimit() : 0;
+
+		List<Object> keys = new ArrayList<>(sourcesByKey.keySet());
+		List<DataRow> fetched = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i += InQualifiers.MAX_IN_SIZE) {
+
+			List<Object> chunk = keys.subList(i, Math.min(i + InQualifiers.MAX_IN_SIZE, keys.size()));
+			for (DataRow row : context.select(buildQuery(entity, relationship, join, chunk))) {
+
+				List<DataRow> rowSources = sourcesByKey.get(normalize(row.get(join.getTargetName())));
+				if (rowSources == null) {
+					continue;
+				}
+
+				boolean added = false;
+				for (DataRow source : rowSources) {
+					if (limit <= 0 || relationships.get(path, source).size() < limit) {
+						relationships.add(path, source, row);
+						added = true;
+					}
+				}
+
+				if (added) {
+					fetched.add(row);
+				}
+			}
+		}
+
+		return fetched;
+	}
+
+	private SelectQuery<DataRow> buildQuery(ClientEntity<?> entity, ObjRelationship relationship, DbJoin join,
+			List<Object> keys) {
+
+		SelectQuery<DataRow> query = new SelectQuery<>(entity.getEntity().getName());
+
+		Expression qualifier = ExpressionFactory.inDbExp(join.getTargetName(), keys);
+		if (relationship.isToMany() && entity.getQualifier() != null) {
+			qualifier = qualifier.andExp(entity.getQualifier());
+		}
+
+		query.setQualifier(qualifier);
+
+		if (relationship.isToMany()) {
+			for (Ordering o : entity.getOrderings()) {
+				query.addOrdering(o);
+			}
+		}
+
+		query.setFetchingDataRows(true);
+		appendColumns(query, entity, join.getTargetName());
+		return query;
+	}
+
+	private void appendColumns(SelectQuery<DataRow> query, ClientEntity<?> entity, String joinColumn) {
+
+		if (!projection) {
+			return;
+		}
+
+		ObjEntity objEntity = entity.getEntity();
+		Set<String> columns = new LinkedHashSet<>();
+
+		for (DbAttribute pk : objEntity.getDbEntity().getPrimaryKeys()) {
+			columns.add(pk.getName());
+		}
+
+		for (String attribute : entity.getAttributes()) {
+			columns.add(((ObjAttribute) objEntity.getAttribute(attribute)).getDbAttributePath());
+		}
+
+		if (joinColumn != null) {
+			columns.add(joinColumn);
+		}
+
+		for (String relationship : entity.getRelationships().keySet()) {
+			columns.add(join((ObjRelationship) objEntity.getRelationship(relationship)).getSourceName());
+		}
+
+		for (String column : columns) {
+			query.addCustomDbAttribute(column);
+		}
+	}
+
+	/**
+	 * Returns the only join of a relationship, or null if the relationship is
+	 * flattened or has a compound join.
+	 */
+	private static DbJoin join(ObjRelationship relationship) {
+
+		if (relationship.isFlattened()) {
+			return null;
+		}
+
+		List<DbJoin> joins = relationship.getDbRelationships().get(0).getJoins();
+		return joins.size() == 1 ? joins.get(0) : null;
+	}
+
+	// FK and PK columns may be mapped to different JDBC integer types
+	private static Object normalize(Object key) {
+		return key instanceof Number && !(key instanceof BigDecimal) ? Long.valueOf(((Number) key).longValue())
+				: key;
+	}
+}
@@ -0,0 +1,107 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.EJBQLQuery;
+
+/**
+ * Builds EJBQL queries with WHERE clauses translated from Cayenne qualifiers.
+ * Qualifier values are passed as positional query parameters.
+ *
+ * @since 1.1
+ */
+class EJBQLBuilder {
+
+	static final String ROOT_ALIAS = "a";
+
+	private StringBuilder ejbql;
+	private List<Object> parameters;
+
+	EJBQLBuilder() {
+		this.ejbql = new StringBuilder();
+		this.parameters = new ArrayList<>();
+	}
+
+	EJBQLBuilder append(String string) {
+		ejbql.append(string);
+		return this;
+	}
+
+	/**
+	 * Appends a WHERE clause for a given qualifier, unless the qualifier is
+	 * null. Returns false and appends nothing if the qualifier can't be
+	 * reliably translated to EJBQL, e.g. if it has DB paths or to-many paths
+	 * that would produce duplicate rows.
+	 */
+	boolean appendWhere(ObjEntity entity, Expression qualifier) {
+
+		if (qualifier == null) {
+			return true;
+		}
+
+		if (!isTranslatable(entity, qualifier)) {
+			return false;
+		}
+
+		List<Object> qualifierParameters = new ArrayList<>(parameters);
+		String where;
+		try {
+			where = qualifier.toEJBQL(qualifierParameters, ROOT_ALIAS);
+		} catch (RuntimeException e) {
+			return false;
+		}
+
+		ejbql.append(" WHERE ").append(where);
+		parameters = qualifierParameters;
+		return true;
+	}
+
+	EJBQLQuery build() {
+
+		EJBQLQuery query = new EJBQLQuery(ejbql.toString());
+		for (int i = 0; i < parameters.size(); i++) {
+			query.setParameter(i + 1, parameters.get(i));
+		}
+
+		return query;
+	}
+
+	private static boolean isTranslatable(ObjEntity entity, Expression exp) {
+
+		if (exp.getType() == Expression.DB_PATH) {
+			return false;
+		}
+
+		if (exp.getType() == Expression.OBJ_PATH) {
+
+			try {
+				Iterator<?> it = entity.resolvePathComponents(exp);
+				while (it.hasNext()) {
+					Object component = it.next();
+					if (component instanceof ObjRelationship && ((ObjRelationship) component).isToMany()) {
+						return false;
+					}
+				}
+			} catch (ExpressionException e) {
+				return false;
+			}
+
+			return true;
+		}
+
+		for (int i = 0; i < exp.getOperandCount(); i++) {
+			Object operand = exp.getOperand(i);
+			if (operand instanceof Expression && !isTranslatable(entity, (Expression) operand)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,273 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.PrefetchedRelationships;
+
+/**
+ * Fetches to-many relationships that have their own qualifier, ordering or
+ * limit in the request with a separate query per relationship, so that
+ * filtering and sorting is done by the DB instead of the encoder. Such
+ * relationships are excluded from the main query prefetch tree.
+ *
+ * @since 1.1
+ */
+class FilteredRelationshipFetcher {
+
+	private IPrefetchPlanner prefetchPlanner;
+	private Map<String, Integer> prefetchSemantics;
+	private RowNumberLimiter limiter;
+
+	FilteredRelationshipFetcher(IPrefetchPlanner prefetchPlanner, Map<String, Integer> prefetchSemantics) {
+		this.prefetchPlanner = prefetchPlanner;
+		this.prefetchSemantics = prefetchSemantics;
+		this.limiter = new RowNumberLimiter();
+	}
+
+	/**
+	 * Returns whether a relationship at a given path should be fetched with a
+	 * separate query. This is possible for to-many relationships with a
+	 * to-one reverse relationship that have a qualifier, ordering or limit,
+	 * unless the caller explicitly requested a joint prefetch.
+	 */
+	boolean isFetchedSeparately(ClientEntity<?> entity, String path) {
+
+		if (entity.getQualifier() == null && entity.getOrderings().isEmpty() && entity.getLimit() <= 0) {
+			return false;
+		}
+
+		// mapBy applies the qualifier to the map, not to the lists
+		if (entity.getMapBy() != null) {
+			return false;
+		}
+
+		ObjRelationship incoming = entity.getIncoming();
+		if (incoming == null || !incoming.isToMany() || incoming.isFlattened()) {
+			return false;
+		}
+
+		ObjRelationship reverse = incoming.getReverseRelationship();
+		if (reverse == null || reverse.isToMany()) {
+			return false;
+		}
+
+		Integer semantics = prefetchSemantics.get(path);
+		return semantics == null || semantics.intValue() != PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS;
+	}
+
+	/**
+	 * Appends prefetches for the entity relationships, skipping the
+	 * relationships fetched separately.
+	 */
+	void appendPrefetches(PrefetchTreeNode root, ClientEntity<?> entity) {
+		appendPrefetches(root, entity, "");
+	}
+
+	/**
+	 * Appends prefetches to the tree of a query rooted at a given path of the
+	 * request entity tree.
+	 */
+	private void appendPrefetches(PrefetchTreeNode root, ClientEntity<?> entity, String rootPath) {
+		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+
+			PrefetchTreeNode child = root.addPath(e.getKey());
+			String path = rootPath.length() > 0 ? rootPath + "." + child.getPath() : child.getPath();
+			if (isFetchedSeparately(e.getValue(), path)) {
+				root.removeChild(child);
+				continue;
+			}
+
+			// always full prefetch related entities... we can't use phantom as
+			// this will hit object cache and hence won't be cache controlled
+			// via query cache anymore...
+			child.setPhantom(false);
+			appendPrefetches(child, e.getValue(), rootPath);
+		}
+
+		if (entity.getMapBy() != null) {
+			appendPrefetches(root, entity.getMapBy(), rootPath);
+		}
+	}
+
+	/**
+	 * Fetches all relationships of the entity tree that are fetched
+	 * separately. Returns null if there are no such relationships.
+	 */
+	PrefetchedRelationships fetch(ObjectContext context, ClientEntity<?> entity, List<?> objects) {
+
+		if (!hasSeparateFetches(entity, "")) {
+			return null;
+		}
+
+		PrefetchedRelationships relationships = new PrefetchedRelationships();
+		fetch(context, entity, "", objects, relationships);
+		return relationships;
+	}
+
+	private void fetch(ObjectContext context, ClientEntity<?> entity, String path, List<?> objects,
+			PrefetchedRelationships relationships) {
+
+		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+
+			String childPath = path.length() > 0 ? path + "." + e.getKey() : e.getKey();
+			ClientEntity<?> child = e.getValue();
+
+			if (isFetchedSeparately(child, childPath)) {
+				List<?> related = fetchRelated(context, child, childPath, objects, relationships);
+				fetch(context, child, childPath, related, relationships);
+			} else if (hasSeparateFetches(child, childPath)) {
+				fetch(context, child, childPath, readRelated(objects, e.getKey()), relationships);
+			}
+		}
+	}
+
+	private boolean hasSeparateFetches(ClientEntity<?> entity, String path) {
+		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+
+			String childPath = path.length() > 0 ? path + "." + e.getKey() : e.getKey();
+			if (isFetchedSeparately(e.getValue(), childPath) || hasSeparateFetches(e.getValue(), childPath)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private List<?> fetchRelated(ObjectContext context, ClientEntity<?> entity, String path, List<?> sources,
+			PrefetchedRelationships relationships) {
+
+		relationships.fetched(path);
+
+		if (sources.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		ObjRelationship reverseRelationship = entity.getIncoming().getReverseRelationship();
+		String reverse = reverseRelationship.getName();
+		int limit = entity.getLimit();
+
+		List<Object> fetched = new ArrayList<>();
+		for (int i = 0; i < sources.size(); i += InQualifiers.MAX_IN_SIZE) {
+
+			List<?> chunk = sources.subList(i, Math.min(i + InQualifiers.MAX_IN_SIZE, sources.size()));
+
+			Expression qualifier = ExpressionFactory.inExp(reverse, chunk);
+			if (entity.getQualifier() != null) {
+				qualifier = qualifier.andExp(entity.getQualifier());
+			}
+
+			// a per-parent limit is applied by the DB with a window function
+			// where supported, otherwise the objects over the limit are
+			// trimmed in memory, which still saves on nested fetches and
+			// encoding
+			if (limit > 0) {
+				List<Object> ids = limiter.limitedIds(context, entity.getEntity(), reverseRelationship, qualifier,
+						entity.getOrderings(), limit);
+
+				if (ids != null) {
+					if (ids.isEmpty()) {
+						continue;
+					}
+
+					qualifier = idQualifier(entity, ids);
+				}
+			}
+
+			for (Object o : context.performQuery(buildQuery(entity, path, qualifier))) {
+
+				// the source is already in the context, so resolving the
+				// reverse relationship does not hit the DB
+				Object source = ((DataObject) o).readProperty(reverse);
+				if (limit > 0 && relationships.get(path, source).size() >= limit) {
+					continue;
+				}
+
+				relationships.add(path, source, o);
+				fetched.add(o);
+			}
+		}
+
+		return fetched;
+	}
+
+	private SelectQuery<Object> buildQuery(ClientEntity<?> entity, String path, Expression qualifier) {
+
+		SelectQuery<Object> query = new SelectQuery<>(entity.getEntity().getName(), qualifier);
+
+		for (Ordering o : entity.getOrderings()) {
+			query.addOrdering(o);
+		}
+
+		if (!entity.getRelationships().isEmpty()) {
+			PrefetchTreeNode root = new PrefetchTreeNode();
+			appendPrefetches(root, entity, path);
+			prefetchPlanner.plan(root, new PrefetchRequest(entity.getEntity(), 0, false).withHints(hints(path)));
+			query.setPrefetchTree(root);
+		}
+
+		return query;
+	}
+
+	private static Expression idQualifier(ClientEntity<?> entity, List<Object> ids) {
+
+		// the limiter only handles single column PKs
+		String pk = entity.getEntity().getDbEntity().getPrimaryKeys().iterator().next().getName();
+		return ExpressionFactory.inDbExp(pk, ids);
+	}
+
+	/**
+	 * Returns explicit semantics of the prefetches below a given path, with
+	 * the paths relative to it.
+	 */
+	private Map<String, Integer> hints(String path) {
+
+		if (prefetchSemantics.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		String prefix = path + ".";
+		Map<String, Integer> hints = new HashMap<>();
+		for (Entry<String, Integer> e : prefetchSemantics.entrySet()) {
+			if (e.getKey().startsWith(prefix)) {
+				hints.put(e.getKey().substring(prefix.length()), e.getValue());
+			}
+		}
+
+		return hints;
+	}
+
+	private static List<?> readRelated(List<?> objects, String relationship) {
+
+		Set<Object> related = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		for (Object o : objects) {
+
+			// the relationship was prefetched, so this does not hit the DB
+			Object value = ((DataObject) o).readProperty(relationship);
+			if (value instanceof Collection) {
+				related.addAll((Collection<?>) value);
+			} else if (value != null) {
+				related.add(value);
+			}
+		}
+
+		return new ArrayList<>(related);
+	}
+}
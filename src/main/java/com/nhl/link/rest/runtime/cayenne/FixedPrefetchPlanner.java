@@ -0,0 +1,18 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.PrefetchTreeNode;
+
+/**
+ * A default prefetch planner that uses disjoint semantics for all the
+ * relationships that have no explicit semantics overrides.
+ * 
+ * @since 1.1
+ */
+public class FixedPrefetchPlanner extends BasePrefetchPlanner {
+
+	@Override
+	protected int plannedSemantics(PrefetchTreeNode node, ObjRelationship relationship, PrefetchRequest request) {
+		return PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS;
+	}
+}
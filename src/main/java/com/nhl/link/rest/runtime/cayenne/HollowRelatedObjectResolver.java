@@ -0,0 +1,48 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.reflect.ClassDescriptor;
+
+/**
+ * An {@link IRelatedObjectResolver} that does not run any queries, and instead
+ * connects updated objects to HOLLOW related objects built from the IDs.
+ * Existence check of the related objects is deferred to the DB FK constraints,
+ * so an invalid ID results in a commit failure instead of a 404 response.
+ * Reverse relationships are not updated, as this would fault the related
+ * objects.
+ * 
+ * @since 1.1
+ */
+public class HollowRelatedObjectResolver extends BaseRelatedObjectResolver {
+
+	@Override
+	protected boolean isSetReverse() {
+		return false;
+	}
+
+	@Override
+	protected Map<Object, DataObject> resolve(ObjectContext context, ObjEntity targetEntity, Collection<Object> ids) {
+
+		String idName = targetEntity.getPrimaryKeyNames().iterator().next();
+		ClassDescriptor descriptor = context.getEntityResolver().getClassDescriptor(targetEntity.getName());
+
+		Map<Object, DataObject> byId = new HashMap<>();
+		for (Object id : ids) {
+
+			// 'localObject' returns an existing registered object or creates a
+			// HOLLOW one without hitting the DB
+			DataObject prototype = (DataObject) descriptor.createObject();
+			prototype.setObjectId(new ObjectId(targetEntity.getName(), idName, id));
+			byId.put(normalizeId(id), context.localObject(prototype));
+		}
+
+		return byId;
+	}
+}
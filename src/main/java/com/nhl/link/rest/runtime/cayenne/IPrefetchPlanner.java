@@ -0,0 +1,24 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.List;
+
+import org.apache.cayenne.query.PrefetchTreeNode;
+
+/**
+ * A strategy that chooses semantics for each node of the prefetch tree.
+ * 
+ * @since 1.1
+ */
+public interface IPrefetchPlanner {
+
+	/**
+	 * Sets semantics of all nodes in the tree.
+	 */
+	void plan(PrefetchTreeNode root, PrefetchRequest request);
+
+	/**
+	 * Notifies the planner of the objects fetched with a planned tree, so that
+	 * it can collect statistics.
+	 */
+	void fetched(PrefetchTreeNode root, PrefetchRequest request, List<?> objects);
+}
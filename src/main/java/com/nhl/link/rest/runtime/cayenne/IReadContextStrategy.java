@@ -0,0 +1,30 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import org.apache.cayenne.ObjectContext;
+
+/**
+ * A strategy for providing ObjectContexts used by LinkRest to read data.
+ * 
+ * @since 1.1
+ */
+public interface IReadContextStrategy {
+
+	/**
+	 * Returns an ObjectContext to run a select query. Returned context should
+	 * remain usable for as long as the fetched objects are in use, i.e. until
+	 * the response is encoded.
+	 */
+	ObjectContext readContext();
+
+	/**
+	 * Returns a total number of objects registered in the contexts retained by
+	 * this strategy.
+	 */
+	int getRegisteredObjectsCount();
+
+	/**
+	 * Releases objects retained by this strategy. Contexts that are in use by
+	 * the current requests remain valid.
+	 */
+	void clear();
+}
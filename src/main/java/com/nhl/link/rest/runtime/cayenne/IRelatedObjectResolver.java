@@ -0,0 +1,29 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.Map;
+
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.map.ObjEntity;
+
+/**
+ * A strategy for connecting an object being inserted or updated to its to-one
+ * related objects, given the related IDs received from the client.
+ * 
+ * @since 1.1
+ */
+public interface IRelatedObjectResolver {
+
+	/**
+	 * Connects the object to the related objects with the specified IDs.
+	 * 
+	 * @param object
+	 *            an object being updated.
+	 * @param entity
+	 *            object's entity.
+	 * @param relatedIds
+	 *            a map of related object IDs keyed by to-one relationship
+	 *            name. A null ID means that the relationship should be
+	 *            cleared.
+	 */
+	void connect(DataObject object, ObjEntity entity, Map<String, Object> relatedIds);
+}
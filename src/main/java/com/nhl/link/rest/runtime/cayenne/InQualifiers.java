@@ -0,0 +1,16 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+/**
+ * Limits of the IN qualifiers shared by the fetchers that query by lists of
+ * keys.
+ *
+ * @since 1.1
+ */
+final class InQualifiers {
+
+	// keeping IN lists within the limits of all common DBs
+	static final int MAX_IN_SIZE = 1000;
+
+	private InQualifiers() {
+	}
+}
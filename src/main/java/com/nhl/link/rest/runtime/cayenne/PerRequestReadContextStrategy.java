@@ -0,0 +1,38 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+
+/**
+ * An {@link IReadContextStrategy} that creates a new ObjectContext for each
+ * request. Contexts share the runtime snapshot cache, but not the object
+ * store, so each context is garbage collected together with the response.
+ * 
+ * @since 1.1
+ */
+public class PerRequestReadContextStrategy implements IReadContextStrategy {
+
+	private ServerRuntime runtime;
+
+	public PerRequestReadContextStrategy(ServerRuntime runtime) {
+		this.runtime = runtime;
+	}
+
+	@Override
+	public ObjectContext readContext() {
+		return runtime.newContext();
+	}
+
+	/**
+	 * Always returns zero, as this strategy does not retain any contexts.
+	 */
+	@Override
+	public int getRegisteredObjectsCount() {
+		return 0;
+	}
+
+	@Override
+	public void clear() {
+		// noop
+	}
+}
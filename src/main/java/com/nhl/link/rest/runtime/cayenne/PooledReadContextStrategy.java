@@ -0,0 +1,127 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+
+/**
+ * An {@link IReadContextStrategy} that spreads reads between a fixed number of
+ * shared contexts. Object store of each context is bounded: a context that
+ * has accumulated too many objects or is older than the max age is replaced
+ * with a fresh one. The old context is not cleaned up explicitly, so the
+ * requests that are still encoding its objects are not affected. It is simply
+ * garbage collected once no longer in use.
+ * 
+ * @since 1.1
+ */
+public class PooledReadContextStrategy implements IReadContextStrategy {
+
+	private ServerRuntime runtime;
+	private AtomicReferenceArray<PooledContext> pool;
+	private AtomicInteger counter;
+	private int maxObjects;
+	private long maxAgeMs;
+
+	/**
+	 * @param poolSize
+	 *            a number of contexts in the pool.
+	 * @param maxObjects
+	 *            max number of objects registered in a single context before
+	 *            it is replaced.
+	 * @param maxAgeMs
+	 *            max age of a single context before it is replaced. Zero or
+	 *            negative number means unlimited.
+	 */
+	public PooledReadContextStrategy(ServerRuntime runtime, int poolSize, int maxObjects, long maxAgeMs) {
+
+		if (poolSize <= 0) {
+			throw new IllegalArgumentException("Invalid pool size: " + poolSize);
+		}
+
+		this.runtime = runtime;
+		this.maxObjects = maxObjects;
+		this.maxAgeMs = maxAgeMs;
+		this.counter = new AtomicInteger();
+		this.pool = new AtomicReferenceArray<>(poolSize);
+
+		for (int i = 0; i < poolSize; i++) {
+			pool.set(i, new PooledContext(runtime.newContext()));
+		}
+	}
+
+	@Override
+	public ObjectContext readContext() {
+
+		int i = (counter.getAndIncrement() & Integer.MAX_VALUE) % pool.length();
+		PooledContext pooled = pool.get(i);
+
+		if (isExpired(pooled)) {
+
+			PooledContext fresh = new PooledContext(runtime.newContext());
+
+			// if another thread has already replaced the context, use the one
+			// it created
+			if (pool.compareAndSet(i, pooled, fresh)) {
+				pooled = fresh;
+			} else {
+				pooled = pool.get(i);
+			}
+		}
+
+		return pooled.context;
+	}
+
+	@Override
+	public int getRegisteredObjectsCount() {
+		int count = 0;
+
+		int len = pool.length();
+		for (int i = 0; i < len; i++) {
+			count += registeredObjectsCount(pool.get(i).context);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Replaces all pooled contexts with the fresh ones.
+	 */
+	@Override
+	public void clear() {
+		int len = pool.length();
+		for (int i = 0; i < len; i++) {
+			pool.set(i, new PooledContext(runtime.newContext()));
+		}
+	}
+
+	private boolean isExpired(PooledContext pooled) {
+
+		if (maxAgeMs > 0 && System.currentTimeMillis() - pooled.createdAt > maxAgeMs) {
+			return true;
+		}
+
+		return maxObjects > 0 && registeredObjectsCount(pooled.context) > maxObjects;
+	}
+
+	static int registeredObjectsCount(ObjectContext context) {
+		if (context instanceof DataContext) {
+			return ((DataContext) context).getObjectStore().registeredObjectsCount();
+		}
+
+		return context.getGraphManager().registeredNodes().size();
+	}
+
+	private static final class PooledContext {
+
+		final ObjectContext context;
+		final long createdAt;
+
+		PooledContext(ObjectContext context) {
+			this.context = context;
+			this.createdAt = System.currentTimeMillis();
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.cayenne.map.ObjEntity;
+
+/**
+ * Describes a query that needs its prefetch tree planned by
+ * {@link IPrefetchPlanner}.
+ * 
+ * @since 1.1
+ */
+public class PrefetchRequest {
+
+	private ObjEntity rootEntity;
+	private int fetchLimit;
+	private boolean byId;
+	private int defaultSemantics;
+	private Map<String, Integer> hints;
+
+	public PrefetchRequest(ObjEntity rootEntity, int fetchLimit, boolean byId) {
+		this.rootEntity = rootEntity;
+		this.fetchLimit = fetchLimit;
+		this.byId = byId;
+		this.hints = Collections.emptyMap();
+	}
+
+	public ObjEntity getRootEntity() {
+		return rootEntity;
+	}
+
+	/**
+	 * Returns the root query fetch limit applied in SQL.
+	 */
+	public int getFetchLimit() {
+		return fetchLimit;
+	}
+
+	public boolean isById() {
+		return byId;
+	}
+
+	/**
+	 * Returns semantics explicitly set for the whole tree or zero if not set.
+	 */
+	public int getDefaultSemantics() {
+		return defaultSemantics;
+	}
+
+	public PrefetchRequest withDefaultSemantics(int defaultSemantics) {
+		this.defaultSemantics = defaultSemantics;
+		return this;
+	}
+
+	/**
+	 * Returns semantics explicitly set for individual prefetch paths.
+	 */
+	public Map<String, Integer> getHints() {
+		return hints;
+	}
+
+	public PrefetchRequest withHints(Map<String, Integer> hints) {
+		this.hints = hints;
+		return this;
+	}
+}
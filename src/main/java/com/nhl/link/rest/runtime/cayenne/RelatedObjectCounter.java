@@ -0,0 +1,59 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.cayenne.DataObject;
+import org.apache.cayenne.Fault;
+import org.apache.cayenne.ValueHolder;
+
+/**
+ * Counts objects reachable from a list of fetched objects via a relationship
+ * path, without triggering any faults.
+ * 
+ * @since 1.1
+ */
+public class RelatedObjectCounter {
+
+	/**
+	 * Returns a number of distinct objects at the end of the path, or -1 if
+	 * the relationships along the path were not resolved.
+	 */
+	public static int count(List<?> roots, String path) {
+
+		Set<Object> current = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		current.addAll(roots);
+
+		for (String segment : path.split("\\.")) {
+
+			Set<Object> next = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+			for (Object o : current) {
+
+				if (!(o instanceof DataObject)) {
+					return -1;
+				}
+
+				Object value = ((DataObject) o).readPropertyDirectly(segment);
+				if (value instanceof Fault || value instanceof ValueHolder && ((ValueHolder) value).isFault()) {
+					return -1;
+				}
+
+				if (value instanceof Collection) {
+					next.addAll((Collection<?>) value);
+				} else if (value != null) {
+					next.add(value);
+				}
+			}
+
+			current = next;
+		}
+
+		return current.size();
+	}
+
+	private RelatedObjectCounter() {
+	}
+}
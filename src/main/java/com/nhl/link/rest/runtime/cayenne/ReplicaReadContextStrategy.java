@@ -0,0 +1,247 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.DataChannelFilter;
+import org.apache.cayenne.DataChannelFilterChain;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.QueryResponse;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.graph.GraphDiff;
+import org.apache.cayenne.query.Query;
+
+/**
+ * An {@link IReadContextStrategy} that sends LinkRest selects to the read
+ * replicas of the primary database. Writes are not affected, as they are done
+ * in the contexts of the primary runtime. For a configurable time window after
+ * each commit to the primary runtime, reads go to the primary as well, so that
+ * the clients can read their own writes despite the replication lag. The
+ * window is global, i.e. a commit by any client sends all reads to the primary
+ * until the window expires.
+ * <p>
+ * Each replica is served by its own ServerRuntime with the same mapping as
+ * the primary runtime. Use this strategy via
+ * {@link CayennePersister#CayennePersister(ServerRuntime, IReadContextStrategy)}
+ * .
+ *
+ * @since 1.1
+ */
+public class ReplicaReadContextStrategy implements IReadContextStrategy {
+
+	/**
+	 * Defines how a replica is chosen for a read.
+	 */
+	public static enum Selection {
+
+		/**
+		 * Replicas are used in turn.
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * A replica with the smallest number of queries in progress is used.
+		 * Ties are resolved in the round-robin order.
+		 */
+		LEAST_LOADED
+	}
+
+	private IReadContextStrategy primary;
+	private List<ServerRuntime> replicaRuntimes;
+	private Replica[] replicas;
+	private Selection selection;
+	private long readYourWritesMs;
+	private AtomicInteger counter;
+	private volatile long lastWriteAt;
+
+	/**
+	 * @param primary
+	 *            the runtime used for writes.
+	 * @param replicas
+	 *            runtimes for the read replicas of the primary database.
+	 * @param selection
+	 *            how a replica is chosen for a read.
+	 * @param readYourWritesMs
+	 *            the time after a commit to the primary runtime during which
+	 *            reads go to the primary. Zero or negative number means that
+	 *            reads always go to the replicas.
+	 */
+	public ReplicaReadContextStrategy(ServerRuntime primary, List<ServerRuntime> replicas, Selection selection,
+			long readYourWritesMs) {
+
+		if (replicas.isEmpty()) {
+			throw new IllegalArgumentException("No replicas");
+		}
+
+		if (selection == null) {
+			throw new NullPointerException("Null selection");
+		}
+
+		this.primary = new PerRequestReadContextStrategy(primary);
+		this.selection = selection;
+		this.readYourWritesMs = readYourWritesMs;
+		this.counter = new AtomicInteger();
+		this.replicaRuntimes = new ArrayList<>(replicas);
+
+		this.replicas = new Replica[replicas.size()];
+		for (int i = 0; i < this.replicas.length; i++) {
+			this.replicas[i] = new Replica(replicas.get(i));
+		}
+
+		primary.getDataDomain().addFilter(new WriteTracker());
+	}
+
+	@Override
+	public ObjectContext readContext() {
+		return isInReadYourWritesWindow() ? primary.readContext() : selectReplica().contexts.readContext();
+	}
+
+	@Override
+	public int getRegisteredObjectsCount() {
+		int count = primary.getRegisteredObjectsCount();
+
+		for (Replica r : replicas) {
+			count += r.contexts.getRegisteredObjectsCount();
+		}
+
+		return count;
+	}
+
+	@Override
+	public void clear() {
+		primary.clear();
+
+		for (Replica r : replicas) {
+			r.contexts.clear();
+		}
+	}
+
+	/**
+	 * Returns a number of queries currently running against each replica, in
+	 * the order the replicas were passed to the constructor.
+	 */
+	public int[] getActiveQueries() {
+		int[] active = new int[replicas.length];
+
+		for (int i = 0; i < replicas.length; i++) {
+			active[i] = replicas[i].activeQueries.get();
+		}
+
+		return active;
+	}
+
+	List<ServerRuntime> getReplicaRuntimes() {
+		return replicaRuntimes;
+	}
+
+	boolean isInReadYourWritesWindow() {
+		return readYourWritesMs > 0 && System.currentTimeMillis() - lastWriteAt < readYourWritesMs;
+	}
+
+	private Replica selectReplica() {
+
+		int len = replicas.length;
+		int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % len;
+
+		if (selection == Selection.ROUND_ROBIN) {
+			return replicas[start];
+		}
+
+		Replica leastLoaded = replicas[start];
+		int minLoad = leastLoaded.activeQueries.get();
+
+		for (int i = 1; i < len && minLoad > 0; i++) {
+			Replica r = replicas[(start + i) % len];
+			int load = r.activeQueries.get();
+			if (load < minLoad) {
+				leastLoaded = r;
+				minLoad = load;
+			}
+		}
+
+		return leastLoaded;
+	}
+
+	private static final class Replica {
+
+		final IReadContextStrategy contexts;
+		final AtomicInteger activeQueries;
+
+		Replica(ServerRuntime runtime) {
+			this.contexts = new PerRequestReadContextStrategy(runtime);
+			this.activeQueries = new AtomicInteger();
+
+			runtime.getDataDomain().addFilter(new LoadTracker(activeQueries));
+		}
+	}
+
+	/**
+	 * Counts the queries in progress against a replica.
+	 */
+	private static final class LoadTracker implements DataChannelFilter {
+
+		private AtomicInteger activeQueries;
+
+		LoadTracker(AtomicInteger activeQueries) {
+			this.activeQueries = activeQueries;
+		}
+
+		@Override
+		public void init(DataChannel channel) {
+			// noop
+		}
+
+		@Override
+		public QueryResponse onQuery(ObjectContext originatingContext, Query query,
+				DataChannelFilterChain filterChain) {
+			activeQueries.incrementAndGet();
+			try {
+				return filterChain.onQuery(originatingContext, query);
+			} finally {
+				activeQueries.decrementAndGet();
+			}
+		}
+
+		@Override
+		public GraphDiff onSync(ObjectContext originatingContext, GraphDiff changes, int syncType,
+				DataChannelFilterChain filterChain) {
+			return filterChain.onSync(originatingContext, changes, syncType);
+		}
+	}
+
+	/**
+	 * Records the time of the last commit to the primary runtime.
+	 */
+	private class WriteTracker implements DataChannelFilter {
+
+		@Override
+		public void init(DataChannel channel) {
+			// noop
+		}
+
+		@Override
+		public QueryResponse onQuery(ObjectContext originatingContext, Query query,
+				DataChannelFilterChain filterChain) {
+			return filterChain.onQuery(originatingContext, query);
+		}
+
+		@Override
+		public GraphDiff onSync(ObjectContext originatingContext, GraphDiff changes, int syncType,
+				DataChannelFilterChain filterChain) {
+
+			if (syncType == DataChannel.ROLLBACK_CASCADE_SYNC) {
+				return filterChain.onSync(originatingContext, changes, syncType);
+			}
+
+			try {
+				return filterChain.onSync(originatingContext, changes, syncType);
+			} finally {
+				// recorded after the commit, so that the window covers the
+				// replication lag of the committed data
+				lastWriteAt = System.currentTimeMillis();
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.trans.SelectTranslator;
+import org.apache.cayenne.dba.AutoAdapter;
+import org.apache.cayenne.dba.DbAdapter;
+import org.apache.cayenne.dba.db2.DB2Adapter;
+import org.apache.cayenne.dba.oracle.OracleAdapter;
+import org.apache.cayenne.dba.postgres.PostgresAdapter;
+import org.apache.cayenne.dba.sqlserver.SQLServerAdapter;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbJoin;
+import org.apache.cayenne.map.DbRelationship;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.query.SelectQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * Applies a per-parent limit to a query of related objects in the DB, by
+ * numbering the rows of each parent with a ROW_NUMBER() window function
+ * partitioned by the FK to the parent. Returns the PKs of the objects within
+ * the limit, so that the objects themselves are fetched with a regular
+ * SelectQuery. Only the DBs that support window functions are queried this
+ * way, for the others the callers trim the related objects in memory.
+ *
+ * @since 1.1
+ */
+class RowNumberLimiter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RowNumberLimiter.class);
+
+	static final String ROW_NUMBER_COLUMN = "lr_rn";
+	static final String RANKED_ALIAS = "lr_ranked";
+
+	private static final String ROOT_ALIAS = "t0.";
+
+	// support of the auto-detected DBs is checked once per node
+	private static final Map<DataNode, Boolean> AUTO_DETECTED = Collections
+			.synchronizedMap(new WeakHashMap<DataNode, Boolean>());
+
+	/**
+	 * Returns the PKs of up to "limit" objects per parent that match the
+	 * qualifier, in the order of the orderings. Returns null if the limit
+	 * can't be applied by the DB, e.g. for compound keys or the DBs without
+	 * window functions.
+	 */
+	List<Object> limitedIds(ObjectContext context, ObjEntity entity, ObjRelationship reverse, Expression qualifier,
+			Collection<Ordering> orderings, int limit) {
+
+		List<DbAttribute> pks = new ArrayList<>(entity.getDbEntity().getPrimaryKeys());
+		if (pks.size() != 1 || reverse.getDbRelationships().size() != 1) {
+			return null;
+		}
+
+		DbRelationship fkRelationship = reverse.getDbRelationships().get(0);
+		if (fkRelationship.getJoins().size() != 1) {
+			return null;
+		}
+
+		String pk = pks.get(0).getName();
+		DbJoin fk = fkRelationship.getJoins().get(0);
+
+		SelectQuery<DataRow> idQuery = new SelectQuery<>(entity.getName(), qualifier);
+		idQuery.setFetchingDataRows(true);
+		idQuery.addCustomDbAttribute(pk);
+		for (Ordering o : orderings) {
+			idQuery.addOrdering(o);
+		}
+
+		DataNode node = SelectCounter.dataNode(context, idQuery);
+		if (node == null || !supportsRowNumber(node)) {
+			return null;
+		}
+
+		SelectTranslator translator = new SelectTranslator();
+		translator.setQuery(idQuery);
+		translator.setAdapter(node.getAdapter());
+		translator.setEntityResolver(node.getEntityResolver());
+
+		String idSql;
+		Map<String, Object> parameters;
+		try {
+			idSql = translator.createSqlString();
+
+			BindingRecorder recorder = new BindingRecorder();
+			translator.initStatement(recorder.statement());
+			parameters = recorder.getParameters();
+		} catch (Exception e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error limiting related objects: "
+					+ e.getMessage(), e);
+		}
+
+		String sql = rankedSql(BindingRecorder.toTemplate(idSql), ROOT_ALIAS + fk.getSourceName(), pk, limit);
+		if (sql == null) {
+			return null;
+		}
+
+		SQLTemplate rankedQuery = new SQLTemplate(entity.getDataMap(), sql, true);
+		rankedQuery.setParameters(parameters);
+
+		List<?> rows = context.performQuery(rankedQuery);
+		List<Object> ids = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			ids.add(((DataRow) row).values().iterator().next());
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Wraps the SQL of a PK select produced by Cayenne in a query that only
+	 * returns the first "limit" rows of each partition. The ORDER BY clause of
+	 * the select is moved to the window, with the PK appended to break ties.
+	 * Returns null for the DISTINCT selects, as the row numbers would keep the
+	 * duplicates apart.
+	 */
+	static String rankedSql(String sql, String partitionBy, String pk, int limit) {
+
+		int from = sql.indexOf(" FROM ");
+		if (from < 0 || sql.startsWith("SELECT DISTINCT")) {
+			return null;
+		}
+
+		int orderBy = sql.lastIndexOf(" ORDER BY ");
+		String orderings = orderBy > from ? sql.substring(orderBy + " ORDER BY ".length()) + ", " : "";
+		String tail = orderBy > from ? sql.substring(from, orderBy) : sql.substring(from);
+
+		StringBuilder ranked = new StringBuilder(sql.length() + 128);
+		ranked.append("SELECT ").append(RANKED_ALIAS).append('.').append(pk).append(" FROM (");
+		ranked.append(sql.substring(0, from));
+		ranked.append(", ROW_NUMBER() OVER (PARTITION BY ").append(partitionBy);
+		ranked.append(" ORDER BY ").append(orderings).append(ROOT_ALIAS).append(pk).append(") ");
+		ranked.append(ROW_NUMBER_COLUMN);
+		ranked.append(tail);
+		ranked.append(") ").append(RANKED_ALIAS);
+		ranked.append(" WHERE ").append(RANKED_ALIAS).append('.').append(ROW_NUMBER_COLUMN).append(" <= ")
+				.append(limit);
+
+		return ranked.toString();
+	}
+
+	/**
+	 * Returns whether the DB of the node supports ROW_NUMBER() with PARTITION
+	 * BY and ORDER BY. The adapters configured explicitly are checked by type,
+	 * the DB behind an {@link AutoAdapter} is checked by the JDBC product name.
+	 */
+	static boolean supportsRowNumber(DataNode node) {
+
+		DbAdapter adapter = node.getAdapter();
+		if (!(adapter instanceof AutoAdapter)) {
+			return supportsRowNumber(adapter);
+		}
+
+		Boolean supported = AUTO_DETECTED.get(node);
+		if (supported == null) {
+			supported = supportsRowNumber(productName(node));
+			AUTO_DETECTED.put(node, supported);
+		}
+
+		return supported;
+	}
+
+	static boolean supportsRowNumber(DbAdapter adapter) {
+		return adapter instanceof PostgresAdapter || adapter instanceof OracleAdapter
+				|| adapter instanceof SQLServerAdapter || adapter instanceof DB2Adapter;
+	}
+
+	static boolean supportsRowNumber(String productName) {
+
+		if (productName == null) {
+			return false;
+		}
+
+		return productName.startsWith("PostgreSQL") || productName.startsWith("Oracle")
+				|| productName.startsWith("Microsoft SQL Server") || productName.startsWith("DB2");
+	}
+
+	private static String productName(DataNode node) {
+		try (Connection connection = node.getDataSource().getConnection()) {
+			return connection.getMetaData().getDatabaseProductName();
+		} catch (Exception e) {
+			LOGGER.warn("Error reading DB product name of node " + node.getName(), e);
+			return null;
+		}
+	}
+}
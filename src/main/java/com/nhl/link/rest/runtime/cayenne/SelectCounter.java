@@ -0,0 +1,132 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.trans.SelectTranslator;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * Counts objects matching a qualifier without fetching the objects. Runs an
+ * EJBQL COUNT query if the qualifier can be translated to EJBQL. Otherwise,
+ * e.g. for the qualifiers with to-many or DB paths, counts the distinct PKs of
+ * the matching rows in the DB, so that the joined children matching the
+ * qualifier don't produce duplicates.
+ *
+ * @since 1.1
+ */
+class SelectCounter {
+
+	long count(ObjectContext context, ObjEntity entity, Expression qualifier) {
+
+		EJBQLQuery countQuery = countQuery(entity, qualifier);
+		if (countQuery != null) {
+			List<?> result = context.performQuery(countQuery);
+			return ((Number) result.get(0)).longValue();
+		}
+
+		SelectQuery<DataRow> idQuery = idQuery(entity, qualifier);
+
+		DataNode node = dataNode(context, idQuery);
+		if (node == null) {
+			// e.g. a nested context; no access to the DB, so count the fetched
+			// PKs
+			return context.select(idQuery).size();
+		}
+
+		return countDistinct(context, entity, node, idQuery);
+	}
+
+	/**
+	 * Returns an EJBQL COUNT query for the qualifier, or null if the qualifier
+	 * can't be reliably translated to EJBQL.
+	 */
+	EJBQLQuery countQuery(ObjEntity entity, Expression qualifier) {
+
+		EJBQLBuilder ejbql = new EJBQLBuilder().append("SELECT COUNT(").append(EJBQLBuilder.ROOT_ALIAS)
+				.append(") FROM ").append(entity.getName()).append(" ").append(EJBQLBuilder.ROOT_ALIAS);
+
+		return ejbql.appendWhere(entity, qualifier) ? ejbql.build() : null;
+	}
+
+	/**
+	 * Returns a query of distinct PKs of the objects matching the qualifier.
+	 */
+	SelectQuery<DataRow> idQuery(ObjEntity entity, Expression qualifier) {
+
+		SelectQuery<DataRow> idQuery = new SelectQuery<>(entity.getName(), qualifier);
+		idQuery.setFetchingDataRows(true);
+		idQuery.setDistinct(true);
+		for (DbAttribute pk : entity.getDbEntity().getPrimaryKeys()) {
+			idQuery.addCustomDbAttribute(pk.getName());
+		}
+
+		return idQuery;
+	}
+
+	/**
+	 * Runs "SELECT COUNT(*)" over the SQL of a distinct PK query, which is
+	 * COUNT(DISTINCT pk) that also works for compound PKs. The statement is
+	 * run as an SQLTemplate through the context, so that it is logged and
+	 * passes the DataChannel filters like any other query.
+	 */
+	private long countDistinct(ObjectContext context, ObjEntity entity, DataNode node, SelectQuery<DataRow> idQuery) {
+
+		SelectTranslator translator = new SelectTranslator();
+		translator.setQuery(idQuery);
+		translator.setAdapter(node.getAdapter());
+		translator.setEntityResolver(node.getEntityResolver());
+
+		String idSql;
+		Map<String, Object> parameters;
+		try {
+			idSql = translator.createSqlString();
+
+			// the bindings are collected by the translator while creating the
+			// SQL, and are only exposed by binding them to a statement
+			BindingRecorder recorder = new BindingRecorder();
+			translator.initStatement(recorder.statement());
+			parameters = recorder.getParameters();
+		} catch (Exception e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error counting objects: " + e.getMessage(), e);
+		}
+
+		String sql = "SELECT COUNT(*) FROM (" + BindingRecorder.toTemplate(idSql) + ") ids";
+		SQLTemplate countQuery = new SQLTemplate(entity.getDataMap(), sql, true);
+		countQuery.setParameters(parameters);
+
+		List<?> result = context.performQuery(countQuery);
+		DataRow row = (DataRow) result.get(0);
+		return ((Number) row.values().iterator().next()).longValue();
+	}
+
+	/**
+	 * Returns a node that runs the query, or null if the context is not
+	 * connected to a DataDomain.
+	 */
+	static DataNode dataNode(ObjectContext context, SelectQuery<?> query) {
+
+		DataChannel channel = context.getChannel();
+		if (!(channel instanceof DataDomain)) {
+			return null;
+		}
+
+		DataMap map = query.getMetaData(context.getEntityResolver()).getDataMap();
+		return map != null ? ((DataDomain) channel).lookupDataNode(map) : null;
+	}
+}
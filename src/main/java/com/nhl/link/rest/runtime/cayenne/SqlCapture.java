@@ -0,0 +1,136 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.log.JdbcEventLogger;
+
+/**
+ * Captures SQL statements run by the current thread. Statements are captured
+ * from the JdbcEventLogger of each DataNode of a runtime, that is wrapped by
+ * {@link #install(ServerRuntime)}. The application logger keeps working as
+ * before, as the wrapper delegates to it.
+ *
+ * @since 1.1
+ */
+public class SqlCapture {
+
+	// keeps the memory bounded for requests split into many statements, e.g.
+	// selects by long lists of ids
+	static final int MAX_STATEMENTS = 100;
+
+	private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+	private List<String> statements;
+	private int skipped;
+
+	/**
+	 * Wraps JdbcEventLoggers of the runtime DataNodes, so that they report
+	 * statements to the captures started on the current thread. Loggers that
+	 * are already wrapped are left as is.
+	 */
+	public static void install(ServerRuntime runtime) {
+		for (DataNode node : runtime.getDataDomain().getDataNodes()) {
+
+			JdbcEventLogger logger = node.getJdbcEventLogger();
+			if (logger == null || isCapturing(logger)) {
+				continue;
+			}
+
+			// a proxy keeps this working across the changes of JdbcEventLogger
+			// API between Cayenne versions
+			node.setJdbcEventLogger((JdbcEventLogger) Proxy.newProxyInstance(JdbcEventLogger.class.getClassLoader(),
+					new Class<?>[] { JdbcEventLogger.class }, new CapturingHandler(logger)));
+		}
+	}
+
+	private static boolean isCapturing(JdbcEventLogger logger) {
+		return Proxy.isProxyClass(logger.getClass())
+				&& Proxy.getInvocationHandler(logger) instanceof CapturingHandler;
+	}
+
+	/**
+	 * Starts capturing the statements run by the current thread.
+	 */
+	public static SqlCapture start() {
+		SqlCapture capture = new SqlCapture();
+		CURRENT.set(capture);
+		return capture;
+	}
+
+	private SqlCapture() {
+		this.statements = new ArrayList<>(2);
+	}
+
+	/**
+	 * Stops capturing and returns the captured statements. If there were too
+	 * many statements, the last element tells how many were skipped.
+	 */
+	public List<String> stop() {
+
+		if (CURRENT.get() == this) {
+			CURRENT.remove();
+		}
+
+		if (skipped > 0) {
+			statements.add("... " + skipped + " more statement(s)");
+			skipped = 0;
+		}
+
+		return Collections.unmodifiableList(statements);
+	}
+
+	private void add(String sql) {
+		if (statements.size() < MAX_STATEMENTS) {
+			statements.add(sql);
+		} else {
+			skipped++;
+		}
+	}
+
+	private static final class CapturingHandler implements InvocationHandler {
+
+		private JdbcEventLogger delegate;
+
+		CapturingHandler(JdbcEventLogger delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			SqlCapture capture = CURRENT.get();
+			String name = method.getName();
+
+			if (capture != null) {
+
+				// Cayenne only reports statements to a loggable logger
+				if ("isLoggable".equals(name)) {
+					return Boolean.TRUE;
+				}
+
+				if ("logQuery".equals(name) && args != null && args.length > 0 && args[0] instanceof String) {
+					capture.add((String) args[0]);
+				}
+
+				// don't let the capture make a quiet logger noisy
+				if (name.startsWith("log") && !delegate.isLoggable()) {
+					return null;
+				}
+			}
+
+			try {
+				return method.invoke(delegate, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.nhl.link.rest.runtime.dao;
+
+import org.apache.cayenne.di.Inject;
+
+import com.nhl.link.rest.runtime.IFetchCoalescer;
+import com.nhl.link.rest.runtime.NoFetchCoalescer;
+import com.nhl.link.rest.runtime.cache.CountCache;
+import com.nhl.link.rest.runtime.cache.ICountCache;
+import com.nhl.link.rest.runtime.cache.IInvalidationBus;
+import com.nhl.link.rest.runtime.cache.IResponseCache;
+import com.nhl.link.rest.runtime.cache.LocalInvalidationBus;
+import com.nhl.link.rest.runtime.cache.NoResponseCache;
+import com.nhl.link.rest.runtime.cayenne.BatchRelatedObjectResolver;
+import com.nhl.link.rest.runtime.cayenne.FixedPrefetchPlanner;
+import com.nhl.link.rest.runtime.cayenne.IPrefetchPlanner;
+import com.nhl.link.rest.runtime.cayenne.IRelatedObjectResolver;
+import com.nhl.link.rest.runtime.explain.ExplainService;
+import com.nhl.link.rest.runtime.explain.IExplainService;
+
+/**
+ * Services shared by all {@link EntityDao}s, besides the request parser and
+ * the encoder service. DAOs use only the services relevant to their backend.
+ *
+ * @since 1.1
+ */
+public class EntityDaoContext {
+
+	private IRelatedObjectResolver relatedObjectResolver;
+	private IFetchCoalescer fetchCoalescer;
+	private IResponseCache responseCache;
+	private IInvalidationBus invalidationBus;
+	private IExplainService explainService;
+	private IPrefetchPlanner prefetchPlanner;
+	private ICountCache countCache;
+
+	/**
+	 * Returns a context with the default services, that don't coalesce
+	 * fetches or cache responses.
+	 */
+	public static EntityDaoContext defaults() {
+		return new EntityDaoContext(new BatchRelatedObjectResolver(), new NoFetchCoalescer(),
+				NoResponseCache.instance(), new LocalInvalidationBus(), new ExplainService(false, null),
+				new FixedPrefetchPlanner(), new CountCache(CountCache.DEFAULT_MAX_AGE_MS));
+	}
+
+	public EntityDaoContext(@Inject IRelatedObjectResolver relatedObjectResolver,
+			@Inject IFetchCoalescer fetchCoalescer, @Inject IResponseCache responseCache,
+			@Inject IInvalidationBus invalidationBus, @Inject IExplainService explainService,
+			@Inject IPrefetchPlanner prefetchPlanner, @Inject ICountCache countCache) {
+		this.relatedObjectResolver = relatedObjectResolver;
+		this.fetchCoalescer = fetchCoalescer;
+		this.responseCache = responseCache;
+		this.invalidationBus = invalidationBus;
+		this.explainService = explainService;
+		this.prefetchPlanner = prefetchPlanner;
+		this.countCache = countCache;
+	}
+
+	public IRelatedObjectResolver getRelatedObjectResolver() {
+		return relatedObjectResolver;
+	}
+
+	public IFetchCoalescer getFetchCoalescer() {
+		return fetchCoalescer;
+	}
+
+	public IResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	public IInvalidationBus getInvalidationBus() {
+		return invalidationBus;
+	}
+
+	public IExplainService getExplainService() {
+		return explainService;
+	}
+
+	public IPrefetchPlanner getPrefetchPlanner() {
+		return prefetchPlanner;
+	}
+
+	public ICountCache getCountCache() {
+		return countCache;
+	}
+}
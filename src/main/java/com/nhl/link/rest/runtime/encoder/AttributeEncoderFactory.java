@@ -3,17 +3,18 @@ package com.nhl.link.rest.runtime.encoder;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.core.Response.Status;
 
 import org.apache.cayenne.DataObject;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
 
 import com.nhl.link.rest.ClientEntity;
 import com.nhl.link.rest.ClientProperty;
@@ -25,10 +26,16 @@ import com.nhl.link.rest.encoder.ISODateTimeEncoder;
 import com.nhl.link.rest.encoder.ISOTimeEncoder;
 import com.nhl.link.rest.encoder.NumericObjectIdEncoder;
 import com.nhl.link.rest.property.BeanPropertyReader;
+import com.nhl.link.rest.property.DataRowPropertyReader;
 import com.nhl.link.rest.property.PersistentObjectIdPropertyReader;
 import com.nhl.link.rest.property.PropertyBuilder;
+import com.nhl.link.rest.property.PropertyReader;
+import com.nhl.link.rest.property.RelatedObjectIdPropertyReader;
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+import com.nhl.link.rest.runtime.cache.ManagedCacheProvider;
+import com.nhl.link.rest.runtime.cache.MapCache;
 
-public class AttributeEncoderFactory implements IAttributeEncoderFactory {
+public class AttributeEncoderFactory implements IAttributeEncoderFactory, ManagedCacheProvider {
 
 	static final String UTIL_DATE = Date.class.getName();
 	static final String SQL_DATE = java.sql.Date.class.getName();
@@ -36,12 +43,27 @@ public class AttributeEncoderFactory implements IAttributeEncoderFactory {
 	static final String SQL_TIMESTAMP = Timestamp.class.getName();
 
 	// these are explicit overrides for named attributes
-	private Map<String, ClientProperty> attributePropertiesByPath;
-	private Map<String, ClientProperty> idPropertiesByEntity;
+	private MapCache<ClientProperty> attributePropertiesByPath;
+	private MapCache<ClientProperty> idPropertiesByEntity;
+	private MapCache<ClientProperty> rowAttributePropertiesByPath;
+	private MapCache<ClientProperty> rowIdPropertiesByEntity;
+	private MapCache<ClientProperty> relatedIdPropertiesByPath;
 
 	public AttributeEncoderFactory() {
-		this.attributePropertiesByPath = new ConcurrentHashMap<>();
-		this.idPropertiesByEntity = new ConcurrentHashMap<>();
+		this.attributePropertiesByPath = new MapCache<>("linkrest.encoder.attributes");
+		this.idPropertiesByEntity = new MapCache<>("linkrest.encoder.ids");
+		this.rowAttributePropertiesByPath = new MapCache<>("linkrest.encoder.rowAttributes");
+		this.rowIdPropertiesByEntity = new MapCache<>("linkrest.encoder.rowIds");
+		this.relatedIdPropertiesByPath = new MapCache<>("linkrest.encoder.relatedIds");
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Arrays.asList(attributePropertiesByPath, idPropertiesByEntity, rowAttributePropertiesByPath,
+				rowIdPropertiesByEntity, relatedIdPropertiesByPath);
 	}
 
 	@Override
@@ -71,6 +93,73 @@ public class AttributeEncoderFactory implements IAttributeEncoderFactory {
 		return property;
 	}
 
+	/**
+	 * Returns a property that reads an attribute value from a Cayenne DataRow
+	 * instead of an object.
+	 * 
+	 * @since 1.1
+	 */
+	public ClientProperty getRowAttributeProperty(ClientEntity<?> entity, String attributeName) {
+		String key = entity.getEntity().getName() + "." + attributeName;
+
+		ClientProperty property = rowAttributePropertiesByPath.get(key);
+		if (property == null) {
+			property = buildRowAttributeProperty(entity, attributeName);
+			rowAttributePropertiesByPath.put(key, property);
+		}
+
+		return property;
+	}
+
+	/**
+	 * Returns a property that reads an ID value from a Cayenne DataRow instead
+	 * of an object.
+	 * 
+	 * @since 1.1
+	 */
+	public ClientProperty getRowIdProperty(ClientEntity<?> entity) {
+
+		String key = entity.getEntity().getName();
+
+		ClientProperty property = rowIdPropertiesByEntity.get(key);
+		if (property == null) {
+			property = buildRowIdProperty(entity);
+			rowIdPropertiesByEntity.put(key, property);
+		}
+
+		return property;
+	}
+
+	/**
+	 * Returns a property that reads an ID of the object related via a to-one
+	 * relationship, avoiding fetching the related object when possible.
+	 * 
+	 * @since 1.1
+	 */
+	public ClientProperty getRelatedIdProperty(ClientEntity<?> entity, ObjRelationship relationship) {
+
+		String key = entity.getEntity().getName() + "." + relationship.getName();
+
+		ClientProperty property = relatedIdPropertiesByPath.get(key);
+		if (property == null) {
+			property = buildRelatedIdProperty(entity, relationship);
+			relatedIdPropertiesByPath.put(key, property);
+		}
+
+		return property;
+	}
+
+	/**
+	 * Returns an encoder of the attribute values, regardless of the object
+	 * they are read from.
+	 * 
+	 * @since 1.1
+	 */
+	public Encoder getAttributeEncoder(ObjAttribute attribute) {
+		// value encoders are stateless singletons, so no need to cache them
+		return buildEncoder((ObjEntity) attribute.getEntity(), attribute.getName());
+	}
+
 	protected ClientProperty buildAttributeProperty(ClientEntity<?> entity, String attributeName) {
 
 		Encoder encoder = buildEncoder(entity.getEntity(), attributeName);
@@ -100,6 +189,70 @@ public class AttributeEncoderFactory implements IAttributeEncoderFactory {
 		return PropertyBuilder.property(BeanPropertyReader.reader(pkName));
 	}
 
+	/**
+	 * @since 1.1
+	 */
+	protected ClientProperty buildRelatedIdProperty(ClientEntity<?> entity, ObjRelationship relationship) {
+		return relatedIdProperty(entity, relationship);
+	}
+
+	static ClientProperty relatedIdProperty(ClientEntity<?> entity, ObjRelationship relationship) {
+
+		if (DataObject.class.isAssignableFrom(entity.getType())) {
+			// ignoring compound PK entities; ignoring non-numeric PK entities
+			return PropertyBuilder.property(RelatedObjectIdPropertyReader.reader(relationship)).encodedWith(
+					NumericObjectIdEncoder.encoder());
+		}
+
+		// POJOs have no snapshots, so read the related object and its id
+		Collection<String> pks = ((ObjEntity) relationship.getTargetEntity()).getPrimaryKeyNames();
+		if (pks.size() != 1) {
+			throw new IllegalStateException(String.format("Unexpected PK size of %s for entity '%s'", pks.size(),
+					relationship.getTargetEntityName()));
+		}
+
+		final String relationshipName = relationship.getName();
+		final PropertyReader idReader = BeanPropertyReader.reader(pks.iterator().next());
+		return PropertyBuilder.property(new PropertyReader() {
+
+			@Override
+			public Object value(Object root, String name) {
+				Object related = BeanPropertyReader.reader().value(root, relationshipName);
+				return related != null ? idReader.value(related, null) : null;
+			}
+		});
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	protected ClientProperty buildRowAttributeProperty(ClientEntity<?> entity, String attributeName) {
+
+		Encoder encoder = buildEncoder(entity.getEntity(), attributeName);
+
+		// buildEncoder has already validated the attribute; values are
+		// converted to the attribute type to be encoded same as the objects
+		ObjAttribute attribute = (ObjAttribute) entity.getEntity().getAttribute(attributeName);
+		PropertyReader reader = DataRowPropertyReader.reader(attribute.getDbAttributePath(), attribute.getJavaClass());
+		return PropertyBuilder.property(reader).encodedWith(encoder);
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	protected ClientProperty buildRowIdProperty(ClientEntity<?> entity) {
+
+		Collection<DbAttribute> pks = entity.getEntity().getDbEntity().getPrimaryKeys();
+
+		// compound PK entities and entities with no PK are not supported...
+		if (pks.size() != 1) {
+			throw new IllegalStateException(String.format("Unexpected PK size of %s for entity '%s'", pks.size(),
+					entity.getEntity().getName()));
+		}
+
+		return PropertyBuilder.property(DataRowPropertyReader.reader(pks.iterator().next().getName()));
+	}
+
 	protected Encoder buildEncoder(ObjEntity entity, String attributeName) {
 
 		ObjAttribute attribute = (ObjAttribute) entity.getAttribute(attributeName);
@@ -1,8 +1,11 @@
 package com.nhl.link.rest.runtime.encoder;
 
 import static com.nhl.link.rest.property.PropertyBuilder.dataObjectProperty;
+import static com.nhl.link.rest.property.PropertyBuilder.property;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -12,20 +15,25 @@ import javax.ws.rs.core.Response.Status;
 
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.Ordering;
 
+import com.nhl.link.rest.Aggregation;
 import com.nhl.link.rest.ClientEntity;
 import com.nhl.link.rest.ClientProperty;
 import com.nhl.link.rest.DataResponse;
 import com.nhl.link.rest.LinkRestException;
+import com.nhl.link.rest.PrefetchedRelationships;
 import com.nhl.link.rest.encoder.Encoder;
 import com.nhl.link.rest.encoder.EncoderFilter;
 import com.nhl.link.rest.encoder.EntityEncoder;
 import com.nhl.link.rest.encoder.EntityToOneEncoder;
 import com.nhl.link.rest.encoder.FilterChainEncoder;
 import com.nhl.link.rest.encoder.GenericEncoder;
+import com.nhl.link.rest.encoder.IncludedObjects;
 import com.nhl.link.rest.encoder.ListEncoder;
 import com.nhl.link.rest.encoder.MapByEncoder;
 import com.nhl.link.rest.encoder.RootListEncoder;
+import com.nhl.link.rest.property.DataRowPropertyReader;
 import com.nhl.link.rest.property.PropertyBuilder;
 import com.nhl.link.rest.runtime.semantics.IRelationshipMapper;
 
@@ -70,20 +78,198 @@ public class EncoderService implements IEncoderService {
 		// TODO: this is flaky -- if this method is called before the
 		// objects were set, the result will be garbage
 
-		Encoder elementEncoder = response.getObjects().isEmpty() ? GenericEncoder.encoder()
-				: collectionElementEncoder(entity);
+		// side-loaded objects are only collected from the to-one
+		// relationships, as to-many lists may be filtered and sorted per
+		// source object
+		IncludedObjects included = response.isSideloading() ? new IncludedObjects() : null;
+
+		Encoder elementEncoder;
+		if (response.getObjects().isEmpty()) {
+			elementEncoder = GenericEncoder.encoder();
+		} else if (response.getAggregation() != null) {
+			elementEncoder = aggregateEncoder(response.getAggregation());
+		} else if (response.isDataRows()) {
+			elementEncoder = rowEncoder(entity, "", response.getPrefetchedRelationships(), included);
+		} else {
+			elementEncoder = collectionElementEncoder(entity, "", response.getPrefetchedRelationships(), included);
+		}
 
 		// notice that we are not passing either qualifier or ordering to the
 		// encoder, as those are presumably applied at the query level.. (unlike
 		// with #nestedToManyEncoder)
 
-		return new RootListEncoder(elementEncoder).withTotal("total").withOffset(response.getFetchOffset())
+		// count-only responses that could not be counted in the DB are
+		// counted by skipping all objects
+		int offset = response.isCountOnly() ? Integer.MAX_VALUE : response.getFetchOffset();
+
+		RootListEncoder encoder = new RootListEncoder(elementEncoder).withTotal("total").withOffset(offset)
 				.withLimit(response.getFetchLimit());
+		if (response.getMissingIds() != null) {
+			encoder.withMissingIds("missing", response.getMissingIds());
+		}
+
+		return included != null ? encoder.withIncluded("included", included) : encoder;
+	}
+
+	/**
+	 * Returns whether objects of a given entity and its relationships can be
+	 * encoded from Cayenne DataRows, i.e. when there are no custom properties,
+	 * mapBy or encoder filters anywhere in the entity tree, and the attribute
+	 * encoders are built by the default {@link AttributeEncoderFactory}.
+	 * Related rows are expected in the response {@link PrefetchedRelationships}.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean canEncodeRows(ClientEntity<?> entity) {
+		return attributeEncoderFactory instanceof AttributeEncoderFactory && canEncodeRowsTree(entity);
+	}
+
+	private boolean canEncodeRowsTree(ClientEntity<?> entity) {
+
+		if (entity.getMapBy() != null || !entity.getExtraProperties().isEmpty() || !entity.getRelatedIds().isEmpty()
+				|| isFiltered(entity)) {
+			return false;
+		}
+
+		for (ClientEntity<?> child : entity.getRelationships().values()) {
+			if (!canEncodeRowsTree(child)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns whether any {@link EncoderFilter} applies to a given entity, i.e.
+	 * whether encoding may skip some of the objects, so that their count can't
+	 * be known without fetching them.
+	 * 
+	 * @since 1.1
+	 */
+	public boolean isFiltered(ClientEntity<?> entity) {
+
+		for (EncoderFilter filter : filters) {
+			if (filter.matches(entity)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private Encoder rowEncoder(ClientEntity<?> clientEntity, String path, PrefetchedRelationships prefetched,
+			IncludedObjects included) {
+
+		Map<String, ClientProperty> properties = new TreeMap<String, ClientProperty>();
+
+		for (String attribute : clientEntity.getAttributes()) {
+			properties.put(attribute, rowEncoderFactory().getRowAttributeProperty(clientEntity, attribute));
+		}
+
+		// related rows are always fetched separately, already filtered and
+		// sorted by the DB
+		for (Entry<String, ClientEntity<?>> e : clientEntity.getRelationships().entrySet()) {
+			final ObjRelationship relationship = (ObjRelationship) clientEntity.getEntity().getRelationship(
+					e.getKey());
+			String relationshipPath = path.length() > 0 ? path + "." + e.getKey() : e.getKey();
+			ClientEntity<?> child = e.getValue();
+
+			if (relationship.isToMany()) {
+				Encoder valueEncoder = rowEncoder(child, relationshipPath, prefetched, included);
+				Encoder encoder = new ListEncoder(valueEncoder, null, Collections.<Ordering> emptyList(),
+						child.getLimit());
+				properties.put(e.getKey(), property(prefetched.reader(relationshipPath)).encodedWith(encoder));
+			} else {
+				// the entity group must be registered before the nested
+				// groups to be encoded before them
+				String entityName = child.getEntity().getName();
+				boolean sideloaded = included != null && included.addEntity(entityName);
+
+				// side-loaded objects are matched to the sources by id
+				if (sideloaded) {
+					child.setIdIncluded(true);
+				}
+
+				Encoder valueEncoder = rowEncoder(child, relationshipPath, prefetched, included);
+				if (sideloaded) {
+					included.setEncoder(entityName, valueEncoder);
+					valueEncoder = included.collector(entityName);
+				}
+
+				ClientProperty relatedIdEncoder = rowEncoderFactory().getRowIdProperty(child);
+				Encoder encoder = new EntityToOneEncoder(valueEncoder, relatedIdEncoder) {
+
+					final String idPropertyName = relationshipMapper.toRelatedIdName(relationship);
+
+					@Override
+					protected String idPropertyName(String propertyName) {
+						return idPropertyName;
+					}
+				};
+				properties.put(e.getKey(), property(prefetched.toOneReader(relationshipPath)).encodedWith(encoder));
+			}
+		}
+
+		ClientProperty idEncoder = clientEntity.isIdIncluded() ? rowEncoderFactory().getRowIdProperty(clientEntity)
+				: PropertyBuilder.doNothingProperty();
+		return new EntityEncoder(idEncoder, properties);
+	}
+
+	private ClientProperty relatedIdProperty(ClientEntity<?> clientEntity, ObjRelationship relationship) {
+		if (attributeEncoderFactory instanceof AttributeEncoderFactory) {
+			return ((AttributeEncoderFactory) attributeEncoderFactory).getRelatedIdProperty(clientEntity, relationship);
+		}
+
+		// uncached, as custom factories are not expected to be used with
+		// 'relatedIds'
+		return AttributeEncoderFactory.relatedIdProperty(clientEntity, relationship);
+	}
+
+	private AttributeEncoderFactory rowEncoderFactory() {
+
+		if (!(attributeEncoderFactory instanceof AttributeEncoderFactory)) {
+			throw new IllegalStateException("Can't encode DataRows with "
+					+ attributeEncoderFactory.getClass().getName());
+		}
+
+		return (AttributeEncoderFactory) attributeEncoderFactory;
+	}
+
+	private Encoder aggregateEncoder(Aggregation aggregation) {
+
+		// preserve the requested column order
+		Map<String, ClientProperty> properties = new LinkedHashMap<>();
+
+		for (Aggregation.Column column : aggregation.getColumns()) {
+
+			// counts, sums and averages are numbers regardless of the
+			// attribute type, while other values are encoded as attributes;
+			// custom attribute encoder factories only encode object properties
+			String function = column.getFunction();
+			boolean numeric = Aggregation.COUNT.equals(function) || Aggregation.SUM.equals(function)
+					|| Aggregation.AVG.equals(function);
+
+			Encoder encoder = column.getAttribute() == null || numeric
+					|| !(attributeEncoderFactory instanceof AttributeEncoderFactory) ? GenericEncoder.encoder()
+					: ((AttributeEncoderFactory) attributeEncoderFactory).getAttributeEncoder(column.getAttribute());
+
+			properties.put(column.getName(), property(DataRowPropertyReader.reader(column.getName())).encodedWith(
+					encoder));
+		}
+
+		return new EntityEncoder(PropertyBuilder.doNothingProperty(), properties);
 	}
 
-	private Encoder nestedToManyEncoder(ClientEntity<?> clientEntity) {
+	private Encoder nestedToManyEncoder(ClientEntity<?> clientEntity, String path,
+			PrefetchedRelationships prefetched, IncludedObjects included) {
+
+		Encoder elementEncoder = collectionElementEncoder(clientEntity, path, prefetched, included);
 
-		Encoder elementEncoder = collectionElementEncoder(clientEntity);
+		// separately fetched lists are already filtered and sorted by the DB
+		if (prefetched != null && prefetched.isFetched(path)) {
+			return new ListEncoder(elementEncoder, null, Collections.<Ordering> emptyList(), clientEntity.getLimit());
+		}
 
 		if ((clientEntity.getMapBy() != null)) {
 
@@ -95,16 +281,19 @@ public class EncoderService implements IEncoderService {
 					listEncoder, stringConverterFactory);
 
 		} else {
-			return new ListEncoder(elementEncoder, clientEntity.getQualifier(), clientEntity.getOrderings());
+			return new ListEncoder(elementEncoder, clientEntity.getQualifier(), clientEntity.getOrderings(),
+					clientEntity.getLimit());
 		}
 	}
 
-	private Encoder collectionElementEncoder(ClientEntity<?> clientEntity) {
-		Encoder encoder = entityEncoder(clientEntity);
+	private Encoder collectionElementEncoder(ClientEntity<?> clientEntity, String path,
+			PrefetchedRelationships prefetched, IncludedObjects included) {
+		Encoder encoder = entityEncoder(clientEntity, path, prefetched, included);
 		return filteredEncoder(encoder, clientEntity);
 	}
 
-	private Encoder toOneEncoder(ClientEntity<?> clientEntity, final ObjRelationship relationship) {
+	private Encoder toOneEncoder(ClientEntity<?> clientEntity, final ObjRelationship relationship, String path,
+			PrefetchedRelationships prefetched, IncludedObjects included) {
 
 		// to-one encoder is made of the following decorator layers (from outer
 		// to inner):
@@ -112,7 +301,24 @@ public class EncoderService implements IEncoderService {
 		// (2) composite [value + id encoder]
 		// different structure from to-many, so building it differently
 
-		Encoder valueEncoder = entityEncoder(clientEntity);
+		// only the first relationship pointing to a given entity is
+		// side-loaded, as the other ones may include a different set of
+		// properties. The entity group must be registered before the nested
+		// groups to be encoded before them
+		String entityName = clientEntity.getEntity().getName();
+		boolean sideloaded = included != null && included.addEntity(entityName);
+
+		// side-loaded objects are matched to the sources by id
+		if (sideloaded) {
+			clientEntity.setIdIncluded(true);
+		}
+
+		Encoder valueEncoder = entityEncoder(clientEntity, path, prefetched, included);
+		if (sideloaded) {
+			included.setEncoder(entityName, filteredEncoder(valueEncoder, clientEntity));
+			valueEncoder = included.collector(entityName);
+		}
+
 		ClientProperty idEncoder = attributeEncoderFactory.getIdProperty(clientEntity);
 		Encoder compositeValueEncoder = new EntityToOneEncoder(valueEncoder, idEncoder) {
 
@@ -130,7 +336,8 @@ public class EncoderService implements IEncoderService {
 		return filteredEncoder(compositeValueEncoder, clientEntity);
 	}
 
-	private Encoder entityEncoder(ClientEntity<?> clientEntity) {
+	private Encoder entityEncoder(ClientEntity<?> clientEntity, String path, PrefetchedRelationships prefetched,
+			IncludedObjects included) {
 
 		// ensure we sort property encoders alphabetically for cleaner JSON
 		// output
@@ -143,11 +350,29 @@ public class EncoderService implements IEncoderService {
 
 		for (Entry<String, ClientEntity<?>> e : clientEntity.getRelationships().entrySet()) {
 			ObjRelationship relationship = (ObjRelationship) clientEntity.getEntity().getRelationship(e.getKey());
+			String relationshipPath = path.length() > 0 ? path + "." + e.getKey() : e.getKey();
 
-			Encoder encoder = relationship.isToMany() ? nestedToManyEncoder(e.getValue()) : toOneEncoder(e.getValue(),
-					relationship);
+			Encoder encoder = relationship.isToMany() ? nestedToManyEncoder(e.getValue(), relationshipPath,
+					prefetched, included) : toOneEncoder(e.getValue(), relationship, relationshipPath, prefetched,
+					included);
 
-			properties.put(e.getKey(), dataObjectProperty().encodedWith(encoder));
+			PropertyBuilder property = dataObjectProperty();
+			if (prefetched != null && prefetched.isFetched(relationshipPath)) {
+				property = property(prefetched.reader(relationshipPath));
+			}
+
+			properties.put(e.getKey(), property.encodedWith(encoder));
+		}
+
+		// related ids of the included relationships are written by their
+		// EntityToOneEncoders
+		for (String relationshipName : clientEntity.getRelatedIds()) {
+			if (!clientEntity.getRelationships().containsKey(relationshipName)) {
+				ObjRelationship relationship = (ObjRelationship) clientEntity.getEntity().getRelationship(
+						relationshipName);
+				properties.put(relationshipMapper.toRelatedIdName(relationship),
+						relatedIdProperty(clientEntity, relationship));
+			}
 		}
 
 		properties.putAll(clientEntity.getExtraProperties());
@@ -1,8 +1,8 @@
 package com.nhl.link.rest.runtime.encoder;
 
 import java.sql.Types;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collection;
+import java.util.Collections;
 
 import javax.ws.rs.core.Response.Status;
 
@@ -17,17 +17,28 @@ import com.nhl.link.rest.converter.ISODateConverter;
 import com.nhl.link.rest.converter.ISODateTimeConverter;
 import com.nhl.link.rest.converter.ISOTimeConverter;
 import com.nhl.link.rest.converter.StringConverter;
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+import com.nhl.link.rest.runtime.cache.ManagedCacheProvider;
+import com.nhl.link.rest.runtime.cache.MapCache;
 import com.nhl.link.rest.runtime.meta.IMetadataService;
 
-public class StringConverterFactory implements IStringConverterFactory {
+public class StringConverterFactory implements IStringConverterFactory, ManagedCacheProvider {
 
 	// these are explicit overrides for named attributes
-	private Map<String, StringConverter> convertersByPath;
+	private MapCache<StringConverter> convertersByPath;
 	private IMetadataService metadataService;
 
 	public StringConverterFactory(@Inject IMetadataService metadataService) {
 		this.metadataService = metadataService;
-		this.convertersByPath = new ConcurrentHashMap<String, StringConverter>();
+		this.convertersByPath = new MapCache<>("linkrest.converters");
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Collections.singleton(convertersByPath);
 	}
 
 	/**
@@ -0,0 +1,152 @@
+package com.nhl.link.rest.runtime.explain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.ClientEntity;
+
+/**
+ * @since 1.1
+ */
+public class ExplainService implements IExplainService {
+
+	public static final String EXPLAIN_PARAMETER = "explain";
+
+	private boolean parameterEnabled;
+	private QueryPlanProvider queryPlanProvider;
+
+	/**
+	 * @param parameterEnabled
+	 *            whether clients are allowed to request explanation with
+	 *            'explain=true' URL parameter.
+	 * @param queryPlanProvider
+	 *            DB-specific provider of the query plans. May be null.
+	 */
+	public ExplainService(boolean parameterEnabled, QueryPlanProvider queryPlanProvider) {
+		this.parameterEnabled = parameterEnabled;
+		this.queryPlanProvider = queryPlanProvider;
+	}
+
+	/**
+	 * Returns a name of prefetch semantics.
+	 */
+	public static String semanticsName(int semantics) {
+		switch (semantics) {
+		case PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS:
+			return "joint";
+		case PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS:
+			return "disjoint";
+		case PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS:
+			return "disjoint by id";
+		default:
+			return "undefined";
+		}
+	}
+
+	@Override
+	public boolean isExplainRequested(UriInfo uriInfo) {
+		return parameterEnabled && uriInfo != null
+				&& "true".equalsIgnoreCase(uriInfo.getQueryParameters().getFirst(EXPLAIN_PARAMETER));
+	}
+
+	@Override
+	public Map<String, Object> explainEntity(ClientEntity<?> entity) {
+		Map<String, Object> explanation = new LinkedHashMap<>();
+
+		explanation.put("name", entity.getEntity().getName());
+		explanation.put("id", entity.isIdIncluded());
+		explanation.put("attributes", new ArrayList<>(entity.getAttributes()));
+
+		if (!entity.getExtraProperties().isEmpty()) {
+			explanation.put("properties", new ArrayList<>(entity.getExtraProperties().keySet()));
+		}
+
+		if (entity.getQualifier() != null) {
+			explanation.put("qualifier", entity.getQualifier().toString());
+		}
+
+		if (!entity.getOrderings().isEmpty()) {
+			explanation.put("orderings", explainOrderings(entity.getOrderings()));
+		}
+
+		if (entity.getLimit() > 0) {
+			explanation.put("limit", entity.getLimit());
+		}
+
+		if (entity.getMapBy() != null) {
+			explanation.put("mapBy", entity.getMapByPath());
+		}
+
+		if (!entity.getRelationships().isEmpty()) {
+			Map<String, Object> relationships = new LinkedHashMap<>();
+			for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+				relationships.put(e.getKey(), explainEntity(e.getValue()));
+			}
+
+			explanation.put("relationships", relationships);
+		}
+
+		return explanation;
+	}
+
+	@Override
+	public Map<String, Object> explainQuery(ObjectContext context, SelectQuery<?> query) {
+		Map<String, Object> explanation = new LinkedHashMap<>();
+
+		explanation.put("root", String.valueOf(query.getRoot()));
+
+		if (query.getQualifier() != null) {
+			explanation.put("qualifier", query.getQualifier().toString());
+		}
+
+		if (!query.getOrderings().isEmpty()) {
+			explanation.put("orderings", explainOrderings(query.getOrderings()));
+		}
+
+		if (query.getFetchOffset() > 0) {
+			explanation.put("fetchOffset", query.getFetchOffset());
+		}
+
+		if (query.getFetchLimit() > 0) {
+			explanation.put("fetchLimit", query.getFetchLimit());
+		}
+
+		if (query.getPrefetchTree() != null) {
+			List<Object> prefetches = new ArrayList<>();
+			for (PrefetchTreeNode node : query.getPrefetchTree().nonPhantomNodes()) {
+				Map<String, Object> prefetch = new LinkedHashMap<>();
+				prefetch.put("path", node.getPath());
+				prefetch.put("semantics", semanticsName(node.getSemantics()));
+				prefetches.add(prefetch);
+			}
+
+			explanation.put("prefetches", prefetches);
+		}
+
+		if (queryPlanProvider != null) {
+			explanation.put("plan", queryPlanProvider.queryPlan(context, query));
+		}
+
+		return explanation;
+	}
+
+	private static List<String> explainOrderings(Collection<Ordering> orderings) {
+		List<String> explanation = new ArrayList<>(orderings.size());
+		for (Ordering o : orderings) {
+			explanation.add(o.getSortSpecString() + (o.isAscending() ? " asc" : " desc"));
+		}
+
+		return explanation;
+	}
+}
@@ -0,0 +1,33 @@
+package com.nhl.link.rest.runtime.explain;
+
+import java.util.Map;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.ClientEntity;
+
+/**
+ * A service that describes what LinkRest would do to process a select
+ * request, without running any queries.
+ * 
+ * @since 1.1
+ */
+public interface IExplainService {
+
+	/**
+	 * Returns true if the request asks to explain itself instead of returning
+	 * data, and such requests are allowed.
+	 */
+	boolean isExplainRequested(UriInfo uriInfo);
+
+	Map<String, Object> explainEntity(ClientEntity<?> entity);
+
+	/**
+	 * Describes the query with its prefetch tree and, if configured, its DB
+	 * execution plan.
+	 */
+	Map<String, Object> explainQuery(ObjectContext context, SelectQuery<?> query);
+}
@@ -0,0 +1,20 @@
+package com.nhl.link.rest.runtime.explain;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.query.SelectQuery;
+
+/**
+ * A DB-specific strategy to obtain an execution plan of a query for the
+ * "explain" mode. Implementations would usually translate the query to SQL and
+ * run the database EXPLAIN command, which does not execute the query itself.
+ * 
+ * @since 1.1
+ */
+public interface QueryPlanProvider {
+
+	/**
+	 * Returns an execution plan of the query as an object that can be
+	 * serialized by Jackson, e.g. a String or a List of plan rows.
+	 */
+	Object queryPlan(ObjectContext context, SelectQuery<?> query);
+}
@@ -0,0 +1,134 @@
+package com.nhl.link.rest.runtime.explain;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.trans.SelectTranslator;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * A {@link QueryPlanProvider} for the databases that explain a query with a
+ * SQL prefix, such as "EXPLAIN" in PostgreSQL, MySQL and H2, or
+ * "EXPLAIN QUERY PLAN" in SQLite. The query is translated to SQL by Cayenne,
+ * prefixed, and run with the same parameter bindings as the original query.
+ * The plan is returned with the translated SQL as a list of rows, each row
+ * being a map of column labels to values.
+ * <p>
+ * Databases that can only report a plan of an executed query (e.g. Derby
+ * runtime statistics) are not supported by this provider, as explanation
+ * should never run the query itself.
+ *
+ * @since 1.1
+ */
+public class SqlQueryPlanProvider implements QueryPlanProvider {
+
+	public static final String DEFAULT_PREFIX = "EXPLAIN ";
+
+	private String prefix;
+
+	public SqlQueryPlanProvider() {
+		this(DEFAULT_PREFIX);
+	}
+
+	/**
+	 * @param prefix
+	 *            a DB-specific prefix that turns a select into a request of
+	 *            its execution plan, including the trailing space.
+	 */
+	public SqlQueryPlanProvider(String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	public Object queryPlan(ObjectContext context, SelectQuery<?> query) {
+
+		DataNode node = dataNode(context, query);
+
+		SelectTranslator translator = new SelectTranslator();
+		translator.setQuery(query);
+		translator.setAdapter(node.getAdapter());
+		translator.setEntityResolver(node.getEntityResolver());
+		translator.setJdbcEventLogger(node.getJdbcEventLogger());
+
+		try (Connection connection = node.getDataSource().getConnection()) {
+			translator.setConnection(connection);
+
+			String sql = translator.createSqlString();
+
+			Map<String, Object> plan = new LinkedHashMap<>();
+			plan.put("sql", sql);
+
+			try (PreparedStatement statement = connection.prepareStatement(prefix + sql)) {
+
+				// the bindings are collected by the translator while creating
+				// the SQL
+				translator.initStatement(statement);
+
+				try (ResultSet rs = statement.executeQuery()) {
+					plan.put("rows", readRows(rs));
+				}
+			}
+
+			return plan;
+
+		} catch (Exception e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error getting query plan: " + e.getMessage(),
+					e);
+		}
+	}
+
+	private static DataNode dataNode(ObjectContext context, SelectQuery<?> query) {
+
+		DataChannel channel = context.getChannel();
+		DataMap map = query.getMetaData(context.getEntityResolver()).getDataMap();
+
+		if (!(channel instanceof DataDomain) || map == null) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Can't find a DataNode for query root: "
+					+ query.getRoot());
+		}
+
+		return ((DataDomain) channel).lookupDataNode(map);
+	}
+
+	private static List<Map<String, Object>> readRows(ResultSet rs) throws Exception {
+
+		ResultSetMetaData md = rs.getMetaData();
+		int width = md.getColumnCount();
+
+		List<Map<String, Object>> rows = new ArrayList<>();
+		while (rs.next()) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			for (int i = 1; i <= width; i++) {
+				Object value = rs.getObject(i);
+
+				// plans may contain DB-specific types that can't be
+				// serialized as JSON
+				if (value != null && !(value instanceof String) && !(value instanceof Number)
+						&& !(value instanceof Boolean)) {
+					value = String.valueOf(value);
+				}
+
+				row.put(md.getColumnLabel(i), value);
+			}
+
+			rows.add(row);
+		}
+
+		return rows;
+	}
+}
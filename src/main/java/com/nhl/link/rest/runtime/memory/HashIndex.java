@@ -0,0 +1,16 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index that answers equality lookups.
+ *
+ * @since 1.1
+ */
+class HashIndex extends Index {
+
+	HashIndex(String attribute) {
+		super(attribute, new ConcurrentHashMap<Object, Set<Object>>());
+	}
+}
@@ -0,0 +1,127 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.Collections;
+import java.util.Map.Entry;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.cayenne.reflect.PropertyUtils;
+
+import com.nhl.link.rest.ExtendedSelectBuilder;
+import com.nhl.link.rest.LinkRestException;
+import com.nhl.link.rest.UpdateResponse;
+import com.nhl.link.rest.runtime.cache.InvalidationEvent;
+import com.nhl.link.rest.runtime.dao.EntityDao;
+import com.nhl.link.rest.runtime.dao.EntityDaoContext;
+import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.parser.IRequestParser;
+
+/**
+ * An {@link EntityDao} for POJOs kept in an {@link InMemoryStore}. Selects are
+ * answered with the store indexes where possible. Only the attributes are
+ * written on insert and update, relationships are ignored.
+ *
+ * @since 1.1
+ */
+public class InMemoryDao<T> implements EntityDao<T> {
+
+	private InMemoryStore<T> store;
+	private String entityName;
+	private IRequestParser requestParser;
+	private IEncoderService encoderService;
+	private EntityDaoContext daoContext;
+
+	public InMemoryDao(InMemoryStore<T> store, IRequestParser requestParser, IEncoderService encoderService) {
+		this(store, store.getType().getSimpleName(), requestParser, encoderService, EntityDaoContext.defaults());
+	}
+
+	public InMemoryDao(InMemoryStore<T> store, String entityName, IRequestParser requestParser,
+			IEncoderService encoderService, EntityDaoContext daoContext) {
+		this.store = store;
+		this.entityName = entityName;
+		this.requestParser = requestParser;
+		this.encoderService = encoderService;
+		this.daoContext = daoContext;
+	}
+
+	@Override
+	public Class<T> getType() {
+		return store.getType();
+	}
+
+	public InMemoryStore<T> getStore() {
+		return store;
+	}
+
+	@Override
+	public ExtendedSelectBuilder<T> forSelect() {
+		return new InMemorySelectBuilder<>(null, store, encoderService, requestParser,
+				daoContext.getFetchCoalescer(), daoContext.getResponseCache(), daoContext.getExplainService());
+	}
+
+	@Override
+	public ExtendedSelectBuilder<T> forSelect(SelectQuery<T> query) {
+		return new InMemorySelectBuilder<>(query, store, encoderService, requestParser,
+				daoContext.getFetchCoalescer(), daoContext.getResponseCache(), daoContext.getExplainService());
+	}
+
+	@Override
+	public T insert(UpdateResponse<T> response) {
+
+		T object;
+		try {
+			object = getType().newInstance();
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Error creating entity: " + entityName, e);
+		}
+
+		for (Entry<String, Object> e : response.getValues().entrySet()) {
+			PropertyUtils.setProperty(object, e.getKey(), e.getValue());
+		}
+
+		Object id = store.getId(object);
+		if (id == null) {
+			throw new LinkRestException(Status.BAD_REQUEST, "No id specified for the new '" + entityName + "'");
+		}
+
+		store.put(object);
+		invalidate(id);
+		return object;
+	}
+
+	@Override
+	public T update(UpdateResponse<T> response) {
+
+		T object;
+		try {
+			object = store.update(response.getId(), response.getValues());
+		} catch (IllegalArgumentException e) {
+			// an attempt to change the id
+			throw new LinkRestException(Status.BAD_REQUEST, e.getMessage(), e);
+		}
+
+		if (object == null) {
+			throw new LinkRestException(Status.NOT_FOUND, "No object for ID '" + response.getId() + "' and entity '"
+					+ entityName + "'");
+		}
+
+		invalidate(response.getId());
+		return object;
+	}
+
+	@Override
+	public void delete(Object id) {
+
+		if (store.remove(id) == null) {
+			throw new LinkRestException(Status.NOT_FOUND, "No object for ID '" + id + "' and entity '" + entityName
+					+ "'");
+		}
+
+		invalidate(id);
+	}
+
+	private void invalidate(Object id) {
+		daoContext.getInvalidationBus().publish(new InvalidationEvent(entityName, Collections.singleton(id)));
+	}
+}
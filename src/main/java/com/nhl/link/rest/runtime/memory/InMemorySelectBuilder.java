@@ -0,0 +1,118 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SelectQuery;
+
+import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.exp.ExpressionCompiler;
+import com.nhl.link.rest.exp.ObjectMatcher;
+import com.nhl.link.rest.runtime.BaseSelectBuilder;
+import com.nhl.link.rest.runtime.IFetchCoalescer;
+import com.nhl.link.rest.runtime.cache.IResponseCache;
+import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.explain.IExplainService;
+import com.nhl.link.rest.runtime.parser.IRequestParser;
+
+/**
+ * @since 1.1
+ */
+class InMemorySelectBuilder<T> extends BaseSelectBuilder<T> {
+
+	private InMemoryStore<T> store;
+	private SelectQuery<T> select;
+
+	InMemorySelectBuilder(SelectQuery<T> select, InMemoryStore<T> store, IEncoderService encoderService,
+			IRequestParser requestParser, IFetchCoalescer fetchCoalescer, IResponseCache responseCache,
+			IExplainService explainService) {
+		super(store.getType(), encoderService, requestParser, fetchCoalescer, responseCache, explainService);
+		this.store = store;
+		this.select = select;
+	}
+
+	@Override
+	protected void fetchObjects(DataResponse<T> responseBuilder) {
+
+		if (isById()) {
+			T object = store.get(id);
+			responseBuilder.withObjects(object != null ? Collections.<T> singletonList(object) : Collections
+					.<T> emptyList());
+			return;
+		}
+
+		Expression qualifier = qualifier(responseBuilder);
+
+		if (responseBuilder.getIds() != null) {
+
+			// same as with Cayenne, the objects are returned in the order of
+			// the ids, and the objects not matching the qualifier are missing
+			ObjectMatcher matcher = qualifier != null ? ExpressionCompiler.compile(qualifier) : null;
+			Set<Object> ids = new LinkedHashSet<>(responseBuilder.getIds());
+			List<T> objects = new ArrayList<>(ids.size());
+			List<Object> missingIds = new ArrayList<>();
+
+			for (Object id : ids) {
+				T object = store.get(id);
+				if (object != null && (matcher == null || matcher.match(object))) {
+					objects.add(object);
+				} else {
+					missingIds.add(id);
+				}
+			}
+
+			responseBuilder.withObjects(objects).withMissingIds(missingIds);
+			return;
+		}
+
+		responseBuilder.withObjects(store.select(qualifier, orderings(responseBuilder)));
+	}
+
+	@Override
+	protected Object queryTemplateKey() {
+
+		if (select == null || isById()) {
+			return null;
+		}
+
+		StringBuilder key = new StringBuilder();
+
+		if (select.getQualifier() != null) {
+			key.append("|q:").append(select.getQualifier());
+		}
+
+		for (Ordering o : select.getOrderings()) {
+			key.append("|o:").append(o.getSortSpecString()).append(o.isAscending() ? ":a" : ":d");
+		}
+
+		return key.toString();
+	}
+
+	private Expression qualifier(DataResponse<T> responseBuilder) {
+
+		Expression qualifier = select != null ? select.getQualifier() : null;
+		Expression clientQualifier = responseBuilder.getEntity().getQualifier();
+
+		if (clientQualifier == null) {
+			return qualifier;
+		}
+
+		return qualifier != null ? qualifier.andExp(clientQualifier) : clientQualifier;
+	}
+
+	private List<Ordering> orderings(DataResponse<T> responseBuilder) {
+
+		List<Ordering> orderings = new ArrayList<>();
+		if (select != null) {
+			orderings.addAll(select.getOrderings());
+		}
+
+		orderings.addAll(responseBuilder.getEntity().getOrderings());
+		return orderings;
+	}
+}
@@ -0,0 +1,445 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionParameter;
+import org.apache.cayenne.exp.parser.ASTObjPath;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.reflect.PropertyUtils;
+
+import com.nhl.link.rest.exp.ExpressionCompiler;
+import com.nhl.link.rest.exp.ObjectMatcher;
+import com.nhl.link.rest.property.BeanProperties;
+import com.nhl.link.rest.property.BeanProperty;
+import com.nhl.link.rest.property.BeanPropertyReader;
+import com.nhl.link.rest.property.PropertyReader;
+
+/**
+ * A thread-safe in-memory storage of POJOs of a single type, keyed by the
+ * value of an id property, with optional per-attribute indexes. A hash index
+ * answers equality and IN conditions, while a sorted index also answers
+ * comparisons and BETWEEN, and is used to produce objects in the order of its
+ * attribute. Note that string prefix filters can be answered by a sorted
+ * index if the attribute is configured with
+ * {@link com.nhl.link.rest.runtime.parser.PrefixMatch#range()}.
+ * <p>
+ * Writes of the same id are serialized with striped locks, that also guard
+ * index maintenance, while reads are lock-free. Updates replace stored objects
+ * with updated copies, so the store never modifies the objects returned by
+ * reads. Objects found via indexes are always re-checked against the full
+ * qualifier, so an index never affects the result of a select, only its cost.
+ * <p>
+ * Indexes must be declared before any objects are stored.
+ *
+ * @since 1.1
+ */
+public class InMemoryStore<T> {
+
+	private static final int STRIPES = 64;
+
+	private Class<T> type;
+	private String idProperty;
+	private PropertyReader idReader;
+	private ConcurrentMap<Object, T> objectsById;
+	private Map<String, Index> indexes;
+	private LockStripes locks;
+
+	private volatile Class<?> idType;
+
+	public static <T> InMemoryStore<T> forType(Class<T> type, String idProperty) {
+		return new InMemoryStore<>(type, idProperty);
+	}
+
+	private InMemoryStore(Class<T> type, String idProperty) {
+		this.type = type;
+		this.idProperty = idProperty;
+		this.idReader = BeanPropertyReader.reader(idProperty);
+		this.objectsById = new ConcurrentHashMap<>();
+		this.indexes = new HashMap<>();
+		this.locks = new LockStripes(STRIPES);
+	}
+
+	/**
+	 * Declares a hash index on a given attribute.
+	 */
+	public InMemoryStore<T> hashIndex(String attribute) {
+		return index(new HashIndex(attribute));
+	}
+
+	/**
+	 * Declares a sorted index on a given attribute. The attribute values must
+	 * be {@link Comparable}.
+	 */
+	public InMemoryStore<T> sortedIndex(String attribute) {
+		return index(new SortedIndex(attribute));
+	}
+
+	private InMemoryStore<T> index(Index index) {
+
+		if (!objectsById.isEmpty()) {
+			throw new IllegalStateException("Indexes must be declared before storing objects");
+		}
+
+		indexes.put(index.getAttribute(), index);
+		return this;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	public String getIdProperty() {
+		return idProperty;
+	}
+
+	public int size() {
+		return objectsById.size();
+	}
+
+	public Object getId(T object) {
+		return idReader.value(object, idProperty);
+	}
+
+	/**
+	 * Returns an object for a given id. The id may be a String, e.g. taken
+	 * from a URL, even if the id property is a number.
+	 */
+	public T get(Object id) {
+		Object key = Keys.convert(id, idType);
+		return key != null ? objectsById.get(key) : null;
+	}
+
+	/**
+	 * Stores an object, replacing a previously stored object with the same id.
+	 */
+	public void put(T object) {
+
+		Object key = Keys.normalize(getId(object));
+		if (key == null) {
+			throw new IllegalArgumentException("Null id of the object being stored: " + object);
+		}
+
+		if (idType == null) {
+			idType = key.getClass();
+		}
+
+		Lock lock = locks.lock(key);
+		lock.lock();
+		try {
+			objectsById.put(key, object);
+			reindex(key, object);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sets given property values on a copy of a stored object, and replaces
+	 * the stored object with the copy, updating the indexes. Stored objects
+	 * are never modified, so the readers that got an object before the update
+	 * keep seeing its consistent state. The copy is made by copying the bean
+	 * properties of the stored object to a new instance of its class, so the
+	 * class must have a public no-argument constructor. The id can't be
+	 * changed by an update.
+	 *
+	 * @return an updated object or null if there's no object for the id.
+	 */
+	public T update(Object id, Map<String, Object> values) {
+
+		Object key = Keys.convert(id, idType);
+		if (key == null) {
+			return null;
+		}
+
+		Lock lock = locks.lock(key);
+		lock.lock();
+		try {
+			T object = objectsById.get(key);
+			if (object == null) {
+				return null;
+			}
+
+			T copy = copy(object);
+			for (Map.Entry<String, Object> e : values.entrySet()) {
+				PropertyUtils.setProperty(copy, e.getKey(), e.getValue());
+			}
+
+			Object newKey = Keys.normalize(getId(copy));
+			if (!key.equals(newKey)) {
+				throw new IllegalArgumentException("Can't change the id of a stored object from '" + key + "' to '"
+						+ newKey + "'");
+			}
+
+			objectsById.put(key, copy);
+			reindex(key, copy);
+			return copy;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes an object with a given id.
+	 *
+	 * @return a removed object or null if there's no object for the id.
+	 */
+	public T remove(Object id) {
+
+		Object key = Keys.convert(id, idType);
+		if (key == null) {
+			return null;
+		}
+
+		Lock lock = locks.lock(key);
+		lock.lock();
+		try {
+			T object = objectsById.remove(key);
+			if (object != null) {
+				reindex(key, null);
+			}
+
+			return object;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void clear() {
+		for (Object id : new ArrayList<>(objectsById.keySet())) {
+			remove(id);
+		}
+	}
+
+	/**
+	 * Returns objects matching a qualifier in the order defined by the
+	 * orderings. Either argument may be null.
+	 */
+	public List<T> select(Expression qualifier, List<Ordering> orderings) {
+
+		Collection<Object> ids = qualifier != null ? lookup(qualifier) : null;
+		if (ids == null) {
+			SortedIndex orderingIndex = orderingIndex(orderings);
+			if (orderingIndex != null) {
+				ids = orderingIndex.orderedIds(orderings.get(0).isAscending());
+			}
+		}
+
+		List<T> objects;
+		if (ids != null) {
+			objects = new ArrayList<>(ids.size());
+			for (Object id : ids) {
+				T object = objectsById.get(id);
+				if (object != null) {
+					objects.add(object);
+				}
+			}
+		} else {
+			objects = new ArrayList<>(objectsById.values());
+		}
+
+		if (qualifier != null) {
+			ObjectMatcher matcher = ExpressionCompiler.compile(qualifier);
+			Iterator<T> it = objects.iterator();
+			while (it.hasNext()) {
+				if (!matcher.match(it.next())) {
+					it.remove();
+				}
+			}
+		}
+
+		// when objects are produced by an index in the right order, this is
+		// a linear pass over a sorted list; it also puts nulls in their place
+		if (orderings != null && !orderings.isEmpty()) {
+			Ordering.orderList(objects, orderings);
+		}
+
+		return objects;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T copy(T object) {
+
+		T copy;
+		try {
+			copy = (T) object.getClass().newInstance();
+
+			for (BeanProperty property : BeanProperties.forType(object.getClass()).getProperties()) {
+				if (property.isWritable()) {
+					property.write(copy, property.read(object));
+				}
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Can't copy an object of " + object.getClass().getName(), e);
+		}
+
+		return copy;
+	}
+
+	private void reindex(Object id, T object) {
+		for (Index index : indexes.values()) {
+			index.update(id, object);
+		}
+	}
+
+	/**
+	 * Returns ids of the objects that may match a qualifier, or null if the
+	 * qualifier can't be answered by the indexes.
+	 */
+	private Collection<Object> lookup(Expression qualifier) {
+
+		switch (qualifier.getType()) {
+		case Expression.AND:
+
+			// any indexed condition will do, picking the most selective
+			Collection<Object> best = null;
+			for (int i = 0; i < qualifier.getOperandCount(); i++) {
+				Object operand = qualifier.getOperand(i);
+				Collection<Object> ids = operand instanceof Expression ? lookup((Expression) operand) : null;
+				if (ids != null && (best == null || ids.size() < best.size())) {
+					best = ids;
+				}
+			}
+
+			return best;
+
+		case Expression.OR:
+
+			// all conditions must be indexed
+			Set<Object> union = new LinkedHashSet<>();
+			for (int i = 0; i < qualifier.getOperandCount(); i++) {
+				Object operand = qualifier.getOperand(i);
+				Collection<Object> ids = operand instanceof Expression ? lookup((Expression) operand) : null;
+				if (ids == null) {
+					return null;
+				}
+
+				union.addAll(ids);
+			}
+
+			return union;
+
+		case Expression.EQUAL_TO:
+			Index index = index(qualifier, Index.class);
+			return index != null && isValue(qualifier.getOperand(1)) ? index.equalTo(qualifier.getOperand(1))
+					: null;
+		case Expression.IN:
+			return in(qualifier);
+		case Expression.LESS_THAN:
+			return range(qualifier, null, false, qualifier.getOperand(1), false);
+		case Expression.LESS_THAN_EQUAL_TO:
+			return range(qualifier, null, false, qualifier.getOperand(1), true);
+		case Expression.GREATER_THAN:
+			return range(qualifier, qualifier.getOperand(1), false, null, false);
+		case Expression.GREATER_THAN_EQUAL_TO:
+			return range(qualifier, qualifier.getOperand(1), true, null, false);
+		case Expression.BETWEEN:
+			return range(qualifier, qualifier.getOperand(1), true, qualifier.getOperand(2), true);
+		default:
+			return null;
+		}
+	}
+
+	private Collection<Object> in(Expression qualifier) {
+
+		Index index = index(qualifier, Index.class);
+		if (index == null) {
+			return null;
+		}
+
+		Object list = qualifier.getOperand(1);
+		if (list instanceof Expression && ((Expression) list).getOperandCount() == 1) {
+			// ASTList
+			list = ((Expression) list).getOperand(0);
+		}
+
+		Collection<?> values;
+		if (list instanceof Object[]) {
+			values = Arrays.asList((Object[]) list);
+		} else if (list instanceof Collection) {
+			values = (Collection<?>) list;
+		} else {
+			return null;
+		}
+
+		Set<Object> union = new LinkedHashSet<>();
+		for (Object value : values) {
+
+			// matching nulls with IN is DB-specific, leaving it to the scan
+			if (value == null || !isValue(value)) {
+				return null;
+			}
+
+			Collection<Object> ids = index.equalTo(value);
+			if (ids == null) {
+				return null;
+			}
+
+			union.addAll(ids);
+		}
+
+		return union;
+	}
+
+	private Collection<Object> range(Expression qualifier, Object lower, boolean lowerInclusive, Object upper,
+			boolean upperInclusive) {
+
+		SortedIndex index = index(qualifier, SortedIndex.class);
+		if (index == null) {
+			return null;
+		}
+
+		// comparisons with null match nothing, but letting the scan decide
+		if ((lower == null && upper == null) || !isValue(lower) || !isValue(upper)) {
+			return null;
+		}
+
+		return index.range(lower, lowerInclusive, upper, upperInclusive);
+	}
+
+	private <I extends Index> I index(Expression condition, Class<I> indexType) {
+
+		if (condition.getOperandCount() < 2) {
+			return null;
+		}
+
+		Object path = condition.getOperand(0);
+		if (!(path instanceof ASTObjPath)) {
+			return null;
+		}
+
+		Index index = indexes.get(String.valueOf(((ASTObjPath) path).getOperand(0)));
+		return indexType.isInstance(index) && index.isUsable() ? indexType.cast(index) : null;
+	}
+
+	private SortedIndex orderingIndex(List<Ordering> orderings) {
+
+		if (orderings == null || orderings.isEmpty()) {
+			return null;
+		}
+
+		Ordering first = orderings.get(0);
+		if (first.isCaseInsensitive()) {
+			return null;
+		}
+
+		Index index = indexes.get(first.getSortSpecString());
+		return index instanceof SortedIndex && index.isUsable() ? (SortedIndex) index : null;
+	}
+
+	private static boolean isValue(Object operand) {
+		// paths, subexpressions and unbound parameters can't be looked up
+		return !(operand instanceof Expression) && !(operand instanceof ExpressionParameter);
+	}
+}
@@ -0,0 +1,211 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+import com.nhl.link.rest.property.BeanPropertyReader;
+import com.nhl.link.rest.property.PropertyReader;
+
+/**
+ * An index of object ids by the value of a single attribute. Updates of a
+ * given id must be serialized by the caller, while the updates of the same
+ * value by different ids are serialized by the index itself with striped
+ * locks. Lookups are lock-free and may briefly return stale ids, so the
+ * callers must re-check the objects they get.
+ * <p>
+ * An index only answers lookups while all its non-null values have the same
+ * normalized type. Otherwise lookups return null, same as for the lookups of
+ * the values that can't be converted to the index key type, and the caller
+ * should fall back to a full scan.
+ *
+ * @since 1.1
+ */
+abstract class Index {
+
+	// stands for null values in the maps that don't allow nulls
+	private static final Object NULL_VALUE = new Object();
+
+	private static final int STRIPES = 16;
+
+	private String attribute;
+	private PropertyReader reader;
+	private ConcurrentMap<Object, Set<Object>> idsByValue;
+	private ConcurrentMap<Object, Object> valuesById;
+	private Set<Object> nullIds;
+	private LockStripes locks;
+
+	private volatile Class<?> keyType;
+	private volatile boolean mixedTypes;
+
+	Index(String attribute, ConcurrentMap<Object, Set<Object>> idsByValue) {
+		this.attribute = attribute;
+		this.reader = BeanPropertyReader.reader(attribute);
+		this.idsByValue = idsByValue;
+		this.valuesById = new ConcurrentHashMap<>();
+		this.nullIds = newIdSet();
+		this.locks = new LockStripes(STRIPES);
+	}
+
+	String getAttribute() {
+		return attribute;
+	}
+
+	/**
+	 * Indexes the current attribute value of an object, replacing the
+	 * previously indexed value for the same id. A null object removes the id
+	 * from the index. Must be called while holding the id lock of the store.
+	 */
+	void update(Object id, Object object) {
+
+		Object oldValue = valuesById.get(id);
+		Object newValue = null;
+
+		if (object != null) {
+			Object value = Keys.normalize(reader.value(object, attribute));
+			newValue = value != null ? value : NULL_VALUE;
+		}
+
+		if (oldValue == null ? newValue == null : oldValue.equals(newValue)) {
+			return;
+		}
+
+		if (oldValue != null) {
+			remove(id, oldValue);
+		}
+
+		if (newValue != null) {
+			add(id, newValue);
+			valuesById.put(id, newValue);
+		} else {
+			valuesById.remove(id);
+		}
+	}
+
+	/**
+	 * Returns ids of the objects with a given attribute value, or null if the
+	 * lookup can't be answered by this index.
+	 */
+	Collection<Object> equalTo(Object value) {
+
+		if (value == null) {
+			return new ArrayList<>(nullIds);
+		}
+
+		Object key = key(value);
+		if (key == null) {
+			return null;
+		}
+
+		Set<Object> ids = idsByValue.get(key);
+		return ids != null ? new ArrayList<>(ids) : Collections.emptyList();
+	}
+
+	Collection<Object> getNullIds() {
+		return nullIds;
+	}
+
+	boolean isUsable() {
+		return !mixedTypes;
+	}
+
+	/**
+	 * Converts a lookup value to the index key type, returning null if the
+	 * value can't be looked up in this index.
+	 */
+	Object key(Object value) {
+		return mixedTypes ? null : Keys.convert(value, keyType);
+	}
+
+	/**
+	 * Returns whether the keys of a given type can be stored in the index
+	 * map.
+	 */
+	boolean accepts(Object key) {
+		return true;
+	}
+
+	private void add(Object id, Object value) {
+
+		if (value == NULL_VALUE) {
+			nullIds.add(id);
+			return;
+		}
+
+		if (!checkType(value)) {
+			return;
+		}
+
+		Lock lock = locks.lock(value);
+		lock.lock();
+		try {
+			Set<Object> ids = idsByValue.get(value);
+			if (ids == null) {
+				ids = newIdSet();
+				idsByValue.put(value, ids);
+			}
+
+			ids.add(id);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void remove(Object id, Object value) {
+
+		if (value == NULL_VALUE) {
+			nullIds.remove(id);
+			return;
+		}
+
+		Lock lock = locks.lock(value);
+		lock.lock();
+		try {
+			Set<Object> ids = idsByValue.get(value);
+			if (ids != null) {
+				ids.remove(id);
+
+				if (ids.isEmpty()) {
+					idsByValue.remove(value);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean checkType(Object value) {
+
+		if (mixedTypes) {
+			return false;
+		}
+
+		Class<?> type = keyType;
+		if (type == null) {
+			synchronized (this) {
+				if (keyType == null) {
+					keyType = value.getClass();
+				}
+
+				type = keyType;
+			}
+		}
+
+		if (type != value.getClass() || !accepts(value)) {
+
+			// the index is incomplete from now on and will never be used
+			mixedTypes = true;
+			return false;
+		}
+
+		return true;
+	}
+
+	private static Set<Object> newIdSet() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+	}
+}
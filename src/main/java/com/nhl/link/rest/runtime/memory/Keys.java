@@ -0,0 +1,55 @@
+package com.nhl.link.rest.runtime.memory;
+
+/**
+ * Converts values to the keys of the in-memory maps. Property values and
+ * expression values of the same number may have different wrapper types, so
+ * integer numbers are stored as Longs and floating point numbers as Doubles.
+ *
+ * @since 1.1
+ */
+final class Keys {
+
+	private Keys() {
+	}
+
+	static Object normalize(Object value) {
+
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return Long.valueOf(((Number) value).longValue());
+		}
+
+		if (value instanceof Double || value instanceof Float) {
+			return Double.valueOf(((Number) value).doubleValue());
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns a normalized value converted to a given key type, or null if the
+	 * value can't be converted. If the key type is not known yet, the
+	 * normalized value is returned.
+	 */
+	static Object convert(Object value, Class<?> keyType) {
+
+		Object key = normalize(value);
+		if (key == null || keyType == null || keyType == key.getClass()) {
+			return key;
+		}
+
+		// ids in URLs are Strings
+		if (key instanceof String) {
+			try {
+				if (keyType == Long.class) {
+					return Long.valueOf((String) key);
+				} else if (keyType == Double.class) {
+					return Double.valueOf((String) key);
+				}
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,33 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by keys with the same hash bucket, so that
+ * writers of unrelated keys rarely contend, without allocating a lock per key.
+ *
+ * @since 1.1
+ */
+final class LockStripes {
+
+	private Lock[] locks;
+
+	LockStripes(int stripes) {
+
+		// rounding up to a power of 2 to select a stripe with a bit mask
+		int size = Integer.highestOneBit(Math.max(stripes, 1) - 1) << 1;
+		this.locks = new Lock[Math.max(size, 1)];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	Lock lock(Object key) {
+
+		// spread the hash, as the keys are often small sequential numbers
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return locks[h & (locks.length - 1)];
+	}
+}
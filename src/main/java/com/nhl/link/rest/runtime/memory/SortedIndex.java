@@ -0,0 +1,107 @@
+package com.nhl.link.rest.runtime.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An index that keeps attribute values in their natural order, and in
+ * addition to equality lookups, answers range lookups and returns ids in the
+ * attribute order.
+ *
+ * @since 1.1
+ */
+class SortedIndex extends Index {
+
+	private ConcurrentSkipListMap<Object, Set<Object>> idsByValue;
+
+	SortedIndex(String attribute) {
+		this(attribute, new ConcurrentSkipListMap<Object, Set<Object>>());
+	}
+
+	private SortedIndex(String attribute, ConcurrentSkipListMap<Object, Set<Object>> idsByValue) {
+		super(attribute, idsByValue);
+		this.idsByValue = idsByValue;
+	}
+
+	@Override
+	Object key(Object value) {
+		Object key = super.key(value);
+		return accepts(key) ? key : null;
+	}
+
+	@Override
+	boolean accepts(Object key) {
+		return key instanceof Comparable;
+	}
+
+	/**
+	 * Returns ids of the objects with the attribute values within given
+	 * bounds, or null if the lookup can't be answered by this index. A null
+	 * bound means the range is open on that side. Objects with null values
+	 * are never included.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	Collection<Object> range(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+
+		Object lowerKey = null;
+		if (lower != null) {
+			lowerKey = key(lower);
+			if (lowerKey == null) {
+				return null;
+			}
+		}
+
+		Object upperKey = null;
+		if (upper != null) {
+			upperKey = key(upper);
+			if (upperKey == null) {
+				return null;
+			}
+		}
+
+		if (lowerKey != null && upperKey != null) {
+			int c = ((Comparable) lowerKey).compareTo(upperKey);
+			if (c > 0 || (c == 0 && !(lowerInclusive && upperInclusive))) {
+				return Collections.emptyList();
+			}
+		}
+
+		NavigableMap<Object, Set<Object>> range = idsByValue;
+		if (lowerKey != null) {
+			range = range.tailMap(lowerKey, lowerInclusive);
+		}
+
+		if (upperKey != null) {
+			range = range.headMap(upperKey, upperInclusive);
+		}
+
+		List<Object> ids = new ArrayList<>();
+		for (Set<Object> valueIds : range.values()) {
+			ids.addAll(valueIds);
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Returns all indexed ids ordered by the attribute value, with the ids of
+	 * the objects with null values at the end.
+	 */
+	List<Object> orderedIds(boolean ascending) {
+
+		NavigableMap<Object, Set<Object>> ordered = ascending ? idsByValue : idsByValue.descendingMap();
+
+		List<Object> ids = new ArrayList<>();
+		for (Set<Object> valueIds : ordered.values()) {
+			ids.addAll(valueIds);
+		}
+
+		ids.addAll(getNullIds());
+		return ids;
+	}
+}
@@ -2,6 +2,7 @@ package com.nhl.link.rest.runtime.meta;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.cayenne.di.Inject;
@@ -9,18 +10,28 @@ import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.query.Select;
+import org.apache.cayenne.query.SelectQuery;
 
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+import com.nhl.link.rest.runtime.cache.ManagedCacheProvider;
+import com.nhl.link.rest.runtime.cache.MapCache;
 import com.nhl.link.rest.runtime.cayenne.ICayennePersister;
 
-public class MetadataService implements IMetadataService {
+public class MetadataService implements IMetadataService, ManagedCacheProvider {
 
 	public static final String NON_PERSISTENT_ENTITIES_LIST = "linkrest.meta.nonpersistent.list";
 
 	private EntityResolver entityResolver;
 
+	// bypasses the lookups of the resolver; keyed by class name, as the
+	// resolver itself matches classes by name
+	private MapCache<ObjEntity> entitiesByType;
+
 	public MetadataService(@Inject(NON_PERSISTENT_ENTITIES_LIST) List<DataMap> nonPersistentEntities,
 			@Inject ICayennePersister cayenneService) {
 
+		this.entitiesByType = new MapCache<>("linkrest.meta.entities");
+
 		EntityResolver cayenneResolver = cayenneService.entityResolver();
 		if (nonPersistentEntities.isEmpty()) {
 			this.entityResolver = cayenneResolver;
@@ -35,13 +46,51 @@ public class MetadataService implements IMetadataService {
 		}
 	}
 
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Collections.singleton(entitiesByType);
+	}
+
 	@Override
 	public ObjEntity getObjEntity(Class<?> type) {
-		return entityResolver.getObjEntity(type);
+
+		ObjEntity entity = entitiesByType.get(type.getName());
+		if (entity == null) {
+
+			// unknown classes are not cached, as there may be an unbounded
+			// number of them
+			entity = entityResolver.getObjEntity(type);
+			if (entity != null) {
+				entitiesByType.put(type.getName(), entity);
+			}
+		}
+
+		return entity;
 	}
 
 	@Override
 	public ObjEntity getObjEntity(Select<?> select) {
+
+		// resolve SelectQuery root directly instead of building query metadata
+		if (select instanceof SelectQuery) {
+			Object root = ((SelectQuery<?>) select).getRoot();
+
+			if (root instanceof Class) {
+				return getObjEntity((Class<?>) root);
+			}
+
+			if (root instanceof ObjEntity) {
+				return (ObjEntity) root;
+			}
+
+			if (root instanceof String) {
+				return entityResolver.getObjEntity((String) root);
+			}
+		}
+
 		return select.getMetaData(entityResolver).getObjEntity();
 	}
 
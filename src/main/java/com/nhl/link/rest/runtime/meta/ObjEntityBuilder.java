@@ -1,11 +1,5 @@
 package com.nhl.link.rest.runtime.meta;
 
-import java.beans.BeanInfo;
-import java.beans.IntrospectionException;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
 import java.util.Collection;
 import java.util.Map;
 
@@ -16,6 +10,9 @@ import org.apache.cayenne.map.ObjRelationship;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.nhl.link.rest.property.BeanProperties;
+import com.nhl.link.rest.property.BeanProperty;
+
 // keeping non-public until we add more customizations for the users to call... 
 // used exclusively from DataMapBuilder until then
 public class ObjEntityBuilder extends DataMapBuilder {
@@ -23,7 +20,7 @@ public class ObjEntityBuilder extends DataMapBuilder {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ObjEntityBuilder.class);
 
 	private Class<?> type;
-	private PropertyDescriptor[] propertyDescriptors;
+	private Collection<BeanProperty> properties;
 	private RootDataMapBuilder parent;
 	private Package entityPackage;
 	private String idProperty;
@@ -65,36 +62,25 @@ public class ObjEntityBuilder extends DataMapBuilder {
 	}
 
 	private void appendProperties(PojoEntity entity) {
-		for (PropertyDescriptor pd : propertyDescriptors()) {
-
-			Method reader = pd.getReadMethod();
-			if (reader == null) {
-				// don't care about write-only props
-				continue;
-			}
-
-			if (reader.getDeclaringClass().equals(Object.class)) {
-				// 'getClass' is not a property we care about
-				continue;
-			}
-
-			if (!addAsToOneRelationship(entity, pd)) {
-				if (!addAsToManyRelationship(entity, pd)) {
-					if (!addAsAttribute(entity, pd)) {
-						LOGGER.info("Skipping unsupported property: " + entity.getName() + "." + pd.getName());
+		// write-only properties and 'getClass' are already excluded
+		for (BeanProperty p : properties()) {
+			if (!addAsToOneRelationship(entity, p)) {
+				if (!addAsToManyRelationship(entity, p)) {
+					if (!addAsAttribute(entity, p)) {
+						LOGGER.info("Skipping unsupported property: " + entity.getName() + "." + p.getName());
 					}
 				}
 			}
 		}
 	}
 
-	private boolean addAsAttribute(PojoEntity entity, PropertyDescriptor pd) {
-		Class<?> targetType = pd.getPropertyType();
+	private boolean addAsAttribute(PojoEntity entity, BeanProperty p) {
+		Class<?> targetType = p.getType();
 		if (Collection.class.isAssignableFrom(targetType) || Map.class.isAssignableFrom(targetType)) {
 			return false;
 		}
 
-		ObjAttribute a = new ObjAttribute(pd.getName());
+		ObjAttribute a = new ObjAttribute(p.getName());
 		a.setType(targetType.getName());
 		entity.addAttribute(a);
 
@@ -105,28 +91,21 @@ public class ObjEntityBuilder extends DataMapBuilder {
 		return true;
 	}
 
-	private boolean addAsToManyRelationship(ObjEntity entity, PropertyDescriptor pd) {
+	private boolean addAsToManyRelationship(ObjEntity entity, BeanProperty p) {
 
-		Method propertyReader = pd.getReadMethod();
-		if (propertyReader == null) {
+		if (!Collection.class.isAssignableFrom(p.getType())) {
 			return false;
 		}
 
-		Class<?> returnType = propertyReader.getReturnType();
-		if (!Collection.class.isAssignableFrom(returnType)) {
-			return false;
-		}
-
-		ParameterizedType genericReturnType = (ParameterizedType) propertyReader.getGenericReturnType();
-		Class<?> collectionType = (Class<?>) genericReturnType.getActualTypeArguments()[0];
-		if (!isRelationship(collectionType)) {
+		Class<?> collectionType = p.getElementType();
+		if (collectionType == null || !isRelationship(collectionType)) {
 			return false;
 		}
 
 		// create target entity placeholder if needed
 		ObjEntity targetEntity = getOrCreateEntity(collectionType);
 
-		ObjRelationship r = new ObjRelationship(pd.getName()) {
+		ObjRelationship r = new ObjRelationship(p.getName()) {
 
 			private static final long serialVersionUID = 1L;
 
@@ -142,9 +121,9 @@ public class ObjEntityBuilder extends DataMapBuilder {
 		return true;
 	}
 
-	private boolean addAsToOneRelationship(ObjEntity entity, PropertyDescriptor pd) {
+	private boolean addAsToOneRelationship(ObjEntity entity, BeanProperty p) {
 
-		Class<?> targetType = pd.getPropertyType();
+		Class<?> targetType = p.getType();
 
 		if (!isRelationship(targetType)) {
 			return false;
@@ -153,7 +132,7 @@ public class ObjEntityBuilder extends DataMapBuilder {
 		// create target entity placeholder if needed
 		ObjEntity targetEntity = getOrCreateEntity(targetType);
 
-		ObjRelationship r = new ObjRelationship(pd.getName()) {
+		ObjRelationship r = new ObjRelationship(p.getName()) {
 
 			private static final long serialVersionUID = 1L;
 
@@ -169,8 +148,10 @@ public class ObjEntityBuilder extends DataMapBuilder {
 	}
 
 	private boolean isRelationship(Class<?> propertyType) {
-		// treat classes in the same package as relationships...
-		return !propertyType.isPrimitive() && propertyType.getPackage().equals(entityPackage);
+		// treat classes in the same package as relationships... Packages are
+		// compared by identity, same as Package.equals, but null-safe, as
+		// arrays have no package
+		return !propertyType.isPrimitive() && propertyType.getPackage() == entityPackage;
 	}
 
 	private PojoEntity getOrCreateEntity(Class<?> type) {
@@ -196,18 +177,11 @@ public class ObjEntityBuilder extends DataMapBuilder {
 		return entity;
 	}
 
-	private PropertyDescriptor[] propertyDescriptors() {
-		if (propertyDescriptors == null) {
-			BeanInfo info;
-			try {
-				info = Introspector.getBeanInfo(type);
-			} catch (IntrospectionException e) {
-				throw new RuntimeException("Error getting bean properties from " + type.getName(), e);
-			}
-
-			return info.getPropertyDescriptors();
+	private Collection<BeanProperty> properties() {
+		if (properties == null) {
+			properties = BeanProperties.forType(type).getProperties();
 		}
 
-		return propertyDescriptors;
+		return properties;
 	}
 }
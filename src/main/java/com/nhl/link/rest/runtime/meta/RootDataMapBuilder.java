@@ -1,12 +1,26 @@
 package com.nhl.link.rest.runtime.meta;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.cayenne.map.DataMap;
 
+import com.nhl.link.rest.property.BeanProperties;
+
 class RootDataMapBuilder extends DataMapBuilder {
 
+	// below this number of entities starting the threads costs more than
+	// introspecting the classes one by one
+	static final int PARALLEL_THRESHOLD = 32;
+
 	private Map<Class<?>, ObjEntityBuilder> entityBuilders;
 	private DataMap map;
 
@@ -46,6 +60,10 @@ class RootDataMapBuilder extends DataMapBuilder {
 	@Override
 	public DataMap toDataMap() {
 
+		introspect(entityBuilders.keySet());
+
+		// DataMap is not thread-safe, so the entities are still assembled
+		// sequentially, but with the bean properties already cached
 		for (ObjEntityBuilder builder : entityBuilders.values()) {
 			builder.toEntity();
 		}
@@ -53,6 +71,47 @@ class RootDataMapBuilder extends DataMapBuilder {
 		return map;
 	}
 
+	/**
+	 * Introspects large models in parallel, as bean introspection is what
+	 * dominates entity building.
+	 */
+	private void introspect(Collection<Class<?>> types) {
+
+		int cpus = Runtime.getRuntime().availableProcessors();
+		if (types.size() < PARALLEL_THRESHOLD || cpus < 2) {
+			return;
+		}
+
+		List<Callable<Object>> tasks = new ArrayList<>(types.size());
+		for (final Class<?> type : types) {
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					return BeanProperties.forType(type);
+				}
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(cpus, types.size()));
+		try {
+			for (Future<Object> f : executor.invokeAll(tasks)) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			// the remaining classes will be introspected lazily
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+
+			throw new RuntimeException("Error introspecting entity classes", cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	DataMap getMap() {
 		return map;
 	}
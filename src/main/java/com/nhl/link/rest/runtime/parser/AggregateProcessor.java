@@ -0,0 +1,124 @@
+package com.nhl.link.rest.runtime.parser;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.exp.parser.ASTObjPath;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+
+import com.nhl.link.rest.Aggregation;
+import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.LinkRestException;
+
+/**
+ * Parses 'aggregate' and 'groupBy' parameters. Aggregates are specified as
+ * 'count', 'count()' or 'function(path)', where function is one of count,
+ * sum, avg, min and max. Group-by values are attribute paths. All paths are
+ * relative to the root entity, must end with an attribute and may only
+ * traverse to-one relationships.
+ *
+ * @since 1.1
+ */
+class AggregateProcessor {
+
+	private static final Collection<String> FUNCTIONS = new HashSet<>(Arrays.asList(Aggregation.COUNT,
+			Aggregation.SUM, Aggregation.AVG, Aggregation.MIN, Aggregation.MAX));
+
+	private PathCache pathCache;
+
+	AggregateProcessor(PathCache pathCache) {
+		this.pathCache = pathCache;
+	}
+
+	void process(DataResponse<?> response, List<String> aggregates, List<String> groupBy) {
+
+		if (aggregates.isEmpty()) {
+
+			if (!groupBy.isEmpty()) {
+				throw new LinkRestException(Status.BAD_REQUEST, "'groupBy' requires at least one 'aggregate'");
+			}
+
+			return;
+		}
+
+		EntityPathCache entityPathCache = pathCache.entityPathCache(response.getEntity().getEntity());
+		Aggregation aggregation = new Aggregation();
+		Set<String> names = new HashSet<>();
+
+		for (String path : groupBy) {
+			if (names.add(path)) {
+				aggregation.addGroupBy(path, attribute(entityPathCache, response.getEntity().getEntity(), path));
+			}
+		}
+
+		for (String aggregate : aggregates) {
+
+			if (!names.add(aggregate)) {
+				continue;
+			}
+
+			String function;
+			String path;
+
+			int open = aggregate.indexOf('(');
+			if (open < 0) {
+				function = aggregate;
+				path = null;
+			} else if (aggregate.endsWith(")")) {
+				function = aggregate.substring(0, open);
+				path = aggregate.substring(open + 1, aggregate.length() - 1).trim();
+				if (path.length() == 0) {
+					path = null;
+				}
+			} else {
+				throw new LinkRestException(Status.BAD_REQUEST, "Invalid aggregate: '" + aggregate + "'");
+			}
+
+			if (!FUNCTIONS.contains(function)) {
+				throw new LinkRestException(Status.BAD_REQUEST, "Unsupported aggregate function: '" + function
+						+ "'");
+			}
+
+			if (path == null) {
+				if (!Aggregation.COUNT.equals(function)) {
+					throw new LinkRestException(Status.BAD_REQUEST, "Missing aggregate path: '" + aggregate + "'");
+				}
+
+				aggregation.addAggregate(aggregate, function, null, null);
+			} else {
+				aggregation.addAggregate(aggregate, function, path,
+						attribute(entityPathCache, response.getEntity().getEntity(), path));
+			}
+		}
+
+		response.withAggregation(aggregation);
+	}
+
+	private ObjAttribute attribute(EntityPathCache entityPathCache, ObjEntity entity, String path) {
+
+		if (PathConstants.ID_PK_ATTRIBUTE.equals(path)) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Can't aggregate by 'id'");
+		}
+
+		PathDescriptor pd = entityPathCache.getPathDescriptor(new ASTObjPath(path));
+
+		if (!pd.isAttribute()) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Not an attribute path: '" + path + "' for '"
+					+ entity.getName() + "'");
+		}
+
+		// a to-many join would multiply the rows being aggregated
+		if (pd.isToMany()) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Can't aggregate over a to-many path: '" + path
+					+ "' for '" + entity.getName() + "'");
+		}
+
+		return pd.getAttribute();
+	}
+}
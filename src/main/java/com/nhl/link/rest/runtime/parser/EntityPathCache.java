@@ -3,6 +3,7 @@ package com.nhl.link.rest.runtime.parser;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.ws.rs.core.Response.Status;
 
@@ -19,12 +20,23 @@ import com.nhl.link.rest.LinkRestException;
 
 class EntityPathCache {
 
+	// a rough size of a cached path with its descriptor and map entry
+	private static final int ENTRY_OVERHEAD_BYTES = 160;
+
 	private ObjEntity entity;
 	private Map<String, PathDescriptor> pathCache;
+	private AtomicLong hits;
+	private AtomicLong misses;
 
 	EntityPathCache(ObjEntity entity) {
+		this(entity, new AtomicLong(), new AtomicLong());
+	}
+
+	EntityPathCache(ObjEntity entity, AtomicLong hits, AtomicLong misses) {
 		this.entity = entity;
 		this.pathCache = new ConcurrentHashMap<>();
+		this.hits = hits;
+		this.misses = misses;
 
 		// immediately cache a special entry matching "id" constant
 
@@ -47,24 +59,52 @@ class EntityPathCache {
 			public ASTPath getPathExp() {
 				return dbPath;
 			}
+
+			@Override
+			public ObjAttribute getAttribute() {
+				return pk;
+			}
+
+			@Override
+			public boolean isToMany() {
+				return false;
+			}
 		});
 	}
 
 	PathDescriptor getPathDescriptor(final ASTObjPath path) {
 
 		PathDescriptor entry = pathCache.get(path.getPath());
-		if (entry == null) {
+		if (entry != null) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
 
-			final PathComponent<ObjAttribute, ObjRelationship> pc;
+			PathComponent<ObjAttribute, ObjRelationship> last = null;
+			boolean toManyPath = false;
 
 			try {
-				pc = entity.lastPathComponent(path, Collections.emptyMap());
+				for (PathComponent<ObjAttribute, ObjRelationship> c : entity.resolvePath(path,
+						Collections.<String, String> emptyMap())) {
+					last = c;
+					if (c.getRelationship() != null && c.getRelationship().isToMany()) {
+						toManyPath = true;
+					}
+				}
 			} catch (ExpressionException e) {
 				// bad path
 				throw new LinkRestException(Status.BAD_REQUEST, "Invalid path '" + path.getPath() + "' for '"
 						+ entity.getName() + "'");
 			}
 
+			if (last == null) {
+				throw new LinkRestException(Status.BAD_REQUEST, "Invalid path '" + path.getPath() + "' for '"
+						+ entity.getName() + "'");
+			}
+
+			final PathComponent<ObjAttribute, ObjRelationship> pc = last;
+			final boolean toMany = toManyPath;
+
 			entry = new PathDescriptor() {
 
 				@Override
@@ -82,6 +122,16 @@ class EntityPathCache {
 				public ASTPath getPathExp() {
 					return path;
 				}
+
+				@Override
+				public ObjAttribute getAttribute() {
+					return pc.getAttribute();
+				}
+
+				@Override
+				public boolean isToMany() {
+					return toMany;
+				}
 			};
 
 			pathCache.put(path.getPath(), entry);
@@ -89,4 +139,17 @@ class EntityPathCache {
 
 		return entry;
 	}
+
+	int size() {
+		return pathCache.size();
+	}
+
+	long estimatedBytes() {
+		long bytes = 0;
+		for (String path : pathCache.keySet()) {
+			bytes += ENTRY_OVERHEAD_BYTES + 2 * path.length();
+		}
+
+		return bytes;
+	}
 }
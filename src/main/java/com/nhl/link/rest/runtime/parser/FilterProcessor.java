@@ -21,10 +21,12 @@ class FilterProcessor {
 
 	private RequestJsonParser jsonParser;
 	private PathCache pathCache;
+	private PrefixMatchResolver prefixMatchResolver;
 
-	FilterProcessor(RequestJsonParser jsonParser, PathCache pathCache) {
+	FilterProcessor(RequestJsonParser jsonParser, PathCache pathCache, PrefixMatchResolver prefixMatchResolver) {
 		this.jsonParser = jsonParser;
 		this.pathCache = pathCache;
+		this.prefixMatchResolver = prefixMatchResolver;
 	}
 
 	void process(ClientEntity<?> clientEntity, String filtersJson) {
@@ -50,6 +52,15 @@ class FilterProcessor {
 
 			String property = propertyNode.asText();
 
+			// validate property path
+			ObjEntity rootEntity = clientEntity.getEntity();
+			PathDescriptor pd = pathCache.entityPathCache(rootEntity).getPathDescriptor(new ASTObjPath(property));
+
+			if (!pd.isAttribute()) {
+				throw new LinkRestException(Status.BAD_REQUEST, "filter 'property' points to a relationship'"
+						+ property + "'. Can't filter on relationships");
+			}
+
 			Object valueUnescaped = extractValue(valueNode);
 
 			Expression qualifier;
@@ -59,18 +70,7 @@ class FilterProcessor {
 				qualifier = ExpressionFactory.matchExp(property, valueUnescaped);
 			} else {
 				checkValueLength((String) valueUnescaped);
-				String value = escapeValueForLike((String) valueUnescaped) + "%";
-				qualifier = ExpressionFactory.likeIgnoreCaseExp(property, value);
-			}
-
-			// validate property path
-			ObjEntity rootEntity = clientEntity.getEntity();
-			PathDescriptor pd = pathCache.entityPathCache(rootEntity).getPathDescriptor(
-					(ASTObjPath) qualifier.getOperand(0));
-
-			if (!pd.isAttribute()) {
-				throw new LinkRestException(Status.BAD_REQUEST, "filter 'property' points to a relationship'"
-						+ property + "'. Can't filter on relationships");
+				qualifier = prefixMatchResolver.matchExp(pd.getAttribute(), property, (String) valueUnescaped);
 			}
 
 			clientEntity.andQualifier(qualifier);
@@ -96,22 +96,6 @@ class FilterProcessor {
 		}
 	}
 
-	static String escapeValueForLike(String value) {
-		int len = value.length();
-
-		StringBuilder out = new StringBuilder(len);
-		for (int i = 0; i < len; i++) {
-			char c = value.charAt(i);
-			if (c == '_' || c == '%') {
-				out.append('\\');
-			}
-
-			out.append(c);
-		}
-
-		return out.toString();
-	}
-
 	private void checkValueLength(String value) {
 		if (value.length() > MAX_VALUE_LENGTH) {
 			throw new LinkRestException(Status.BAD_REQUEST, "filter 'value' is to long: " + value);
@@ -13,6 +13,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nhl.link.rest.ClientEntity;
 import com.nhl.link.rest.LinkRestException;
+import com.nhl.link.rest.runtime.semantics.IRelationshipMapper;
 
 class IncludeProcessor {
 
@@ -22,15 +23,19 @@ class IncludeProcessor {
 	private static final String MAP_BY = "mapBy";
 	private static final String SORT = "sort";
 	private static final String CAYENNE_EXP = "cayenneExp";
+	private static final String LIMIT = "limit";
 
 	private RequestJsonParser jsonParser;
 	private SortProcessor sortProcessor;
 	private CayenneExpProcessor expProcessor;
+	private IRelationshipMapper relationshipMapper;
 
-	IncludeProcessor(RequestJsonParser jsonParser, SortProcessor sortProcessor, CayenneExpProcessor expProcessor) {
+	IncludeProcessor(RequestJsonParser jsonParser, SortProcessor sortProcessor, CayenneExpProcessor expProcessor,
+			IRelationshipMapper relationshipMapper) {
 		this.jsonParser = jsonParser;
 		this.sortProcessor = sortProcessor;
 		this.expProcessor = expProcessor;
+		this.relationshipMapper = relationshipMapper;
 	}
 
 	void process(ClientEntity<?> clientEntity, List<String> includes) {
@@ -109,9 +114,29 @@ class IncludeProcessor {
 			if (expNode != null) {
 				expProcessor.process(includeEntity, expNode);
 			}
+
+			JsonNode limitNode = root.get(LIMIT);
+			if (limitNode != null) {
+				processLimit(includeEntity, limitNode);
+			}
 		}
 	}
 
+	private void processLimit(ClientEntity<?> descriptor, JsonNode limitNode) {
+
+		if (!limitNode.isInt() || limitNode.asInt() < 0) {
+			throw new LinkRestException(Status.BAD_REQUEST, "Bad include spec - invalid 'limit': " + limitNode);
+		}
+
+		// root list is limited by the request 'limit' parameter
+		if (descriptor.getIncoming() == null || !descriptor.getIncoming().isToMany()) {
+			LOGGER.info("Ignoring 'limit:" + limitNode + "' for non to-many include");
+			return;
+		}
+
+		descriptor.setLimit(limitNode.asInt());
+	}
+
 	private <T> void processMapBy(ClientEntity<T> descriptor, String mapByPath) {
 
 		if (descriptor == null) {
@@ -192,6 +217,14 @@ class IncludeProcessor {
 			return null;
 		}
 
+		// related object id, e.g. "xyz_id", included without the related
+		// object
+		ObjRelationship idRelationship = relationshipMapper.toRelationship(parent.getEntity(), property);
+		if (idRelationship != null && !idRelationship.isToMany() && dot < 0) {
+			parent.getRelatedIds().add(idRelationship.getName());
+			return null;
+		}
+
 		throw new LinkRestException(Status.BAD_REQUEST, "Invalid include path: " + path);
 	}
 
@@ -2,15 +2,26 @@ package com.nhl.link.rest.runtime.parser;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.cayenne.map.ObjEntity;
 
-class PathCache {
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+
+class PathCache implements ManagedCache {
+
+	static final String NAME = "linkrest.parser.paths";
 
 	private ConcurrentMap<String, EntityPathCache> pathCacheByEntity;
+	private AtomicLong hits;
+	private AtomicLong misses;
+	private AtomicLong evictions;
 
 	PathCache() {
 		this.pathCacheByEntity = new ConcurrentHashMap<String, EntityPathCache>();
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
 	}
 
 	EntityPathCache entityPathCache(ObjEntity entity) {
@@ -20,7 +31,7 @@ class PathCache {
 			return pathCache;
 		}
 
-		pathCache = new EntityPathCache(entity);
+		pathCache = new EntityPathCache(entity, hits, misses);
 		EntityPathCache previousCache = pathCacheByEntity.putIfAbsent(entity.getName(), pathCache);
 		if (previousCache != null) {
 			pathCache = previousCache;
@@ -29,4 +40,49 @@ class PathCache {
 		return pathCache;
 	}
 
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public int getSize() {
+		int size = 0;
+		for (EntityPathCache cache : pathCacheByEntity.values()) {
+			size += cache.size();
+		}
+
+		return size;
+	}
+
+	@Override
+	public long getHits() {
+		return hits.get();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@Override
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	@Override
+	public long getEstimatedBytes() {
+		long bytes = 0;
+		for (EntityPathCache cache : pathCacheByEntity.values()) {
+			bytes += cache.estimatedBytes();
+		}
+
+		return bytes;
+	}
+
+	@Override
+	public void clear() {
+		evictions.addAndGet(getSize());
+		pathCacheByEntity.clear();
+	}
 }
@@ -1,6 +1,7 @@
 package com.nhl.link.rest.runtime.parser;
 
 import org.apache.cayenne.exp.parser.ASTPath;
+import org.apache.cayenne.map.ObjAttribute;
 
 interface PathDescriptor {
 
@@ -9,4 +10,19 @@ interface PathDescriptor {
 	String getType();
 
 	ASTPath getPathExp();
+
+	/**
+	 * Returns the attribute at the end of the path, or null if the path ends
+	 * with a relationship.
+	 * 
+	 * @since 1.1
+	 */
+	ObjAttribute getAttribute();
+
+	/**
+	 * Returns whether the path traverses any to-many relationships.
+	 * 
+	 * @since 1.1
+	 */
+	boolean isToMany();
 }
@@ -0,0 +1,134 @@
+package com.nhl.link.rest.runtime.parser;
+
+import java.util.Locale;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+
+/**
+ * Defines how a string value of 'filter' and 'query' parameters is matched
+ * against an attribute. Default is a case-insensitive LIKE, that is
+ * translated to 'UPPER(column) LIKE UPPER(?)' and can't use a regular index
+ * on the column. Other strategies allow the DB to use such an index at the
+ * expense of case sensitivity or an extra column.
+ *
+ * @since 1.1
+ */
+public abstract class PrefixMatch {
+
+	private static final PrefixMatch LIKE_IGNORE_CASE = new PrefixMatch() {
+
+		@Override
+		public Expression matchExp(String path, String prefix) {
+			return ExpressionFactory.likeIgnoreCaseExp(path, escapeValueForLike(prefix) + "%");
+		}
+	};
+
+	private static final PrefixMatch LIKE = new PrefixMatch() {
+
+		@Override
+		public Expression matchExp(String path, String prefix) {
+			return ExpressionFactory.likeExp(path, escapeValueForLike(prefix) + "%");
+		}
+	};
+
+	private static final PrefixMatch RANGE = new PrefixMatch() {
+
+		@Override
+		public Expression matchExp(String path, String prefix) {
+
+			Expression exp = ExpressionFactory.greaterOrEqualExp(path, prefix);
+
+			String upperBound = upperBound(prefix);
+			return upperBound != null ? exp.andExp(ExpressionFactory.lessExp(path, upperBound)) : exp;
+		}
+	};
+
+	/**
+	 * Returns the default case-insensitive LIKE match.
+	 */
+	public static PrefixMatch likeIgnoreCase() {
+		return LIKE_IGNORE_CASE;
+	}
+
+	/**
+	 * Returns a case-sensitive LIKE match. Suitable for the columns known to
+	 * store the values in a normalized case.
+	 */
+	public static PrefixMatch like() {
+		return LIKE;
+	}
+
+	/**
+	 * Returns a case-sensitive range match, i.e. 'column >= ? AND column < ?',
+	 * with the upper bound calculated by incrementing the last character of
+	 * the prefix. Unlike LIKE with a bound parameter, a range can use an index
+	 * on any DB, but the results are only correct for the columns with binary
+	 * collation.
+	 */
+	public static PrefixMatch range() {
+		return RANGE;
+	}
+
+	/**
+	 * Returns a match against a case-folded "shadow" attribute of the same
+	 * entity instead of the filtered attribute. The prefix is converted to
+	 * upper or lower case to match the shadow column contents, and matched
+	 * with a case-sensitive LIKE.
+	 */
+	public static PrefixMatch shadowAttribute(final String shadowAttribute, final boolean upperCase) {
+		return new PrefixMatch() {
+
+			@Override
+			public Expression matchExp(String path, String prefix) {
+
+				int dot = path.lastIndexOf('.');
+				String shadowPath = dot < 0 ? shadowAttribute : path.substring(0, dot + 1) + shadowAttribute;
+				String folded = upperCase ? prefix.toUpperCase(Locale.ROOT) : prefix.toLowerCase(Locale.ROOT);
+
+				return LIKE.matchExp(shadowPath, folded);
+			}
+		};
+	}
+
+	static String escapeValueForLike(String value) {
+		int len = value.length();
+
+		StringBuilder out = new StringBuilder(len);
+		for (int i = 0; i < len; i++) {
+			char c = value.charAt(i);
+			if (c == '_' || c == '%') {
+				out.append('\\');
+			}
+
+			out.append(c);
+		}
+
+		return out.toString();
+	}
+
+	/**
+	 * Returns the smallest string that is greater than any string starting
+	 * with the prefix, or null if there's no such string.
+	 */
+	static String upperBound(String prefix) {
+
+		StringBuilder out = new StringBuilder(prefix);
+		for (int i = out.length() - 1; i >= 0; i--) {
+			char c = out.charAt(i);
+			if (c < Character.MAX_VALUE) {
+				out.setCharAt(i, (char) (c + 1));
+				out.setLength(i + 1);
+				return out.toString();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Builds a qualifier matching the values of the attribute path that start
+	 * with the prefix. The prefix is not escaped.
+	 */
+	public abstract Expression matchExp(String path, String prefix);
+}
@@ -0,0 +1,38 @@
+package com.nhl.link.rest.runtime.parser;
+
+import java.util.Map;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+
+/**
+ * Picks a {@link PrefixMatch} configured for an attribute, falling back to
+ * {@link PrefixMatch#likeIgnoreCase()}.
+ *
+ * @since 1.1
+ */
+class PrefixMatchResolver {
+
+	private Map<String, PrefixMatch> matches;
+
+	PrefixMatchResolver(Map<String, PrefixMatch> matches) {
+		this.matches = matches;
+	}
+
+	static String key(String className, String attribute) {
+		return className + "." + attribute;
+	}
+
+	Expression matchExp(ObjAttribute attribute, String path, String prefix) {
+
+		PrefixMatch match = null;
+
+		if (!matches.isEmpty() && attribute != null && attribute.getEntity() != null) {
+			String className = ((ObjEntity) attribute.getEntity()).getClassName();
+			match = matches.get(key(className, attribute.getName()));
+		}
+
+		return (match != null ? match : PrefixMatch.likeIgnoreCase()).matchExp(path, prefix);
+	}
+}
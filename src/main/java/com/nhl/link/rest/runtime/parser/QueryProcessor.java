@@ -5,7 +5,6 @@ import java.sql.Types;
 import javax.ws.rs.core.Response.Status;
 
 import org.apache.cayenne.exp.Expression;
-import org.apache.cayenne.exp.ExpressionFactory;
 import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.map.ObjEntity;
 
@@ -14,6 +13,12 @@ import com.nhl.link.rest.LinkRestException;
 
 class QueryProcessor {
 
+	private PrefixMatchResolver prefixMatchResolver;
+
+	QueryProcessor(PrefixMatchResolver prefixMatchResolver) {
+		this.prefixMatchResolver = prefixMatchResolver;
+	}
+
 	void process(ClientEntity<?> clientEntity, String query, String queryProperty) {
 
 		if (query == null || query.length() == 0) {
@@ -24,11 +29,9 @@ class QueryProcessor {
 			throw new LinkRestException(Status.BAD_REQUEST, "'query' parameter is not supported by this service");
 		}
 
-		validateAttribute(clientEntity.getEntity(), queryProperty);
+		ObjAttribute attribute = validateAttribute(clientEntity.getEntity(), queryProperty);
 
-		query = FilterProcessor.escapeValueForLike(query) + "%";
-
-		Expression exp = ExpressionFactory.likeIgnoreCaseExp(queryProperty, query);
+		Expression exp = prefixMatchResolver.matchExp(attribute, queryProperty, query);
 		clientEntity.andQualifier(exp);
 	}
 
@@ -36,7 +39,7 @@ class QueryProcessor {
 	 * Checks that the user picked a valid property to compare against. Since
 	 * any bad args were selected by the server-side code, return 500 response.
 	 */
-	private void validateAttribute(ObjEntity entity, String queryProperty) {
+	private ObjAttribute validateAttribute(ObjEntity entity, String queryProperty) {
 		ObjAttribute attribute = (ObjAttribute) entity.getAttribute(queryProperty);
 		if (attribute == null) {
 			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "No such property '" + queryProperty
@@ -49,7 +52,7 @@ class QueryProcessor {
 		case Types.CHAR:
 		case Types.CLOB:
 		case Types.LONGVARCHAR:
-			return;
+			return attribute;
 		default:
 			throw new LinkRestException(Status.INTERNAL_SERVER_ERROR, "Invalid property type for query comparison: '"
 					+ queryProperty + "' for entity '" + entity.getName() + "'");
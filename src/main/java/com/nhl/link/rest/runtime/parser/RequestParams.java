@@ -6,7 +6,8 @@ import java.util.List;
 import javax.ws.rs.core.MultivaluedMap;
 
 enum RequestParams {
-	limit, start, page, include, exclude, sort, dir, group, groupDir, filter, query, cayenneExp;
+	limit, start, page, include, exclude, sort, dir, group, groupDir, filter, query, cayenneExp, count, aggregate,
+	groupBy, sideload, ids;
 
 	String string(MultivaluedMap<String, String> parameters) {
 		return parameters.getFirst(name());
@@ -1,6 +1,10 @@
 package com.nhl.link.rest.runtime.parser;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response.Status;
@@ -13,11 +17,24 @@ import com.nhl.link.rest.ClientEntity;
 import com.nhl.link.rest.DataResponse;
 import com.nhl.link.rest.LinkRestException;
 import com.nhl.link.rest.UpdateResponse;
+import com.nhl.link.rest.runtime.cache.ManagedCache;
+import com.nhl.link.rest.runtime.cache.ManagedCacheProvider;
 import com.nhl.link.rest.runtime.jackson.IJacksonService;
 import com.nhl.link.rest.runtime.meta.IMetadataService;
 import com.nhl.link.rest.runtime.semantics.IRelationshipMapper;
 
-public class RequestParser implements IRequestParser {
+public class RequestParser implements IRequestParser, ManagedCacheProvider {
+
+	/**
+	 * A DI key of the map of {@link PrefixMatch} strategies keyed by
+	 * "className.attribute".
+	 * 
+	 * @since 1.1
+	 */
+	public static final String PREFIX_MATCH_MAP = "linkrest.parser.prefixmatch.map";
+
+	static final String COUNT_EXACT = "exact";
+	static final String COUNT_APPROXIMATE = "approximate";
 
 	private IncludeProcessor includeProcessor;
 	private ExcludeProcessor excludeProcessor;
@@ -27,9 +44,20 @@ public class RequestParser implements IRequestParser {
 	private FilterProcessor filterProcessor;
 	private DataObjectProcessor dataObjectProcessor;
 	private QueryProcessor queryProcessor;
+	private PathCache pathCache;
+	private AggregateProcessor aggregateProcessor;
+
+	public RequestParser(IMetadataService metadataService, IJacksonService jacksonService,
+			IRelationshipMapper associationHandler) {
+		this(metadataService, jacksonService, associationHandler, Collections.<String, PrefixMatch> emptyMap());
+	}
 
+	/**
+	 * @since 1.1
+	 */
 	public RequestParser(@Inject IMetadataService metadataService, @Inject IJacksonService jacksonService,
-			@Inject IRelationshipMapper associationHandler) {
+			@Inject IRelationshipMapper associationHandler,
+			@Inject(PREFIX_MATCH_MAP) Map<String, PrefixMatch> prefixMatches) {
 
 		this.metadataService = metadataService;
 
@@ -38,15 +66,27 @@ public class RequestParser implements IRequestParser {
 		// cache parsed paths as we have a finite number of valid paths in each
 		// app model, and not having to parse them every time should save a few
 		// cycles
-		PathCache pathCache = new PathCache();
+		this.pathCache = new PathCache();
+
+		PrefixMatchResolver prefixMatchResolver = new PrefixMatchResolver(prefixMatches);
 
 		this.cayenneExpProcessor = new CayenneExpProcessor(jsonParser, pathCache);
 		this.sortProcessor = new SortProcessor(jsonParser, pathCache);
-		this.includeProcessor = new IncludeProcessor(jsonParser, sortProcessor, cayenneExpProcessor);
+		this.includeProcessor = new IncludeProcessor(jsonParser, sortProcessor, cayenneExpProcessor,
+				associationHandler);
 		this.excludeProcessor = new ExcludeProcessor(jsonParser);
-		this.filterProcessor = new FilterProcessor(jsonParser, pathCache);
+		this.filterProcessor = new FilterProcessor(jsonParser, pathCache, prefixMatchResolver);
 		this.dataObjectProcessor = new DataObjectProcessor(jsonParser, associationHandler);
-		this.queryProcessor = new QueryProcessor();
+		this.queryProcessor = new QueryProcessor(prefixMatchResolver);
+		this.aggregateProcessor = new AggregateProcessor(pathCache);
+	}
+
+	/**
+	 * @since 1.1
+	 */
+	@Override
+	public Collection<? extends ManagedCache> getManagedCaches() {
+		return Collections.singleton(pathCache);
 	}
 
 	@Override
@@ -72,6 +112,9 @@ public class RequestParser implements IRequestParser {
 
 		response.withFetchOffset(RequestParams.start.integer(parameters));
 		response.withFetchLimit(RequestParams.limit.integer(parameters));
+		processCount(response, RequestParams.count.string(parameters));
+		processIds(response, RequestParams.ids.strings(parameters));
+		response.withSideloading("true".equalsIgnoreCase(RequestParams.sideload.string(parameters)));
 
 		includeProcessor.process(rootDescriptor, RequestParams.include.strings(parameters));
 		excludeProcessor.process(rootDescriptor, RequestParams.exclude.strings(parameters));
@@ -89,6 +132,9 @@ public class RequestParser implements IRequestParser {
 		filterProcessor.process(rootDescriptor, RequestParams.filter.string(parameters));
 		queryProcessor.process(rootDescriptor, RequestParams.query.string(parameters), autocompleteProperty);
 
+		aggregateProcessor.process(response, RequestParams.aggregate.strings(parameters),
+				RequestParams.groupBy.strings(parameters));
+
 		return response;
 	}
 
@@ -121,4 +167,39 @@ public class RequestParser implements IRequestParser {
 		return response;
 	}
 
+	private void processIds(DataResponse<?> response, List<String> values) {
+
+		if (values.isEmpty()) {
+			return;
+		}
+
+		// IDs can be passed either as repeating parameters or comma-separated
+		List<String> ids = new ArrayList<>();
+		for (String value : values) {
+			for (String id : value.split(",")) {
+				id = id.trim();
+				if (id.length() > 0) {
+					ids.add(id);
+				}
+			}
+		}
+
+		response.withIds(ids);
+	}
+
+	private void processCount(DataResponse<?> response, String count) {
+
+		if (count == null) {
+			return;
+		}
+
+		if (COUNT_EXACT.equals(count)) {
+			response.withCountOnly(false);
+		} else if (COUNT_APPROXIMATE.equals(count)) {
+			response.withCountOnly(true);
+		} else {
+			throw new LinkRestException(Status.BAD_REQUEST, "Invalid 'count' value: '" + count + "'. Expected '"
+					+ COUNT_EXACT + "' or '" + COUNT_APPROXIMATE + "'");
+		}
+	}
 }
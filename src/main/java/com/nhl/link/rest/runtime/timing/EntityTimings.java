@@ -0,0 +1,74 @@
+package com.nhl.link.rest.runtime.timing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregated timings of the select requests for a single entity.
+ * 
+ * @since 1.1
+ */
+public class EntityTimings {
+
+	private TimingHistogram parse;
+	private TimingHistogram queryBuild;
+	private TimingHistogram fetch;
+	private TimingHistogram encoderBuild;
+	private TimingHistogram write;
+	private TimingHistogram total;
+	private AtomicLong rows;
+	private AtomicLong bytes;
+
+	public EntityTimings() {
+		this.parse = new TimingHistogram();
+		this.queryBuild = new TimingHistogram();
+		this.fetch = new TimingHistogram();
+		this.encoderBuild = new TimingHistogram();
+		this.write = new TimingHistogram();
+		this.total = new TimingHistogram();
+		this.rows = new AtomicLong();
+		this.bytes = new AtomicLong();
+	}
+
+	void record(RequestTimings timings) {
+		parse.record(timings.getParseNanos());
+		queryBuild.record(timings.getQueryBuildNanos());
+		fetch.record(timings.getFetchNanos());
+		encoderBuild.record(timings.getEncoderBuildNanos());
+		write.record(timings.getWriteNanos());
+		total.record(timings.getTotalNanos());
+		rows.addAndGet(timings.getRowCount());
+		bytes.addAndGet(timings.getBytesWritten());
+	}
+
+	public TimingHistogram getParse() {
+		return parse;
+	}
+
+	public TimingHistogram getQueryBuild() {
+		return queryBuild;
+	}
+
+	public TimingHistogram getFetch() {
+		return fetch;
+	}
+
+	public TimingHistogram getEncoderBuild() {
+		return encoderBuild;
+	}
+
+	public TimingHistogram getWrite() {
+		return write;
+	}
+
+	public TimingHistogram getTotal() {
+		return total;
+	}
+
+	public long getRows() {
+		return rows.get();
+	}
+
+	public long getBytes() {
+		return bytes.get();
+	}
+}
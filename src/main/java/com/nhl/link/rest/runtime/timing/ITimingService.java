@@ -0,0 +1,22 @@
+package com.nhl.link.rest.runtime.timing;
+
+/**
+ * Dispatches request timings to the registered {@link TimingListener}s.
+ * 
+ * @since 1.1
+ */
+public interface ITimingService {
+
+	/**
+	 * Returns whether the timings of the response write should be collected.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Returns whether 'Server-Timing' header should be added to the select
+	 * responses.
+	 */
+	boolean isServerTimingHeader();
+
+	void requestCompleted(RequestTimings timings);
+}
@@ -0,0 +1,206 @@
+package com.nhl.link.rest.runtime.timing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.nhl.link.rest.DataResponse;
+
+/**
+ * Per-stage timings of a single select request, in nanoseconds.
+ * 
+ * @since 1.1
+ */
+public class RequestTimings {
+
+	private DataResponse<?> response;
+	private Object query;
+	private List<String> statements;
+	private String entityName;
+	private long parseNanos;
+	private long queryBuildNanos;
+	private long fetchNanos;
+	private long encoderBuildNanos;
+	private long writeNanos;
+	private int rowCount;
+	private long bytesWritten;
+	private boolean coalesced;
+
+	public RequestTimings(DataResponse<?> response) {
+		this.response = response;
+		this.entityName = response.getType().getSimpleName();
+	}
+
+	/**
+	 * Returns the response of the timed request.
+	 */
+	public DataResponse<?> getResponse() {
+		return response;
+	}
+
+	/**
+	 * Returns a backend query that was used to fetch the data, e.g. Cayenne
+	 * SelectQuery. May be null.
+	 */
+	public Object getQuery() {
+		return query;
+	}
+
+	public void setQuery(Object query) {
+		this.query = query;
+	}
+
+	/**
+	 * Returns SQL statements run to fetch the data, if SQL capture is
+	 * enabled, or an empty list otherwise.
+	 */
+	public List<String> getStatements() {
+		return statements != null ? statements : Collections.<String> emptyList();
+	}
+
+	public void addStatements(List<String> statements) {
+		if (statements.isEmpty()) {
+			return;
+		}
+
+		if (this.statements == null) {
+			this.statements = new ArrayList<>(statements.size());
+		}
+
+		this.statements.addAll(statements);
+	}
+
+	public String getEntityName() {
+		return entityName;
+	}
+
+	public void setEntityName(String entityName) {
+		this.entityName = entityName;
+	}
+
+	/**
+	 * Returns time spent parsing request parameters.
+	 */
+	public long getParseNanos() {
+		return parseNanos;
+	}
+
+	public void setParseNanos(long parseNanos) {
+		this.parseNanos = parseNanos;
+	}
+
+	/**
+	 * Returns time spent building a backend query from the parsed request.
+	 */
+	public long getQueryBuildNanos() {
+		return queryBuildNanos;
+	}
+
+	public void setQueryBuildNanos(long queryBuildNanos) {
+		this.queryBuildNanos = queryBuildNanos;
+	}
+
+	/**
+	 * Returns time spent running the query, excluding the query build time.
+	 */
+	public long getFetchNanos() {
+		return fetchNanos;
+	}
+
+	public void setFetchNanos(long fetchNanos) {
+		this.fetchNanos = fetchNanos;
+	}
+
+	public long getEncoderBuildNanos() {
+		return encoderBuildNanos;
+	}
+
+	public void setEncoderBuildNanos(long encoderBuildNanos) {
+		this.encoderBuildNanos = encoderBuildNanos;
+	}
+
+	/**
+	 * Returns time spent encoding the response to JSON and writing it to the
+	 * client.
+	 */
+	public long getWriteNanos() {
+		return writeNanos;
+	}
+
+	public void setWriteNanos(long writeNanos) {
+		this.writeNanos = writeNanos;
+	}
+
+	public long getTotalNanos() {
+		return parseNanos + queryBuildNanos + fetchNanos + encoderBuildNanos + writeNanos;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public void setRowCount(int rowCount) {
+		this.rowCount = rowCount;
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public void setBytesWritten(long bytesWritten) {
+		this.bytesWritten = bytesWritten;
+	}
+
+	/**
+	 * Returns whether the request reused an identical in-flight fetch of
+	 * another request. In this case the query and the query build time are
+	 * those of the fetching request, and the fetch time is the time spent
+	 * waiting for its result.
+	 */
+	public boolean isCoalesced() {
+		return coalesced;
+	}
+
+	public void setCoalesced(boolean coalesced) {
+		this.coalesced = coalesced;
+	}
+
+	/**
+	 * Returns a value of 'Server-Timing' HTTP header for the stages preceding
+	 * the response write.
+	 */
+	public String toServerTiming() {
+		StringBuilder header = new StringBuilder();
+		appendServerTiming(header, "parse", parseNanos);
+		header.append(", ");
+		appendServerTiming(header, "query", queryBuildNanos);
+		header.append(", ");
+		appendServerTiming(header, "fetch", fetchNanos);
+		header.append(", ");
+		appendServerTiming(header, "encoder", encoderBuildNanos);
+		return header.toString();
+	}
+
+	private static void appendServerTiming(StringBuilder header, String name, long nanos) {
+
+		// durations are in milliseconds with microsecond precision
+		long micros = nanos / 1000;
+		header.append(name).append(";dur=").append(micros / 1000).append('.');
+
+		long fraction = micros % 1000;
+		if (fraction < 100) {
+			header.append('0');
+		}
+		if (fraction < 10) {
+			header.append('0');
+		}
+		header.append(fraction);
+	}
+
+	@Override
+	public String toString() {
+		return entityName + " {parse: " + parseNanos + ", query: " + queryBuildNanos + ", fetch: " + fetchNanos
+				+ ", encoder: " + encoderBuildNanos + ", write: " + writeNanos + ", rows: " + rowCount + ", bytes: "
+				+ bytesWritten + "}";
+	}
+}
@@ -0,0 +1,229 @@
+package com.nhl.link.rest.runtime.timing;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.SelectQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.runtime.cayenne.CayennePersister;
+import com.nhl.link.rest.runtime.cayenne.RelatedObjectCounter;
+import com.nhl.link.rest.runtime.explain.ExplainService;
+
+/**
+ * A {@link TimingListener} that logs select requests that took longer than a
+ * threshold. For each slow request it logs the stage timings, the requested
+ * entity tree (i.e. normalized include, exclude, sort and cayenneExp), the
+ * query with its prefetch tree, the number of objects fetched per prefetch and
+ * the SQL statements. SQL is captured from the ServerRuntime of a
+ * {@link CayennePersister}, which is done automatically when the runtime is
+ * built with this logger.
+ * <p>
+ * To limit the overhead under load, the requests are sampled and the number
+ * of log records per second is capped.
+ * 
+ * @since 1.1
+ */
+public class SlowRequestLogger implements TimingListener {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SlowRequestLogger.class);
+
+	private long thresholdNanos;
+	private double sampleRate;
+	private int maxPerSecond;
+
+	private AtomicLong currentSecond;
+	private AtomicInteger loggedInCurrentSecond;
+	private AtomicLong suppressed;
+
+	/**
+	 * Creates a logger that logs every request slower than the threshold, up
+	 * to 10 records per second.
+	 */
+	public SlowRequestLogger(long thresholdMs) {
+		this(thresholdMs, 1., 10);
+	}
+
+	/**
+	 * @param thresholdMs
+	 *            minimal duration of the request to be logged.
+	 * @param sampleRate
+	 *            a fraction of slow requests to be logged, between 0 and 1.
+	 * @param maxPerSecond
+	 *            maximum number of log records per second.
+	 */
+	public SlowRequestLogger(long thresholdMs, double sampleRate, int maxPerSecond) {
+		this.thresholdNanos = thresholdMs * 1000000;
+		this.sampleRate = sampleRate;
+		this.maxPerSecond = maxPerSecond;
+		this.currentSecond = new AtomicLong();
+		this.loggedInCurrentSecond = new AtomicInteger();
+		this.suppressed = new AtomicLong();
+	}
+
+	@Override
+	public void requestCompleted(RequestTimings timings) {
+
+		if (timings.getTotalNanos() < thresholdNanos || !LOGGER.isWarnEnabled()) {
+			return;
+		}
+
+		if (sampleRate < 1. && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return;
+		}
+
+		if (!acquire()) {
+			suppressed.incrementAndGet();
+			return;
+		}
+
+		LOGGER.warn(describe(timings));
+	}
+
+	/**
+	 * Returns the number of slow requests that were not logged due to the
+	 * rate limit.
+	 */
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	private boolean acquire() {
+		long second = System.currentTimeMillis() / 1000;
+		long current = currentSecond.get();
+
+		// the race here may let a few extra records through, which is fine
+		if (current != second && currentSecond.compareAndSet(current, second)) {
+			loggedInCurrentSecond.set(0);
+		}
+
+		return loggedInCurrentSecond.incrementAndGet() <= maxPerSecond;
+	}
+
+	String describe(RequestTimings timings) {
+		StringBuilder out = new StringBuilder();
+
+		out.append("Slow request: ").append(timings.getEntityName()).append(", ")
+				.append(millis(timings.getTotalNanos())).append(" ms (parse: ")
+				.append(millis(timings.getParseNanos())).append(", query: ")
+				.append(millis(timings.getQueryBuildNanos())).append(", fetch: ")
+				.append(millis(timings.getFetchNanos())).append(", encoder: ")
+				.append(millis(timings.getEncoderBuildNanos())).append(", write: ")
+				.append(millis(timings.getWriteNanos())).append("), rows: ").append(timings.getRowCount())
+				.append(", bytes: ").append(timings.getBytesWritten());
+
+		ClientEntity<?> entity = timings.getResponse().getEntity();
+		if (entity != null) {
+			out.append("\n  request: ");
+			appendEntity(out, entity);
+		} else if (timings.getResponse().getCachedResponse() != null) {
+			out.append("\n  served from cache");
+		}
+
+		if (timings.getQuery() instanceof SelectQuery) {
+			appendQuery(out, (SelectQuery<?>) timings.getQuery(), timings.getResponse().getObjects());
+		}
+
+		for (String sql : timings.getStatements()) {
+			out.append("\n  sql: ").append(sql);
+		}
+
+		long suppressedCount = suppressed.getAndSet(0);
+		if (suppressedCount > 0) {
+			out.append("\n  ").append(suppressedCount).append(" slow request(s) not logged due to rate limit");
+		}
+
+		return out.toString();
+	}
+
+	private static void appendEntity(StringBuilder out, ClientEntity<?> entity) {
+		out.append(entity.getEntity().getName()).append(" {");
+
+		if (entity.isIdIncluded()) {
+			out.append("id, ");
+		}
+
+		out.append("attributes: ").append(entity.getAttributes());
+
+		if (entity.getQualifier() != null) {
+			out.append(", qualifier: ").append(entity.getQualifier());
+		}
+
+		if (!entity.getOrderings().isEmpty()) {
+			out.append(", orderings: ");
+			appendOrderings(out, entity.getOrderings());
+		}
+
+		if (entity.getMapByPath() != null) {
+			out.append(", mapBy: ").append(entity.getMapByPath());
+		}
+
+		for (Entry<String, ClientEntity<?>> e : entity.getRelationships().entrySet()) {
+			out.append(", ").append(e.getKey()).append(": ");
+			appendEntity(out, e.getValue());
+		}
+
+		out.append("}");
+	}
+
+	private static void appendQuery(StringBuilder out, SelectQuery<?> query, List<?> objects) {
+		out.append("\n  query: ").append(query.getRoot());
+
+		if (query.getQualifier() != null) {
+			out.append(" where ").append(query.getQualifier());
+		}
+
+		if (!query.getOrderings().isEmpty()) {
+			out.append(" order by ");
+			appendOrderings(out, query.getOrderings());
+		}
+
+		if (query.getFetchOffset() > 0) {
+			out.append(" offset ").append(query.getFetchOffset());
+		}
+
+		if (query.getFetchLimit() > 0) {
+			out.append(" limit ").append(query.getFetchLimit());
+		}
+
+		out.append(": ").append(objects.size()).append(" row(s)");
+
+		if (query.getPrefetchTree() != null) {
+			for (PrefetchTreeNode node : query.getPrefetchTree().nonPhantomNodes()) {
+				out.append("\n  prefetch: ").append(node.getPath()).append(" (")
+						.append(ExplainService.semanticsName(node.getSemantics())).append("): ");
+
+				int count = RelatedObjectCounter.count(objects, node.getPath());
+				if (count >= 0) {
+					out.append(count).append(" object(s)");
+				} else {
+					out.append("not resolved");
+				}
+			}
+		}
+	}
+
+	private static void appendOrderings(StringBuilder out, Collection<Ordering> orderings) {
+		boolean first = true;
+		for (Ordering o : orderings) {
+			if (!first) {
+				out.append(", ");
+			}
+
+			first = false;
+			out.append(o.getSortSpecString()).append(o.isAscending() ? " asc" : " desc");
+		}
+	}
+
+	private static String millis(long nanos) {
+		return String.valueOf(nanos / 1000000);
+	}
+}
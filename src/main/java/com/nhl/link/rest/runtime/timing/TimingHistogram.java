@@ -0,0 +1,86 @@
+package com.nhl.link.rest.runtime.timing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations with power-of-two buckets.
+ * 
+ * @since 1.1
+ */
+public class TimingHistogram {
+
+	private static final int BUCKETS = 64;
+
+	private AtomicLongArray buckets;
+	private AtomicLong count;
+	private AtomicLong totalNanos;
+	private AtomicLong maxNanos;
+
+	public TimingHistogram() {
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count = new AtomicLong();
+		this.totalNanos = new AtomicLong();
+		this.maxNanos = new AtomicLong();
+	}
+
+	public void record(long nanos) {
+
+		if (nanos < 0) {
+			nanos = 0;
+		}
+
+		// bucket 'i' holds values in [2^(i-1), 2^i), bucket 0 holds zeros
+		buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getTotalNanos() {
+		return totalNanos.get();
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	public long getMeanNanos() {
+		long c = count.get();
+		return c > 0 ? totalNanos.get() / c : 0;
+	}
+
+	/**
+	 * Returns an upper bound of the bucket containing a given percentile,
+	 * which is within 2x of the actual value.
+	 * 
+	 * @param percentile
+	 *            a value between 0 and 100.
+	 */
+	public long getPercentileNanos(double percentile) {
+
+		long c = count.get();
+		if (c == 0) {
+			return 0;
+		}
+
+		long threshold = (long) Math.ceil(c * percentile / 100d);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= threshold) {
+				return Math.min(i == 0 ? 0 : (1L << i) - 1, maxNanos.get());
+			}
+		}
+
+		return maxNanos.get();
+	}
+}
@@ -0,0 +1,63 @@
+package com.nhl.link.rest.runtime.timing;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.nhl.link.rest.UpdateResponse;
+
+/**
+ * A {@link TimingListener} that aggregates select request timings in
+ * per-entity histograms. Update requests are not recorded, as their timings
+ * are dominated by the commit and would skew the select statistics.
+ * 
+ * @since 1.1
+ */
+public class TimingHistogramListener implements TimingListener {
+
+	private ConcurrentMap<String, EntityTimings> timings;
+
+	public TimingHistogramListener() {
+		this.timings = new ConcurrentHashMap<>();
+	}
+
+	@Override
+	public void requestCompleted(RequestTimings requestTimings) {
+
+		if (requestTimings.getResponse() instanceof UpdateResponse) {
+			return;
+		}
+
+		timingsFor(requestTimings.getEntityName()).record(requestTimings);
+	}
+
+	/**
+	 * Returns aggregated timings for the entity or null if there were no
+	 * requests for this entity.
+	 */
+	public EntityTimings getTimings(String entityName) {
+		return timings.get(entityName);
+	}
+
+	public Map<String, EntityTimings> getTimings() {
+		return Collections.unmodifiableMap(timings);
+	}
+
+	public void reset() {
+		timings.clear();
+	}
+
+	private EntityTimings timingsFor(String entityName) {
+		EntityTimings entityTimings = timings.get(entityName);
+		if (entityTimings == null) {
+			entityTimings = new EntityTimings();
+			EntityTimings existing = timings.putIfAbsent(entityName, entityTimings);
+			if (existing != null) {
+				entityTimings = existing;
+			}
+		}
+
+		return entityTimings;
+	}
+}
@@ -0,0 +1,14 @@
+package com.nhl.link.rest.runtime.timing;
+
+/**
+ * A listener notified of the timings of each select request after its
+ * response is written. Listeners are registered via
+ * {@link com.nhl.link.rest.runtime.LinkRestBuilder#timingListener(TimingListener)}
+ * and must be thread-safe.
+ * 
+ * @since 1.1
+ */
+public interface TimingListener {
+
+	void requestCompleted(RequestTimings timings);
+}
@@ -0,0 +1,43 @@
+package com.nhl.link.rest.runtime.timing;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @since 1.1
+ */
+public class TimingService implements ITimingService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TimingService.class);
+
+	private TimingListener[] listeners;
+	private boolean serverTimingHeader;
+
+	public TimingService(List<TimingListener> listeners, boolean serverTimingHeader) {
+		this.listeners = listeners.toArray(new TimingListener[listeners.size()]);
+		this.serverTimingHeader = serverTimingHeader;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return listeners.length > 0 || serverTimingHeader;
+	}
+
+	@Override
+	public boolean isServerTimingHeader() {
+		return serverTimingHeader;
+	}
+
+	@Override
+	public void requestCompleted(RequestTimings timings) {
+		for (TimingListener listener : listeners) {
+			try {
+				listener.requestCompleted(timings);
+			} catch (RuntimeException e) {
+				LOGGER.warn("Error in timing listener", e);
+			}
+		}
+	}
+}
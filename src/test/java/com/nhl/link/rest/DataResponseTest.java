@@ -1,13 +1,16 @@
 package com.nhl.link.rest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.apache.cayenne.query.PrefetchTreeNode;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -35,6 +38,17 @@ public class DataResponseTest extends TestWithCayenneMapping {
 				stringConverterFactory, new RelationshipMapper());
 	}
 
+	@Test
+	public void testPrefetchSemantics() {
+		DataResponse<E1> response = DataResponse.forType(E1.class);
+		assertEquals(PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS, response.getPrefetchSemantics());
+		assertFalse(response.isPrefetchSemanticsSet());
+
+		response.withPrefetchSemantics(PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS);
+		assertEquals(PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS, response.getPrefetchSemantics());
+		assertTrue(response.isPrefetchSemanticsSet());
+	}
+
 	@Test
 	public void testToResponse_PlainObjects() {
 		DataResponse<E1> request = DataResponse.forType(E1.class).withClientEntity(getClientEntity(E1.class));
@@ -0,0 +1,71 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E4;
+
+public class LinkRestService_InContainer_GET_Aggregate_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E4"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E4.class, "INSERT INTO utest.e4 (id, c_varchar, c_int) "
+						+ "values (1, 'a', 1), (2, 'a', 3), (3, 'b', 5), (4, 'c', 7)"));
+	}
+
+	@Test
+	public void testAggregate_GroupBy() {
+
+		Response response = target("/lr/e4/aggregate").queryParam("aggregate", "count")
+				.queryParam("aggregate", "sum(cInt)").queryParam("aggregate", "max(cInt)")
+				.queryParam("groupBy", "cVarchar").queryParam("cayenneExp", urlEnc("{\"exp\":\"cInt < 7\"}"))
+				.request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"cVarchar\":\"a\",\"count\":2,\"sum(cInt)\":4,\"max(cInt)\":3},"
+				+ "{\"cVarchar\":\"b\",\"count\":1,\"sum(cInt)\":5,\"max(cInt)\":5}],\"total\":2}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testAggregate_NoGroupBy() {
+
+		Response response = target("/lr/e4/aggregate").queryParam("aggregate", "count()")
+				.queryParam("aggregate", "min(cVarchar)").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"count()\":4,\"min(cVarchar)\":\"a\"}],\"total\":1}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testAggregate_NotAllowed() {
+
+		Response response = target("/lr/e4").queryParam("aggregate", "count").request().get();
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+	}
+
+	@Test
+	public void testAggregate_InvalidFunction() {
+
+		Response response = target("/lr/e4/aggregate").queryParam("aggregate", "median(cInt)").request().get();
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+	}
+
+	@Test
+	public void testAggregate_InvalidPath() {
+
+		Response response = target("/lr/e4/aggregate").queryParam("aggregate", "sum(xyz)").request().get();
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+	}
+}
@@ -0,0 +1,92 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class LinkRestService_InContainer_GET_ByIds_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx'), (2, 'yyy'), (3, 'zzz')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, name) "
+						+ "values (7, 1, 'aaa'), (8, 1, 'bbb'), (9, 2, 'ccc')"));
+	}
+
+	@Test
+	public void testIdsParameter() {
+
+		Response response = target("/lr/e3").queryParam("ids", "9,100,7").queryParam("include", "id")
+				.queryParam("include", "name").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":9,\"name\":\"ccc\"},{\"id\":7,\"name\":\"aaa\"}],"
+				+ "\"total\":2,\"missing\":[100]}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testIdsParameter_Repeating() {
+
+		Response response = target("/lr/e3").queryParam("ids", "8").queryParam("ids", "7").queryParam("ids", "8")
+				.queryParam("include", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":8},{\"id\":7}],\"total\":2,\"missing\":[]}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testIdsParameter_AndQualifier() {
+
+		String exp = urlEnc("{\"exp\":\"name = 'aaa'\"}");
+		Response response = target("/lr/e3").queryParam("ids", "8,7").queryParam("cayenneExp", exp)
+				.queryParam("include", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":7}],\"total\":1,\"missing\":[8]}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testIdsParameter_Invalid() {
+
+		Response response = target("/lr/e3").queryParam("ids", "8,x").request().get();
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+	}
+
+	@Test
+	public void testByIds() {
+
+		Response response = target("/lr/e2/byids").queryParam("include", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":3},{\"id\":1}],\"total\":2,\"missing\":[5]}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testByIds_Chunked() {
+
+		Response response = target("/lr/e2/byids/range").queryParam("include", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertTrue(response.readEntity(String.class).startsWith(
+				"{\"success\":true,\"data\":[{\"id\":3},{\"id\":2},{\"id\":1}],\"total\":3,\"missing\":[2500,2499,"));
+	}
+}
@@ -0,0 +1,95 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class LinkRestService_InContainer_GET_Count_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx'), (2, 'yyy'), (3, 'zzz')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, name) "
+						+ "values (8, 1, 'aaa'), (9, 1, 'bbb'), (7, 2, 'aaa')"));
+	}
+
+	@Test
+	public void testCount() {
+
+		Response response = target("/lr/e2").queryParam("count", "exact").queryParam("limit", "1").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[],\"total\":3}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testCount_Qualifier() {
+
+		Response response = target("/lr/e2").queryParam("count", "exact")
+				.queryParam("cayenneExp", urlEnc("{\"exp\":\"name != 'xxx'\"}")).request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[],\"total\":2}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testCount_ToManyQualifier() {
+
+		Response response = target("/lr/e2").queryParam("count", "exact")
+				.queryParam("cayenneExp", urlEnc("{\"exp\":\"e3s.name = 'aaa'\"}")).request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[],\"total\":2}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testCount_ToManyQualifier_SeveralMatchingChildren() {
+
+		// E2 #1 has two matching children, and must be counted once
+		Response response = target("/lr/e2").queryParam("count", "exact")
+				.queryParam("cayenneExp", urlEnc("{\"exp\":\"e3s.name != 'zzz'\"}")).request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[],\"total\":2}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testCount_Approximate() {
+
+		Response response1 = target("/lr/e2").queryParam("count", "approximate").request().get();
+		assertEquals("{\"success\":true,\"data\":[],\"total\":3}", response1.readEntity(String.class));
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (4, 'www')"));
+
+		// cached count
+		Response response2 = target("/lr/e2").queryParam("count", "approximate").request().get();
+		assertEquals("{\"success\":true,\"data\":[],\"total\":3}", response2.readEntity(String.class));
+
+		// exact count
+		Response response3 = target("/lr/e2").queryParam("count", "exact").request().get();
+		assertEquals("{\"success\":true,\"data\":[],\"total\":4}", response3.readEntity(String.class));
+	}
+
+	@Test
+	public void testCount_Invalid() {
+
+		Response response = target("/lr/e2").queryParam("count", "xyz").request().get();
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+	}
+}
@@ -0,0 +1,67 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class LinkRestService_InContainer_GET_DataRows_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx'), (2, 'yyy'), (3, 'zzz')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, name) "
+						+ "values (8, 1, 'aaa'), (9, 1, 'zzz'), (7, 1, 'aaa'), (6, 2, 'bbb'), (5, NULL, 'ccc')"));
+	}
+
+	@Test
+	public void testToMany() {
+
+		String include = urlEnc("{\"path\":\"e3s\",\"cayenneExp\":{\"exp\":\"name = 'aaa' or name = 'bbb'\"},"
+				+ "\"sort\":\"id\"}");
+
+		Response objects = target("/lr/e2").queryParam("include", include).queryParam("sort", "id").request().get();
+		Response rows = target("/lr/e2/rows").queryParam("include", include).queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), rows.getStatus());
+		assertEquals(objects.readEntity(String.class), rows.readEntity(String.class));
+	}
+
+	@Test
+	public void testToOne() {
+
+		Response objects = target("/lr/e3").queryParam("include", "e2").queryParam("sort", "id").request().get();
+		Response rows = target("/lr/e3/rows").queryParam("include", "e2").queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), rows.getStatus());
+		assertEquals(objects.readEntity(String.class), rows.readEntity(String.class));
+	}
+
+	@Test
+	public void testToOne_Projection() {
+
+		String exp = urlEnc("{\"exp\":\"name = 'aaa' or name = 'ccc'\"}");
+
+		Response objects = target("/lr/e3").queryParam("include", "id").queryParam("include", "e2.name")
+				.queryParam("cayenneExp", exp).queryParam("sort", "id").request().get();
+		Response rows = target("/lr/e3/projection").queryParam("include", "id").queryParam("include", "e2.name")
+				.queryParam("cayenneExp", exp).queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), rows.getStatus());
+		assertEquals(objects.readEntity(String.class), rows.readEntity(String.class));
+	}
+}
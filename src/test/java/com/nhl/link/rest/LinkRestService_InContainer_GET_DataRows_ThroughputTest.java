@@ -0,0 +1,128 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+/**
+ * Compares the throughput and the allocations of the DataRow read path with
+ * the object read path over the same request. The in-memory container runs
+ * the requests on the test thread, so the thread allocation counter covers
+ * the whole request. The numbers are logged and are not asserted, as they
+ * depend on the machine; run with
+ * "mvn test -Dtest=LinkRestService_InContainer_GET_DataRows_ThroughputTest".
+ */
+public class LinkRestService_InContainer_GET_DataRows_ThroughputTest extends JerseyTestOnDerby {
+
+	private static final Logger LOGGER = LoggerFactory
+			.getLogger(LinkRestService_InContainer_GET_DataRows_ThroughputTest.class);
+
+	private static final int E2_COUNT = 200;
+	private static final int E3_PER_E2 = 10;
+
+	private static final int WARMUP_RUNS = 10;
+	private static final int MEASURED_RUNS = 30;
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+
+		StringBuilder e2s = new StringBuilder("INSERT INTO utest.e2 (id, name) values ");
+		StringBuilder e3s = new StringBuilder("INSERT INTO utest.e3 (id, e2_id, name) values ");
+
+		for (int i = 1; i <= E2_COUNT; i++) {
+			e2s.append(i > 1 ? ", " : "").append("(").append(i).append(", 'e2_").append(i).append("')");
+
+			for (int j = 0; j < E3_PER_E2; j++) {
+				int id = (i - 1) * E3_PER_E2 + j + 1;
+				e3s.append(id > 1 ? ", " : "").append("(").append(id).append(", ").append(i).append(", 'e3_")
+						.append(id).append("')");
+			}
+		}
+
+		runtime.newContext().performGenericQuery(new SQLTemplate(E2.class, e2s.toString()));
+		runtime.newContext().performGenericQuery(new SQLTemplate(E3.class, e3s.toString()));
+	}
+
+	@Test
+	public void testThroughput() {
+
+		String objectsPath = "/lr/e2";
+		String rowsPath = "/lr/e2/rows";
+
+		// the paths must produce identical output for the comparison to be
+		// meaningful
+		assertEquals(get(objectsPath), get(rowsPath));
+
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			get(objectsPath);
+			get(rowsPath);
+		}
+
+		Measurement objects = new Measurement();
+		Measurement rows = new Measurement();
+
+		// alternating the paths, so that both see the same GC and JIT state
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			objects.run(objectsPath);
+			rows.run(rowsPath);
+		}
+
+		LOGGER.info("{} E2 with {} E3 each, {} runs; objects: {}; rows: {}", new Object[] { E2_COUNT, E3_PER_E2,
+				MEASURED_RUNS, objects, rows });
+	}
+
+	private String get(String path) {
+		String include = urlEnc("{\"path\":\"e3s\",\"sort\":\"id\"}");
+		Response response = target(path).queryParam("include", include).queryParam("sort", "id").request().get();
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		return response.readEntity(String.class);
+	}
+
+	private class Measurement {
+
+		private long nanos;
+		private long bytes;
+
+		void run(String path) {
+
+			long bytes0 = allocatedBytes();
+			long t0 = System.nanoTime();
+
+			get(path);
+
+			nanos += System.nanoTime() - t0;
+			bytes += allocatedBytes() - bytes0;
+		}
+
+		private long allocatedBytes() {
+			ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+			// allocation counters are a HotSpot extension
+			return threads instanceof com.sun.management.ThreadMXBean ? ((com.sun.management.ThreadMXBean) threads)
+					.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%.2f ms/request, %d KB/request", nanos / 1000000d / MEASURED_RUNS, bytes / 1024
+					/ MEASURED_RUNS);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.Test;
+
+import com.nhl.link.rest.runtime.LinkRestBuilder;
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+
+public class LinkRestService_InContainer_GET_Explain_Test extends JerseyTestOnDerby {
+
+	@Override
+	protected LinkRestBuilder doConfigure() {
+		return super.doConfigure().explainParameter(true);
+	}
+
+	@Test
+	public void testExplain() {
+
+		Response response = target("/lr/e3").queryParam("include", "id").queryParam("include", "e2.id")
+				.queryParam("sort", "id").queryParam("limit", "5").queryParam("explain", "true").request().get();
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+
+		String json = response.readEntity(String.class);
+		assertTrue(json, json.startsWith("{\"success\":true,\"data\":{\"entity\":{\"name\":\"E3\",\"id\":true"));
+		assertTrue(json, json.contains("\"relationships\":{\"e2\":{\"name\":\"E2\",\"id\":true"));
+		assertTrue(json, json.contains("\"pagination\":{\"appliedIn\":\"memory\",\"start\":0,\"limit\":5}"));
+		assertTrue(json, json.contains("\"orderings\":[\"db:id asc\"]")
+				|| json.contains("\"orderings\":[\"id asc\"]"));
+		assertTrue(json, json.contains("\"prefetches\":[{\"path\":\"e2\",\"semantics\":\"disjoint\"}]"));
+	}
+
+	@Test
+	public void testExplain_NotRequested() {
+
+		Response response = target("/lr/e3").queryParam("include", "id").queryParam("explain", "false").request()
+				.get();
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertTrue(response.readEntity(String.class).startsWith("{\"success\":true,\"data\":["));
+	}
+}
@@ -323,6 +323,69 @@ public class LinkRestService_InContainer_GET_ObjectInclude_Test extends JerseyTe
 				+ "{\"id\":57,\"name\":\"b\",\"phoneNumber\":null}]}],\"total\":1}", response1.readEntity(String.class));
 	}
 
+	@Test
+	public void test_ToMany_CayenneExp_Sort_MultipleParents() throws WebApplicationException, IOException {
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e5 (id,name) values (645, 'B'),(646, 'A')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (61, 'xxx'),(62, 'yyy'),(63, 'zzz')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, e5_id, name) "
+						+ "values (68, 61, 645, 'a'),(69, 61, 646, 'z'),(67, 61, 646, 'b'),(66, 62, 645, 'c')"));
+
+		Response response1 = target("/lr/e2")
+				.queryParam("include",
+						urlEnc("{\"path\":\"e3s\",\"cayenneExp\":{\"exp\":\"name != 'z'\"},\"sort\":\"name\"}"))
+				.queryParam("include", "e3s.e5.name").queryParam("include", "id")
+				.queryParam("exclude", "e3s.phoneNumber").queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response1.getStatus());
+		assertEquals("{\"success\":true,\"data\":["
+				+ "{\"id\":61,\"e3s\":[{\"id\":68,\"e5\":{\"name\":\"B\"},\"e5_id\":645,\"name\":\"a\"},"
+				+ "{\"id\":67,\"e5\":{\"name\":\"A\"},\"e5_id\":646,\"name\":\"b\"}]},"
+				+ "{\"id\":62,\"e3s\":[{\"id\":66,\"e5\":{\"name\":\"B\"},\"e5_id\":645,\"name\":\"c\"}]},"
+				+ "{\"id\":63,\"e3s\":[]}],\"total\":3}", response1.readEntity(String.class));
+	}
+
+	@Test
+	public void test_ToMany_Limit() throws WebApplicationException, IOException {
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (71, 'xxx'),(72, 'yyy')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, name) "
+						+ "values (78, 71, 'c'),(79, 71, 'a'),(77, 71, 'b'),(76, 72, 'd')"));
+
+		Response response1 = target("/lr/e2")
+				.queryParam("include", urlEnc("{\"path\":\"e3s\",\"sort\":\"name\",\"limit\":2}"))
+				.queryParam("include", "id").queryParam("exclude", "e3s.phoneNumber").queryParam("sort", "id")
+				.request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response1.getStatus());
+		assertEquals("{\"success\":true,\"data\":["
+				+ "{\"id\":71,\"e3s\":[{\"id\":79,\"name\":\"a\"},{\"id\":77,\"name\":\"b\"}]},"
+				+ "{\"id\":72,\"e3s\":[{\"id\":76,\"name\":\"d\"}]}],\"total\":2}",
+				response1.readEntity(String.class));
+
+		Response response2 = target("/lr/e2/71")
+				.queryParam("include", urlEnc("{\"path\":\"e3s\",\"sort\":\"name\",\"limit\":1}"))
+				.queryParam("include", "id").queryParam("exclude", "e3s.phoneNumber").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response2.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":71,\"e3s\":[{\"id\":79,\"name\":\"a\"}]}],"
+				+ "\"total\":1}", response2.readEntity(String.class));
+	}
+
+	@Test
+	public void test_ToMany_Limit_Invalid() throws WebApplicationException, IOException {
+
+		Response response1 = target("/lr/e2").queryParam("include", urlEnc("{\"path\":\"e3s\",\"limit\":-1}"))
+				.request().get();
+
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response1.getStatus());
+	}
+
 	@Test
 	public void test_ToMany_Exclude() throws WebApplicationException, IOException {
 
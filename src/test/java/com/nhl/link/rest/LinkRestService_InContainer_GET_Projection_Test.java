@@ -0,0 +1,47 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E4;
+
+public class LinkRestService_InContainer_GET_Projection_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E4"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E4.class, "INSERT INTO utest.e4 (id, c_varchar, c_int, c_date, c_timestamp, "
+						+ "c_boolean, c_decimal, c_time) values (1, 'xxx', 5, '2014-03-01', '2014-03-01 10:11:12', "
+						+ "true, 12.5, '10:11:12'), (2, 'yyy', 6, NULL, NULL, false, NULL, NULL)"));
+	}
+
+	@Test
+	public void testProjection_AllAttributes() {
+
+		Response objects = target("/lr/e4").queryParam("sort", "id").request().get();
+		Response rows = target("/lr/e4/projection").queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), rows.getStatus());
+		assertEquals(objects.readEntity(String.class), rows.readEntity(String.class));
+	}
+
+	@Test
+	public void testProjection_IncludedAttributes() {
+
+		Response rows = target("/lr/e4/projection").queryParam("include", "id").queryParam("include", "cVarchar")
+				.queryParam("cayenneExp", urlEnc("{\"exp\":\"cInt > 5\"}")).request().get();
+
+		assertEquals(Status.OK.getStatusCode(), rows.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":2,\"cVarchar\":\"yyy\"}],\"total\":1}",
+				rows.readEntity(String.class));
+	}
+}
@@ -0,0 +1,86 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.Fault;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.query.SelectQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.property.PropertyReader;
+import com.nhl.link.rest.property.RelatedObjectIdPropertyReader;
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class LinkRestService_InContainer_GET_RelatedIds_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx'), (2, 'yyy')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, name) "
+						+ "values (8, 1, 'aaa'), (9, 2, 'bbb'), (10, NULL, 'ccc')"));
+	}
+
+	@Test
+	public void testRelatedIds() {
+
+		Response response = target("/lr/e3").queryParam("include", "id").queryParam("include", "e2_id")
+				.queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":8,\"e2_id\":1},{\"id\":9,\"e2_id\":2},"
+				+ "{\"id\":10,\"e2_id\":null}],\"total\":3}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testRelatedIds_WithRelationship() {
+
+		Response response = target("/lr/e3").queryParam("include", "id").queryParam("include", "e2_id")
+				.queryParam("include", "e2.id").queryParam("sort", "id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":8,\"e2\":{\"id\":1},\"e2_id\":1},"
+				+ "{\"id\":9,\"e2\":{\"id\":2},\"e2_id\":2},{\"id\":10,\"e2\":null,\"e2_id\":null}],\"total\":3}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testReader_NoFaulting() {
+
+		ObjectContext context = runtime.newContext();
+		SelectQuery<E3> query = new SelectQuery<E3>(E3.class, E3.NAME.in("aaa", "ccc"));
+		query.addOrdering(E3.NAME.asc());
+		List<E3> e3s = context.select(query);
+
+		ObjRelationship relationship = (ObjRelationship) context.getEntityResolver().getObjEntity(E3.class)
+				.getRelationship(E3.E2.getName());
+		PropertyReader reader = RelatedObjectIdPropertyReader.reader(relationship);
+
+		assertTrue(e3s.get(0).readPropertyDirectly(E3.E2.getName()) instanceof Fault);
+
+		ObjectId id = (ObjectId) reader.value(e3s.get(0), null);
+		assertEquals(new ObjectId("E2", "id", 1), id);
+		assertNull(reader.value(e3s.get(1), null));
+
+		// related objects should not be resolved just to read their ids
+		assertTrue(e3s.get(0).readPropertyDirectly(E3.E2.getName()) instanceof Fault);
+	}
+}
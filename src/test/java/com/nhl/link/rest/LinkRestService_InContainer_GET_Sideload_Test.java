@@ -0,0 +1,79 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class LinkRestService_InContainer_GET_Sideload_Test extends JerseyTestOnDerby {
+
+	@Before
+	public void before() {
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E2.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx'), (2, 'yyy'), (3, 'zzz')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, e2_id, name) "
+						+ "values (8, 1, 'aaa'), (9, 1, 'bbb'), (10, 2, 'ccc'), (11, NULL, 'ddd')"));
+	}
+
+	@Test
+	public void testToOne() {
+
+		Response response = target("/lr/e3").queryParam("include", "id").queryParam("include", "e2.name")
+				.queryParam("sort", "id").queryParam("sideload", "true").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":8,\"e2_id\":1},{\"id\":9,\"e2_id\":1},"
+				+ "{\"id\":10,\"e2_id\":2},{\"id\":11,\"e2_id\":null}],\"total\":4,"
+				+ "\"included\":{\"E2\":[{\"id\":1,\"name\":\"xxx\"},{\"id\":2,\"name\":\"yyy\"}]}}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testToOne_Paginated() {
+
+		Response response = target("/lr/e3").queryParam("include", "id").queryParam("include", "e2.name")
+				.queryParam("sort", "id").queryParam("start", "2").queryParam("sideload", "true").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":10,\"e2_id\":2},{\"id\":11,\"e2_id\":null}],\"total\":4,"
+				+ "\"included\":{\"E2\":[{\"id\":2,\"name\":\"yyy\"}]}}", response.readEntity(String.class));
+	}
+
+	@Test
+	public void testToOne_DataRows() {
+
+		Response objects = target("/lr/e3").queryParam("include", "e2").queryParam("sort", "id")
+				.queryParam("sideload", "true").request().get();
+		Response rows = target("/lr/e3/rows").queryParam("include", "e2").queryParam("sort", "id")
+				.queryParam("sideload", "true").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), rows.getStatus());
+		assertEquals(objects.readEntity(String.class), rows.readEntity(String.class));
+	}
+
+	@Test
+	public void testToMany_NotSideloaded() {
+
+		Response inline = target("/lr/e2").queryParam("include", "e3s.id").queryParam("sort", "id").request()
+				.get();
+		Response sideloaded = target("/lr/e2").queryParam("include", "e3s.id").queryParam("sort", "id")
+				.queryParam("sideload", "true").request().get();
+
+		String inlineJson = inline.readEntity(String.class);
+		assertEquals(inlineJson.substring(0, inlineJson.length() - 1) + ",\"included\":{}}",
+				sideloaded.readEntity(String.class));
+	}
+}
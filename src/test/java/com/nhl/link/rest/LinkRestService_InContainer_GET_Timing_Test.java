@@ -0,0 +1,59 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.runtime.LinkRestBuilder;
+import com.nhl.link.rest.runtime.timing.EntityTimings;
+import com.nhl.link.rest.runtime.timing.TimingHistogramListener;
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E4;
+
+public class LinkRestService_InContainer_GET_Timing_Test extends JerseyTestOnDerby {
+
+	// static, as the runtime is configured from the superclass constructor
+	private static final TimingHistogramListener listener = new TimingHistogramListener();
+
+	@Before
+	public void before() {
+		listener.reset();
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E4"));
+	}
+
+	@Override
+	protected LinkRestBuilder doConfigure() {
+		return super.doConfigure().timingListener(listener).serverTimingHeader(true);
+	}
+
+	@Test
+	public void testTimings() {
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E4.class, "INSERT INTO utest.e4 (id) values (1), (2), (3)"));
+
+		Response response = target("/lr/e4").queryParam("include", "id").request().get();
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+
+		String body = response.readEntity(String.class);
+		String serverTiming = response.getHeaderString("Server-Timing");
+		assertNotNull(serverTiming);
+		assertTrue(serverTiming, serverTiming.startsWith("parse;dur="));
+		assertTrue(serverTiming, serverTiming.contains("fetch;dur="));
+
+		EntityTimings timings = listener.getTimings("E4");
+		assertNotNull(timings);
+		assertEquals(1, timings.getTotal().getCount());
+		assertEquals(3, timings.getRows());
+		assertEquals(body.getBytes().length, timings.getBytes());
+		assertTrue(timings.getFetch().getTotalNanos() > 0);
+	}
+}
@@ -0,0 +1,67 @@
+package com.nhl.link.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.runtime.LinkRestBuilder;
+import com.nhl.link.rest.runtime.cayenne.HollowRelatedObjectResolver;
+import com.nhl.link.rest.runtime.cayenne.SqlCapture;
+import com.nhl.link.rest.unit.JerseyTestOnDerby;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class LinkRestService_InContainer_PUT_HollowResolverTest extends JerseyTestOnDerby {
+
+	@Override
+	protected LinkRestBuilder doConfigure() {
+		return super.doConfigure().relatedObjectResolver(HollowRelatedObjectResolver.class);
+	}
+
+	@Before
+	public void before() {
+		SqlCapture.install(runtime);
+
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E3"));
+		runtime.newContext().performGenericQuery(new EJBQLQuery("delete from E2"));
+	}
+
+	@Test
+	public void testPut_ToOne_NoSelect() {
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e2 (id, name) values (8, 'yyy')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, name, e2_id) values (3, 'zzz', 8)"));
+
+		SqlCapture capture = SqlCapture.start();
+		Response response = target("/lr/e3/3").request().put(
+				Entity.entity("{\"id\":3,\"e2_id\":1}", MediaType.APPLICATION_JSON));
+		List<String> statements = capture.stop();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+
+		// the related object is referenced by its ObjectId, the FK constraint
+		// is the only existence check
+		for (String statement : statements) {
+			assertFalse(statement, statement.toUpperCase().contains("FROM UTEST.E2"));
+		}
+
+		E3 e3 = Cayenne.objectForPK(runtime.newContext(), E3.class, 3);
+		runtime.newContext().invalidateObjects(e3);
+		assertEquals(1, Cayenne.intPKForObject(e3.getE2()));
+	}
+}
@@ -127,4 +127,21 @@ public class LinkRestService_InContainer_PUT_Test extends JerseyTestOnDerby {
 		runtime.newContext().invalidateObjects(e3);
 		assertEquals(8, Cayenne.intPKForObject(e3.getE2()));
 	}
+
+	@Test
+	public void testPut_ToOne_Missing() throws WebApplicationException, IOException {
+
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E4.class, "INSERT INTO utest.e2 (id, name) values (8, 'yyy')"));
+		runtime.newContext().performGenericQuery(
+				new SQLTemplate(E4.class, "INSERT INTO utest.e3 (id, name, e2_id) values (3, 'zzz', 8)"));
+
+		Response response1 = target("/lr/e3/3").request().put(
+				Entity.entity("{\"id\":3,\"e2_id\":15}", MediaType.APPLICATION_JSON));
+		assertEquals(Status.NOT_FOUND.getStatusCode(), response1.getStatus());
+
+		E3 e3 = Cayenne.objectForPK(runtime.newContext(), E3.class, 3);
+		runtime.newContext().invalidateObjects(e3);
+		assertEquals(8, Cayenne.intPKForObject(e3.getE2()));
+	}
 }
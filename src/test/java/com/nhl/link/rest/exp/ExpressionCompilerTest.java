@@ -0,0 +1,163 @@
+package com.nhl.link.rest.exp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.pojo.model.P1;
+import com.nhl.link.rest.unit.pojo.model.P2;
+import com.nhl.link.rest.unit.pojo.model.P6;
+
+public class ExpressionCompilerTest {
+
+	@Test
+	public void testComparisons() {
+
+		P6 o = p6("a", 5);
+
+		assertMatches(true, "intProp = 5", o);
+		assertMatches(false, "intProp = 6", o);
+		assertMatches(true, "intProp != 6", o);
+		assertMatches(true, "intProp < 6", o);
+		assertMatches(false, "intProp < 5", o);
+		assertMatches(true, "intProp <= 5", o);
+		assertMatches(true, "intProp > 4", o);
+		assertMatches(true, "intProp >= 5", o);
+		assertMatches(false, "intProp >= 5.5", o);
+		assertMatches(true, "stringId = 'a'", o);
+		assertMatches(true, "stringId < 'b'", o);
+	}
+
+	@Test
+	public void testNumbers_DifferentTypes() {
+		P6 o = p6("a", 5);
+		assertTrue(ExpressionCompiler.compile(ExpressionFactory.matchExp("intProp", 5L)).match(o));
+		assertTrue(ExpressionCompiler.compile(ExpressionFactory.greaterExp("intProp", 4.5d)).match(o));
+	}
+
+	@Test
+	public void testBetween() {
+
+		P6 o = p6("a", 5);
+
+		assertMatches(true, "intProp between 5 and 7", o);
+		assertMatches(false, "intProp between 6 and 7", o);
+		assertMatches(true, "intProp not between 6 and 7", o);
+	}
+
+	@Test
+	public void testIn() {
+
+		P6 o = p6("a", 5);
+
+		assertMatches(true, "intProp in (3, 5)", o);
+		assertMatches(false, "intProp in (3, 4)", o);
+		assertMatches(true, "intProp not in (3, 4)", o);
+		assertMatches(true, "stringId in ('a', 'b')", o);
+	}
+
+	@Test
+	public void testLike() {
+
+		P6 o = p6("Abc_d", 5);
+
+		assertMatches(true, "stringId like 'Ab%'", o);
+		assertMatches(false, "stringId like 'ab%'", o);
+		assertMatches(true, "stringId like 'A_c%'", o);
+		assertMatches(true, "stringId not like 'x%'", o);
+
+		assertTrue(ExpressionCompiler.compile(ExpressionFactory.likeIgnoreCaseExp("stringId", "ab%")).match(o));
+		assertFalse(ExpressionCompiler.compile(ExpressionFactory.notLikeIgnoreCaseExp("stringId", "ab%")).match(o));
+	}
+
+	@Test
+	public void testLikePattern_Escapes() {
+		assertTrue(ExpressionCompiler.likePattern("a\\_b%", false).matcher("a_bcd").matches());
+		assertFalse(ExpressionCompiler.likePattern("a\\_b%", false).matcher("axbcd").matches());
+		assertTrue(ExpressionCompiler.likePattern("a.b*", false).matcher("a.b*").matches());
+		assertFalse(ExpressionCompiler.likePattern("a.b*", false).matcher("axbb").matches());
+	}
+
+	@Test
+	public void testAndOrNot() {
+
+		P6 o = p6("a", 5);
+
+		assertMatches(true, "intProp = 5 and stringId = 'a'", o);
+		assertMatches(false, "intProp = 5 and stringId = 'b'", o);
+		assertMatches(true, "intProp = 6 or stringId = 'a'", o);
+		assertMatches(false, "not (intProp = 5)", o);
+	}
+
+	@Test
+	public void testToOnePath() {
+
+		P1 p1 = new P1();
+		p1.setName("x");
+
+		P2 o = new P2();
+		o.setName("y");
+		o.setP1(p1);
+
+		assertMatches(true, "p1.name = 'x'", o);
+		assertMatches(false, "p1.name = 'y'", o);
+
+		o.setP1(null);
+		assertMatches(false, "p1.name = 'x'", o);
+		assertMatches(true, "p1.name = null", o);
+	}
+
+	@Test
+	public void testMap() {
+
+		Map<String, Object> row = new HashMap<>();
+		row.put("intProp", 5);
+
+		assertMatches(true, "intProp = 5", row);
+		assertMatches(false, "intProp > 5", row);
+	}
+
+	@Test
+	public void testNulls() {
+
+		P6 o = p6(null, 5);
+
+		assertMatches(true, "stringId = null", o);
+		assertMatches(false, "stringId != null", o);
+		assertMatches(false, "stringId < 'b'", o);
+		assertMatches(false, "stringId like 'b%'", o);
+		assertMatches(false, "stringId in ('a', 'b')", o);
+	}
+
+	@Test
+	public void testFallback() {
+
+		// unresolved parameter is evaluated by Cayenne
+		Expression e = Expression.fromString("intProp = $x");
+		assertNotNull(ExpressionCompiler.compile(e));
+
+		Expression resolved = e.expWithParameters(Collections.singletonMap("x", 5));
+		assertTrue(ExpressionCompiler.compile(resolved).match(p6("a", 5)));
+	}
+
+	private static void assertMatches(boolean expected, String expression, Object object) {
+		Expression e = Expression.fromString(expression);
+		assertEquals(expression, expected, ExpressionCompiler.compile(e).match(object));
+	}
+
+	private static P6 p6(String id, int intProp) {
+		P6 o = new P6();
+		o.setStringId(id);
+		o.setIntProp(intProp);
+		return o;
+	}
+}
@@ -0,0 +1,114 @@
+package com.nhl.link.rest.pojo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.cayenne.map.DataMap;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.glassfish.jersey.test.inmemory.InMemoryTestContainerFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.runtime.LinkRestBuilder;
+import com.nhl.link.rest.runtime.memory.InMemoryStore;
+import com.nhl.link.rest.runtime.meta.DataMapBuilder;
+import com.nhl.link.rest.unit.pojo.model.P6;
+import com.nhl.link.rest.unit.resource.PojoResource;
+
+public class InMemoryDao_InContainer_Test extends JerseyTest {
+
+	private static final InMemoryStore<P6> STORE = InMemoryStore.forType(P6.class, "stringId").sortedIndex(
+			"intProp");
+
+	public InMemoryDao_InContainer_Test() {
+		super(new InMemoryTestContainerFactory());
+	}
+
+	@Before
+	public void before() {
+		STORE.clear();
+		STORE.put(p6("o1id", 15));
+		STORE.put(p6("o2id", 16));
+		STORE.put(p6("o3id", 14));
+	}
+
+	@Override
+	public Application configure() {
+
+		DataMap pojos = DataMapBuilder.newBuilder("__").addEntity(P6.class).withId("stringId").toDataMap();
+		Feature lrFeature = new LinkRestBuilder().inMemoryStore(STORE).nonPersistentEntities(pojos).build()
+				.getFeature();
+
+		Feature unitFeature = new Feature() {
+
+			@Override
+			public boolean configure(FeatureContext context) {
+				context.register(PojoResource.class);
+				return true;
+			}
+		};
+
+		return new ResourceConfig().register(unitFeature).register(lrFeature);
+	}
+
+	@Test
+	public void testSelect_Sorted() {
+
+		Response response = target("/pojo/p6").queryParam("sort", "intProp").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":\"o3id\",\"intProp\":14,\"stringId\":\"o3id\"},"
+				+ "{\"id\":\"o1id\",\"intProp\":15,\"stringId\":\"o1id\"},"
+				+ "{\"id\":\"o2id\",\"intProp\":16,\"stringId\":\"o2id\"}],\"total\":3}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testSelect_Filtered() {
+
+		Response response = target("/pojo/p6").queryParam("include", "id")
+				.queryParam("cayenneExp", urlEnc("{\"exp\":\"intProp >= 15\"}")).queryParam("sort", "stringId")
+				.request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("{\"success\":true,\"data\":[{\"id\":\"o1id\"},{\"id\":\"o2id\"}],\"total\":2}",
+				response.readEntity(String.class));
+	}
+
+	@Test
+	public void testSelectById() {
+
+		Response response = target("/pojo/p6/o2id").request().get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals(
+				"{\"success\":true,\"data\":[{\"id\":\"o2id\",\"intProp\":16,\"stringId\":\"o2id\"}],\"total\":1}",
+				response.readEntity(String.class));
+
+		assertEquals(Status.NOT_FOUND.getStatusCode(), target("/pojo/p6/xxx").request().get().getStatus());
+	}
+
+	private static P6 p6(String id, int intProp) {
+		P6 o = new P6();
+		o.setStringId(id);
+		o.setIntProp(intProp);
+		return o;
+	}
+
+	private static String urlEnc(String queryParam) {
+		try {
+			return URLEncoder.encode(queryParam, "UTF-8").replace("+", "%20");
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
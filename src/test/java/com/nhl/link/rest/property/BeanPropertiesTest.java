@@ -0,0 +1,56 @@
+package com.nhl.link.rest.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.pojo.model.P3;
+import com.nhl.link.rest.unit.pojo.model.P4;
+import com.nhl.link.rest.unit.pojo.model.P5;
+
+public class BeanPropertiesTest {
+
+	@Test
+	public void testForType_Cached() {
+		assertSame(BeanProperties.forType(P3.class), BeanProperties.forType(P3.class));
+	}
+
+	@Test
+	public void testGetProperties() {
+
+		BeanProperties properties = BeanProperties.forType(P3.class);
+
+		// 'class' must be excluded
+		assertEquals(1, properties.getProperties().size());
+		assertNull(properties.getProperty("class"));
+
+		BeanProperty name = properties.getProperty("name");
+		assertNotNull(name);
+		assertEquals(String.class, name.getType());
+		assertNull(name.getElementType());
+	}
+
+	@Test
+	public void testGetProperty_ElementType() {
+
+		BeanProperty p4s = BeanProperties.forType(P5.class).getProperty("p4s");
+		assertNotNull(p4s);
+		assertEquals(List.class, p4s.getType());
+		assertEquals(P4.class, p4s.getElementType());
+	}
+
+	@Test
+	public void testRead() {
+
+		P3 p3 = new P3();
+		p3.setName("xyz");
+
+		assertEquals("xyz", BeanProperties.forType(P3.class).read(p3, "name"));
+		assertEquals("xyz", BeanPropertyReader.reader("name").value(p3, null));
+	}
+}
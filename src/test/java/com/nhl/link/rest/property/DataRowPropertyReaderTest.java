@@ -0,0 +1,100 @@
+package com.nhl.link.rest.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+
+import org.apache.cayenne.ExtendedEnumeration;
+import org.junit.Test;
+
+public class DataRowPropertyReaderTest {
+
+	enum Color {
+		RED, GREEN
+	}
+
+	enum Size implements ExtendedEnumeration {
+		SMALL("S"), LARGE("L");
+
+		private String dbValue;
+
+		private Size(String dbValue) {
+			this.dbValue = dbValue;
+		}
+
+		@Override
+		public Object getDatabaseValue() {
+			return dbValue;
+		}
+	}
+
+	private static Object read(Object value, Class<?> type) {
+		return DataRowPropertyReader.reader("c", type).value(Collections.singletonMap("c", value), "p");
+	}
+
+	@Test
+	public void testValue_NoConversion() {
+		Object value = Short.valueOf((short) 1);
+		assertSame(value, DataRowPropertyReader.reader("c").value(Collections.singletonMap("c", value), "p"));
+	}
+
+	@Test
+	public void testValue_Null() {
+		assertNull(read(null, Integer.class));
+	}
+
+	@Test
+	public void testValue_SameType() {
+		Date value = new Timestamp(0);
+		assertSame(value, read(value, Date.class));
+	}
+
+	@Test
+	public void testValue_Boolean() {
+		assertEquals(Boolean.TRUE, read(Short.valueOf((short) 1), Boolean.class));
+		assertEquals(Boolean.FALSE, read(Integer.valueOf(0), boolean.class));
+		assertEquals(Boolean.TRUE, read("1", Boolean.class));
+		assertEquals(Boolean.TRUE, read("true", Boolean.class));
+	}
+
+	@Test
+	public void testValue_Numbers() {
+		assertEquals(Long.valueOf(5), read(Integer.valueOf(5), Long.class));
+		assertEquals(Integer.valueOf(5), read(new BigDecimal("5"), int.class));
+		assertEquals(new BigDecimal("5"), read(Integer.valueOf(5), BigDecimal.class));
+		assertEquals(Double.valueOf(2.5), read(new BigDecimal("2.5"), Double.class));
+	}
+
+	@Test
+	public void testValue_Enum() {
+		assertEquals(Color.GREEN, read(Integer.valueOf(1), Color.class));
+		assertEquals(Color.RED, read("RED", Color.class));
+	}
+
+	@Test
+	public void testValue_ExtendedEnumeration() {
+		assertEquals(Size.LARGE, read("L", Size.class));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testValue_ExtendedEnumeration_Invalid() {
+		read("LARGE", Size.class);
+	}
+
+	@Test
+	public void testCanConvert() {
+		assertTrue(DataRowPropertyReader.canConvert(int.class));
+		assertTrue(DataRowPropertyReader.canConvert(Color.class));
+		assertTrue(DataRowPropertyReader.canConvert(java.sql.Date.class));
+		assertTrue(DataRowPropertyReader.canConvert(byte[].class));
+		assertFalse(DataRowPropertyReader.canConvert(Object.class));
+		assertFalse(DataRowPropertyReader.canConvert(Character.class));
+	}
+}
@@ -0,0 +1,32 @@
+package com.nhl.link.rest.provider;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class DataResponseWriterTest {
+
+	@Test
+	public void testAcceptsGzip() {
+		assertTrue(DataResponseWriter.acceptsGzip(Collections.singletonList("gzip")));
+		assertTrue(DataResponseWriter.acceptsGzip(Collections.singletonList("deflate, GZIP;q=0.5")));
+		assertTrue(DataResponseWriter.acceptsGzip(Collections.singletonList("x-gzip")));
+		assertTrue(DataResponseWriter.acceptsGzip(Collections.singletonList("*")));
+		assertTrue(DataResponseWriter.acceptsGzip(Arrays.asList("deflate", "gzip")));
+	}
+
+	@Test
+	public void testAcceptsGzip_Rejected() {
+		assertFalse(DataResponseWriter.acceptsGzip(null));
+		assertFalse(DataResponseWriter.acceptsGzip(Collections.singletonList("identity")));
+		assertFalse(DataResponseWriter.acceptsGzip(Collections.singletonList("gzip;q=0")));
+		assertFalse(DataResponseWriter.acceptsGzip(Collections.singletonList("identity, x-gzip;q=0")));
+		assertFalse(DataResponseWriter.acceptsGzip(Collections.singletonList("*, gzip;q=0")));
+		assertFalse(DataResponseWriter.acceptsGzip(Collections.singletonList("gzip;q=0.0, *;q=0")));
+		assertFalse(DataResponseWriter.acceptsGzip(Collections.singletonList("gzipped")));
+	}
+}
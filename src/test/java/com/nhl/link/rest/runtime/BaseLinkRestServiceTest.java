@@ -0,0 +1,35 @@
+package com.nhl.link.rest.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.Test;
+
+import com.nhl.link.rest.LinkRestException;
+import com.nhl.link.rest.SelectBuilder;
+import com.nhl.link.rest.unit.cayenne.E2;
+
+public class BaseLinkRestServiceTest {
+
+	@Test
+	public void testSelectByIds_NotExtendedBuilder() {
+
+		BaseLinkRestService service = mock(BaseLinkRestService.class, CALLS_REAL_METHODS);
+		doReturn(mock(SelectBuilder.class)).when(service).forSelect(E2.class);
+
+		try {
+			service.selectByIds(E2.class, Arrays.asList(1, 2), mock(UriInfo.class));
+			fail("Selecting by ids with a plain SelectBuilder must fail");
+		} catch (LinkRestException e) {
+			assertEquals(Status.NOT_IMPLEMENTED.getStatusCode(), e.getStatus().getStatusCode());
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package com.nhl.link.rest.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.core.UriInfo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.SelectBuilder;
+import com.nhl.link.rest.runtime.cache.NoResponseCache;
+import com.nhl.link.rest.runtime.encoder.EncoderService;
+import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.explain.ExplainService;
+import com.nhl.link.rest.runtime.parser.IRequestParser;
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+import com.nhl.link.rest.unit.cayenne.E2;
+
+public class BaseSelectBuilder_CoalescingTest extends TestWithCayenneMapping {
+
+	private FetchCoalescer coalescer;
+	private IRequestParser requestParser;
+	private IEncoderService encoderService;
+	private ExecutorService executor;
+
+	private AtomicInteger fetchCount;
+	private CountDownLatch fetchStarted;
+	private CountDownLatch fetchAllowed;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setUp() {
+		coalescer = new FetchCoalescer();
+		executor = Executors.newFixedThreadPool(2);
+		fetchCount = new AtomicInteger();
+		fetchAllowed = new CountDownLatch(1);
+
+		requestParser = mock(IRequestParser.class);
+		when(requestParser.parseSelect(any(DataResponse.class), any(UriInfo.class), anyString())).thenAnswer(
+				new Answer<DataResponse<E2>>() {
+
+					@Override
+					public DataResponse<E2> answer(InvocationOnMock invocation) throws Throwable {
+						DataResponse<E2> response = (DataResponse<E2>) invocation.getArguments()[0];
+						return response.withClientEntity(getClientEntity(E2.class));
+					}
+				});
+
+		encoderService = mock(EncoderService.class);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testSelect_Coalesced() throws Exception {
+
+		fetchStarted = new CountDownLatch(1);
+
+		Future<DataResponse<E2>> f1 = select(new TestSelectBuilder());
+		assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+
+		Future<DataResponse<E2>> f2 = selectAndWait(new TestSelectBuilder());
+		fetchAllowed.countDown();
+
+		DataResponse<E2> r1 = f1.get(5, TimeUnit.SECONDS);
+		DataResponse<E2> r2 = f2.get(5, TimeUnit.SECONDS);
+
+		assertEquals(1, fetchCount.get());
+		assertSame(r1.getObjects(), r2.getObjects());
+
+		assertFalse(r1.getTimings().isCoalesced());
+		assertTrue(r2.getTimings().isCoalesced());
+		assertEquals("q", r2.getTimings().getQuery());
+		assertEquals(r1.getTimings().getQueryBuildNanos(), r2.getTimings().getQueryBuildNanos());
+	}
+
+	@Test
+	public void testSelect_Coalesced_MissingIds() throws Exception {
+
+		fetchStarted = new CountDownLatch(1);
+
+		Future<DataResponse<E2>> f1 = select(new TestSelectBuilder().byIds(Arrays.asList(1, 2, 3)));
+		assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+
+		Future<DataResponse<E2>> f2 = selectAndWait(new TestSelectBuilder().byIds(Arrays.asList(1, 2, 3)));
+		fetchAllowed.countDown();
+
+		DataResponse<E2> r1 = f1.get(5, TimeUnit.SECONDS);
+		DataResponse<E2> r2 = f2.get(5, TimeUnit.SECONDS);
+
+		assertEquals(1, fetchCount.get());
+		assertTrue(r2.getTimings().isCoalesced());
+		assertEquals(Arrays.asList(2), r1.getMissingIds());
+		assertEquals(Arrays.asList(2), r2.getMissingIds());
+	}
+
+	@Test
+	public void testSelect_NotCoalesced_CustomProperties() throws Exception {
+
+		fetchStarted = new CountDownLatch(2);
+
+		// custom properties may read beyond the fetched object tree, so the
+		// objects must not be shared
+		Future<DataResponse<E2>> f1 = select(new TestSelectBuilder().withProperty("x"));
+		Future<DataResponse<E2>> f2 = select(new TestSelectBuilder().withProperty("x"));
+
+		assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+		fetchAllowed.countDown();
+
+		DataResponse<E2> r1 = f1.get(5, TimeUnit.SECONDS);
+		DataResponse<E2> r2 = f2.get(5, TimeUnit.SECONDS);
+
+		assertEquals(2, fetchCount.get());
+		assertFalse(r1.getTimings().isCoalesced());
+		assertFalse(r2.getTimings().isCoalesced());
+	}
+
+	@Test
+	public void testFetchKey_Aggregation() {
+
+		// aggregate requests must not be served from the responses of the
+		// builders that allow them to the builders that don't
+		TestSelectBuilder aggregating = new TestSelectBuilder();
+		aggregating.withAggregation();
+
+		assertEquals(new TestSelectBuilder().fetchKey(), new TestSelectBuilder().fetchKey());
+		assertFalse(new TestSelectBuilder().fetchKey().equals(aggregating.fetchKey()));
+	}
+
+	private Future<DataResponse<E2>> select(final SelectBuilder<E2> builder) {
+		return executor.submit(new Callable<DataResponse<E2>>() {
+			@Override
+			public DataResponse<E2> call() throws Exception {
+				return builder.select();
+			}
+		});
+	}
+
+	/**
+	 * Starts a select in a new thread and waits until the thread blocks, i.e.
+	 * joins the in-flight fetch.
+	 */
+	private Future<DataResponse<E2>> selectAndWait(final SelectBuilder<E2> builder) throws InterruptedException {
+
+		FutureTask<DataResponse<E2>> f = new FutureTask<>(new Callable<DataResponse<E2>>() {
+			@Override
+			public DataResponse<E2> call() throws Exception {
+				return builder.select();
+			}
+		});
+
+		Thread thread = new Thread(f);
+		thread.start();
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!isBlocked(thread) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+
+		return f;
+	}
+
+	private static boolean isBlocked(Thread thread) {
+		Thread.State state = thread.getState();
+		return state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING;
+	}
+
+	private class TestSelectBuilder extends BaseSelectBuilder<E2> {
+
+		TestSelectBuilder() {
+			super(E2.class, encoderService, requestParser, coalescer, NoResponseCache.instance(), new ExplainService(
+					false, null));
+		}
+
+		@Override
+		protected void fetchObjects(DataResponse<E2> responseBuilder) {
+			fetchCount.incrementAndGet();
+			fetchStarted.countDown();
+
+			try {
+				fetchAllowed.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+
+			responseBuilder.getTimings().setQuery("q");
+			responseBuilder.getTimings().setQueryBuildNanos(1000);
+
+			List<E2> objects = new ArrayList<>();
+			responseBuilder.withObjects(objects);
+
+			if (responseBuilder.getIds() != null) {
+				responseBuilder.withMissingIds(Arrays.asList(2));
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.nhl.link.rest.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class FetchCoalescerTest {
+
+	@Test
+	public void testFetch_Concurrent() throws Exception {
+
+		final FetchCoalescer coalescer = new FetchCoalescer();
+		final AtomicInteger fetchCount = new AtomicInteger();
+		final CountDownLatch fetchStarted = new CountDownLatch(1);
+		final CountDownLatch fetchAllowed = new CountDownLatch(1);
+		final List<String> result = Arrays.asList("a", "b");
+
+		final Callable<List<String>> fetcher = new Callable<List<String>>() {
+
+			@Override
+			public List<String> call() throws Exception {
+				fetchCount.incrementAndGet();
+				fetchStarted.countDown();
+				fetchAllowed.await(5, TimeUnit.SECONDS);
+				return result;
+			}
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<List<String>> f1 = executor.submit(new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws Exception {
+					return coalescer.fetch("k", fetcher);
+				}
+			});
+
+			fetchStarted.await(5, TimeUnit.SECONDS);
+			assertEquals(1, coalescer.getInFlightCount());
+
+			Future<List<String>> f2 = executor.submit(new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws Exception {
+					return coalescer.fetch("k", fetcher);
+				}
+			});
+
+			// give the second thread a chance to join the in-flight fetch
+			Thread.sleep(100);
+			fetchAllowed.countDown();
+
+			assertSame(result, f1.get(5, TimeUnit.SECONDS));
+			assertSame(result, f2.get(5, TimeUnit.SECONDS));
+			assertEquals(1, fetchCount.get());
+			assertEquals(0, coalescer.getInFlightCount());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFetch_Sequential() {
+
+		FetchCoalescer coalescer = new FetchCoalescer();
+		final AtomicInteger fetchCount = new AtomicInteger();
+
+		Callable<List<Object>> fetcher = new Callable<List<Object>>() {
+
+			@Override
+			public List<Object> call() throws Exception {
+				fetchCount.incrementAndGet();
+				return Collections.emptyList();
+			}
+		};
+
+		coalescer.fetch("k", fetcher);
+		coalescer.fetch("k", fetcher);
+		assertEquals(2, fetchCount.get());
+	}
+}
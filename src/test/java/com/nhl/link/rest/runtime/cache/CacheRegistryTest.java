@@ -0,0 +1,89 @@
+package com.nhl.link.rest.runtime.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.nhl.link.rest.runtime.LinkRestBuilder;
+import com.nhl.link.rest.runtime.LinkRestRuntime;
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+
+public class CacheRegistryTest extends TestWithCayenneMapping {
+
+	@Test
+	public void testGetCaches() {
+		LinkRestRuntime lr = new LinkRestBuilder().cayenneRuntime(runtime).build();
+		ICacheRegistry registry = lr.service(ICacheRegistry.class);
+
+		assertNotNull(registry.getCache("linkrest.parser.paths"));
+		assertNotNull(registry.getCache("linkrest.encoder.attributes"));
+		assertNotNull(registry.getCache("linkrest.encoder.ids"));
+		assertNotNull(registry.getCache("linkrest.converters"));
+		assertNotNull(registry.getCache("cayenne.readContext"));
+		assertNotNull(registry.getCache("cayenne.snapshots"));
+		assertNotNull(registry.getCache("linkrest.meta.entities"));
+		assertNotNull(registry.getCache("linkrest.dao.types"));
+		assertNotNull(registry.getCache("linkrest.property.beans"));
+	}
+
+	@Test
+	public void testMapCache() {
+		MapCache<String> cache = new MapCache<>("test");
+		assertEquals(null, cache.get("a"));
+
+		cache.put("a", "A");
+		assertEquals("A", cache.get("a"));
+
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getSize());
+		assertTrue(cache.getEstimatedBytes() > 0);
+
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void testExportMBeans() throws Exception {
+
+		String domain = "com.nhl.link.rest.test";
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(domain + ":type=Cache,name=" + ObjectName.quote("linkrest.converters"));
+
+		LinkRestRuntime lr = new LinkRestBuilder().cayenneRuntime(runtime).cacheMBeans(domain).build();
+		CacheRegistry registry = (CacheRegistry) lr.service(ICacheRegistry.class);
+
+		try {
+			assertTrue(server.isRegistered(name));
+			assertEquals(0, server.getAttribute(name, "Size"));
+			server.invoke(name, "clear", new Object[0], new String[0]);
+		} finally {
+			registry.unexportMBeans(server, domain);
+		}
+
+		assertFalse(server.isRegistered(name));
+	}
+
+	@Test
+	public void testShutdown_UnexportsMBeans() throws Exception {
+
+		String domain = "com.nhl.link.rest.test.shutdown";
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(domain + ":type=Cache,name=" + ObjectName.quote("linkrest.converters"));
+
+		LinkRestRuntime lr = new LinkRestBuilder().cayenneRuntime(runtime).cacheMBeans(domain).build();
+		assertTrue(server.isRegistered(name));
+
+		lr.shutdown();
+		assertFalse(server.isRegistered(name));
+	}
+}
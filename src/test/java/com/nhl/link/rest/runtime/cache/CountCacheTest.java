@@ -0,0 +1,54 @@
+package com.nhl.link.rest.runtime.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CountCacheTest {
+
+	@Test
+	public void testGet() {
+		CountCache cache = new CountCache(10000);
+
+		assertEquals(-1, cache.get("E2", "q"));
+
+		cache.put("E2", "q", 5);
+		assertEquals(5, cache.get("E2", "q"));
+		assertEquals(-1, cache.get("E3", "q"));
+	}
+
+	@Test
+	public void testPut_Full_EvictsOldest() throws InterruptedException {
+		CountCache cache = new CountCache(10000);
+		cache.setMaxEntries(10);
+
+		cache.put("E2", "q0", 0);
+		Thread.sleep(5);
+
+		for (int i = 1; i < 10; i++) {
+			cache.put("E2", "q" + i, i);
+		}
+
+		cache.put("E2", "q10", 10);
+		assertEquals(10, cache.getSize());
+		assertEquals(1, cache.getEvictions());
+
+		assertEquals(-1, cache.get("E2", "q0"));
+		assertEquals(1, cache.get("E2", "q1"));
+		assertEquals(10, cache.get("E2", "q10"));
+	}
+
+	@Test
+	public void testPut_Full_EvictsExpired() throws InterruptedException {
+		CountCache cache = new CountCache(1);
+		cache.setMaxEntries(2);
+
+		cache.put("E2", "q1", 1);
+		cache.put("E2", "q2", 2);
+		Thread.sleep(5);
+
+		cache.put("E2", "q3", 3);
+		assertEquals(1, cache.getSize());
+		assertEquals(2, cache.getEvictions());
+	}
+}
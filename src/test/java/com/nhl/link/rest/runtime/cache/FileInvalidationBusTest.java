@@ -0,0 +1,122 @@
+package com.nhl.link.rest.runtime.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.nhl.link.rest.runtime.LinkRestBuilder;
+import com.nhl.link.rest.runtime.LinkRestRuntime;
+
+public class FileInvalidationBusTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	@Before
+	public void before() throws IOException {
+		directory = folder.newFolder().toPath();
+	}
+
+	@Test
+	public void testPublish() {
+
+		FileInvalidationBus b1 = new FileInvalidationBus(directory, "n1", 1000, 60000);
+		FileInvalidationBus b2 = new FileInvalidationBus(directory, "n2", 1000, 60000);
+
+		List<String> events1 = new ArrayList<>();
+		List<String> events2 = new ArrayList<>();
+		b1.addListener(new RecordingListener(events1));
+		b2.addListener(new RecordingListener(events2));
+
+		b1.publish(new InvalidationEvent("E2", Arrays.asList(1, 2)));
+
+		// local listeners are notified immediately
+		assertEquals(Arrays.asList("E2[1, 2]"), events1);
+		assertEquals(0, events2.size());
+
+		b1.poll();
+		b2.poll();
+		assertEquals(Arrays.asList("E2[1, 2]"), events1);
+		assertEquals(Arrays.asList("E2[1, 2]"), events2);
+
+		// events are processed once
+		b2.poll();
+		assertEquals(1, events2.size());
+	}
+
+	@Test
+	public void testStartedByBuilder() {
+
+		FileInvalidationBus bus = new FileInvalidationBus(directory, "n1", 1000, 60000);
+		assertFalse(bus.isStarted());
+
+		LinkRestRuntime runtime = new LinkRestBuilder().invalidationBus(bus).build();
+		assertTrue(bus.isStarted());
+
+		runtime.shutdown();
+		assertFalse(bus.isStarted());
+	}
+
+	@Test
+	public void testPoll_Expired() throws InterruptedException {
+
+		FileInvalidationBus b1 = new FileInvalidationBus(directory, "n1", 1000, 0);
+		FileInvalidationBus b2 = new FileInvalidationBus(directory, "n2", 1000, 0);
+		b1.publish(new InvalidationEvent("E2", Arrays.asList(1)));
+
+		List<String> events2 = new ArrayList<>();
+		b2.addListener(new RecordingListener(events2));
+
+		Thread.sleep(5);
+		b2.poll();
+		assertEquals(1, events2.size());
+		assertEquals(0, directory.toFile().list().length);
+	}
+
+	@Test
+	public void testPoll_MalformedFile() throws IOException {
+
+		FileInvalidationBus b1 = new FileInvalidationBus(directory, "n1", 1000, 60000);
+		FileInvalidationBus b2 = new FileInvalidationBus(directory, "n2", 1000, 60000);
+
+		List<String> events2 = new ArrayList<>();
+		b2.addListener(new RecordingListener(events2));
+
+		Files.write(directory.resolve("a_b_c.inv"), Arrays.asList("E2", "1"), Charset.forName("UTF-8"));
+		b2.poll();
+		assertEquals(0, events2.size());
+
+		b1.publish(new InvalidationEvent("E2", Arrays.asList(2)));
+		b2.poll();
+		assertEquals(Arrays.asList("E2[2]"), events2);
+	}
+
+	private static class RecordingListener implements InvalidationListener {
+
+		private List<String> events;
+
+		RecordingListener(List<String> events) {
+			this.events = events;
+		}
+
+		@Override
+		public void invalidated(InvalidationEvent event) {
+			events.add(event.toString());
+		}
+	}
+}
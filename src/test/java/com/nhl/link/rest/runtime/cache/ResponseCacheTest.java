@@ -0,0 +1,206 @@
+package com.nhl.link.rest.runtime.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class ResponseCacheTest extends TestWithCayenneMapping {
+
+	private static final byte[] BODY = "{\"success\":true}".getBytes();
+
+	private Map<String, ResponseCachePolicy> policies;
+	private Object variant;
+	private ResponseCache cache;
+
+	@Before
+	public void before() {
+		policies = new HashMap<>();
+		policies.put(E2.class.getName(), ResponseCachePolicy.ttl(10000).gzip());
+
+		variant = null;
+		cache = new ResponseCache(policies, new ResponseVariantProvider() {
+
+			@Override
+			public Object variantKey(Class<?> type) {
+				return variant;
+			}
+		}, new LocalInvalidationBus());
+	}
+
+	@Test
+	public void testKey_NoPolicy() {
+		assertNull(cache.key(E3.class, "k"));
+		assertNotNull(cache.key(E2.class, "k"));
+	}
+
+	@Test
+	public void testKey_Variant() {
+		ResponseCacheKey k1 = cache.key(E2.class, "k");
+
+		variant = "admin";
+		ResponseCacheKey k2 = cache.key(E2.class, "k");
+		ResponseCacheKey k3 = cache.key(E2.class, "k");
+
+		assertEquals(k2, k3);
+		assertEquals(false, k1.equals(k2));
+	}
+
+	@Test
+	public void testPutGet() {
+		ResponseCacheKey key = cache.key(E2.class, "k");
+		assertNull(cache.get(key));
+
+		cache.put(key, getClientEntity(E2.class), BODY, cache.getInvalidationCount());
+
+		CachedResponse cached = cache.get(key);
+		assertNotNull(cached);
+		assertArrayEquals(BODY, cached.getBody());
+		assertNotNull(cached.getGzippedBody());
+	}
+
+	@Test
+	public void testPut_InvalidatedWhileFetching() {
+		ResponseCacheKey key = cache.key(E2.class, "k");
+		long validSince = cache.getInvalidationCount();
+
+		cache.invalidate("E2");
+		cache.put(key, getClientEntity(E2.class), BODY, validSince);
+
+		assertNull(cache.get(key));
+		assertEquals(0, cache.getSize());
+		assertEquals(0, cache.getIndexSize());
+	}
+
+	@Test
+	public void testGet_Expired() throws InterruptedException {
+		cache = cacheWithE3Policy(ResponseCachePolicy.ttl(1));
+
+		ResponseCacheKey key = cache.key(E3.class, "k");
+		cache.put(key, getClientEntity(E3.class), BODY, cache.getInvalidationCount());
+		assertEquals(1, cache.getIndexSize());
+		Thread.sleep(5);
+
+		assertNull(cache.get(key));
+		assertEquals(0, cache.getSize());
+		assertEquals(0, cache.getIndexSize());
+	}
+
+	@Test
+	public void testPut_Full_EvictsLeastRecentlyUsed() throws InterruptedException {
+		cache.setMaxEntries(10);
+
+		ResponseCacheKey[] keys = new ResponseCacheKey[11];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = cache.key(E2.class, "k" + i);
+		}
+
+		for (int i = 0; i < 10; i++) {
+			cache.put(keys[i], getClientEntity(E2.class), BODY, cache.getInvalidationCount());
+		}
+
+		Thread.sleep(5);
+		assertNotNull(cache.get(keys[0]));
+
+		cache.put(keys[10], getClientEntity(E2.class), BODY, cache.getInvalidationCount());
+		assertEquals(10, cache.getSize());
+		assertEquals(10, cache.getIndexSize());
+		assertEquals(1, cache.getEvictions());
+
+		assertNotNull(cache.get(keys[0]));
+		assertNotNull(cache.get(keys[10]));
+	}
+
+	@Test
+	public void testPut_Full_EvictsExpired() throws InterruptedException {
+		cache = cacheWithE3Policy(ResponseCachePolicy.ttl(1));
+		cache.setMaxEntries(2);
+
+		ResponseCacheKey k1 = cache.key(E3.class, "k1");
+		ResponseCacheKey k2 = cache.key(E3.class, "k2");
+		ResponseCacheKey k3 = cache.key(E2.class, "k3");
+
+		cache.put(k1, getClientEntity(E3.class), BODY, cache.getInvalidationCount());
+		cache.put(k2, getClientEntity(E3.class), BODY, cache.getInvalidationCount());
+		Thread.sleep(5);
+
+		cache.put(k3, getClientEntity(E2.class), BODY, cache.getInvalidationCount());
+		assertEquals(1, cache.getSize());
+		assertEquals(1, cache.getIndexSize());
+		assertNotNull(cache.get(k3));
+	}
+
+	@Test
+	public void testInvalidate_IncludedEntity() {
+
+		ClientEntity<E2> entity = getClientEntity(E2.class);
+		entity.getRelationships().put(E2.E3S.getName(), getClientEntity(E3.class));
+
+		ResponseCacheKey k1 = cache.key(E2.class, "k1");
+		ResponseCacheKey k2 = cache.key(E2.class, "k2");
+		cache.put(k1, entity, BODY, cache.getInvalidationCount());
+		cache.put(k2, getClientEntity(E2.class), BODY, cache.getInvalidationCount());
+		assertEquals(2, cache.getSize());
+
+		cache.invalidate("E3");
+		assertNull(cache.get(k1));
+		assertNotNull(cache.get(k2));
+
+		cache.invalidate("E2");
+		assertNull(cache.get(k2));
+	}
+
+	@Test
+	public void testGet_StaleWhileRevalidate() throws InterruptedException {
+		cache = cacheWithE3Policy(ResponseCachePolicy.ttl(1).staleWhileRevalidate(60000));
+
+		ResponseCacheKey key = cache.key(E3.class, "k");
+		CachedResponse cached = cache.put(key, getClientEntity(E3.class), BODY, cache.getInvalidationCount());
+		Thread.sleep(5);
+
+		// first caller revalidates, others get a stale response
+		assertNull(cache.get(key));
+		assertSame(cached, cache.get(key));
+		assertSame(cached, cache.get(key));
+	}
+
+	@Test
+	public void testGet_StaleWhileRevalidate_Failed() throws InterruptedException {
+		cache = cacheWithE3Policy(ResponseCachePolicy.ttl(1).staleWhileRevalidate(60000));
+
+		ResponseCacheKey key = cache.key(E3.class, "k");
+		CachedResponse cached = cache.put(key, getClientEntity(E3.class), BODY, cache.getInvalidationCount());
+		Thread.sleep(5);
+
+		assertNull(cache.get(key));
+		assertSame(cached, cache.get(key));
+
+		// the next caller must be allowed to revalidate
+		cache.revalidationFailed(key);
+		assertNull(cache.get(key));
+		assertSame(cached, cache.get(key));
+	}
+
+	private ResponseCache cacheWithE3Policy(ResponseCachePolicy policy) {
+		policies.put(E3.class.getName(), policy);
+		return new ResponseCache(policies, new ResponseVariantProvider() {
+
+			@Override
+			public Object variantKey(Class<?> type) {
+				return null;
+			}
+		}, new LocalInvalidationBus());
+	}
+}
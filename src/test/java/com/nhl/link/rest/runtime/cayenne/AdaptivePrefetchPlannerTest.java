@@ -0,0 +1,108 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class AdaptivePrefetchPlannerTest extends TestWithCayenneMapping {
+
+	private AdaptivePrefetchPlanner planner;
+
+	@Before
+	public void before() {
+		planner = new AdaptivePrefetchPlanner(1, 10);
+	}
+
+	@Test
+	public void testPlan_ToOne() {
+		PrefetchTreeNode root = tree("e2");
+		planner.plan(root, new PrefetchRequest(getEntity(E3.class), 0, false));
+		assertEquals(PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS, root.getNode("e2").getSemantics());
+	}
+
+	@Test
+	public void testPlan_ToMany() {
+		PrefetchTreeNode root = tree("e3s");
+		planner.plan(root, new PrefetchRequest(getEntity(E2.class), 0, false));
+		assertEquals(PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+	}
+
+	@Test
+	public void testPlan_ToMany_FetchLimit() {
+		PrefetchTreeNode root = tree("e3s");
+		planner.plan(root, new PrefetchRequest(getEntity(E2.class), 5, false));
+		assertEquals(PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+	}
+
+	@Test
+	public void testPlan_ToMany_ById() {
+		PrefetchTreeNode root = tree("e3s");
+		planner.plan(root, new PrefetchRequest(getEntity(E2.class), 0, true));
+		assertEquals(PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+	}
+
+	@Test
+	public void testPlan_Nested() {
+		PrefetchTreeNode root = tree("e3s.e2");
+		planner.plan(root, new PrefetchRequest(getEntity(E2.class), 0, false));
+		assertEquals(PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+		assertEquals(PrefetchTreeNode.JOINT_PREFETCH_SEMANTICS, root.getNode("e3s.e2").getSemantics());
+	}
+
+	@Test
+	public void testPlan_Overrides() {
+
+		PrefetchTreeNode root = tree("e3s.e2");
+		planner.plan(root,
+				new PrefetchRequest(getEntity(E2.class), 0, false).withDefaultSemantics(
+						PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS).withHints(
+						Collections.singletonMap("e3s.e2", PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS)));
+
+		assertEquals(PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+		assertEquals(PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS, root.getNode("e3s.e2").getSemantics());
+	}
+
+	@Test
+	public void testFetched() {
+
+		ObjectContext context = runtime.newContext();
+		E2 e21 = context.newObject(E2.class);
+		e21.addToE3s(context.newObject(E3.class));
+		e21.addToE3s(context.newObject(E3.class));
+		e21.addToE3s(context.newObject(E3.class));
+		E2 e22 = context.newObject(E2.class);
+		e22.addToE3s(context.newObject(E3.class));
+
+		PrefetchTreeNode root = tree("e3s");
+		planner.fetched(root, new PrefetchRequest(getEntity(E2.class), 0, false), Arrays.asList(e21, e22));
+
+		assertEquals(2., planner.getRowsPerQuery("E2"), 0.0001);
+		ObjRelationship e3s = (ObjRelationship) getEntity(E2.class).getRelationship("e3s");
+		assertEquals(2., planner.getChildrenPerParent(e3s), 0.0001);
+
+		// few parents - disjoint by id
+		planner.plan(root, new PrefetchRequest(getEntity(E2.class), 0, false));
+		assertEquals(PrefetchTreeNode.DISJOINT_BY_ID_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+
+		// a single parent with many children - disjoint
+		planner.plan(root, new PrefetchRequest(getEntity(E2.class), 0, true));
+		assertEquals(PrefetchTreeNode.DISJOINT_PREFETCH_SEMANTICS, root.getNode("e3s").getSemantics());
+	}
+
+	private static PrefetchTreeNode tree(String path) {
+		PrefetchTreeNode root = new PrefetchTreeNode();
+		root.addPath(path).setPhantom(false);
+		return root;
+	}
+}
@@ -0,0 +1,88 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.EJBQLQuery;
+import org.apache.cayenne.query.SQLTemplate;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.DerbyManager;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class BatchRelatedObjectResolverTest {
+
+	private static DerbyManager derbyAssembly;
+	private static ServerRuntime runtime;
+
+	@BeforeClass
+	public static void setUpClass() {
+		derbyAssembly = new DerbyManager("target/derby");
+		runtime = new ServerRuntime("cayenne-linkrest-tests.xml");
+		SqlCapture.install(runtime);
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		runtime.shutdown();
+		runtime = null;
+
+		derbyAssembly.shutdown();
+		derbyAssembly = null;
+	}
+
+	@Before
+	public void before() {
+		ObjectContext context = runtime.newContext();
+		context.performGenericQuery(new EJBQLQuery("delete from E3"));
+		context.performGenericQuery(new EJBQLQuery("delete from E2"));
+		context.performGenericQuery(new EJBQLQuery("delete from E5"));
+
+		context.performGenericQuery(new SQLTemplate(E3.class, "INSERT INTO utest.e2 (id, name) values (1, 'xxx')"));
+		context.performGenericQuery(new SQLTemplate(E3.class, "INSERT INTO utest.e5 (id, name) values (2, 'yyy')"));
+		context.performGenericQuery(new SQLTemplate(E3.class, "INSERT INTO utest.e3 (id, name) values (3, 'zzz')"));
+	}
+
+	@Test
+	public void testConnect_QueryPerTargetEntity() {
+
+		ObjectContext context = runtime.newContext();
+		E3 e3 = Cayenne.objectForPK(context, E3.class, 3);
+		ObjEntity entity = context.getEntityResolver().getObjEntity(E3.class);
+
+		Map<String, Object> relatedIds = new HashMap<>();
+		relatedIds.put(E3.E2.getName(), 1);
+		relatedIds.put(E3.E5.getName(), 2);
+
+		SqlCapture capture = SqlCapture.start();
+		new BatchRelatedObjectResolver().connect(e3, entity, relatedIds);
+		List<String> statements = capture.stop();
+
+		assertEquals(1, count(statements, "FROM UTEST.E2"));
+		assertEquals(1, count(statements, "FROM UTEST.E5"));
+
+		assertEquals(1, Cayenne.intPKForObject(e3.getE2()));
+		assertEquals(2, Cayenne.intPKForObject(e3.getE5()));
+	}
+
+	private static int count(List<String> statements, String fragment) {
+		int count = 0;
+		for (String statement : statements) {
+			if (statement.toUpperCase().contains(fragment)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+}
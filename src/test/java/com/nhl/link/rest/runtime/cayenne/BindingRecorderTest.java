@@ -0,0 +1,47 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+
+import org.junit.Test;
+
+public class BindingRecorderTest {
+
+	@Test
+	public void testToTemplate() {
+		assertEquals("SELECT t0.id FROM e2 t0 WHERE t0.name = #bind($p1) AND t0.id > #bind($p2)",
+				BindingRecorder.toTemplate("SELECT t0.id FROM e2 t0 WHERE t0.name = ? AND t0.id > ?"));
+	}
+
+	@Test
+	public void testToTemplate_Literals() {
+		assertEquals("SELECT t0.id FROM e2 t0 WHERE t0.name = '?' AND t0.id > #bind($p1)",
+				BindingRecorder.toTemplate("SELECT t0.id FROM e2 t0 WHERE t0.name = '?' AND t0.id > ?"));
+	}
+
+	@Test
+	public void testStatement() throws Exception {
+
+		BindingRecorder recorder = new BindingRecorder();
+		PreparedStatement statement = recorder.statement();
+
+		statement.setString(1, "xyz");
+		statement.setInt(2, 5);
+		statement.setNull(3, Types.VARCHAR);
+
+		assertEquals(3, recorder.getParameters().size());
+		assertEquals("xyz", recorder.getParameters().get("p1"));
+		assertEquals(5, recorder.getParameters().get("p2"));
+		assertTrue(recorder.getParameters().containsKey("p3"));
+		assertNull(recorder.getParameters().get("p3"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testStatement_Execute() throws Exception {
+		new BindingRecorder().statement().executeQuery();
+	}
+}
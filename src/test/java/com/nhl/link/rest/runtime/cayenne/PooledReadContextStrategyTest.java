@@ -0,0 +1,43 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.apache.cayenne.ObjectContext;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+import com.nhl.link.rest.unit.cayenne.E1;
+
+public class PooledReadContextStrategyTest extends TestWithCayenneMapping {
+
+	@Test
+	public void testReadContext_RoundRobin() {
+		PooledReadContextStrategy strategy = new PooledReadContextStrategy(runtime, 2, 0, 0);
+
+		ObjectContext c1 = strategy.readContext();
+		ObjectContext c2 = strategy.readContext();
+		assertNotSame(c1, c2);
+
+		assertSame(c1, strategy.readContext());
+		assertSame(c2, strategy.readContext());
+	}
+
+	@Test
+	public void testReadContext_MaxObjects() {
+		PooledReadContextStrategy strategy = new PooledReadContextStrategy(runtime, 1, 1, 0);
+
+		ObjectContext c1 = strategy.readContext();
+		c1.newObject(E1.class);
+		assertSame(c1, strategy.readContext());
+		assertEquals(1, strategy.getRegisteredObjectsCount());
+
+		c1.newObject(E1.class);
+		assertEquals(2, strategy.getRegisteredObjectsCount());
+
+		ObjectContext c2 = strategy.readContext();
+		assertNotSame(c1, c2);
+		assertEquals(0, strategy.getRegisteredObjectsCount());
+	}
+}
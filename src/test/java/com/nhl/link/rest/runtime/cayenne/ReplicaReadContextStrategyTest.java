@@ -0,0 +1,309 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+import javax.ws.rs.core.UriInfo;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.DataChannelFilter;
+import org.apache.cayenne.DataChannelFilterChain;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.QueryResponse;
+import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.server.DataSourceFactory;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.graph.GraphDiff;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.query.SelectQuery;
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.encoder.EncoderFilter;
+import com.nhl.link.rest.runtime.cayenne.ReplicaReadContextStrategy.Selection;
+import com.nhl.link.rest.runtime.encoder.AttributeEncoderFactory;
+import com.nhl.link.rest.runtime.encoder.EncoderService;
+import com.nhl.link.rest.runtime.encoder.IEncoderService;
+import com.nhl.link.rest.runtime.encoder.IStringConverterFactory;
+import com.nhl.link.rest.runtime.parser.IRequestParser;
+import com.nhl.link.rest.runtime.semantics.RelationshipMapper;
+import com.nhl.link.rest.unit.DerbyManager;
+import com.nhl.link.rest.unit.cayenne.E2;
+
+public class ReplicaReadContextStrategyTest {
+
+	private static final String[] LOCATIONS = { "target/derby-primary", "target/derby-replica1",
+			"target/derby-replica2" };
+
+	private static DerbyManager derbyAssembly;
+
+	private ServerRuntime primary;
+	private ServerRuntime replica1;
+	private ServerRuntime replica2;
+
+	@BeforeClass
+	public static void setUpClass() {
+		derbyAssembly = new DerbyManager(LOCATIONS);
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+
+		// Derby shutdown is JVM-wide, so this stops all the DBs
+		derbyAssembly.shutdown();
+		derbyAssembly = null;
+	}
+
+	@Before
+	public void setUp() {
+		primary = runtime(LOCATIONS[0]);
+		replica1 = runtime(LOCATIONS[1]);
+		replica2 = runtime(LOCATIONS[2]);
+
+		// each DB has different data, as if replication hasn't happened yet
+		execute(primary, "INSERT INTO utest.e2 (id, name) values (1, 'primary')");
+		execute(replica1, "INSERT INTO utest.e2 (id, name) values (1, 'replica1')");
+		execute(replica2, "INSERT INTO utest.e2 (id, name) values (1, 'replica2')");
+	}
+
+	@After
+	public void tearDown() {
+		for (ServerRuntime r : Arrays.asList(primary, replica1, replica2)) {
+			execute(r, "DELETE FROM utest.e2");
+			r.shutdown();
+		}
+	}
+
+	@Test
+	public void testReadContext_RoundRobin() {
+		ReplicaReadContextStrategy strategy = new ReplicaReadContextStrategy(primary, Arrays.asList(replica1,
+				replica2), Selection.ROUND_ROBIN, 0);
+
+		assertEquals("replica1", readName(strategy.readContext()));
+		assertEquals("replica2", readName(strategy.readContext()));
+		assertEquals("replica1", readName(strategy.readContext()));
+	}
+
+	@Test
+	public void testReadContext_LeastLoaded() {
+		ReplicaReadContextStrategy strategy = new ReplicaReadContextStrategy(primary, Arrays.asList(replica1,
+				replica2), Selection.LEAST_LOADED, 0);
+
+		// with no queries in progress, the replicas are used in turn
+		assertSame(replica1.getChannel(), strategy.readContext().getChannel());
+		assertSame(replica2.getChannel(), strategy.readContext().getChannel());
+
+		assertEquals("replica1", readName(strategy.readContext()));
+		assertArrayEquals(new int[] { 0, 0 }, strategy.getActiveQueries());
+	}
+
+	@Test
+	public void testReadContext_LeastLoaded_Busy() throws Exception {
+
+		// added before the strategy filters, so that it is the innermost
+		// filter, and a blocked query is counted as active
+		BlockingFilter blocking = new BlockingFilter();
+		replica1.getDataDomain().addFilter(blocking);
+
+		ReplicaReadContextStrategy strategy = new ReplicaReadContextStrategy(primary, Arrays.asList(replica1,
+				replica2), Selection.LEAST_LOADED, 0);
+
+		final ObjectContext busyContext = strategy.readContext();
+		assertSame(replica1.getChannel(), busyContext.getChannel());
+
+		blocking.armed = true;
+		FutureTask<String> busyRead = new FutureTask<>(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return readName(busyContext);
+			}
+		});
+		new Thread(busyRead).start();
+
+		try {
+			assertTrue(blocking.entered.await(5, TimeUnit.SECONDS));
+			assertArrayEquals(new int[] { 1, 0 }, strategy.getActiveQueries());
+
+			// replica1 is next in turn, but is busy
+			assertEquals("replica2", readName(strategy.readContext()));
+			assertEquals("replica2", readName(strategy.readContext()));
+		} finally {
+			blocking.released.countDown();
+		}
+
+		assertEquals("replica1", busyRead.get(5, TimeUnit.SECONDS));
+		assertArrayEquals(new int[] { 0, 0 }, strategy.getActiveQueries());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSelect_CayennePersister() {
+		ReplicaReadContextStrategy strategy = new ReplicaReadContextStrategy(primary, Arrays.asList(replica1,
+				replica2), Selection.ROUND_ROBIN, 0);
+
+		CayennePersister persister = new CayennePersister(primary, strategy);
+
+		IRequestParser requestParser = mock(IRequestParser.class);
+		when(requestParser.parseSelect(any(DataResponse.class), any(UriInfo.class), anyString())).thenAnswer(
+				new Answer<DataResponse<E2>>() {
+
+					@Override
+					public DataResponse<E2> answer(InvocationOnMock invocation) throws Throwable {
+						DataResponse<E2> response = (DataResponse<E2>) invocation.getArguments()[0];
+						return response.withClientEntity(new ClientEntity<E2>(E2.class, primary.getChannel()
+								.getEntityResolver().getObjEntity(E2.class)));
+					}
+				});
+
+		IEncoderService encoderService = new EncoderService(Collections.<EncoderFilter> emptyList(),
+				new AttributeEncoderFactory(), mock(IStringConverterFactory.class), new RelationshipMapper());
+
+		assertEquals("replica1", selectName(new CayenneSelectBuilder<>(E2.class, persister, encoderService,
+				requestParser)));
+		assertEquals("replica2", selectName(new CayenneSelectBuilder<>(E2.class, persister, encoderService,
+				requestParser)));
+
+		// writes go to the primary
+		ObjectContext context = persister.newContext();
+		List<E2> objects = context.performQuery(new SelectQuery<E2>(E2.class));
+		objects.get(0).setName("primary_updated");
+		context.commitChanges();
+
+		assertEquals("primary_updated", readName(primary.newContext()));
+		assertEquals("replica1", selectName(new CayenneSelectBuilder<>(E2.class, persister, encoderService,
+				requestParser)));
+	}
+
+	@Test
+	public void testReadContext_ReadYourWrites() {
+		ReplicaReadContextStrategy strategy = new ReplicaReadContextStrategy(primary, Arrays.asList(replica1,
+				replica2), Selection.ROUND_ROBIN, 60000);
+
+		assertEquals("replica1", readName(strategy.readContext()));
+
+		update(primary, "primary_updated");
+
+		assertTrue(strategy.isInReadYourWritesWindow());
+		assertEquals("primary_updated", readName(strategy.readContext()));
+	}
+
+	@Test
+	public void testReadContext_NoWindow() {
+		ReplicaReadContextStrategy strategy = new ReplicaReadContextStrategy(primary, Arrays.asList(replica1,
+				replica2), Selection.ROUND_ROBIN, 0);
+
+		update(primary, "primary_updated");
+
+		assertEquals("replica1", readName(strategy.readContext()));
+	}
+
+	private static String readName(ObjectContext context) {
+		List<E2> objects = context.performQuery(new SelectQuery<E2>(E2.class));
+		assertEquals(1, objects.size());
+		return objects.get(0).getName();
+	}
+
+	private static String selectName(CayenneSelectBuilder<E2> builder) {
+		List<E2> objects = builder.select().getObjects();
+		assertEquals(1, objects.size());
+		return objects.get(0).getName();
+	}
+
+	private static void update(ServerRuntime runtime, String name) {
+		ObjectContext context = runtime.newContext();
+		List<E2> objects = context.performQuery(new SelectQuery<E2>(E2.class));
+		objects.get(0).setName(name);
+		context.commitChanges();
+	}
+
+	private static void execute(ServerRuntime runtime, String sql) {
+		runtime.newContext().performGenericQuery(new SQLTemplate(E2.class, sql));
+	}
+
+	/**
+	 * Holds a single query in progress until released.
+	 */
+	private static class BlockingFilter implements DataChannelFilter {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch released = new CountDownLatch(1);
+		volatile boolean armed;
+
+		@Override
+		public void init(DataChannel channel) {
+			// noop
+		}
+
+		@Override
+		public QueryResponse onQuery(ObjectContext originatingContext, Query query,
+				DataChannelFilterChain filterChain) {
+
+			if (armed) {
+				armed = false;
+				entered.countDown();
+
+				try {
+					released.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+
+			return filterChain.onQuery(originatingContext, query);
+		}
+
+		@Override
+		public GraphDiff onSync(ObjectContext originatingContext, GraphDiff changes, int syncType,
+				DataChannelFilterChain filterChain) {
+			return filterChain.onSync(originatingContext, changes, syncType);
+		}
+	}
+
+	private static ServerRuntime runtime(final String location) {
+
+		Module module = new Module() {
+
+			@Override
+			public void configure(Binder binder) {
+				binder.bind(DataSourceFactory.class).toInstance(new DataSourceFactory() {
+
+					@Override
+					public DataSource getDataSource(DataNodeDescriptor nodeDescriptor) {
+						EmbeddedDataSource dataSource = new EmbeddedDataSource();
+						dataSource.setDatabaseName(location);
+						dataSource.setCreateDatabase("create");
+						return dataSource;
+					}
+				});
+			}
+		};
+
+		return new ServerRuntime("cayenne-linkrest-tests.xml", module);
+	}
+}
@@ -0,0 +1,44 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RowNumberLimiterTest {
+
+	@Test
+	public void testRankedSql() {
+		assertEquals("SELECT lr_ranked.id FROM (SELECT t0.id, ROW_NUMBER() OVER (PARTITION BY t0.e2_id "
+				+ "ORDER BY t0.name DESC, t0.id) lr_rn FROM utest.e3 t0 WHERE t0.e2_id IN (#bind($p1), #bind($p2))) "
+				+ "lr_ranked WHERE lr_ranked.lr_rn <= 3", RowNumberLimiter.rankedSql(
+				"SELECT t0.id FROM utest.e3 t0 WHERE t0.e2_id IN (#bind($p1), #bind($p2)) ORDER BY t0.name DESC",
+				"t0.e2_id", "id", 3));
+	}
+
+	@Test
+	public void testRankedSql_NoOrderings() {
+		assertEquals("SELECT lr_ranked.id FROM (SELECT t0.id, ROW_NUMBER() OVER (PARTITION BY t0.e2_id "
+				+ "ORDER BY t0.id) lr_rn FROM utest.e3 t0 WHERE t0.e2_id IN (#bind($p1))) "
+				+ "lr_ranked WHERE lr_ranked.lr_rn <= 1", RowNumberLimiter.rankedSql(
+				"SELECT t0.id FROM utest.e3 t0 WHERE t0.e2_id IN (#bind($p1))", "t0.e2_id", "id", 1));
+	}
+
+	@Test
+	public void testRankedSql_Distinct() {
+		assertNull(RowNumberLimiter.rankedSql("SELECT DISTINCT t0.id FROM utest.e3 t0 JOIN utest.e5 t1 "
+				+ "ON (t0.e5_id = t1.id) WHERE t1.name = #bind($p1)", "t0.e2_id", "id", 1));
+	}
+
+	@Test
+	public void testSupportsRowNumber() {
+		assertTrue(RowNumberLimiter.supportsRowNumber("PostgreSQL"));
+		assertTrue(RowNumberLimiter.supportsRowNumber("Microsoft SQL Server"));
+		assertTrue(RowNumberLimiter.supportsRowNumber("DB2/LINUXX8664"));
+		assertFalse(RowNumberLimiter.supportsRowNumber("Apache Derby"));
+		assertFalse(RowNumberLimiter.supportsRowNumber("MySQL"));
+		assertFalse(RowNumberLimiter.supportsRowNumber((String) null));
+	}
+}
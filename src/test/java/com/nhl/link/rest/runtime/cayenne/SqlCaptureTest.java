@@ -0,0 +1,69 @@
+package com.nhl.link.rest.runtime.cayenne;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.log.JdbcEventLogger;
+import org.apache.cayenne.query.SelectQuery;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.DerbyManager;
+import com.nhl.link.rest.unit.cayenne.E2;
+
+public class SqlCaptureTest {
+
+	private static DerbyManager derbyAssembly;
+	private static ServerRuntime runtime;
+
+	@BeforeClass
+	public static void setUpClass() {
+		derbyAssembly = new DerbyManager("target/derby");
+		runtime = new ServerRuntime("cayenne-linkrest-tests.xml");
+		SqlCapture.install(runtime);
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		runtime.shutdown();
+		runtime = null;
+
+		derbyAssembly.shutdown();
+		derbyAssembly = null;
+	}
+
+	@Test
+	public void testStop() {
+
+		SqlCapture capture = SqlCapture.start();
+		runtime.newContext().performQuery(new SelectQuery<E2>(E2.class));
+		List<String> statements = capture.stop();
+
+		assertEquals(1, statements.size());
+		assertTrue(statements.get(0), statements.get(0).toUpperCase().contains("FROM UTEST.E2"));
+
+		// nothing is captured once stopped
+		runtime.newContext().performQuery(new SelectQuery<E2>(E2.class));
+		assertEquals(1, statements.size());
+	}
+
+	@Test
+	public void testInstall_Twice() {
+
+		DataNode node = runtime.getDataDomain().getDataNodes().iterator().next();
+		JdbcEventLogger logger = node.getJdbcEventLogger();
+
+		SqlCapture.install(runtime);
+		assertSame(logger, node.getJdbcEventLogger());
+
+		SqlCapture capture = SqlCapture.start();
+		runtime.newContext().performQuery(new SelectQuery<E2>(E2.class));
+		assertEquals(1, capture.stop().size());
+	}
+}
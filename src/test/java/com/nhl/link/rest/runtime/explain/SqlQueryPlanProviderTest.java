@@ -0,0 +1,66 @@
+package com.nhl.link.rest.runtime.explain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.server.ServerRuntime;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.query.SelectQuery;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.DerbyManager;
+import com.nhl.link.rest.unit.cayenne.E2;
+
+public class SqlQueryPlanProviderTest {
+
+	private static DerbyManager derbyAssembly;
+	private static ServerRuntime runtime;
+
+	@BeforeClass
+	public static void setUpClass() {
+		derbyAssembly = new DerbyManager("target/derby");
+		runtime = new ServerRuntime("cayenne-linkrest-tests.xml");
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		runtime.shutdown();
+		runtime = null;
+
+		derbyAssembly.shutdown();
+		derbyAssembly = null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testQueryPlan() {
+
+		ObjectContext context = runtime.newContext();
+		context.performGenericQuery(new SQLTemplate(E2.class,
+				"INSERT INTO utest.e2 (id, name) values (1, 'a'), (2, 'b')"));
+
+		try {
+			SelectQuery<E2> query = new SelectQuery<E2>(E2.class, ExpressionFactory.matchExp(E2.NAME.getName(), "b"));
+
+			// Derby has no EXPLAIN command, so running the query itself with
+			// an empty prefix checks the translation and the bindings
+			Map<String, Object> plan = (Map<String, Object>) new SqlQueryPlanProvider("").queryPlan(context, query);
+
+			String sql = (String) plan.get("sql");
+			assertTrue(sql, sql.toUpperCase().contains("FROM UTEST.E2"));
+
+			List<Map<String, Object>> rows = (List<Map<String, Object>>) plan.get("rows");
+			assertEquals(1, rows.size());
+			assertEquals(2, rows.get(0).get("ID"));
+		} finally {
+			context.performGenericQuery(new SQLTemplate(E2.class, "DELETE FROM utest.e2"));
+		}
+	}
+}
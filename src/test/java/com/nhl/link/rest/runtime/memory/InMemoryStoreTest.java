@@ -0,0 +1,249 @@
+package com.nhl.link.rest.runtime.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SortOrder;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.unit.pojo.model.P6;
+
+public class InMemoryStoreTest {
+
+	private InMemoryStore<P6> store;
+
+	@Before
+	public void before() {
+		store = InMemoryStore.forType(P6.class, "stringId").sortedIndex("intProp");
+
+		store.put(p6("a", 5));
+		store.put(p6("b", 3));
+		store.put(p6("c", 8));
+		store.put(p6("d", 3));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testIndex_AfterPut() {
+		store.hashIndex("stringId");
+	}
+
+	@Test
+	public void testGet() {
+		assertEquals(5, store.get("a").getIntProp());
+		assertNull(store.get("x"));
+	}
+
+	@Test
+	public void testSelect_EqualTo() {
+		assertEquals(Arrays.asList("b", "d"), ids(store.select(Expression.fromString("intProp = 3"), sortById())));
+		assertEquals(Collections.emptyList(), ids(store.select(Expression.fromString("intProp = 4"), null)));
+	}
+
+	@Test
+	public void testSelect_Range() {
+		assertEquals(Arrays.asList("a", "c"), ids(store.select(Expression.fromString("intProp > 3"), sortById())));
+		assertEquals(Arrays.asList("a", "b", "d"),
+				ids(store.select(Expression.fromString("intProp <= 5"), sortById())));
+		assertEquals(Arrays.asList("a", "c"),
+				ids(store.select(Expression.fromString("intProp between 4 and 8"), sortById())));
+	}
+
+	@Test
+	public void testSelect_In() {
+		assertEquals(Arrays.asList("b", "c", "d"),
+				ids(store.select(Expression.fromString("intProp in (3, 8)"), sortById())));
+	}
+
+	@Test
+	public void testSelect_AndOr() {
+		assertEquals(Arrays.asList("d"),
+				ids(store.select(Expression.fromString("intProp = 3 and stringId = 'd'"), sortById())));
+		assertEquals(Arrays.asList("a", "b", "d"),
+				ids(store.select(Expression.fromString("intProp = 3 or intProp = 5"), sortById())));
+
+		// one of the conditions is not indexed
+		assertEquals(Arrays.asList("b", "c"),
+				ids(store.select(Expression.fromString("intProp = 8 or stringId = 'b'"), sortById())));
+	}
+
+	@Test
+	public void testSelect_Ordering() {
+
+		List<Ordering> desc = Arrays.asList(new Ordering("intProp", SortOrder.DESCENDING), new Ordering("stringId",
+				SortOrder.ASCENDING));
+		assertEquals(Arrays.asList("c", "a", "b", "d"), ids(store.select(null, desc)));
+
+		List<Ordering> asc = Arrays.asList(new Ordering("intProp", SortOrder.ASCENDING), new Ordering("stringId",
+				SortOrder.DESCENDING));
+		assertEquals(Arrays.asList("d", "b", "a"), ids(store.select(Expression.fromString("stringId != 'c'"), asc)));
+	}
+
+	@Test
+	public void testUpdate() {
+
+		P6 b = store.get("b");
+		P6 updated = store.update("b", Collections.<String, Object> singletonMap("intProp", 10));
+
+		// copy on write
+		assertNotSame(b, updated);
+		assertSame(updated, store.get("b"));
+		assertEquals(3, b.getIntProp());
+		assertEquals(10, updated.getIntProp());
+		assertEquals("b", updated.getStringId());
+
+		assertNull(store.update("x", Collections.<String, Object> singletonMap("intProp", 10)));
+
+		assertEquals(Arrays.asList("d"), ids(store.select(Expression.fromString("intProp = 3"), sortById())));
+		assertEquals(Arrays.asList("b"), ids(store.select(Expression.fromString("intProp > 8"), sortById())));
+	}
+
+	@Test
+	public void testUpdate_Id() {
+
+		P6 b = store.get("b");
+
+		try {
+			store.update("b", Collections.<String, Object> singletonMap("stringId", "x"));
+			fail("Changed the id");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		assertSame(b, store.get("b"));
+		assertNull(store.get("x"));
+		assertEquals(Arrays.asList("b", "d"), ids(store.select(Expression.fromString("intProp = 3"), sortById())));
+	}
+
+	@Test
+	public void testUpdate_ConcurrentReaders() throws Exception {
+
+		final int updates = 2000;
+		final AtomicBoolean done = new AtomicBoolean();
+		final AtomicReference<String> failure = new AtomicReference<>();
+
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 1; i <= updates; i++) {
+					store.update("a", Collections.<String, Object> singletonMap("intProp", 100 + i));
+				}
+
+				done.set(true);
+			}
+		};
+
+		Thread[] readers = new Thread[3];
+		for (int i = 0; i < readers.length; i++) {
+			readers[i] = new Thread() {
+				@Override
+				public void run() {
+					while (!done.get() && failure.get() == null) {
+
+						// an object returned by a read must not change under
+						// the reader
+						P6 a = store.get("a");
+						int value = a.getIntProp();
+						Thread.yield();
+						if (a.getIntProp() != value) {
+							failure.set("Object changed after read: " + value + " -> " + a.getIntProp());
+						}
+
+						for (P6 o : store.select(Expression.fromString("intProp > 100"), null)) {
+							if (o.getIntProp() <= 100) {
+								failure.set("Object doesn't match the qualifier: " + o.getIntProp());
+							}
+						}
+					}
+				}
+			};
+		}
+
+		for (Thread r : readers) {
+			r.start();
+		}
+		writer.start();
+
+		writer.join(10000);
+		for (Thread r : readers) {
+			r.join(10000);
+		}
+
+		assertNull(failure.get());
+		assertEquals(100 + updates, store.get("a").getIntProp());
+		assertEquals(Arrays.asList("a"), ids(store.select(Expression.fromString("intProp > 100"), null)));
+	}
+
+	@Test
+	public void testPut_Replace() {
+
+		store.put(p6("a", 3));
+
+		assertEquals(4, store.size());
+		assertEquals(Arrays.asList("a", "b", "d"),
+				ids(store.select(Expression.fromString("intProp = 3"), sortById())));
+		assertEquals(Arrays.asList("c"), ids(store.select(Expression.fromString("intProp > 3"), sortById())));
+	}
+
+	@Test
+	public void testRemove() {
+
+		assertEquals("b", store.remove("b").getStringId());
+		assertNull(store.remove("b"));
+
+		assertEquals(3, store.size());
+		assertEquals(Arrays.asList("d"), ids(store.select(Expression.fromString("intProp = 3"), sortById())));
+	}
+
+	@Test
+	public void testSortedIndex_Range() {
+
+		SortedIndex index = new SortedIndex("intProp");
+		index.update(1L, p6("a", 5));
+		index.update(2L, p6("b", 3));
+		index.update(3L, p6("c", 8));
+
+		assertEquals(Arrays.<Object> asList(2L, 1L), index.range(null, false, 5, true));
+		assertEquals(Arrays.<Object> asList(1L), index.range(3, false, 8, false));
+		assertEquals(Collections.emptyList(), index.range(8, true, 3, true));
+		assertEquals(Arrays.<Object> asList(3L, 1L, 2L), index.orderedIds(false));
+
+		// can't be converted to the index type
+		assertNull(index.range("x", true, null, false));
+
+		index.update(1L, null);
+		assertEquals(Arrays.<Object> asList(2L, 3L), index.orderedIds(true));
+	}
+
+	private static List<Ordering> sortById() {
+		return Collections.singletonList(new Ordering("stringId", SortOrder.ASCENDING));
+	}
+
+	private static List<String> ids(List<P6> objects) {
+		List<String> ids = new ArrayList<>(objects.size());
+		for (P6 o : objects) {
+			ids.add(o.getStringId());
+		}
+
+		return ids;
+	}
+
+	private static P6 p6(String id, int intProp) {
+		P6 o = new P6();
+		o.setStringId(id);
+		o.setIntProp(intProp);
+		return o;
+	}
+}
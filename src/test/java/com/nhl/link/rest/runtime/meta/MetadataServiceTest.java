@@ -0,0 +1,55 @@
+package com.nhl.link.rest.runtime.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.SelectQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.nhl.link.rest.runtime.cayenne.ICayennePersister;
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.pojo.model.P1;
+
+public class MetadataServiceTest extends TestWithCayenneMapping {
+
+	private MetadataService metadataService;
+
+	@Before
+	public void setUp() {
+		ICayennePersister cayenneService = mock(ICayennePersister.class);
+		when(cayenneService.entityResolver()).thenReturn(runtime.getChannel().getEntityResolver());
+
+		DataMap map = DataMapBuilder.newBuilder("_t_").addEntities(P1.class).toDataMap();
+		metadataService = new MetadataService(Collections.singletonList(map), cayenneService);
+	}
+
+	@Test
+	public void testGetObjEntity_Class() {
+
+		ObjEntity e2 = metadataService.getObjEntity(E2.class);
+		assertEquals("E2", e2.getName());
+		assertSame(e2, metadataService.getObjEntity(E2.class));
+
+		assertEquals("P1", metadataService.getObjEntity(P1.class).getName());
+		assertNull(metadataService.getObjEntity(String.class));
+	}
+
+	@Test
+	public void testGetObjEntity_Select() {
+
+		ObjEntity e2 = metadataService.getObjEntity(E2.class);
+
+		assertSame(e2, metadataService.getObjEntity(new SelectQuery<E2>(E2.class)));
+		assertSame(e2, metadataService.getObjEntity(new SelectQuery<Object>("E2")));
+		assertSame(e2, metadataService.getObjEntity(new SelectQuery<Object>(e2)));
+	}
+}
@@ -4,6 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.cayenne.exp.Expression;
 import org.junit.Before;
 import org.junit.Test;
@@ -22,17 +26,26 @@ public class FilterProcessorTest extends TestWithCayenneMapping {
 
 	private ClientEntity<E4> e4Descriptor;
 	private FilterProcessor processor;
+	private RequestJsonParser jsonParser;
+	private PathCache pathCache;
 
 	@Before
 	public void setUp() {
 
 		JsonFactory jsonFactory = new ObjectMapper().getJsonFactory();
-		RequestJsonParser jsonParser = new RequestJsonParser(jsonFactory);
+		this.jsonParser = new RequestJsonParser(jsonFactory);
 
-		PathCache pathCache = new PathCache();
+		this.pathCache = new PathCache();
 		e4Descriptor = getClientEntity(E4.class);
 
-		this.processor = new FilterProcessor(jsonParser, pathCache);
+		this.processor = new FilterProcessor(jsonParser, pathCache, new PrefixMatchResolver(
+				Collections.<String, PrefixMatch> emptyMap()));
+	}
+
+	private FilterProcessor processor(PrefixMatch cVarcharMatch) {
+		Map<String, PrefixMatch> matches = new HashMap<>();
+		matches.put(PrefixMatchResolver.key(E4.class.getName(), E4.C_VARCHAR.getName()), cVarcharMatch);
+		return new FilterProcessor(jsonParser, pathCache, new PrefixMatchResolver(matches));
 	}
 
 	@Test
@@ -79,4 +92,40 @@ public class FilterProcessorTest extends TestWithCayenneMapping {
 		assertEquals(E4.C_VARCHAR.isNull(), e4Descriptor.getQualifier());
 	}
 
+	@Test
+	public void testProcess_Like() {
+		processor(PrefixMatch.like()).process(e4Descriptor, "[{\"property\":\"cVarchar\",\"value\":\"x_z\"}]");
+		assertEquals(E4.C_VARCHAR.like("x\\_z%"), e4Descriptor.getQualifier());
+	}
+
+	@Test
+	public void testProcess_Range() {
+		processor(PrefixMatch.range()).process(e4Descriptor, "[{\"property\":\"cVarchar\",\"value\":\"x_z\"}]");
+		assertEquals(Expression.fromString("cVarchar >= 'x_z' and cVarchar < 'x_{'"), e4Descriptor.getQualifier());
+	}
+
+	@Test
+	public void testProcess_ShadowAttribute() {
+		processor(PrefixMatch.shadowAttribute("cVarcharUpper", true)).process(e4Descriptor,
+				"[{\"property\":\"cVarchar\",\"value\":\"xYz\"}]");
+		assertEquals(Expression.fromString("cVarcharUpper like 'XYZ%'"), e4Descriptor.getQualifier());
+	}
+
+	@Test
+	public void testProcess_OtherAttributesUseDefault() {
+		Map<String, PrefixMatch> matches = new HashMap<>();
+		matches.put(PrefixMatchResolver.key(E4.class.getName(), "cText"), PrefixMatch.range());
+		new FilterProcessor(jsonParser, pathCache, new PrefixMatchResolver(matches)).process(e4Descriptor,
+				"[{\"property\":\"cVarchar\",\"value\":\"xyz\"}]");
+
+		assertEquals(Expression.fromString("cVarchar likeIgnoreCase 'xyz%'"), e4Descriptor.getQualifier());
+	}
+
+	@Test
+	public void testUpperBound() {
+		assertEquals("ab", PrefixMatch.upperBound("aa"));
+		assertEquals("b", PrefixMatch.upperBound("a" + Character.MAX_VALUE));
+		assertNull(PrefixMatch.upperBound(""));
+		assertNull(PrefixMatch.upperBound("" + Character.MAX_VALUE));
+	}
 }
@@ -97,6 +97,39 @@ public class RequestParserTest extends TestWithCayenneMapping {
 		assertTrue(clientEntity.getRelationships().isEmpty());
 	}
 
+	@Test
+	public void testSelectRequest_IncludeRelatedId() {
+
+		@SuppressWarnings("unchecked")
+		MultivaluedMap<String, String> params = mock(MultivaluedMap.class);
+		when(params.get(RequestParams.include.name())).thenReturn(Arrays.asList("id", "e2_id"));
+
+		UriInfo urlInfo = mock(UriInfo.class);
+		when(urlInfo.getQueryParameters()).thenReturn(params);
+
+		DataResponse<E3> dataRequest = DataResponse.forType(E3.class);
+		parser.parseSelect(dataRequest, urlInfo, null);
+
+		ClientEntity<E3> clientEntity = dataRequest.getEntity();
+		assertTrue(clientEntity.isIdIncluded());
+		assertTrue(clientEntity.getAttributes().isEmpty());
+		assertTrue(clientEntity.getRelationships().isEmpty());
+		assertEquals(Collections.singleton(E3.E2.getName()), clientEntity.getRelatedIds());
+	}
+
+	@Test(expected = LinkRestException.class)
+	public void testSelectRequest_IncludeRelatedId_ToMany() {
+
+		@SuppressWarnings("unchecked")
+		MultivaluedMap<String, String> params = mock(MultivaluedMap.class);
+		when(params.get(RequestParams.include.name())).thenReturn(Arrays.asList("e3s_id"));
+
+		UriInfo urlInfo = mock(UriInfo.class);
+		when(urlInfo.getQueryParameters()).thenReturn(params);
+
+		parser.parseSelect(DataResponse.forType(E2.class), urlInfo, null);
+	}
+
 	@Test
 	public void testSelectRequest_IncludeAttrs_AsArray() {
 
@@ -643,4 +676,34 @@ public class RequestParserTest extends TestWithCayenneMapping {
 		parser.parseSelect(dataRequest, urlInfo, null);
 	}
 
+	@Test
+	public void testSelectRequest_Count() {
+
+		@SuppressWarnings("unchecked")
+		MultivaluedMap<String, String> params = mock(MultivaluedMap.class);
+		when(params.getFirst(RequestParams.count.name())).thenReturn("approximate");
+
+		UriInfo urlInfo = mock(UriInfo.class);
+		when(urlInfo.getQueryParameters()).thenReturn(params);
+
+		DataResponse<E2> dataRequest = DataResponse.forType(E2.class);
+		parser.parseSelect(dataRequest, urlInfo, null);
+
+		assertTrue(dataRequest.isCountOnly());
+		assertTrue(dataRequest.isApproximateCount());
+	}
+
+	@Test(expected = LinkRestException.class)
+	public void testSelectRequest_Count_Invalid() {
+
+		@SuppressWarnings("unchecked")
+		MultivaluedMap<String, String> params = mock(MultivaluedMap.class);
+		when(params.getFirst(RequestParams.count.name())).thenReturn("xyz");
+
+		UriInfo urlInfo = mock(UriInfo.class);
+		when(urlInfo.getQueryParameters()).thenReturn(params);
+
+		DataResponse<E2> dataRequest = DataResponse.forType(E2.class);
+		parser.parseSelect(dataRequest, urlInfo, null);
+	}
 }
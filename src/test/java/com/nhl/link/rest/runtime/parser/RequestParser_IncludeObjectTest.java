@@ -68,6 +68,24 @@ public class RequestParser_IncludeObjectTest extends TestWithCayenneMapping {
 		assertTrue(clientEntity.getRelationships().containsKey(E2.E3S.getName()));
 	}
 
+	@Test
+	public void testToDataRequest_IncludeObject_Limit() {
+
+		@SuppressWarnings("unchecked")
+		MultivaluedMap<String, String> params = mock(MultivaluedMap.class);
+		when(params.get(RequestParams.include.name())).thenReturn(Arrays.asList("{\"path\":\"e3s\",\"limit\":3}"));
+
+		UriInfo urlInfo = mock(UriInfo.class);
+		when(urlInfo.getQueryParameters()).thenReturn(params);
+
+		DataResponse<E2> dataRequest = DataResponse.forType(E2.class);
+		parser.parseSelect(dataRequest, urlInfo, null);
+
+		ClientEntity<E2> clientEntity = dataRequest.getEntity();
+		assertEquals(0, clientEntity.getLimit());
+		assertEquals(3, clientEntity.getRelationships().get(E2.E3S.getName()).getLimit());
+	}
+
 	@Test
 	public void testToDataRequest_IncludeObject_MapBy() {
 
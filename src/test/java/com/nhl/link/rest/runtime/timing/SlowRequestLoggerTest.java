@@ -0,0 +1,78 @@
+package com.nhl.link.rest.runtime.timing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.SortOrder;
+import org.junit.Test;
+
+import com.nhl.link.rest.ClientEntity;
+import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.unit.TestWithCayenneMapping;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class SlowRequestLoggerTest extends TestWithCayenneMapping {
+
+	@Test
+	public void testDescribe() {
+
+		ClientEntity<E2> entity = getClientEntity(E2.class);
+		entity.setIdIncluded(true);
+		entity.getAttributes().add(E2.NAME.getName());
+		entity.andQualifier(ExpressionFactory.matchExp(E2.NAME.getName(), "a"));
+		entity.getOrderings().add(new Ordering(E2.NAME.getName(), SortOrder.DESCENDING));
+		entity.getRelationships().put(E2.E3S.getName(), getClientEntity(E3.class));
+
+		DataResponse<E2> response = DataResponse.forType(E2.class).withClientEntity(entity);
+		RequestTimings timings = response.getTimings();
+		timings.setEntityName("E2");
+		timings.setFetchNanos(5000000);
+
+		String message = new SlowRequestLogger(0).describe(timings);
+		assertTrue(message, message.startsWith("Slow request: E2, 5 ms (parse: 0, query: 0, fetch: 5,"));
+		assertTrue(message, message.contains("request: E2 {id, attributes: [name], qualifier: name"));
+		assertTrue(message, message.contains("orderings: name desc, e3s: E3 {attributes: []}}"));
+	}
+
+	@Test
+	public void testDescribe_Sql() {
+
+		RequestTimings timings = DataResponse.forType(E2.class).getTimings();
+		timings.addStatements(Arrays.asList("SELECT t0.id FROM utest.e2 t0", "SELECT t0.id FROM utest.e3 t0"));
+
+		String message = new SlowRequestLogger(0).describe(timings);
+		assertTrue(message,
+				message.contains("\n  sql: SELECT t0.id FROM utest.e2 t0\n  sql: SELECT t0.id FROM utest.e3 t0"));
+	}
+
+	@Test
+	public void testRequestCompleted_RateLimit() {
+
+		SlowRequestLogger logger = new SlowRequestLogger(0, 1., 1);
+		RequestTimings timings = DataResponse.forType(E2.class).getTimings();
+
+		logger.requestCompleted(timings);
+		logger.requestCompleted(timings);
+		logger.requestCompleted(timings);
+
+		// the rate limit may have been reset if the calls span a second
+		// boundary
+		assertTrue(logger.getSuppressedCount() >= 1);
+	}
+
+	@Test
+	public void testRequestCompleted_BelowThreshold() {
+
+		SlowRequestLogger logger = new SlowRequestLogger(1000, 1., 0);
+		RequestTimings timings = DataResponse.forType(E2.class).getTimings();
+		timings.setFetchNanos(999000000);
+
+		logger.requestCompleted(timings);
+		assertEquals(0, logger.getSuppressedCount());
+	}
+}
@@ -0,0 +1,31 @@
+package com.nhl.link.rest.runtime.timing;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.UpdateResponse;
+import com.nhl.link.rest.unit.cayenne.E2;
+import com.nhl.link.rest.unit.cayenne.E3;
+
+public class TimingHistogramListenerTest {
+
+	@Test
+	public void testRequestCompleted_SkipsUpdates() {
+
+		TimingHistogramListener listener = new TimingHistogramListener();
+
+		RequestTimings select = DataResponse.forType(E2.class).getTimings();
+		select.setEntityName("E2");
+		listener.requestCompleted(select);
+
+		RequestTimings update = new UpdateResponse<>(E3.class).getTimings();
+		update.setEntityName("E3");
+		listener.requestCompleted(update);
+
+		assertNotNull(listener.getTimings("E2"));
+		assertNull(listener.getTimings("E3"));
+	}
+}
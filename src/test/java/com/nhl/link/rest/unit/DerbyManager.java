@@ -17,16 +17,18 @@ public class DerbyManager {
 		}
 	};
 
-	public DerbyManager(String location) {
+	public DerbyManager(String... locations) {
 
 		System.setProperty("derby.stream.error.field", DerbyManager.class.getName() + ".DEV_NULL");
 
-		File derbyDir = new File(location);
-		if (derbyDir.isDirectory()) {
-			try {
-				FileUtils.deleteDirectory(derbyDir);
-			} catch (IOException e) {
-				throw new RuntimeException(e);
+		for (String location : locations) {
+			File derbyDir = new File(location);
+			if (derbyDir.isDirectory()) {
+				try {
+					FileUtils.deleteDirectory(derbyDir);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
 			}
 		}
 	}
@@ -1,5 +1,9 @@
 package com.nhl.link.rest.unit.resource;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -13,7 +17,9 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.cayenne.query.SelectQuery;
 
 import com.nhl.link.rest.DataResponse;
+import com.nhl.link.rest.ExtendedSelectBuilder;
 import com.nhl.link.rest.SimpleResponse;
+import com.nhl.link.rest.runtime.BaseLinkRestService;
 import com.nhl.link.rest.runtime.ILinkRestService;
 import com.nhl.link.rest.runtime.LinkRestRuntime;
 import com.nhl.link.rest.unit.cayenne.E2;
@@ -30,6 +36,10 @@ public class LinkRestServiceResource {
 		return LinkRestRuntime.service(ILinkRestService.class, config);
 	}
 
+	private <T> ExtendedSelectBuilder<T> forExtendedSelect(Class<T> root) {
+		return (ExtendedSelectBuilder<T>) getLinkRestService().forSelect(root);
+	}
+
 	@GET
 	@Path("all")
 	public DataResponse<E4> getObjects(@Context UriInfo uriInfo) {
@@ -108,4 +118,53 @@ public class LinkRestServiceResource {
 	public DataResponse<E4> getE4(@Context UriInfo uriInfo) {
 		return getLinkRestService().select(SelectQuery.query(E4.class), uriInfo);
 	}
+
+	@GET
+	@Path("e4/projection")
+	public DataResponse<E4> getE4Projection(@Context UriInfo uriInfo) {
+		return forExtendedSelect(E4.class).with(uriInfo).withProjection().select();
+	}
+
+	@GET
+	@Path("e4/aggregate")
+	public DataResponse<E4> getE4Aggregate(@Context UriInfo uriInfo) {
+		return forExtendedSelect(E4.class).with(uriInfo).withAggregation().select();
+	}
+
+	@GET
+	@Path("e2/rows")
+	public DataResponse<E2> getE2Rows(@Context UriInfo uriInfo) {
+		return forExtendedSelect(E2.class).with(uriInfo).withDataRows().select();
+	}
+
+	@GET
+	@Path("e2/byids")
+	public DataResponse<E2> getE2ByIds(@Context UriInfo uriInfo) {
+		return ((BaseLinkRestService) getLinkRestService()).selectByIds(E2.class, Arrays.asList(3, 1, 5), uriInfo);
+	}
+
+	@GET
+	@Path("e2/byids/range")
+	public DataResponse<E2> getE2ByIdsRange(@Context UriInfo uriInfo) {
+
+		// more ids than fit in a single IN
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 2500; i > 0; i--) {
+			ids.add(i);
+		}
+
+		return forExtendedSelect(E2.class).with(uriInfo).byIds(ids).select();
+	}
+
+	@GET
+	@Path("e3/rows")
+	public DataResponse<E3> getE3Rows(@Context UriInfo uriInfo) {
+		return forExtendedSelect(E3.class).with(uriInfo).withDataRows().select();
+	}
+
+	@GET
+	@Path("e3/projection")
+	public DataResponse<E3> getE3Projection(@Context UriInfo uriInfo) {
+		return forExtendedSelect(E3.class).with(uriInfo).withProjection().select();
+	}
 }